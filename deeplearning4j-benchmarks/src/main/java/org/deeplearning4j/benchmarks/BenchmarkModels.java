@@ -0,0 +1,175 @@
+package org.deeplearning4j.benchmarks;
+
+import org.deeplearning4j.nn.api.OptimizationAlgorithm;
+import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.Updater;
+import org.deeplearning4j.nn.conf.inputs.InputType;
+import org.deeplearning4j.nn.conf.layers.*;
+import org.deeplearning4j.nn.weights.WeightInit;
+import org.nd4j.linalg.activations.Activation;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.lossfunctions.LossFunctions.LossFunction;
+
+import java.util.Random;
+
+/**
+ * Network configurations and synthetic data used by the JMH benchmarks.
+ * <p>
+ * Each {@link ModelType} is built both as a {@link MultiLayerConfiguration} and as an equivalent linear
+ * {@link ComputationGraphConfiguration}, so that the two network implementations can be compared on the same
+ * architecture. Input data is random: the benchmarks measure throughput and allocation, not accuracy.
+ */
+public class BenchmarkModels {
+
+    public static final int SEED = 12345;
+    public static final int N_CLASSES = 10;
+
+    public static final int DENSE_N_IN = 784;
+    public static final int CNN_HEIGHT = 28;
+    public static final int CNN_WIDTH = 28;
+    public static final int CNN_DEPTH = 1;
+    public static final int RNN_N_IN = 32;
+    public static final int RNN_TS_LENGTH = 50;
+
+    public enum ModelType {
+        DENSE, CNN, LSTM, BIDIRECTIONAL_LSTM, BATCH_NORM
+    }
+
+    private BenchmarkModels() {}
+
+    /**
+     * Layers (in order) for the given model type
+     */
+    public static Layer[] layers(ModelType type) {
+        switch (type) {
+            case DENSE:
+                return new Layer[] {new DenseLayer.Builder().nOut(512).activation(Activation.RELU).build(),
+                                new DenseLayer.Builder().nOut(256).activation(Activation.RELU).build(),
+                                new OutputLayer.Builder(LossFunction.MCXENT).nOut(N_CLASSES)
+                                                .activation(Activation.SOFTMAX).build()};
+            case CNN:
+                return new Layer[] {
+                                new ConvolutionLayer.Builder(5, 5).stride(1, 1).nOut(20)
+                                                .activation(Activation.IDENTITY).build(),
+                                new SubsamplingLayer.Builder(SubsamplingLayer.PoolingType.MAX).kernelSize(2, 2)
+                                                .stride(2, 2).build(),
+                                new ConvolutionLayer.Builder(5, 5).stride(1, 1).nOut(50)
+                                                .activation(Activation.IDENTITY).build(),
+                                new SubsamplingLayer.Builder(SubsamplingLayer.PoolingType.MAX).kernelSize(2, 2)
+                                                .stride(2, 2).build(),
+                                new DenseLayer.Builder().nOut(500).activation(Activation.RELU).build(),
+                                new OutputLayer.Builder(LossFunction.MCXENT).nOut(N_CLASSES)
+                                                .activation(Activation.SOFTMAX).build()};
+            case LSTM:
+                return new Layer[] {new GravesLSTM.Builder().nOut(128).activation(Activation.TANH).build(),
+                                new GravesLSTM.Builder().nOut(128).activation(Activation.TANH).build(),
+                                new RnnOutputLayer.Builder(LossFunction.MCXENT).nOut(N_CLASSES)
+                                                .activation(Activation.SOFTMAX).build()};
+            case BIDIRECTIONAL_LSTM:
+                return new Layer[] {
+                                new GravesBidirectionalLSTM.Builder().nOut(128).activation(Activation.TANH).build(),
+                                new RnnOutputLayer.Builder(LossFunction.MCXENT).nOut(N_CLASSES)
+                                                .activation(Activation.SOFTMAX).build()};
+            case BATCH_NORM:
+                return new Layer[] {
+                                new ConvolutionLayer.Builder(3, 3).nOut(32).activation(Activation.IDENTITY).build(),
+                                new BatchNormalization.Builder().build(),
+                                new ActivationLayer.Builder().activation(Activation.RELU).build(),
+                                new DenseLayer.Builder().nOut(256).activation(Activation.IDENTITY).build(),
+                                new BatchNormalization.Builder().build(),
+                                new ActivationLayer.Builder().activation(Activation.RELU).build(),
+                                new OutputLayer.Builder(LossFunction.MCXENT).nOut(N_CLASSES)
+                                                .activation(Activation.SOFTMAX).build()};
+            default:
+                throw new IllegalArgumentException("Unknown model type: " + type);
+        }
+    }
+
+    /**
+     * Input type of the first layer for the given model type
+     */
+    public static InputType inputType(ModelType type) {
+        switch (type) {
+            case DENSE:
+                return InputType.feedForward(DENSE_N_IN);
+            case CNN:
+            case BATCH_NORM:
+                return InputType.convolutional(CNN_HEIGHT, CNN_WIDTH, CNN_DEPTH);
+            case LSTM:
+            case BIDIRECTIONAL_LSTM:
+                return InputType.recurrent(RNN_N_IN);
+            default:
+                throw new IllegalArgumentException("Unknown model type: " + type);
+        }
+    }
+
+    private static NeuralNetConfiguration.Builder baseConf() {
+        return new NeuralNetConfiguration.Builder().seed(SEED).iterations(1)
+                        .optimizationAlgo(OptimizationAlgorithm.STOCHASTIC_GRADIENT_DESCENT).learningRate(0.01)
+                        .updater(Updater.NESTEROVS).momentum(0.9).weightInit(WeightInit.XAVIER);
+    }
+
+    public static MultiLayerConfiguration multiLayerConfiguration(ModelType type) {
+        NeuralNetConfiguration.ListBuilder list = baseConf().list();
+        Layer[] layers = layers(type);
+        for (int i = 0; i < layers.length; i++) {
+            list.layer(i, layers[i]);
+        }
+        return list.setInputType(inputType(type)).backprop(true).pretrain(false).build();
+    }
+
+    public static ComputationGraphConfiguration graphConfiguration(ModelType type) {
+        ComputationGraphConfiguration.GraphBuilder builder = baseConf().graphBuilder().addInputs("in");
+        Layer[] layers = layers(type);
+        String last = "in";
+        for (int i = 0; i < layers.length; i++) {
+            String name = String.valueOf(i);
+            builder.addLayer(name, layers[i], last);
+            last = name;
+        }
+        return builder.setOutputs(last).setInputTypes(inputType(type)).backprop(true).pretrain(false).build();
+    }
+
+    /**
+     * Random features for the given model type, in the activations format the first layer expects
+     */
+    public static INDArray features(ModelType type, int minibatch) {
+        Nd4j.getRandom().setSeed(SEED);
+        switch (type) {
+            case DENSE:
+                return Nd4j.rand(minibatch, DENSE_N_IN);
+            case CNN:
+            case BATCH_NORM:
+                return Nd4j.rand(new int[] {minibatch, CNN_DEPTH, CNN_HEIGHT, CNN_WIDTH});
+            case LSTM:
+            case BIDIRECTIONAL_LSTM:
+                return Nd4j.rand(new int[] {minibatch, RNN_N_IN, RNN_TS_LENGTH});
+            default:
+                throw new IllegalArgumentException("Unknown model type: " + type);
+        }
+    }
+
+    /**
+     * Random one-hot labels for the given model type
+     */
+    public static INDArray labels(ModelType type, int minibatch) {
+        boolean rnn = type == ModelType.LSTM || type == ModelType.BIDIRECTIONAL_LSTM;
+        int tsLength = rnn ? RNN_TS_LENGTH : 1;
+        INDArray labels = rnn ? Nd4j.create(minibatch, N_CLASSES, RNN_TS_LENGTH) : Nd4j.create(minibatch, N_CLASSES);
+        Random r = new Random(SEED);
+        for (int i = 0; i < minibatch; i++) {
+            for (int t = 0; t < tsLength; t++) {
+                int cls = r.nextInt(N_CLASSES);
+                if (rnn) {
+                    labels.putScalar(new int[] {i, cls, t}, 1.0);
+                } else {
+                    labels.putScalar(i, cls, 1.0);
+                }
+            }
+        }
+        return labels;
+    }
+}
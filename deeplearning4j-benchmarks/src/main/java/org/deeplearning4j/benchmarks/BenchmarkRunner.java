@@ -0,0 +1,41 @@
+package org.deeplearning4j.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point for the benchmarks uber-jar.
+ * <p>
+ * Runs all benchmarks (or those matching the optional include regex) with the GC profiler enabled, so that
+ * allocation rate ({@code gc.alloc.rate.norm}) is reported alongside throughput, and writes the results as JSON
+ * for comparison between releases.
+ * <p>
+ * Usage: {@code java -jar benchmarks.jar [resultFile] [includeRegex]}. The result file defaults to
+ * {@code dl4j-benchmarks.json}. For any other JMH options, use {@code org.openjdk.jmh.Main} directly, for example
+ * {@code java -cp benchmarks.jar org.openjdk.jmh.Main -rf json -prof gc MultiLayerNetworkBenchmark}
+ */
+public class BenchmarkRunner {
+
+    public static final String DEFAULT_RESULT_FILE = "dl4j-benchmarks.json";
+
+    private BenchmarkRunner() {}
+
+    public static void main(String[] args) throws RunnerException {
+        String resultFile = (args.length > 0 ? args[0] : DEFAULT_RESULT_FILE);
+
+        ChainedOptionsBuilder options = new OptionsBuilder().addProfiler(GCProfiler.class)
+                        .resultFormat(ResultFormatType.JSON).result(resultFile);
+        if (args.length > 1) {
+            options.include(args[1]);
+        } else {
+            options.include(MultiLayerNetworkBenchmark.class.getSimpleName())
+                            .include(ComputationGraphBenchmark.class.getSimpleName());
+        }
+
+        new Runner(options.build()).run();
+    }
+}
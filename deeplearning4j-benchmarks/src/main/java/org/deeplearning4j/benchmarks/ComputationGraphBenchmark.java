@@ -0,0 +1,52 @@
+package org.deeplearning4j.benchmarks;
+
+import org.deeplearning4j.benchmarks.BenchmarkModels.ModelType;
+import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.MultiDataSet;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks for {@link ComputationGraph#fit(org.nd4j.linalg.dataset.api.MultiDataSet)} and
+ * {@link ComputationGraph#output(boolean, INDArray...)}. The graphs are linear equivalents of the
+ * {@link MultiLayerNetworkBenchmark} networks, so the two sets of results are directly comparable.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ComputationGraphBenchmark {
+
+    @Param({"DENSE", "CNN", "LSTM", "BIDIRECTIONAL_LSTM", "BATCH_NORM"})
+    public ModelType modelType;
+
+    @Param({"1", "32", "128"})
+    public int batchSize;
+
+    private ComputationGraph graph;
+    private MultiDataSet multiDataSet;
+    private INDArray features;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        graph = new ComputationGraph(BenchmarkModels.graphConfiguration(modelType));
+        graph.init();
+
+        features = BenchmarkModels.features(modelType, batchSize);
+        multiDataSet = new MultiDataSet(features, BenchmarkModels.labels(modelType, batchSize));
+    }
+
+    @Benchmark
+    public void fit() {
+        graph.fit(multiDataSet);
+    }
+
+    @Benchmark
+    public INDArray[] output() {
+        return graph.output(false, features);
+    }
+}
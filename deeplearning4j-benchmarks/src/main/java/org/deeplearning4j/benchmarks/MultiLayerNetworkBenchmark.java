@@ -0,0 +1,54 @@
+package org.deeplearning4j.benchmarks;
+
+import org.deeplearning4j.benchmarks.BenchmarkModels.ModelType;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks for {@link MultiLayerNetwork#fit(org.nd4j.linalg.dataset.api.DataSet)} and
+ * {@link MultiLayerNetwork#output(INDArray)}, parameterized over model type and minibatch size.
+ * <p>
+ * Results are reported as throughput (minibatches per second); run through {@link BenchmarkRunner} to also
+ * collect GC/allocation rates and to write the results as JSON.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class MultiLayerNetworkBenchmark {
+
+    @Param({"DENSE", "CNN", "LSTM", "BIDIRECTIONAL_LSTM", "BATCH_NORM"})
+    public ModelType modelType;
+
+    @Param({"1", "32", "128"})
+    public int batchSize;
+
+    private MultiLayerNetwork net;
+    private DataSet dataSet;
+    private INDArray features;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        net = new MultiLayerNetwork(BenchmarkModels.multiLayerConfiguration(modelType));
+        net.init();
+
+        features = BenchmarkModels.features(modelType, batchSize);
+        dataSet = new DataSet(features, BenchmarkModels.labels(modelType, batchSize));
+    }
+
+    @Benchmark
+    public void fit() {
+        net.fit(dataSet);
+    }
+
+    @Benchmark
+    public INDArray output() {
+        return net.output(features, false);
+    }
+}
@@ -0,0 +1,464 @@
+/*-
+ *
+ *  * Copyright 2017 Skymind,Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ *
+ */
+
+package org.deeplearning4j.clustering.hnsw;
+
+import lombok.NonNull;
+import org.deeplearning4j.berkeley.Pair;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Hierarchical Navigable Small World graph: approximate nearest neighbour index for cosine distance.<br>
+ * Malkov and Yashunin, 2016 - "Efficient and robust approximate nearest neighbor search using Hierarchical
+ * Navigable Small World graphs", https://arxiv.org/abs/1603.09320
+ * <p>
+ * Unlike {@link org.deeplearning4j.clustering.vptree.VPTree}, the index is built incrementally in O(N log N), and
+ * new items may be added at any time. Recall/latency trade-off is controlled by:<br>
+ * m: max number of links per item on upper layers (2 * m on layer 0). Higher values improve recall for
+ * high-dimensional data, at the cost of memory and build time<br>
+ * efConstruction: size of the candidate list at insertion time. Higher values improve index quality<br>
+ * efSearch: size of the candidate list at query time. Higher values improve recall, at the cost of latency.
+ * May be changed at any time.
+ * <p>
+ * Vectors are stored normalized, as float arrays. Queries may run concurrently with each other; insertions are
+ * serialized.
+ */
+public class HnswIndex implements Serializable {
+    private static final int MAGIC = 0x484E5357; // "HNSW"
+    private static final int VERSION = 1;
+
+    private final int dimension;
+    private final int m;
+    private final int maxM0;
+    private final int efConstruction;
+    private volatile int efSearch;
+    private final double levelMultiplier;
+    private final Random random;
+
+    private final List<float[]> vectors = new ArrayList<>();
+    private final List<Integer> ids = new ArrayList<>();
+    // links.get(node)[level] - neighbours of node on given level
+    private final List<int[][]> links = new ArrayList<>();
+    private final Map<Integer, Integer> nodeById = new HashMap<>();
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+
+    private transient ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * @param dimension      vectors length
+     * @param m              max number of links per item, on layers above 0
+     * @param efConstruction candidate list size during insertion
+     * @param efSearch       candidate list size during search
+     * @param seed           random seed, used for levels generation
+     */
+    public HnswIndex(int dimension, int m, int efConstruction, int efSearch, long seed) {
+        if (dimension < 1 || m < 2 || efConstruction < 1 || efSearch < 1)
+            throw new IllegalArgumentException("Invalid HNSW configuration: dimension=" + dimension + ", m=" + m
+                            + ", efConstruction=" + efConstruction + ", efSearch=" + efSearch);
+
+        this.dimension = dimension;
+        this.m = m;
+        this.maxM0 = 2 * m;
+        this.efConstruction = efConstruction;
+        this.efSearch = efSearch;
+        this.levelMultiplier = 1.0 / Math.log(m);
+        this.random = new Random(seed);
+    }
+
+    public HnswIndex(int dimension) {
+        this(dimension, 16, 200, 50, 12345);
+    }
+
+    public int getDimension() {
+        return dimension;
+    }
+
+    public int getEfSearch() {
+        return efSearch;
+    }
+
+    /**
+     * Candidate list size used for queries. Higher values give better recall, but slower queries
+     */
+    public void setEfSearch(int efSearch) {
+        if (efSearch < 1)
+            throw new IllegalArgumentException("efSearch should be positive");
+        this.efSearch = efSearch;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return vectors.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(int id) {
+        lock.readLock().lock();
+        try {
+            return nodeById.containsKey(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds vector to the index. If item with the same id is already present, this call is ignored.
+     *
+     * @param id     external id of the item
+     * @param vector vector of the item, it's copied and normalized internally
+     * @return true if the item was added
+     */
+    public boolean add(int id, @NonNull float[] vector) {
+        if (vector.length != dimension)
+            throw new IllegalArgumentException(
+                            "Vector length [" + vector.length + "] doesn't match index dimension [" + dimension + "]");
+
+        lock.writeLock().lock();
+        try {
+            if (nodeById.containsKey(id))
+                return false;
+
+            float[] v = normalize(vector);
+            int node = vectors.size();
+            int level = (int) (-Math.log(1.0 - random.nextDouble()) * levelMultiplier);
+
+            vectors.add(v);
+            ids.add(id);
+            nodeById.put(id, node);
+            int[][] nodeLinks = new int[level + 1][];
+            for (int l = 0; l <= level; l++)
+                nodeLinks[l] = new int[0];
+            links.add(nodeLinks);
+
+            if (entryPoint < 0) {
+                entryPoint = node;
+                maxLevel = level;
+                return true;
+            }
+
+            int current = entryPoint;
+            float currentDist = distance(v, vectors.get(current));
+            for (int l = maxLevel; l > level; l--) {
+                Pair<Integer, Float> closest = greedyClosest(v, current, currentDist, l);
+                current = closest.getFirst();
+                currentDist = closest.getSecond();
+            }
+
+            for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+                List<Candidate> candidates = searchLayer(v, current, efConstruction, l);
+                int maxLinks = l == 0 ? maxM0 : m;
+                int[] neighbours = selectNeighbours(candidates, m);
+                nodeLinks[l] = neighbours;
+
+                // backward links, with pruning of overflowing neighbour lists
+                for (int n : neighbours) {
+                    int[] existing = links.get(n)[l];
+                    int[] updated = Arrays.copyOf(existing, existing.length + 1);
+                    updated[existing.length] = node;
+                    if (updated.length > maxLinks) {
+                        float[] nv = vectors.get(n);
+                        List<Candidate> list = new ArrayList<>(updated.length);
+                        for (int u : updated)
+                            list.add(new Candidate(u, distance(nv, vectors.get(u))));
+                        Collections.sort(list);
+                        updated = selectNeighbours(list, maxLinks);
+                    }
+                    links.get(n)[l] = updated;
+                }
+
+                // closest found element is the entry point for the next layer
+                current = candidates.get(0).node;
+            }
+
+            if (level > maxLevel) {
+                maxLevel = level;
+                entryPoint = node;
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns ids of approximately k nearest items to the query, along with cosine similarities, most similar first
+     *
+     * @param query query vector
+     * @param k     number of items to return
+     */
+    public List<Pair<Integer, Double>> search(@NonNull float[] query, int k) {
+        if (query.length != dimension)
+            throw new IllegalArgumentException(
+                            "Query length [" + query.length + "] doesn't match index dimension [" + dimension + "]");
+
+        lock.readLock().lock();
+        try {
+            List<Pair<Integer, Double>> result = new ArrayList<>();
+            if (entryPoint < 0 || k < 1)
+                return result;
+
+            float[] q = normalize(query);
+            int current = entryPoint;
+            float currentDist = distance(q, vectors.get(current));
+            for (int l = maxLevel; l > 0; l--) {
+                Pair<Integer, Float> closest = greedyClosest(q, current, currentDist, l);
+                current = closest.getFirst();
+                currentDist = closest.getSecond();
+            }
+
+            List<Candidate> candidates = searchLayer(q, current, Math.max(efSearch, k), 0);
+            for (int i = 0; i < candidates.size() && i < k; i++) {
+                Candidate c = candidates.get(i);
+                result.add(new Pair<>(ids.get(c.node), 1.0 - c.distance));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Pair<Integer, Float> greedyClosest(float[] q, int current, float currentDist, int level) {
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int n : links.get(current)[level]) {
+                float d = distance(q, vectors.get(n));
+                if (d < currentDist) {
+                    currentDist = d;
+                    current = n;
+                    changed = true;
+                }
+            }
+        }
+        return new Pair<>(current, currentDist);
+    }
+
+    /**
+     * Beam search within single layer. Returns up to ef closest nodes, sorted by distance
+     */
+    private List<Candidate> searchLayer(float[] q, int entry, int ef, int level) {
+        Set<Integer> visited = new HashSet<>();
+        // closest first
+        PriorityQueue<Candidate> candidates = new PriorityQueue<>();
+        // furthest first
+        PriorityQueue<Candidate> found = new PriorityQueue<>(ef + 1, Collections.<Candidate>reverseOrder());
+
+        Candidate start = new Candidate(entry, distance(q, vectors.get(entry)));
+        visited.add(entry);
+        candidates.add(start);
+        found.add(start);
+
+        while (!candidates.isEmpty()) {
+            Candidate c = candidates.poll();
+            if (c.distance > found.peek().distance && found.size() >= ef)
+                break;
+
+            int[][] nodeLinks = links.get(c.node);
+            if (level >= nodeLinks.length)
+                continue;
+
+            for (int n : nodeLinks[level]) {
+                if (!visited.add(n))
+                    continue;
+
+                float d = distance(q, vectors.get(n));
+                if (found.size() < ef || d < found.peek().distance) {
+                    Candidate nc = new Candidate(n, d);
+                    candidates.add(nc);
+                    found.add(nc);
+                    if (found.size() > ef)
+                        found.poll();
+                }
+            }
+        }
+
+        List<Candidate> result = new ArrayList<>(found);
+        Collections.sort(result);
+        return result;
+    }
+
+    /**
+     * Neighbour selection heuristic (algorithm 4 in the paper): candidate is kept only if it's closer to the base
+     * element than to any neighbour selected so far. Remaining slots are filled with the closest leftovers.
+     */
+    private int[] selectNeighbours(List<Candidate> sorted, int max) {
+        List<Candidate> selected = new ArrayList<>(max);
+        List<Candidate> skipped = new ArrayList<>();
+        for (Candidate c : sorted) {
+            if (selected.size() >= max)
+                break;
+
+            boolean good = true;
+            float[] cv = vectors.get(c.node);
+            for (Candidate s : selected) {
+                if (distance(cv, vectors.get(s.node)) < c.distance) {
+                    good = false;
+                    break;
+                }
+            }
+
+            if (good)
+                selected.add(c);
+            else
+                skipped.add(c);
+        }
+
+        for (int i = 0; i < skipped.size() && selected.size() < max; i++)
+            selected.add(skipped.get(i));
+
+        int[] result = new int[selected.size()];
+        for (int i = 0; i < result.length; i++)
+            result[i] = selected.get(i).node;
+        return result;
+    }
+
+    private static float[] normalize(float[] vector) {
+        double norm = 0.0;
+        for (float v : vector)
+            norm += v * v;
+        norm = Math.sqrt(norm);
+
+        float[] result = new float[vector.length];
+        for (int i = 0; i < vector.length; i++)
+            result[i] = norm > 0.0 ? (float) (vector[i] / norm) : 0.0f;
+        return result;
+    }
+
+    private static float distance(float[] a, float[] b) {
+        float dot = 0.0f;
+        for (int i = 0; i < a.length; i++)
+            dot += a[i] * b[i];
+        return 1.0f - dot;
+    }
+
+    /**
+     * Saves the index into the given stream
+     */
+    public void write(@NonNull OutputStream stream) throws IOException {
+        lock.readLock().lock();
+        try {
+            DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(stream));
+            dos.writeInt(MAGIC);
+            dos.writeInt(VERSION);
+            dos.writeInt(dimension);
+            dos.writeInt(m);
+            dos.writeInt(efConstruction);
+            dos.writeInt(efSearch);
+            dos.writeInt(vectors.size());
+            dos.writeInt(entryPoint);
+            dos.writeInt(maxLevel);
+            for (int node = 0; node < vectors.size(); node++) {
+                dos.writeInt(ids.get(node));
+                for (float v : vectors.get(node))
+                    dos.writeFloat(v);
+
+                int[][] nodeLinks = links.get(node);
+                dos.writeInt(nodeLinks.length);
+                for (int[] level : nodeLinks) {
+                    dos.writeInt(level.length);
+                    for (int n : level)
+                        dos.writeInt(n);
+                }
+            }
+            dos.flush();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void write(@NonNull File file) throws IOException {
+        try (OutputStream os = new FileOutputStream(file)) {
+            write(os);
+        }
+    }
+
+    /**
+     * Restores the index previously saved via {@link #write(OutputStream)}
+     */
+    public static HnswIndex read(@NonNull InputStream stream) throws IOException {
+        DataInputStream dis = new DataInputStream(new BufferedInputStream(stream));
+        if (dis.readInt() != MAGIC)
+            throw new IOException("Stream doesn't contain HNSW index");
+        int version = dis.readInt();
+        if (version != VERSION)
+            throw new IOException("Unsupported HNSW index version: [" + version + "]");
+
+        int dimension = dis.readInt();
+        int m = dis.readInt();
+        int efConstruction = dis.readInt();
+        int efSearch = dis.readInt();
+        HnswIndex index = new HnswIndex(dimension, m, efConstruction, efSearch, System.currentTimeMillis());
+
+        int size = dis.readInt();
+        index.entryPoint = dis.readInt();
+        index.maxLevel = dis.readInt();
+        for (int node = 0; node < size; node++) {
+            int id = dis.readInt();
+            float[] v = new float[dimension];
+            for (int i = 0; i < dimension; i++)
+                v[i] = dis.readFloat();
+
+            int[][] nodeLinks = new int[dis.readInt()][];
+            for (int l = 0; l < nodeLinks.length; l++) {
+                nodeLinks[l] = new int[dis.readInt()];
+                for (int i = 0; i < nodeLinks[l].length; i++)
+                    nodeLinks[l][i] = dis.readInt();
+            }
+
+            index.vectors.add(v);
+            index.ids.add(id);
+            index.links.add(nodeLinks);
+            index.nodeById.put(id, node);
+        }
+        return index;
+    }
+
+    public static HnswIndex read(@NonNull File file) throws IOException {
+        try (InputStream is = new FileInputStream(file)) {
+            return read(is);
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        lock = new ReentrantReadWriteLock();
+    }
+
+    private static class Candidate implements Comparable<Candidate>, Serializable {
+        private final int node;
+        private final float distance;
+
+        private Candidate(int node, float distance) {
+            this.node = node;
+            this.distance = distance;
+        }
+
+        @Override
+        public int compareTo(Candidate o) {
+            return Float.compare(distance, o.distance);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package org.deeplearning4j.datasets.datavec;
+
+import org.datavec.api.writable.Text;
+import org.datavec.api.writable.Writable;
+import org.datavec.common.data.NDArrayWritable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Host side assembly of minibatches from DataVec {@link Writable}s, shared by the record reader iterators.<br>
+ * Values are written to primitive arrays covering the whole minibatch, which are then wrapped as INDArrays once,
+ * instead of one putScalar call per value. Optionally, the examples of a minibatch are converted in parallel by a pool
+ * of worker threads: each example is written to its own (disjoint) part of the output, so the result (including the
+ * order of the examples) does not depend on the number of workers.<br>
+ * Workers only parse Writables and write to primitive arrays: INDArrays are created by the calling thread.<br>
+ * All assemblers share one lazily created pool of at most {@link #MAX_POOL_THREADS} daemon threads, which exit when
+ * idle: iterators don't need to be closed to release their workers. Consequently, the parallelism of one minibatch is
+ * min(numWorkers, MAX_POOL_THREADS).
+ */
+class MinibatchAssembler {
+
+    static final int MAX_POOL_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+    private static final long POOL_KEEP_ALIVE_SECONDS = 30;
+
+    /**
+     * Converts one example of the minibatch. Must only write to the part of the output for that example.
+     */
+    interface ExampleConverter {
+        void convert(int example);
+    }
+
+    private final int numWorkers;
+
+    MinibatchAssembler(int numWorkers) {
+        if (numWorkers < 1)
+            throw new IllegalArgumentException("Invalid number of workers: must be >= 1, got " + numWorkers);
+        this.numWorkers = numWorkers;
+    }
+
+    int getNumWorkers() {
+        return numWorkers;
+    }
+
+    /**
+     * Convert examples 0 to numExamples-1, in parallel if more than one worker is used. Returns once all examples
+     * have been converted; a RuntimeException thrown by the converter is rethrown here.
+     */
+    void forEachExample(int numExamples, final ExampleConverter converter) {
+        if (numWorkers == 1 || numExamples < 2) {
+            for (int i = 0; i < numExamples; i++)
+                converter.convert(i);
+            return;
+        }
+
+        ExecutorService executor = SharedPool.EXECUTOR;
+
+        //Contiguous ranges of examples, one per worker
+        int nTasks = Math.min(numWorkers, numExamples);
+        int examplesPerTask = (numExamples + nTasks - 1) / nTasks;
+        List<Future<?>> futures = new ArrayList<>(nTasks);
+        for (int start = 0; start < numExamples; start += examplesPerTask) {
+            final int from = start;
+            final int to = Math.min(start + examplesPerTask, numExamples);
+            futures.add(executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = from; i < to; i++)
+                        converter.convert(i);
+                }
+            }));
+        }
+
+        for (Future<?> f : futures) {
+            try {
+                f.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException)
+                    throw (RuntimeException) e.getCause();
+                throw new RuntimeException(e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Holder for the shared worker pool: only created on first use of more than one worker
+     */
+    private static class SharedPool {
+        private static final ExecutorService EXECUTOR;
+
+        static {
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(MAX_POOL_THREADS, MAX_POOL_THREADS,
+                            POOL_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                            new ThreadFactory() {
+                                @Override
+                                public Thread newThread(Runnable r) {
+                                    Thread t = Executors.defaultThreadFactory().newThread(r);
+                                    t.setName("MinibatchAssembler-" + t.getName());
+                                    t.setDaemon(true);
+                                    return t;
+                                }
+                            });
+            executor.allowCoreThreadTimeOut(true);
+            EXECUTOR = executor;
+        }
+    }
+
+    /**
+     * Whether all values of the given record are scalars that can be written directly to a primitive array: i.e., no
+     * NDArrayWritables, and no empty Text values (which are skipped by the per-record conversion)
+     */
+    static boolean isScalarRecord(List<Writable> record) {
+        for (Writable w : record) {
+            if (w instanceof NDArrayWritable || (w instanceof Text && ((Text) w).getLength() == 0))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Whether values from (inclusive) to toInclusive of the given record contain any NDArrayWritables
+     */
+    static boolean containsNDArrayWritable(List<Writable> record, int from, int toInclusive) {
+        int j = 0;
+        for (Writable w : record) {
+            if (j > toInclusive)
+                break;
+            if (j >= from && w instanceof NDArrayWritable)
+                return true;
+            j++;
+        }
+        return false;
+    }
+}
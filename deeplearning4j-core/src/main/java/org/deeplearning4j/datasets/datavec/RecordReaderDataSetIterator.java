@@ -69,6 +69,8 @@ public class RecordReaderDataSetIterator implements DataSetIterator {
     @Setter
     private boolean collectMetaData = false;
 
+    private MinibatchAssembler assembler = new MinibatchAssembler(1);
+
     public RecordReaderDataSetIterator(RecordReader recordReader, WritableConverter converter, int batchSize) {
         this(recordReader, converter, batchSize, -1,
                         recordReader.getLabels() == null ? -1 : recordReader.getLabels().size());
@@ -154,6 +156,22 @@ public class RecordReaderDataSetIterator implements DataSetIterator {
     }
 
 
+    /**
+     * Set the number of worker threads used to convert the records of each minibatch to arrays. Records are always
+     * read sequentially from the record reader, and the examples of the returned DataSets are in the same order for
+     * any number of workers. Default: 1 (convert on the calling thread).<br>
+     * Note that with more than 1 worker, the WritableConverter (if any) is used concurrently.
+     *
+     * @param numWorkers Number of workers, >= 1
+     */
+    public void setNumWorkers(int numWorkers) {
+        assembler = new MinibatchAssembler(numWorkers);
+    }
+
+    public int getNumWorkers() {
+        return assembler.getNumWorkers();
+    }
+
     @Override
     public DataSet next(int num) {
         if (useCurrent) {
@@ -163,7 +181,7 @@ public class RecordReaderDataSetIterator implements DataSetIterator {
             return last;
         }
 
-        List<DataSet> dataSets = new ArrayList<>();
+        List<List<Writable>> records = new ArrayList<>(num);
         List<RecordMetaData> meta = (collectMetaData ? new ArrayList<RecordMetaData>() : null);
         for (int i = 0; i < num; i++) {
             if (!hasNext())
@@ -174,25 +192,23 @@ public class RecordReaderDataSetIterator implements DataSetIterator {
                     sequenceIter = sequenceRecord.iterator();
                 }
 
-                List<Writable> record = sequenceIter.next();
-                dataSets.add(getDataSet(record));
+                records.add(sequenceIter.next());
             } else {
                 if (collectMetaData) {
                     Record record = recordReader.nextRecord();
-                    dataSets.add(getDataSet(record.getRecord()));
+                    records.add(record.getRecord());
                     meta.add(record.getMetaData());
                 } else {
-                    List<Writable> record = recordReader.next();
-                    dataSets.add(getDataSet(record));
+                    records.add(recordReader.next());
                 }
             }
         }
         batchNum++;
 
-        if (dataSets.isEmpty())
+        if (records.isEmpty())
             return new DataSet();
 
-        DataSet ret = DataSet.merge(dataSets);
+        DataSet ret = getMinibatch(records);
         if (collectMetaData) {
             ret.setExampleMetaData(meta);
         }
@@ -206,6 +222,107 @@ public class RecordReaderDataSetIterator implements DataSetIterator {
     }
 
 
+    /**
+     * Convert the records of a minibatch to a DataSet: directly to minibatch arrays if possible (see
+     * {@link #getDataSetVectorized(List)}), or one record at a time otherwise
+     */
+    private DataSet getMinibatch(List<List<Writable>> records) {
+        DataSet ds = getDataSetVectorized(records);
+        if (ds != null)
+            return ds;
+
+        List<DataSet> dataSets = new ArrayList<>(records.size());
+        for (List<Writable> record : records)
+            dataSets.add(getDataSet(record));
+        return DataSet.merge(dataSets);
+    }
+
+    /**
+     * Convert the records of a minibatch directly to the feature and label arrays for the whole minibatch: values are
+     * written to primitive arrays (by the configured number of workers), which are wrapped as INDArrays once.
+     * Only used for records of equal size with scalar values; returns null otherwise, in which case the records are
+     * converted one at a time
+     */
+    private DataSet getDataSetVectorized(final List<List<Writable>> records) {
+        final int size = records.get(0).size();
+        for (List<Writable> record : records) {
+            if (record.size() != size || !MinibatchAssembler.isScalarRecord(record))
+                return null;
+        }
+
+        //allow people to specify label index as -1 and infer the last possible label
+        if (numPossibleLabels >= 1 && labelIndex < 0) {
+            labelIndex = size - 1;
+        }
+
+        final int labelFrom = labelIndex;
+        final int labelTo;
+        final int labelSize;
+        if (labelIndex < 0) {
+            //No labels
+            labelTo = -1;
+            labelSize = 0;
+        } else if (regression) {
+            if (labelIndexTo < labelIndex || labelIndexTo >= size)
+                return null;
+            labelTo = labelIndexTo;
+            labelSize = labelIndexTo - labelIndex + 1;
+        } else {
+            if (numPossibleLabels < 1 || labelIndex >= size)
+                return null;
+            labelTo = labelIndex;
+            labelSize = numPossibleLabels;
+        }
+
+        final int numExamples = records.size();
+        final int nFeatures = size - (labelFrom < 0 ? 0 : labelTo - labelFrom + 1);
+        final double[] features = new double[numExamples * nFeatures];
+        final double[] labels = new double[numExamples * labelSize];
+        assembler.forEachExample(numExamples, new MinibatchAssembler.ExampleConverter() {
+            @Override
+            public void convert(int example) {
+                int f = example * nFeatures;
+                int l = example * labelSize;
+                int j = 0;
+                for (Writable current : records.get(example)) {
+                    if (labelFrom >= 0 && j >= labelFrom && j <= labelTo) {
+                        if (regression)
+                            labels[l++] = current.toDouble();
+                        else
+                            labels[l + getClassIndex(current, example, j)] = 1.0;
+                    } else {
+                        features[f++] = current.toDouble();
+                    }
+                    j++;
+                }
+            }
+        });
+
+        INDArray featureArr = Nd4j.create(features, new int[] {numExamples, nFeatures}, 'c');
+        if (labelFrom < 0)
+            return new DataSet(featureArr, featureArr.dup());
+        return new DataSet(featureArr, Nd4j.create(labels, new int[] {numExamples, labelSize}, 'c'));
+    }
+
+    private int getClassIndex(Writable current, int example, int column) {
+        if (converter != null)
+            try {
+                current = converter.convert(current);
+            } catch (WritableConverterException e) {
+                throw new IllegalStateException("Error converting label value \"" + current + "\" of record " + example
+                                + " of the minibatch (column " + column + ")", e);
+            }
+        int curr = current.toInt();
+        if (curr < 0 || curr >= numPossibleLabels) {
+            throw new DL4JInvalidInputException(
+                            "Invalid classification data: expect label value (at label index column = " + labelIndex
+                                            + ") to be in range 0 to " + (numPossibleLabels - 1)
+                                            + " inclusive (0 to numClasses-1, with numClasses=" + numPossibleLabels
+                                            + "); got label value of " + current);
+        }
+        return curr;
+    }
+
     private DataSet getDataSet(List<Writable> record) {
         List<Writable> currList;
         if (record instanceof List)
@@ -421,18 +538,18 @@ public class RecordReaderDataSetIterator implements DataSetIterator {
      */
     public DataSet loadFromMetaData(List<RecordMetaData> list) throws IOException {
         List<Record> records = recordReader.loadFromMetaData(list);
-        List<DataSet> dataSets = new ArrayList<>();
+        List<List<Writable>> writables = new ArrayList<>();
         List<RecordMetaData> meta = new ArrayList<>();
         for (Record r : records) {
-            dataSets.add(getDataSet(r.getRecord()));
+            writables.add(r.getRecord());
             meta.add(r.getMetaData());
         }
 
-        if (dataSets.isEmpty()) {
+        if (writables.isEmpty()) {
             return new DataSet();
         }
 
-        DataSet ret = DataSet.merge(dataSets);
+        DataSet ret = getMinibatch(writables);
         ret.setExampleMetaData(meta);
         last = ret;
         if (preProcessor != null)
@@ -31,6 +31,7 @@ import org.datavec.api.records.reader.SequenceRecordReader;
 import org.datavec.api.writable.Writable;
 import org.datavec.common.data.NDArrayWritable;
 import org.deeplearning4j.berkeley.Pair;
+import org.deeplearning4j.exception.DL4JInvalidInputException;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.dataset.DataSet;
 import org.nd4j.linalg.dataset.api.MultiDataSet;
@@ -79,6 +80,8 @@ public class RecordReaderMultiDataSetIterator implements MultiDataSetIterator {
 
     private MultiDataSetPreProcessor preProcessor;
 
+    private MinibatchAssembler assembler;
+
     private RecordReaderMultiDataSetIterator(Builder builder) {
         this.batchSize = builder.batchSize;
         this.alignmentMode = builder.alignmentMode;
@@ -86,6 +89,7 @@ public class RecordReaderMultiDataSetIterator implements MultiDataSetIterator {
         this.sequenceRecordReaders = builder.sequenceRecordReaders;
         this.inputs.addAll(builder.inputs);
         this.outputs.addAll(builder.outputs);
+        this.assembler = new MinibatchAssembler(builder.numWorkers);
     }
 
     @Override
@@ -256,6 +260,10 @@ public class RecordReaderMultiDataSetIterator implements MultiDataSetIterator {
     }
 
     private INDArray convertWritables(List<List<Writable>> list, int minValues, SubsetDetails details) {
+        INDArray vectorized = convertWritablesVectorized(list, minValues, details);
+        if (vectorized != null)
+            return vectorized;
+
         INDArray arr;
         if (details.entireReader) {
             if (list.get(0).size() == 1 && list.get(0).get(0) instanceof NDArrayWritable) {
@@ -339,6 +347,65 @@ public class RecordReaderMultiDataSetIterator implements MultiDataSetIterator {
         return arr;
     }
 
+    /**
+     * Convert the writables (scalar values only) directly to the array for the whole minibatch: values are written to
+     * a primitive array (by the configured number of workers), which is wrapped as an INDArray once.
+     *
+     * @return The minibatch array, or null if the writables contain NDArrayWritables, or records of different sizes
+     */
+    private INDArray convertWritablesVectorized(final List<List<Writable>> list, int minValues,
+                    final SubsetDetails details) {
+        final int from;
+        final int to;
+        final int width;
+        if (details.entireReader) {
+            from = 0;
+            to = list.get(0).size() - 1;
+            width = list.get(0).size();
+        } else if (details.oneHot) {
+            from = details.subsetStart;
+            to = details.subsetStart;
+            width = details.oneHotNumClasses;
+        } else {
+            from = details.subsetStart;
+            to = details.subsetEndInclusive;
+            width = details.subsetEndInclusive - details.subsetStart + 1;
+        }
+
+        for (int i = 0; i < minValues; i++) {
+            List<Writable> c = list.get(i);
+            if ((details.entireReader && c.size() != width)
+                            || MinibatchAssembler.containsNDArrayWritable(c, from, to))
+                return null;
+        }
+
+        final double[] data = new double[minValues * width];
+        assembler.forEachExample(minValues, new MinibatchAssembler.ExampleConverter() {
+            @Override
+            public void convert(int example) {
+                int offset = example * width;
+                Iterator<Writable> iter = list.get(example).iterator();
+                for (int j = 0; j < from; j++)
+                    iter.next();
+                if (details.oneHot) {
+                    //Convert a single column to a one-hot representation
+                    Writable w = iter.next();
+                    int classIdx = w.toInt();
+                    if (classIdx < 0 || classIdx >= width) {
+                        throw new DL4JInvalidInputException("Invalid one-hot data: expect class index (at column "
+                                        + from + " of reader \"" + details.readerName + "\") to be in range 0 to "
+                                        + (width - 1) + " inclusive; got class index of " + w);
+                    }
+                    data[offset + classIdx] = 1.0;
+                } else {
+                    for (int j = from; j <= to; j++)
+                        data[offset++] = iter.next().toDouble();
+                }
+            }
+        });
+        return Nd4j.create(data, new int[] {minValues, width}, 'c');
+    }
+
     private void putExample(INDArray arr, INDArray singleExample, int exampleIdx) {
         switch (arr.rank()) {
             case 2:
@@ -526,6 +593,7 @@ public class RecordReaderMultiDataSetIterator implements MultiDataSetIterator {
 
         private List<SubsetDetails> inputs = new ArrayList<>();
         private List<SubsetDetails> outputs = new ArrayList<>();
+        private int numWorkers = 1;
 
         /**
          * @param batchSize The batch size for the RecordReaderMultiDataSetIterator
@@ -632,6 +700,18 @@ public class RecordReaderMultiDataSetIterator implements MultiDataSetIterator {
             return this;
         }
 
+        /**
+         * Number of worker threads used to convert the values of each minibatch to arrays. Records are always read
+         * sequentially from the readers, and the examples of the returned MultiDataSets are in the same order for any
+         * number of workers. Default: 1 (convert on the calling thread)
+         *
+         * @param numWorkers Number of workers, >= 1
+         */
+        public Builder numWorkers(int numWorkers) {
+            this.numWorkers = numWorkers;
+            return this;
+        }
+
         /**
          * Create the RecordReaderMultiDataSetIterator
          */
@@ -645,6 +725,10 @@ public class RecordReaderMultiDataSetIterator implements MultiDataSetIterator {
                 throw new IllegalStateException(
                                 "Cannot construct RecordReaderMultiDataSetIterator with batch size <= 0");
 
+            if (numWorkers < 1)
+                throw new IllegalStateException(
+                                "Cannot construct RecordReaderMultiDataSetIterator with number of workers < 1");
+
             if (inputs.isEmpty() && outputs.isEmpty()) {
                 throw new IllegalStateException(
                                 "Cannot construct RecordReaderMultiDataSetIterator with no inputs/outputs");
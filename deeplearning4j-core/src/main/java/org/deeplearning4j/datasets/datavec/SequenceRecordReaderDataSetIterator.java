@@ -71,6 +71,8 @@ public class SequenceRecordReaderDataSetIterator implements DataSetIterator {
     @Setter
     private boolean collectMetaData = false;
 
+    private MinibatchAssembler assembler = new MinibatchAssembler(1);
+
     /**
      * Constructor where features and labels come from different RecordReaders (for example, different files),
      * and labels are for classification.
@@ -138,6 +140,21 @@ public class SequenceRecordReaderDataSetIterator implements DataSetIterator {
         this.singleSequenceReaderMode = true;
     }
 
+    /**
+     * Set the number of worker threads used to convert the sequences of each minibatch to arrays. Sequences are always
+     * read sequentially from the record reader(s), and the examples of the returned DataSets are in the same order
+     * for any number of workers. Default: 1 (convert on the calling thread)
+     *
+     * @param numWorkers Number of workers, >= 1
+     */
+    public void setNumWorkers(int numWorkers) {
+        assembler = new MinibatchAssembler(numWorkers);
+    }
+
+    public int getNumWorkers() {
+        return assembler.getNumWorkers();
+    }
+
     @Override
     public boolean hasNext() {
         return recordReader.hasNext();
@@ -170,11 +187,8 @@ public class SequenceRecordReaderDataSetIterator implements DataSetIterator {
     }
 
     private DataSet nextSingleSequenceReader(int num) {
-        List<INDArray> listFeatures = new ArrayList<>(num);
-        List<INDArray> listLabels = new ArrayList<>(num);
+        List<List<List<Writable>>> sequences = new ArrayList<>(num);
         List<RecordMetaData> meta = (collectMetaData ? new ArrayList<RecordMetaData>() : null);
-        int minLength = 0;
-        int maxLength = 0;
         for (int i = 0; i < num && hasNext(); i++) {
             List<List<Writable>> sequence;
             if (collectMetaData) {
@@ -185,15 +199,20 @@ public class SequenceRecordReaderDataSetIterator implements DataSetIterator {
                 sequence = recordReader.sequenceRecord();
             }
             assertNonZeroLengthSequence(sequence, "combined features and labels");
+            sequences.add(sequence);
+        }
 
-            INDArray[] fl = getFeaturesLabelsSingleReader(sequence);
-            if (i == 0) {
-                minLength = fl[0].size(0);
-                maxLength = minLength;
-            } else {
-                minLength = Math.min(minLength, fl[0].size(0));
-                maxLength = Math.max(maxLength, fl[0].size(0));
-            }
+        return convertSingleSequenceReader(sequences, meta);
+    }
+
+    private DataSet convertSingleSequenceReader(List<List<List<Writable>>> sequences, List<RecordMetaData> meta) {
+        List<INDArray> listFeatures = new ArrayList<>(sequences.size());
+        List<INDArray> listLabels = new ArrayList<>(sequences.size());
+        int minLength = Integer.MAX_VALUE;
+        int maxLength = 0;
+        for (INDArray[] fl : convertSequences(sequences, null)) {
+            minLength = Math.min(minLength, fl[0].size(0));
+            maxLength = Math.max(maxLength, fl[0].size(0));
             listFeatures.add(fl[0]);
             listLabels.add(fl[1]);
         }
@@ -252,8 +271,8 @@ public class SequenceRecordReaderDataSetIterator implements DataSetIterator {
     }
 
     private DataSet nextMultipleSequenceReaders(int num) {
-        List<INDArray> featureList = new ArrayList<>(num);
-        List<INDArray> labelList = new ArrayList<>(num);
+        List<List<List<Writable>>> featureSequences = new ArrayList<>(num);
+        List<List<List<Writable>>> labelSequences = new ArrayList<>(num);
         List<RecordMetaData> meta = (collectMetaData ? new ArrayList<RecordMetaData>() : null);
         for (int i = 0; i < num && hasNext(); i++) {
             List<List<Writable>> featureSequence;
@@ -270,17 +289,145 @@ public class SequenceRecordReaderDataSetIterator implements DataSetIterator {
             }
             assertNonZeroLengthSequence(featureSequence, "features");
             assertNonZeroLengthSequence(labelSequence, "labels");
+            featureSequences.add(featureSequence);
+            labelSequences.add(labelSequence);
+        }
 
-            INDArray features = getFeatures(featureSequence);
-            INDArray labels = getLabels(labelSequence); //2d time series, with shape [timeSeriesLength,vectorSize]
+        return convertMultipleSequenceReaders(featureSequences, labelSequences, meta);
+    }
 
-            featureList.add(features);
-            labelList.add(labels);
+    private DataSet convertMultipleSequenceReaders(List<List<List<Writable>>> featureSequences,
+                    List<List<List<Writable>>> labelSequences, List<RecordMetaData> meta) {
+        //2d time series, with shape [timeSeriesLength,vectorSize]
+        List<INDArray> featureList = new ArrayList<>(featureSequences.size());
+        List<INDArray> labelList = new ArrayList<>(featureSequences.size());
+        for (INDArray[] fl : convertSequences(featureSequences, labelSequences)) {
+            featureList.add(fl[0]);
+            labelList.add(fl[1]);
         }
 
         return nextMultipleSequenceReaders(featureList, labelList, meta);
     }
 
+    /**
+     * Convert the sequences of a minibatch to 2d features and labels arrays, with shape [timeSeriesLength,vectorSize].
+     * Sequences with scalar values only are written to primitive arrays (by the configured number of workers), each
+     * wrapped as an INDArray once; other sequences are converted one at a time on the calling thread.
+     *
+     * @param featureSequences Feature sequences, or combined features and labels in single reader mode
+     * @param labelSequences   Label sequences, or null in single reader mode
+     * @return Features and labels arrays, for each example
+     */
+    private List<INDArray[]> convertSequences(final List<List<List<Writable>>> featureSequences,
+                    final List<List<List<Writable>>> labelSequences) {
+        int numExamples = featureSequences.size();
+        final boolean[] scalar = new boolean[numExamples];
+        for (int i = 0; i < numExamples; i++) {
+            scalar[i] = isScalarSequence(featureSequences.get(i))
+                            && (labelSequences == null || isScalarSequence(labelSequences.get(i)));
+        }
+
+        final double[][] features = new double[numExamples][];
+        final double[][] labels = new double[numExamples][];
+        assembler.forEachExample(numExamples, new MinibatchAssembler.ExampleConverter() {
+            @Override
+            public void convert(int example) {
+                if (!scalar[example])
+                    return;
+                if (labelSequences == null) {
+                    features[example] = toFeatureValues(featureSequences.get(example), labelIndex);
+                    labels[example] = toLabelValues(featureSequences.get(example), labelIndex);
+                } else {
+                    features[example] = toFeatureValues(featureSequences.get(example), -1);
+                    labels[example] = toLabelValues(labelSequences.get(example), -1);
+                }
+            }
+        });
+
+        List<INDArray[]> out = new ArrayList<>(numExamples);
+        for (int i = 0; i < numExamples; i++) {
+            if (scalar[i]) {
+                int featuresLength = featureSequences.get(i).size();
+                int labelsLength = (labelSequences == null ? featuresLength : labelSequences.get(i).size());
+                out.add(new INDArray[] {
+                                Nd4j.create(features[i], new int[] {featuresLength, features[i].length / featuresLength},
+                                                'c'),
+                                Nd4j.create(labels[i], new int[] {labelsLength, labels[i].length / labelsLength},
+                                                'c')});
+            } else if (labelSequences == null) {
+                out.add(getFeaturesLabelsSingleReader(featureSequences.get(i)));
+            } else {
+                out.add(new INDArray[] {getFeatures(featureSequences.get(i)), getLabels(labelSequences.get(i))});
+            }
+        }
+        return out;
+    }
+
+    private static boolean isScalarSequence(List<List<Writable>> sequence) {
+        int size = sequence.get(0).size();
+        for (List<Writable> step : sequence) {
+            if (step.size() != size || !MinibatchAssembler.isScalarRecord(step))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Feature values of a sequence with scalar values only: all columns except the label column (if any), for each
+     * time step
+     */
+    private static double[] toFeatureValues(List<List<Writable>> sequence, int labelColumn) {
+        int size = sequence.get(0).size() - (labelColumn >= 0 ? 1 : 0);
+        double[] out = new double[sequence.size() * size];
+        int idx = 0;
+        for (List<Writable> step : sequence) {
+            int j = 0;
+            for (Writable w : step) {
+                if (j++ != labelColumn)
+                    out[idx++] = w.toDouble();
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Label values of a sequence with scalar values only, for each time step. For regression: the label column, or all
+     * columns if labelColumn < 0. For classification: the label column (or first column) as a one-hot vector
+     */
+    private double[] toLabelValues(List<List<Writable>> sequence, int labelColumn) {
+        int size;
+        if (regression)
+            size = (labelColumn >= 0 ? 1 : sequence.get(0).size());
+        else
+            size = numPossibleLabels;
+        double[] out = new double[sequence.size() * size];
+        int offset = 0;
+        for (List<Writable> step : sequence) {
+            if (regression && labelColumn < 0) {
+                int idx = offset;
+                for (Writable w : step)
+                    out[idx++] = w.toDouble();
+            } else {
+                Writable value = step.get(Math.max(labelColumn, 0));
+                if (regression) {
+                    out[offset] = value.toDouble();
+                } else {
+                    int classIdx = value.toInt();
+                    if (classIdx < 0 || classIdx >= numPossibleLabels) {
+                        throw new DL4JInvalidInputException(
+                                        "Invalid classification data: expect label value to be in range 0 to "
+                                                        + (numPossibleLabels - 1)
+                                                        + " inclusive (0 to numClasses-1, with numClasses="
+                                                        + numPossibleLabels + "); got label value of " + value);
+                    }
+                    out[offset + classIdx] = 1.0;
+                }
+            }
+            offset += size;
+        }
+        return out;
+    }
+
     private void assertNonZeroLengthSequence(List<?> sequence, String type) {
         if (sequence.size() == 0) {
             throw new ZeroLengthSequenceException(type);
@@ -734,19 +881,12 @@ public class SequenceRecordReaderDataSetIterator implements DataSetIterator {
         if (singleSequenceReaderMode) {
             List<SequenceRecord> records = recordReader.loadSequenceFromMetaData(list);
 
-            List<INDArray> listFeatures = new ArrayList<>(list.size());
-            List<INDArray> listLabels = new ArrayList<>(list.size());
-            int minLength = Integer.MAX_VALUE;
-            int maxLength = Integer.MIN_VALUE;
+            List<List<List<Writable>>> sequences = new ArrayList<>(list.size());
             for (SequenceRecord sr : records) {
-                INDArray[] fl = getFeaturesLabelsSingleReader(sr.getSequenceRecord());
-                listFeatures.add(fl[0]);
-                listLabels.add(fl[1]);
-                minLength = Math.min(minLength, fl[0].size(0));
-                maxLength = Math.max(maxLength, fl[1].size(0));
+                sequences.add(sr.getSequenceRecord());
             }
 
-            return getSingleSequenceReader(listFeatures, listLabels, minLength, maxLength, list);
+            return convertSingleSequenceReader(sequences, list);
         } else {
             //Expect to get a RecordReaderMetaComposable here
 
@@ -761,15 +901,15 @@ public class SequenceRecordReaderDataSetIterator implements DataSetIterator {
             List<SequenceRecord> f = recordReader.loadSequenceFromMetaData(fMeta);
             List<SequenceRecord> l = labelsReader.loadSequenceFromMetaData(lMeta);
 
-            List<INDArray> featureList = new ArrayList<>(fMeta.size());
-            List<INDArray> labelList = new ArrayList<>(fMeta.size());
+            List<List<List<Writable>>> featureSequences = new ArrayList<>(fMeta.size());
+            List<List<List<Writable>>> labelSequences = new ArrayList<>(fMeta.size());
 
             for (int i = 0; i < fMeta.size(); i++) {
-                featureList.add(getFeatures(f.get(i).getSequenceRecord()));
-                labelList.add(getLabels(l.get(i).getSequenceRecord()));
+                featureSequences.add(f.get(i).getSequenceRecord());
+                labelSequences.add(l.get(i).getSequenceRecord());
             }
 
-            return nextMultipleSequenceReaders(featureList, labelList, list);
+            return convertMultipleSequenceReaders(featureSequences, labelSequences, list);
         }
     }
 }
@@ -0,0 +1,104 @@
+package org.deeplearning4j.clustering.hnsw;
+
+import org.deeplearning4j.berkeley.Pair;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class HnswIndexTest {
+
+    private static float[][] randomVectors(int n, int dim, long seed) {
+        Random r = new Random(seed);
+        float[][] result = new float[n][dim];
+        for (int i = 0; i < n; i++)
+            for (int j = 0; j < dim; j++)
+                result[i][j] = (float) r.nextGaussian();
+        return result;
+    }
+
+    private static Set<Integer> bruteForce(float[][] data, float[] query, int k) {
+        final double[] sims = new double[data.length];
+        Integer[] idx = new Integer[data.length];
+        for (int i = 0; i < data.length; i++) {
+            double dot = 0, n1 = 0, n2 = 0;
+            for (int j = 0; j < query.length; j++) {
+                dot += data[i][j] * query[j];
+                n1 += data[i][j] * data[i][j];
+                n2 += query[j] * query[j];
+            }
+            sims[i] = dot / Math.sqrt(n1 * n2);
+            idx[i] = i;
+        }
+        Arrays.sort(idx, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer o1, Integer o2) {
+                return Double.compare(sims[o2], sims[o1]);
+            }
+        });
+        return new HashSet<>(Arrays.asList(idx).subList(0, k));
+    }
+
+    @Test
+    public void testRecall() {
+        int n = 2000;
+        int dim = 16;
+        int k = 10;
+        float[][] data = randomVectors(n, dim, 12345);
+
+        HnswIndex index = new HnswIndex(dim, 16, 100, 50, 12345);
+        for (int i = 0; i < n; i++)
+            assertTrue(index.add(i, data[i]));
+        assertEquals(n, index.size());
+
+        // duplicate ids are ignored
+        assertFalse(index.add(0, data[1]));
+
+        float[][] queries = randomVectors(50, dim, 54321);
+        int hits = 0;
+        for (float[] q : queries) {
+            Set<Integer> expected = bruteForce(data, q, k);
+            List<Pair<Integer, Double>> result = index.search(q, k);
+            assertEquals(k, result.size());
+            for (int i = 1; i < result.size(); i++)
+                assertTrue(result.get(i - 1).getSecond() >= result.get(i).getSecond());
+
+            for (Pair<Integer, Double> p : result) {
+                if (expected.contains(p.getFirst()))
+                    hits++;
+            }
+        }
+
+        double recall = hits / (double) (queries.length * k);
+        assertTrue("Recall too low: " + recall, recall > 0.9);
+
+        // exact match should always be found
+        assertEquals(42, (int) index.search(data[42], 1).get(0).getFirst());
+    }
+
+    @Test
+    public void testSaveLoad() throws Exception {
+        int dim = 8;
+        float[][] data = randomVectors(300, dim, 12345);
+        HnswIndex index = new HnswIndex(dim, 8, 50, 20, 12345);
+        for (int i = 0; i < data.length; i++)
+            index.add(100 + i, data[i]);
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        index.write(baos);
+        HnswIndex restored = HnswIndex.read(new ByteArrayInputStream(baos.toByteArray()));
+
+        assertEquals(index.size(), restored.size());
+        assertTrue(restored.contains(150));
+        for (int i = 0; i < 20; i++) {
+            assertEquals(index.search(data[i], 5), restored.search(data[i], 5));
+        }
+
+        // incremental insertion after restore
+        restored.add(5000, new float[] {1, 0, 0, 0, 0, 0, 0, 0});
+        assertEquals(5000, (int) restored.search(new float[] {1, 0, 0, 0, 0, 0, 0, 0}, 1).get(0).getFirst());
+    }
+}
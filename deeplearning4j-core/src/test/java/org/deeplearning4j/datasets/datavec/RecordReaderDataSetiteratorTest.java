@@ -19,6 +19,8 @@
 package org.deeplearning4j.datasets.datavec;
 
 import org.apache.commons.io.FilenameUtils;
+import org.datavec.api.io.WritableConverter;
+import org.datavec.api.io.converters.WritableConverterException;
 import org.datavec.api.records.Record;
 import org.datavec.api.records.metadata.RecordMetaData;
 import org.datavec.api.records.reader.RecordReader;
@@ -105,6 +107,117 @@ public class RecordReaderDataSetiteratorTest {
 
     }
 
+    @Test
+    public void testRecordReaderNumWorkers() throws Exception {
+        RecordReader rr1 = new CSVRecordReader();
+        rr1.initialize(new FileSplit(new ClassPathResource("iris.txt").getTempFileFromArchive()));
+        RecordReader rr4 = new CSVRecordReader();
+        rr4.initialize(new FileSplit(new ClassPathResource("iris.txt").getTempFileFromArchive()));
+
+        RecordReaderDataSetIterator iter1 = new RecordReaderDataSetIterator(rr1, 32, 4, 3);
+        RecordReaderDataSetIterator iter4 = new RecordReaderDataSetIterator(rr4, 32, 4, 3);
+        iter4.setNumWorkers(4);
+        assertEquals(4, iter4.getNumWorkers());
+
+        //Check the values of the first example against the per-record conversion
+        RecordReader rr = new CSVRecordReader();
+        rr.initialize(new FileSplit(new ClassPathResource("iris.txt").getTempFileFromArchive()));
+        List<Writable> first = rr.next();
+
+        int count = 0;
+        while (iter1.hasNext()) {
+            assertTrue(iter4.hasNext());
+            DataSet ds1 = iter1.next();
+            DataSet ds4 = iter4.next();
+            if (count == 0) {
+                for (int j = 0; j < 4; j++)
+                    assertEquals(first.get(j).toDouble(), ds1.getFeatures().getDouble(0, j), 1e-6);
+                assertEquals(1.0, ds1.getLabels().getDouble(0, first.get(4).toInt()), 0.0);
+                assertEquals(1.0, ds1.getLabels().getRow(0).sumNumber().doubleValue(), 0.0);
+            }
+            assertEquals(ds1.getFeatures(), ds4.getFeatures());
+            assertEquals(ds1.getLabels(), ds4.getLabels());
+            count += ds1.numExamples();
+        }
+        assertFalse(iter4.hasNext());
+        assertEquals(150, count);
+    }
+
+    @Test
+    public void testRecordReaderNumWorkersSharedPool() throws Exception {
+        //Iterators are never closed: worker threads must be shared between them, not created per iterator
+        for (int i = 0; i < 20; i++) {
+            RecordReader rr = new CSVRecordReader();
+            rr.initialize(new FileSplit(new ClassPathResource("iris.txt").getTempFileFromArchive()));
+            RecordReaderDataSetIterator iter = new RecordReaderDataSetIterator(rr, 32, 4, 3);
+            iter.setNumWorkers(4);
+            while (iter.hasNext())
+                iter.next();
+            iter.reset();
+            iter.next();
+        }
+
+        int assemblerThreads = 0;
+        for (Thread t : Thread.getAllStackTraces().keySet()) {
+            if (t.getName().startsWith("MinibatchAssembler-"))
+                assemblerThreads++;
+        }
+        assertTrue(String.valueOf(assemblerThreads), assemblerThreads <= MinibatchAssembler.MAX_POOL_THREADS);
+    }
+
+    @Test
+    public void testRecordReaderNumWorkersConverterException() throws Exception {
+        RecordReader rr = new CSVRecordReader();
+        rr.initialize(new FileSplit(new ClassPathResource("iris.txt").getTempFileFromArchive()));
+        WritableConverter failing = new WritableConverter() {
+            @Override
+            public Writable convert(Writable writable) throws WritableConverterException {
+                throw new WritableConverterException("Test exception");
+            }
+        };
+
+        RecordReaderDataSetIterator iter = new RecordReaderDataSetIterator(rr, failing, 32, 4, 3);
+        iter.setNumWorkers(4);
+        try {
+            iter.next();
+            fail("Expected exception");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("column 4"));
+            assertTrue(e.getCause() instanceof WritableConverterException);
+        }
+    }
+
+    @Test
+    public void testSequenceRecordReaderNumWorkers() throws Exception {
+        //need to manually extract
+        for (int i = 0; i < 3; i++) {
+            new ClassPathResource(String.format("csvsequence_%d.txt", i)).getTempFileFromArchive();
+            new ClassPathResource(String.format("csvsequencelabelsShort_%d.txt", i)).getTempFileFromArchive();
+        }
+        ClassPathResource resource = new ClassPathResource("csvsequence_0.txt");
+        String featuresPath = resource.getTempFileFromArchive().getAbsolutePath().replaceAll("0", "%d");
+        resource = new ClassPathResource("csvsequencelabelsShort_0.txt");
+        String labelsPath = resource.getTempFileFromArchive().getAbsolutePath().replaceAll("0", "%d");
+
+        DataSet[] out = new DataSet[2];
+        for (int i = 0; i < 2; i++) {
+            SequenceRecordReader featureReader = new CSVSequenceRecordReader(1, ",");
+            SequenceRecordReader labelReader = new CSVSequenceRecordReader(1, ",");
+            featureReader.initialize(new NumberedFileInputSplit(featuresPath, 0, 2));
+            labelReader.initialize(new NumberedFileInputSplit(labelsPath, 0, 2));
+
+            SequenceRecordReaderDataSetIterator iter = new SequenceRecordReaderDataSetIterator(featureReader,
+                            labelReader, 3, 4, false, SequenceRecordReaderDataSetIterator.AlignmentMode.ALIGN_END);
+            iter.setNumWorkers(i == 0 ? 1 : 3);
+            out[i] = iter.next();
+        }
+
+        assertEquals(out[0].getFeatures(), out[1].getFeatures());
+        assertEquals(out[0].getLabels(), out[1].getLabels());
+        assertEquals(out[0].getFeaturesMaskArray(), out[1].getFeaturesMaskArray());
+        assertEquals(out[0].getLabelsMaskArray(), out[1].getLabelsMaskArray());
+    }
+
     @Test
     public void testSequenceRecordReader() throws Exception {
         //need to manually extract
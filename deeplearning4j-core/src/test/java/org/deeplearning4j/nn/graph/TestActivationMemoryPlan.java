@@ -0,0 +1,172 @@
+package org.deeplearning4j.nn.graph;
+
+import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.graph.ElementWiseVertex;
+import org.deeplearning4j.nn.conf.graph.rnn.LastTimeStepVertex;
+import org.deeplearning4j.nn.conf.inputs.InputType;
+import org.deeplearning4j.nn.conf.layers.DenseLayer;
+import org.deeplearning4j.nn.conf.layers.GravesLSTM;
+import org.deeplearning4j.nn.conf.layers.OutputLayer;
+import org.deeplearning4j.nn.graph.util.ActivationMemoryPlan;
+import org.deeplearning4j.nn.weights.WeightInit;
+import org.junit.Test;
+import org.nd4j.linalg.activations.Activation;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.lossfunctions.LossFunctions.LossFunction;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for ActivationMemoryPlan and ComputationGraph.planMemory
+ */
+public class TestActivationMemoryPlan {
+
+    private static ComputationGraph getGraph() {
+        //"d0" feeds into 3 vertices -> its epsilon is a sum
+        ComputationGraphConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345)
+                        .weightInit(WeightInit.XAVIER).graphBuilder().addInputs("in")
+                        .addLayer("d0", new DenseLayer.Builder().nIn(5).nOut(8).activation(Activation.TANH).build(),
+                                        "in")
+                        .addLayer("d1", new DenseLayer.Builder().nIn(8).nOut(8).activation(Activation.TANH).build(),
+                                        "d0")
+                        .addLayer("d2", new DenseLayer.Builder().nIn(8).nOut(8).activation(Activation.TANH).build(),
+                                        "d0")
+                        .addVertex("add", new ElementWiseVertex(ElementWiseVertex.Op.Add), "d0", "d1", "d2")
+                        .addLayer("d3", new DenseLayer.Builder().nIn(8).nOut(8).activation(Activation.TANH).build(),
+                                        "add")
+                        .addLayer("d4", new DenseLayer.Builder().nIn(8).nOut(8).activation(Activation.TANH).build(),
+                                        "d3")
+                        .addLayer("out", new OutputLayer.Builder(LossFunction.MCXENT).nIn(8).nOut(3)
+                                        .activation(Activation.SOFTMAX).build(), "d4")
+                        .setOutputs("out").backprop(true).pretrain(false).build();
+
+        ComputationGraph graph = new ComputationGraph(conf);
+        graph.init();
+        return graph;
+    }
+
+    @Test
+    public void testPlanReusesBuffers() {
+        ComputationGraph graph = getGraph();
+
+        ActivationMemoryPlan inference = ActivationMemoryPlan.plan(graph, false, InputType.feedForward(5));
+        assertFalse(inference.isTraining());
+        //Forward only: d3 activations can reuse buffers of d1/d2 activations, etc
+        assertTrue(inference.getPlannedSizePerExample() < inference.getUnplannedSizePerExample());
+        assertEquals(-1, inference.getEpsilonBuffer("d0"));
+
+        ActivationMemoryPlan training = ActivationMemoryPlan.plan(graph, true, InputType.feedForward(5));
+        assertTrue(training.getPlannedSizePerExample() < training.getUnplannedSizePerExample());
+        assertTrue(training.getEpsilonBuffer("d0") >= 0);
+        //Input vertices: no epsilons
+        assertEquals(-1, training.getEpsilonBuffer("in"));
+
+        //Arrays sharing a buffer must not be alive at the same time
+        for (ActivationMemoryPlan.ArrayLifetime a : training.getLifetimes()) {
+            for (ActivationMemoryPlan.ArrayLifetime b : training.getLifetimes()) {
+                if (a == b || a.getBuffer() != b.getBuffer())
+                    continue;
+                assertTrue(a.getEnd() < b.getStart() || b.getEnd() < a.getStart());
+            }
+        }
+    }
+
+    private static ComputationGraph getRnnToFFGraph() {
+        //"l0" (RNN) and "d0" (FF) both feed into 2 vertices and have the same layer size
+        ComputationGraphConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345)
+                        .weightInit(WeightInit.XAVIER).graphBuilder().addInputs("in")
+                        .addLayer("l0", new GravesLSTM.Builder().nIn(4).nOut(6).activation(Activation.TANH).build(),
+                                        "in")
+                        .addLayer("l1", new GravesLSTM.Builder().nIn(6).nOut(6).activation(Activation.TANH).build(),
+                                        "l0")
+                        .addVertex("addR", new ElementWiseVertex(ElementWiseVertex.Op.Add), "l0", "l1")
+                        .addVertex("last", new LastTimeStepVertex("in"), "addR")
+                        .addLayer("d0", new DenseLayer.Builder().nIn(6).nOut(6).activation(Activation.TANH).build(),
+                                        "last")
+                        .addLayer("d1", new DenseLayer.Builder().nIn(6).nOut(6).activation(Activation.TANH).build(),
+                                        "d0")
+                        .addVertex("addF", new ElementWiseVertex(ElementWiseVertex.Op.Add), "d0", "d1")
+                        .addLayer("out", new OutputLayer.Builder(LossFunction.MCXENT).nIn(6).nOut(3)
+                                        .activation(Activation.SOFTMAX).build(), "addF")
+                        .setOutputs("out").backprop(true).pretrain(false).build();
+
+        ComputationGraph graph = new ComputationGraph(conf);
+        graph.init();
+        return graph;
+    }
+
+    @Test
+    public void testMixedRnnFFBuffersStable() {
+        ComputationGraph graph = getRnnToFFGraph();
+        ComputationGraph planned = graph.clone();
+        ActivationMemoryPlan plan = planned.planMemory(InputType.recurrent(4));
+
+        //RNN and FF arrays of the same layer size must never share a buffer
+        for (ActivationMemoryPlan.ArrayLifetime a : plan.getLifetimes()) {
+            for (ActivationMemoryPlan.ArrayLifetime b : plan.getLifetimes()) {
+                if (a.getBuffer() == b.getBuffer())
+                    assertEquals(a.getType(), b.getType());
+            }
+        }
+
+        INDArray in = Nd4j.rand(new int[] {3, 4, 5});
+        INDArray labels = Nd4j.zeros(3, 3);
+        for (int j = 0; j < 3; j++) {
+            labels.putScalar(j, j % 3, 1.0);
+        }
+
+        long allocated = -1;
+        for (int i = 0; i < 5; i++) {
+            graph.setInputs(in);
+            graph.setLabels(labels);
+            graph.computeGradientAndScore();
+
+            planned.setInputs(in);
+            planned.setLabels(labels);
+            planned.computeGradientAndScore();
+
+            assertEquals(graph.score(), planned.score(), 1e-6);
+            assertEquals(graph.gradient().gradient(), planned.gradient().gradient());
+
+            //Same minibatch size and time series length: no reallocation after the first iteration
+            long current = planned.bufferPool.allocatedLength();
+            assertTrue(current > 0);
+            if (i > 0)
+                assertEquals(allocated, current);
+            allocated = current;
+        }
+    }
+
+    @Test
+    public void testGradientsWithPlan() {
+        ComputationGraph graph = getGraph();
+        ComputationGraph planned = graph.clone();
+        planned.planMemory(InputType.feedForward(5));
+        assertNotNull(planned.getMemoryPlan());
+
+        for (int i = 0; i < 3; i++) {
+            //Different minibatch sizes: buffers should be reallocated as required
+            INDArray in = Nd4j.rand(3 + i, 5);
+            INDArray labels = Nd4j.zeros(3 + i, 3);
+            for (int j = 0; j < labels.size(0); j++) {
+                labels.putScalar(j, j % 3, 1.0);
+            }
+
+            graph.setInputs(in);
+            graph.setLabels(labels);
+            graph.computeGradientAndScore();
+
+            planned.setInputs(in);
+            planned.setLabels(labels);
+            planned.computeGradientAndScore();
+
+            assertEquals(graph.score(), planned.score(), 1e-6);
+            assertEquals(graph.gradient().gradient(), planned.gradient().gradient());
+        }
+
+        planned.clearMemoryPlan();
+        assertNull(planned.getMemoryPlan());
+    }
+}
@@ -8,6 +8,7 @@ import org.deeplearning4j.datasets.datavec.RecordReaderMultiDataSetIterator;
 import org.deeplearning4j.datasets.iterator.impl.IrisDataSetIterator;
 import org.deeplearning4j.eval.Evaluation;
 import org.deeplearning4j.nn.api.OptimizationAlgorithm;
+import org.deeplearning4j.nn.api.layers.IOutputLayer;
 import org.deeplearning4j.nn.conf.*;
 import org.deeplearning4j.nn.conf.distribution.UniformDistribution;
 import org.deeplearning4j.nn.conf.graph.LayerVertex;
@@ -40,8 +41,7 @@ import org.nd4j.linalg.lossfunctions.LossFunctions;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 
 import static org.junit.Assert.*;
 
@@ -915,4 +915,151 @@ public class TestComputationGraphNetwork {
                         new TransferLearning.GraphBuilder(modelToTune).setFeatureExtractor("denseCentre2").build();
         System.out.println(modelNow.summary());
     }
+
+    @Test
+    public void testGradientCheckpointingSameGradients() {
+        ComputationGraph net = getCheckpointTestGraph();
+        ComputationGraph netCheckpointed = getCheckpointTestGraph("dense1", "merge");
+        assertEquals(net.params(), netCheckpointed.params());
+
+        Nd4j.getRandom().setSeed(12345);
+        INDArray in = Nd4j.rand(5, 4);
+        INDArray labels = Nd4j.create(5, 3);
+        for (int i = 0; i < 5; i++)
+            labels.putScalar(i, i % 3, 1.0);
+
+        net.setInputs(in);
+        net.setLabels(labels);
+        net.computeGradientAndScore();
+
+        netCheckpointed.setInputs(in);
+        netCheckpointed.setLabels(labels);
+        netCheckpointed.computeGradientAndScore();
+
+        assertEquals(net.score(), netCheckpointed.score(), 1e-6);
+        assertEquals(net.gradient().gradient(), netCheckpointed.gradient().gradient());
+        //Batch norm global mean/variance must be updated only once per iteration
+        assertEquals(net.params(), netCheckpointed.params());
+
+        //Subsequent iterations (and the non-training forward pass) are unaffected by released activations
+        net.fit(new DataSet(in, labels));
+        netCheckpointed.fit(new DataSet(in, labels));
+        assertEquals(net.params(), netCheckpointed.params());
+        assertEquals(net.outputSingle(in), netCheckpointed.outputSingle(in));
+    }
+
+    @Test
+    public void testGradientCheckpointingDropoutRng() {
+        ComputationGraph net = getCheckpointTestGraph(0.5);
+        ComputationGraph netCheckpointed = getCheckpointTestGraph(0.5, "dense1", "merge");
+
+        Nd4j.getRandom().setSeed(12345);
+        INDArray in = Nd4j.rand(5, 4);
+        INDArray labels = Nd4j.zeros(5, 3);
+        for (int i = 0; i < 5; i++)
+            labels.putScalar(i, i % 3, 1.0);
+        net.setInputs(in);
+        net.setLabels(labels);
+        netCheckpointed.setInputs(in);
+        netCheckpointed.setLabels(labels);
+
+        //Same input and parameters in every iteration: gradients only differ because of the dropout masks
+        List<INDArray> gradients = new ArrayList<>();
+        List<INDArray> gradientsCheckpointed = new ArrayList<>();
+        Set<Long> seeds = new HashSet<>();
+        int nIter = 5;
+        for (int iter = 0; iter < nIter; iter++) {
+            net.computeGradientAndScore();
+            gradients.add(net.gradient().gradient().dup());
+
+            netCheckpointed.computeGradientAndScore();
+            gradientsCheckpointed.add(netCheckpointed.gradient().gradient().dup());
+            assertFalse(Double.isNaN(netCheckpointed.score()));
+            for (long seed : netCheckpointed.segmentSeeds)
+                assertTrue(seeds.add(seed));
+
+            //Recomputation must not leave the global RNG at a state a segment was (or will be) run with
+            long next = Nd4j.getRandom().nextLong();
+            assertFalse(seeds.contains(next));
+        }
+
+        //Like a normal run, every iteration of the checkpointed run uses new dropout masks
+        for (int i = 0; i < nIter; i++) {
+            for (int j = i + 1; j < nIter; j++) {
+                assertNotEquals(gradients.get(i), gradients.get(j));
+                assertNotEquals(gradientsCheckpointed.get(i), gradientsCheckpointed.get(j));
+            }
+        }
+
+        //Same global RNG stream: same (recomputed) dropout masks, and hence the same gradients
+        ComputationGraph netCheckpointed2 = getCheckpointTestGraph(0.5, "dense1", "merge");
+        netCheckpointed2.setInputs(in);
+        netCheckpointed2.setLabels(labels);
+        for (int iter = 0; iter < nIter; iter++) {
+            Nd4j.getRandom().setSeed(100 + iter);
+            netCheckpointed.computeGradientAndScore();
+            Nd4j.getRandom().setSeed(100 + iter);
+            netCheckpointed2.computeGradientAndScore();
+            assertEquals(netCheckpointed.score(), netCheckpointed2.score(), 1e-6);
+            assertEquals(netCheckpointed.gradient().gradient(), netCheckpointed2.gradient().gradient());
+        }
+    }
+
+    @Test
+    public void testLossScalingLossLayer() {
+        Nd4j.getRandom().setSeed(12345);
+        INDArray input = Nd4j.rand(5, 4);
+        INDArray labels = Nd4j.rand(5, 3);
+
+        ComputationGraph[] nets = new ComputationGraph[2];
+        for (int i = 0; i < 2; i++) {
+            ComputationGraphConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345)
+                            .weightInit(WeightInit.XAVIER).activation(Activation.TANH).graphBuilder().addInputs("in")
+                            .addLayer("dense", new DenseLayer.Builder().nIn(4).nOut(3).build(), "in")
+                            .addLayer("out", new LossLayer.Builder().lossFunction(LossFunctions.LossFunction.MSE)
+                                            .activation(Activation.IDENTITY).build(), "dense")
+                            .setOutputs("out").lossScale(i == 0 ? 1.0 : 1024.0).build();
+            nets[i] = new ComputationGraph(conf);
+            nets[i].init();
+            nets[i].setInputs(input);
+            nets[i].setLabels(labels);
+            nets[i].computeGradientAndScore();
+        }
+
+        assertEquals(1024.0, ((IOutputLayer) nets[1].getLayer("out")).getLossScale(), 0.0);
+        assertEquals(nets[0].score(), nets[1].score(), 1e-6);
+
+        Map<String, INDArray> expected = nets[0].gradient().gradientForVariable();
+        Map<String, INDArray> actual = nets[1].gradient().gradientForVariable();
+        assertEquals(expected.keySet(), actual.keySet());
+        for (String key : expected.keySet()) {
+            INDArray diff = expected.get(key).sub(actual.get(key));
+            assertEquals(key, 0.0, diff.norm2Number().doubleValue(), 1e-5);
+        }
+    }
+
+    private static ComputationGraph getCheckpointTestGraph(String... checkpoints) {
+        return getCheckpointTestGraph(0.0, checkpoints);
+    }
+
+    private static ComputationGraph getCheckpointTestGraph(double dropOut, String... checkpoints) {
+        ComputationGraphConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345).dropOut(dropOut)
+                        .optimizationAlgo(OptimizationAlgorithm.STOCHASTIC_GRADIENT_DESCENT).updater(Updater.SGD)
+                        .learningRate(0.1).activation(Activation.TANH).weightInit(WeightInit.XAVIER).graphBuilder()
+                        .addInputs("in")
+                        .addLayer("dense0", new DenseLayer.Builder().nIn(4).nOut(6).build(), "in")
+                        .addLayer("dense1", new DenseLayer.Builder().nIn(6).nOut(6).build(), "dense0")
+                        .addLayer("bn", new BatchNormalization.Builder().nIn(6).nOut(6).build(), "dense1")
+                        .addLayer("dense2", new DenseLayer.Builder().nIn(6).nOut(5).build(), "bn")
+                        .addLayer("dense3", new DenseLayer.Builder().nIn(6).nOut(5).build(), "dense1")
+                        .addVertex("merge", new MergeVertex(), "dense2", "dense3")
+                        .addLayer("dense4", new DenseLayer.Builder().nIn(10).nOut(5).build(), "merge")
+                        .addLayer("out", new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT)
+                                        .activation(Activation.SOFTMAX).nIn(5).nOut(3).build(), "dense4")
+                        .setOutputs("out").checkpointVertices(checkpoints).build();
+
+        ComputationGraph net = new ComputationGraph(conf);
+        net.init();
+        return net;
+    }
 }
@@ -1,5 +1,6 @@
 package org.deeplearning4j.nn.layers.feedforward.embedding;
 
+import org.deeplearning4j.datasets.iterator.SparseDataSetIterator;
 import org.deeplearning4j.nn.api.Layer;
 import org.deeplearning4j.nn.api.OptimizationAlgorithm;
 import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
@@ -15,6 +16,8 @@ import org.deeplearning4j.nn.weights.WeightInit;
 import org.junit.Test;
 import org.nd4j.linalg.activations.Activation;
 import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
 import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.linalg.lossfunctions.LossFunctions;
 
@@ -24,6 +27,7 @@ import java.util.Random;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class EmbeddingLayerTest {
 
@@ -154,6 +158,119 @@ public class EmbeddingLayerTest {
         }
     }
 
+    @Test
+    public void testEmbeddingBagSameAsDense() {
+        //With the same parameters, embedding layer with bag input should have the same activations and gradients as
+        // the equivalent multi-hot/counts input with a DenseLayer
+
+        int nIn = 10;
+
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().activation(Activation.TANH).list()
+                        .layer(0, new EmbeddingLayer.Builder().bagInput(true).nIn(nIn).nOut(5).build())
+                        .layer(1, new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT).nIn(5).nOut(4)
+                                        .activation(Activation.SOFTMAX).build())
+                        .pretrain(false).backprop(true).build();
+        MultiLayerConfiguration conf2 = new NeuralNetConfiguration.Builder().activation(Activation.TANH).list()
+                        .layer(0, new DenseLayer.Builder().nIn(nIn).nOut(5).build())
+                        .layer(1, new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT).nIn(5).nOut(4)
+                                        .activation(Activation.SOFTMAX).build())
+                        .pretrain(false).backprop(true).build();
+
+        MultiLayerNetwork net = new MultiLayerNetwork(conf);
+        MultiLayerNetwork net2 = new MultiLayerNetwork(conf2);
+        net.init();
+        net2.init();
+
+        net2.setParams(net.params().dup());
+
+        //CSR features; example 1 has a repeated index (count of 2), example 2 has no active inputs
+        int[] rowPointers = {0, 3, 5, 5, 6};
+        int[] columnIndices = {1, 4, 9, 2, 2, 7};
+        int batchSize = rowPointers.length - 1;
+        INDArray inDense = Nd4j.create(batchSize, nIn);
+        for (int i = 0; i < batchSize; i++) {
+            for (int j = rowPointers[i]; j < rowPointers[i + 1]; j++)
+                inDense.putScalar(i, columnIndices[j], inDense.getDouble(i, columnIndices[j]) + 1.0);
+        }
+        INDArray outLabels = Nd4j.create(batchSize, 4);
+        for (int i = 0; i < batchSize; i++)
+            outLabels.putScalar(i, i % 4, 1.0);
+
+        DataSetIterator iter = new SparseDataSetIterator(rowPointers, columnIndices, nIn, outLabels, batchSize);
+        DataSet ds = iter.next();
+        assertArrayEquals(new int[] {batchSize, 3}, ds.getFeatureMatrix().shape());
+        assertEquals(-1, ds.getFeatureMatrix().getInt(2, 0));
+
+        List<INDArray> activationsBag = net.feedForward(ds.getFeatureMatrix(), false);
+        List<INDArray> activationsDense = net2.feedForward(inDense, false);
+        for (int i = 1; i < 3; i++)
+            assertTrue(activationsDense.get(i).equalsWithEps(activationsBag.get(i), 1e-6));
+
+        net.setInput(ds.getFeatureMatrix());
+        net2.setInput(inDense);
+        net.setLabels(outLabels);
+        net2.setLabels(outLabels);
+
+        net.computeGradientAndScore();
+        net2.computeGradientAndScore();
+        assertEquals(net2.score(), net.score(), 1e-6);
+
+        Map<String, INDArray> gradient = net.gradient().gradientForVariable();
+        Map<String, INDArray> gradient2 = net2.gradient().gradientForVariable();
+        for (String s : gradient.keySet()) {
+            assertTrue(gradient2.get(s).equalsWithEps(gradient.get(s), 1e-6));
+        }
+    }
+
+    @Test
+    public void testEmbeddingRowSparseUpdates() {
+        int nIn = 10;
+        INDArray[] inputs = {Nd4j.create(new double[] {1, 3, 3, 7}, new int[] {4, 1}),
+                        Nd4j.create(new double[] {0, 9, 2, 3}, new int[] {4, 1}),
+                        Nd4j.create(new double[] {5, 5, 1, 8}, new int[] {4, 1})};
+        INDArray labels = Nd4j.create(4, 4);
+        for (int i = 0; i < 4; i++)
+            labels.putScalar(i, i % 4, 1.0);
+
+        //SGD: no updater state, so lazy (row-sparse) updates are exactly the same as dense updates
+        MultiLayerNetwork net = getEmbeddingNetwork(nIn, Updater.SGD, false);
+        MultiLayerNetwork netSparse = getEmbeddingNetwork(nIn, Updater.SGD, true);
+        assertEquals(net.params(), netSparse.params());
+        for (INDArray in : inputs) {
+            net.fit(in, labels);
+            netSparse.fit(in, labels);
+            assertTrue(net.params().equalsWithEps(netSparse.params(), 1e-6));
+        }
+
+        //Adam: same for the first iteration (zero state); afterwards, only the rows in the minibatch are updated
+        net = getEmbeddingNetwork(nIn, Updater.ADAM, false);
+        netSparse = getEmbeddingNetwork(nIn, Updater.ADAM, true);
+        net.fit(inputs[0], labels);
+        netSparse.fit(inputs[0], labels);
+        assertTrue(net.params().equalsWithEps(netSparse.params(), 1e-6));
+
+        INDArray weightsBefore = netSparse.getLayer(0).getParam(DefaultParamInitializer.WEIGHT_KEY).dup();
+        netSparse.fit(inputs[1], labels);
+        INDArray weightsAfter = netSparse.getLayer(0).getParam(DefaultParamInitializer.WEIGHT_KEY);
+        for (int row = 0; row < nIn; row++) {
+            boolean used = row == 0 || row == 9 || row == 2 || row == 3;
+            assertEquals(used, !weightsBefore.getRow(row).equals(weightsAfter.getRow(row)));
+        }
+    }
+
+    private static MultiLayerNetwork getEmbeddingNetwork(int nIn, Updater updater, boolean rowSparse) {
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345).activation(Activation.TANH)
+                        .optimizationAlgo(OptimizationAlgorithm.STOCHASTIC_GRADIENT_DESCENT).updater(updater)
+                        .learningRate(0.1).list()
+                        .layer(0, new EmbeddingLayer.Builder().rowSparseUpdates(rowSparse).nIn(nIn).nOut(5).build())
+                        .layer(1, new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT).nIn(5).nOut(4)
+                                        .activation(Activation.SOFTMAX).build())
+                        .pretrain(false).backprop(true).build();
+        MultiLayerNetwork net = new MultiLayerNetwork(conf);
+        net.init();
+        return net;
+    }
+
     @Test
     public void testEmbeddingLayerRNN() {
 
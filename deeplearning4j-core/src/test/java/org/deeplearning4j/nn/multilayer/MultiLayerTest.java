@@ -25,6 +25,7 @@ import org.deeplearning4j.eval.Evaluation;
 import org.deeplearning4j.exception.DL4JException;
 import org.deeplearning4j.nn.api.Layer;
 import org.deeplearning4j.nn.api.OptimizationAlgorithm;
+import org.deeplearning4j.nn.api.layers.IOutputLayer;
 import org.deeplearning4j.nn.conf.*;
 import org.deeplearning4j.nn.conf.distribution.NormalDistribution;
 import org.deeplearning4j.nn.conf.distribution.UniformDistribution;
@@ -1034,4 +1035,79 @@ public class MultiLayerTest {
         System.out.println(modelExpectedArch.summary());
         System.out.println(modelMow.summary());
     }
+
+    @Test
+    public void testLossScaling() {
+        Nd4j.getRandom().setSeed(12345);
+        INDArray input = Nd4j.rand(5, 4);
+        INDArray labels = Nd4j.rand(5, 3);
+
+        MultiLayerNetwork[] nets = new MultiLayerNetwork[2];
+        for (int i = 0; i < 2; i++) {
+            MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345)
+                            .weightInit(WeightInit.XAVIER).activation(Activation.TANH).list()
+                            .layer(0, new DenseLayer.Builder().nIn(4).nOut(6).build())
+                            .layer(1, new OutputLayer.Builder().lossFunction(LossFunctions.LossFunction.MSE).nIn(6)
+                                            .nOut(3).build())
+                            .lossScale(i == 0 ? 1.0 : 1024.0).build();
+            nets[i] = new MultiLayerNetwork(conf);
+            nets[i].init();
+            nets[i].setInput(input);
+            nets[i].setLabels(labels);
+            nets[i].computeGradientAndScore();
+        }
+
+        assertEquals(1024.0, ((BaseOutputLayer) nets[1].getOutputLayer()).getLossScale(), 0.0);
+        assertEquals(nets[0].score(), nets[1].score(), 1e-6);
+
+        //Gradients passed to the updater are unscaled
+        Map<String, INDArray> expected = nets[0].gradient().gradientForVariable();
+        Map<String, INDArray> actual = nets[1].gradient().gradientForVariable();
+        assertEquals(expected.keySet(), actual.keySet());
+        for (String key : expected.keySet()) {
+            INDArray diff = expected.get(key).sub(actual.get(key));
+            assertEquals(key, 0.0, diff.norm2Number().doubleValue(), 1e-5);
+        }
+    }
+
+    @Test
+    public void testLossScalingLossLayer() {
+        Nd4j.getRandom().setSeed(12345);
+        INDArray input = Nd4j.rand(5, 4);
+        INDArray labels = Nd4j.rand(5, 3);
+
+        MultiLayerNetwork[] nets = new MultiLayerNetwork[2];
+        for (int i = 0; i < 2; i++) {
+            MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345)
+                            .weightInit(WeightInit.XAVIER).activation(Activation.TANH).list()
+                            .layer(0, new DenseLayer.Builder().nIn(4).nOut(3).build())
+                            .layer(1, new LossLayer.Builder().lossFunction(LossFunctions.LossFunction.MSE)
+                                            .activation(Activation.IDENTITY).build())
+                            .lossScale(i == 0 ? 1.0 : 1024.0).build();
+            nets[i] = new MultiLayerNetwork(conf);
+            nets[i].init();
+            nets[i].setInput(input);
+            nets[i].setLabels(labels);
+            nets[i].computeGradientAndScore();
+        }
+
+        assertEquals(1024.0, ((IOutputLayer) nets[1].getOutputLayer()).getLossScale(), 0.0);
+        assertEquals(nets[0].score(), nets[1].score(), 1e-6);
+
+        Map<String, INDArray> expected = nets[0].gradient().gradientForVariable();
+        Map<String, INDArray> actual = nets[1].gradient().gradientForVariable();
+        assertEquals(expected.keySet(), actual.keySet());
+        for (String key : expected.keySet()) {
+            INDArray diff = expected.get(key).sub(actual.get(key));
+            assertEquals(key, 0.0, diff.norm2Number().doubleValue(), 1e-5);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testLossScalingUnsupportedOutput() {
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().list()
+                        .layer(0, new DenseLayer.Builder().nIn(4).nOut(3).build())
+                        .layer(1, new DenseLayer.Builder().nIn(3).nOut(3).build()).lossScale(1024.0).build();
+        new MultiLayerNetwork(conf).init();
+    }
 }
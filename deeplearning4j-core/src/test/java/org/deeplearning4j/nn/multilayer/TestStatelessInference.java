@@ -0,0 +1,114 @@
+package org.deeplearning4j.nn.multilayer;
+
+import org.deeplearning4j.nn.api.Layer;
+import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.graph.MergeVertex;
+import org.deeplearning4j.nn.conf.inputs.InputType;
+import org.deeplearning4j.nn.conf.layers.*;
+import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.nn.weights.WeightInit;
+import org.junit.Test;
+import org.nd4j.linalg.activations.Activation;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.lossfunctions.LossFunctions.LossFunction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests for MultiLayerNetwork.outputStateless and ComputationGraph.outputStateless
+ */
+public class TestStatelessInference {
+
+    private static void clearInputs(MultiLayerNetwork net) {
+        for (Layer l : net.getLayers()) {
+            l.setInput(null);
+        }
+    }
+
+    @Test
+    public void testMultiLayerCnn() {
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345).weightInit(WeightInit.XAVIER)
+                        .list()
+                        .layer(0, new ConvolutionLayer.Builder(3, 3).nOut(4).activation(Activation.IDENTITY).build())
+                        .layer(1, new BatchNormalization.Builder().build())
+                        .layer(2, new ActivationLayer.Builder().activation(Activation.RELU).build())
+                        .layer(3, new SubsamplingLayer.Builder(SubsamplingLayer.PoolingType.MAX).kernelSize(2, 2)
+                                        .stride(2, 2).build())
+                        .layer(4, new DenseLayer.Builder().nOut(10).activation(Activation.TANH).build())
+                        .layer(5, new OutputLayer.Builder(LossFunction.MCXENT).nOut(5).activation(Activation.SOFTMAX)
+                                        .build())
+                        .setInputType(InputType.convolutional(10, 10, 2)).backprop(true).pretrain(false).build();
+
+        MultiLayerNetwork net = new MultiLayerNetwork(conf);
+        net.init();
+
+        INDArray in = Nd4j.rand(new int[] {3, 2, 10, 10});
+        INDArray inCopy = in.dup();
+        INDArray expected = net.output(in, false);
+
+        //Clear the layer state set by output(...)
+        clearInputs(net);
+
+        INDArray actual = net.outputStateless(in);
+        assertEquals(expected, actual);
+        assertEquals(inCopy, in);
+
+        for (Layer l : net.getLayers()) {
+            assertNull(l.input());
+        }
+    }
+
+    @Test
+    public void testMultiLayerRnn() {
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345).weightInit(WeightInit.XAVIER)
+                        .list()
+                        .layer(0, new GravesLSTM.Builder().nIn(4).nOut(6).activation(Activation.TANH).build())
+                        .layer(1, new GravesBidirectionalLSTM.Builder().nIn(6).nOut(6).activation(Activation.TANH)
+                                        .build())
+                        .layer(2, new RnnOutputLayer.Builder(LossFunction.MCXENT).nIn(6).nOut(3)
+                                        .activation(Activation.SOFTMAX).build())
+                        .backprop(true).pretrain(false).build();
+
+        MultiLayerNetwork net = new MultiLayerNetwork(conf);
+        net.init();
+
+        INDArray in = Nd4j.rand(new int[] {2, 4, 7});
+        INDArray expected = net.output(in, false);
+        clearInputs(net);
+
+        assertEquals(expected, net.outputStateless(in));
+
+        //GravesBidirectionalLSTM has no stateless implementation: fallback path should also clear its input
+        for (Layer l : net.getLayers()) {
+            assertNull(l.input());
+        }
+    }
+
+    @Test
+    public void testComputationGraph() {
+        ComputationGraphConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345)
+                        .weightInit(WeightInit.XAVIER).graphBuilder().addInputs("in")
+                        .addLayer("d0", new DenseLayer.Builder().nIn(5).nOut(6).activation(Activation.TANH).build(),
+                                        "in")
+                        .addLayer("d1", new DenseLayer.Builder().nIn(5).nOut(4).activation(Activation.RELU).build(),
+                                        "in")
+                        .addVertex("merge", new MergeVertex(), "d0", "d1")
+                        .addLayer("out", new OutputLayer.Builder(LossFunction.MCXENT).nIn(10).nOut(3)
+                                        .activation(Activation.SOFTMAX).build(), "merge")
+                        .setOutputs("out").backprop(true).pretrain(false).build();
+
+        ComputationGraph graph = new ComputationGraph(conf);
+        graph.init();
+
+        INDArray in = Nd4j.rand(4, 5);
+        INDArray expected = graph.output(false, in)[0];
+
+        INDArray[] actual = graph.outputStateless(in);
+        assertEquals(1, actual.length);
+        assertEquals(expected, actual[0]);
+    }
+}
@@ -19,6 +19,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.nd4j.linalg.activations.Activation;
 import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
 import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.linalg.learning.*;
 import org.nd4j.linalg.lossfunctions.LossFunctions;
@@ -670,4 +671,44 @@ public class TestUpdaters {
         AdaGrad adaGrad = (AdaGrad) u3.updaterForVariable.get("W");
         assertEquals(e, adaGrad.getEpsilon(), 0.0);
     }
+
+    @Test
+    public void testFusedUpdaterSameAsPerLayer() {
+        org.deeplearning4j.nn.conf.Updater[] updaters = {org.deeplearning4j.nn.conf.Updater.SGD,
+                        org.deeplearning4j.nn.conf.Updater.NESTEROVS, org.deeplearning4j.nn.conf.Updater.ADAM,
+                        org.deeplearning4j.nn.conf.Updater.RMSPROP, org.deeplearning4j.nn.conf.Updater.ADAGRAD,
+                        org.deeplearning4j.nn.conf.Updater.ADADELTA};
+
+        Nd4j.getRandom().setSeed(12345);
+        DataSet ds = new DataSet(Nd4j.rand(5, 4), Nd4j.rand(5, 3));
+
+        for (org.deeplearning4j.nn.conf.Updater u : updaters) {
+            MultiLayerNetwork[] nets = new MultiLayerNetwork[2];
+            for (int i = 0; i < 2; i++) {
+                MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345).learningRate(0.1)
+                                .updater(u).regularization(true).l2(0.01).list()
+                                .layer(0, new DenseLayer.Builder().nIn(4).nOut(5).build())
+                                .layer(1, new DenseLayer.Builder().nIn(5).nOut(5).build())
+                                .layer(2, new DenseLayer.Builder().nIn(5).nOut(5).learningRate(0.2).build())
+                                .layer(3, new OutputLayer.Builder().nIn(5).nOut(3)
+                                                .lossFunction(LossFunctions.LossFunction.MSE).build())
+                                .fusedUpdater(i == 1).build();
+                nets[i] = new MultiLayerNetwork(conf);
+                nets[i].init();
+            }
+            assertEquals(nets[0].params(), nets[1].params());
+
+            //Layers 0, 1 and 3 share the same configuration, but layer 2 doesn't: 3 blocks
+            FusedUpdater fused = ((MultiLayerUpdater) nets[1].getUpdater()).getFusedUpdater();
+            assertNotNull(fused);
+            assertEquals(3, fused.numBlocks());
+            assertNull(((MultiLayerUpdater) nets[0].getUpdater()).getFusedUpdater());
+
+            for (int i = 0; i < 3; i++) {
+                nets[0].fit(ds);
+                nets[1].fit(ds);
+                assertEquals(u.toString(), nets[0].params(), nets[1].params());
+            }
+        }
+    }
 }
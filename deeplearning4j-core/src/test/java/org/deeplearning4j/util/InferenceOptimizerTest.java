@@ -0,0 +1,106 @@
+package org.deeplearning4j.util;
+
+import org.deeplearning4j.datasets.iterator.impl.IrisDataSetIterator;
+import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.Updater;
+import org.deeplearning4j.nn.conf.graph.MergeVertex;
+import org.deeplearning4j.nn.conf.inputs.InputType;
+import org.deeplearning4j.nn.conf.layers.*;
+import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.nn.weights.WeightInit;
+import org.junit.Test;
+import org.nd4j.linalg.activations.Activation;
+import org.nd4j.linalg.activations.impl.ActivationReLU;
+import org.nd4j.linalg.activations.impl.ActivationTanH;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
+import org.nd4j.linalg.lossfunctions.LossFunctions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class InferenceOptimizerTest {
+
+    @Test
+    public void testOptimizeMLN() {
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345).updater(Updater.NESTEROVS)
+                        .learningRate(0.1).weightInit(WeightInit.XAVIER).list()
+                        .layer(0, new ConvolutionLayer.Builder().kernelSize(2, 2).nOut(6)
+                                        .activation(Activation.IDENTITY).build())
+                        .layer(1, new BatchNormalization.Builder().build())
+                        .layer(2, new ActivationLayer.Builder().activation(Activation.RELU).build())
+                        .layer(3, new DropoutLayer.Builder(0.5).build())
+                        .layer(4, new DenseLayer.Builder().nOut(10).activation(Activation.IDENTITY).build())
+                        .layer(5, new BatchNormalization.Builder().build())
+                        .layer(6, new DenseLayer.Builder().nOut(10).activation(Activation.TANH).build())
+                        .layer(7, new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT)
+                                        .activation(Activation.SOFTMAX).nOut(3).build())
+                        .setInputType(InputType.convolutionalFlat(2, 2, 1)).build();
+
+        MultiLayerNetwork net = new MultiLayerNetwork(conf);
+        net.init();
+        DataSet ds = trainingData();
+        for (int i = 0; i < 10; i++)
+            net.fit(ds);
+
+        MultiLayerNetwork optimized = InferenceOptimizer.optimize(net);
+
+        //Conv + BN + activation, dropout removed, dense + BN, dense, output
+        assertEquals(4, optimized.getnLayers());
+        assertTrue(optimized.getLayer(0).conf().getLayer() instanceof ConvolutionLayer);
+        assertTrue(optimized.getLayer(0).conf().getLayer().getActivationFn() instanceof ActivationReLU);
+        assertTrue(optimized.getLayer(1).conf().getLayer() instanceof DenseLayer);
+        assertTrue(optimized.numParams() < net.numParams());
+
+        INDArray expected = net.output(ds.getFeatureMatrix(), false);
+        assertTrue(expected.equalsWithEps(optimized.output(ds.getFeatureMatrix(), false), 1e-5));
+    }
+
+    @Test
+    public void testOptimizeComputationGraph() {
+        ComputationGraphConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345)
+                        .updater(Updater.NESTEROVS).learningRate(0.1).weightInit(WeightInit.XAVIER).graphBuilder()
+                        .addInputs("in")
+                        .addLayer("dense0", new DenseLayer.Builder().nIn(4).nOut(8).activation(Activation.IDENTITY)
+                                        .build(), "in")
+                        .addLayer("bn0", new BatchNormalization.Builder().nOut(8).build(), "dense0")
+                        .addLayer("act0", new ActivationLayer.Builder().activation(Activation.TANH).build(), "bn0")
+                        .addLayer("dropout", new DropoutLayer.Builder(0.5).build(), "act0")
+                        //dense1 has two consumers: must not be folded
+                        .addLayer("dense1", new DenseLayer.Builder().nIn(8).nOut(6).activation(Activation.IDENTITY)
+                                        .build(), "dropout")
+                        .addLayer("bn1", new BatchNormalization.Builder().nOut(6).build(), "dense1")
+                        .addLayer("dense2", new DenseLayer.Builder().nIn(6).nOut(6).activation(Activation.TANH)
+                                        .build(), "dense1")
+                        .addVertex("merge", new MergeVertex(), "bn1", "dense2")
+                        .addLayer("out", new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT)
+                                        .activation(Activation.SOFTMAX).nIn(12).nOut(3).build(), "merge")
+                        .setOutputs("out").build();
+
+        ComputationGraph net = new ComputationGraph(conf);
+        net.init();
+        DataSet ds = trainingData();
+        for (int i = 0; i < 10; i++)
+            net.fit(ds);
+
+        ComputationGraph optimized = InferenceOptimizer.optimize(net);
+
+        //dense0 + bn0 + act0 folded into 'act0'; dropout removed
+        assertEquals(net.getVertices().length - 3, optimized.getVertices().length);
+        assertTrue(optimized.getLayer("act0").conf().getLayer().getActivationFn() instanceof ActivationTanH);
+        assertTrue(optimized.getLayer("act0").conf().getLayer() instanceof DenseLayer);
+        assertTrue(optimized.getLayer("bn1").conf().getLayer() instanceof BatchNormalization);
+
+        INDArray expected = net.outputSingle(ds.getFeatureMatrix());
+        assertTrue(expected.equalsWithEps(optimized.outputSingle(ds.getFeatureMatrix()), 1e-5));
+    }
+
+    private static DataSet trainingData() {
+        DataSetIterator iter = new IrisDataSetIterator(150, 150);
+        return iter.next();
+    }
+}
@@ -1,10 +1,15 @@
 package org.deeplearning4j.util;
 
+import org.deeplearning4j.berkeley.Pair;
 import org.deeplearning4j.datasets.iterator.impl.IrisDataSetIterator;
+import org.deeplearning4j.eval.Evaluation;
 import org.deeplearning4j.nn.api.OptimizationAlgorithm;
 import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
 import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
 import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.PrecisionPolicy;
+import org.deeplearning4j.nn.conf.inputs.InputType;
+import org.deeplearning4j.nn.conf.layers.ConvolutionLayer;
 import org.deeplearning4j.nn.conf.layers.DenseLayer;
 import org.deeplearning4j.nn.conf.layers.OutputLayer;
 import org.deeplearning4j.nn.graph.ComputationGraph;
@@ -12,6 +17,7 @@ import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
 import org.deeplearning4j.nn.weights.WeightInit;
 import org.junit.Test;
 import org.nd4j.linalg.activations.Activation;
+import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
 import org.nd4j.linalg.dataset.api.preprocessor.NormalizerMinMaxScaler;
 import org.nd4j.linalg.lossfunctions.LossFunctions;
@@ -19,9 +25,14 @@ import org.nd4j.linalg.lossfunctions.LossFunctions;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.util.List;
+import java.util.zip.ZipFile;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 /**
  * @author raver119@gmail.com
@@ -153,4 +164,140 @@ public class ModelSerializerTest {
         assertEquals(cg.params(), network.params());
         assertEquals(cg.getUpdater(), network.getUpdater());
     }
+
+    @Test
+    public void testWriteMLNModelHalfParams() throws Exception {
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345).learningRate(0.1)
+                        .activation(Activation.TANH).weightInit(WeightInit.XAVIER).list()
+                        .layer(0, new DenseLayer.Builder().nIn(5).nOut(20).build())
+                        .layer(1, new OutputLayer.Builder().lossFunction(LossFunctions.LossFunction.MSE).nIn(20)
+                                        .nOut(6).build())
+                        .precisionPolicy(PrecisionPolicy.HalfSerializedParams).build();
+
+        MultiLayerNetwork net = new MultiLayerNetwork(conf);
+        net.init();
+
+        File tempFile = File.createTempFile("tsfs", "fdfsdf");
+        tempFile.deleteOnExit();
+
+        ModelSerializer.writeModel(net, tempFile, true);
+
+        try (ZipFile zipFile = new ZipFile(tempFile)) {
+            assertNull(zipFile.getEntry(ModelSerializer.COEFFICIENTS_BIN));
+            assertNotNull(zipFile.getEntry(ModelSerializer.COEFFICIENTS_FP16_BIN));
+        }
+
+        MultiLayerNetwork network = ModelSerializer.restoreMultiLayerNetwork(tempFile);
+
+        assertEquals(network.getLayerWiseConfigurations().toJson(), net.getLayerWiseConfigurations().toJson());
+        assertEquals(PrecisionPolicy.HalfSerializedParams,
+                        network.getLayerWiseConfigurations().getPrecisionPolicy());
+        //FP16 has an 11 bit significand: relative error <= 2^-11
+        INDArray diff = net.params().sub(network.params());
+        assertTrue(diff.norm1Number().doubleValue() <= net.params().norm1Number().doubleValue() / 2048.0);
+    }
+
+    @Test
+    public void testHalfPrecisionConversion() {
+        float[] exact = {0.0f, -0.0f, 1.0f, -2.5f, 0.099975586f, 65504.0f, 6.1035156e-5f, 5.9604645e-8f,
+                        Float.POSITIVE_INFINITY, Float.NEGATIVE_INFINITY};
+        for (float f : exact)
+            assertEquals(f, HalfPrecisionUtil.toFloat(HalfPrecisionUtil.toHalf(f)), 0.0f);
+
+        assertTrue(Float.isNaN(HalfPrecisionUtil.toFloat(HalfPrecisionUtil.toHalf(Float.NaN))));
+        assertEquals(Float.POSITIVE_INFINITY, HalfPrecisionUtil.toFloat(HalfPrecisionUtil.toHalf(1e6f)), 0.0f);
+        assertEquals(0.0f, HalfPrecisionUtil.toFloat(HalfPrecisionUtil.toHalf(1e-10f)), 0.0f);
+        assertEquals(0.1f, HalfPrecisionUtil.toFloat(HalfPrecisionUtil.toHalf(0.1f)), 1e-4f);
+    }
+
+    @Test
+    public void testHalfPrecisionOverflowBoundary() {
+        //Round to nearest even: values below 65520 round down to the largest half value, 65520 and above overflow
+        assertEquals(65504.0f, HalfPrecisionUtil.toFloat(HalfPrecisionUtil.toHalf(65504.0f)), 0.0f);
+        assertEquals(65504.0f, HalfPrecisionUtil.toFloat(HalfPrecisionUtil.toHalf(65519.0f)), 0.0f);
+        float belowOverflow = Math.nextAfter(65520.0f, 0.0);
+        assertEquals(65504.0f, HalfPrecisionUtil.toFloat(HalfPrecisionUtil.toHalf(belowOverflow)), 0.0f);
+        assertEquals(Float.POSITIVE_INFINITY, HalfPrecisionUtil.toFloat(HalfPrecisionUtil.toHalf(65520.0f)), 0.0f);
+        assertEquals(Float.POSITIVE_INFINITY, HalfPrecisionUtil.toFloat(HalfPrecisionUtil.toHalf(65535.0f)), 0.0f);
+        assertEquals(Float.NEGATIVE_INFINITY, HalfPrecisionUtil.toFloat(HalfPrecisionUtil.toHalf(-65520.0f)), 0.0f);
+        assertEquals(-65504.0f, HalfPrecisionUtil.toFloat(HalfPrecisionUtil.toHalf(-65519.0f)), 0.0f);
+
+        //Ties to even: 2049 is halfway between 2048 and 2050 (half values are spaced 2 apart here)
+        assertEquals(2048.0f, HalfPrecisionUtil.toFloat(HalfPrecisionUtil.toHalf(2049.0f)), 0.0f);
+        assertEquals(2052.0f, HalfPrecisionUtil.toFloat(HalfPrecisionUtil.toHalf(2051.0f)), 0.0f);
+    }
+
+    @Test
+    public void testWriteQuantizedMLNModel() throws Exception {
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345).learningRate(0.1)
+                        .activation(Activation.TANH).weightInit(WeightInit.XAVIER).list()
+                        .layer(0, new ConvolutionLayer.Builder().kernelSize(2, 2).nOut(20).build())
+                        .layer(1, new DenseLayer.Builder().nOut(100).build())
+                        .layer(2, new OutputLayer.Builder().lossFunction(LossFunctions.LossFunction.MCXENT)
+                                        .activation(Activation.SOFTMAX).nOut(3).build())
+                        .setInputType(InputType.convolutionalFlat(2, 2, 1)).build();
+
+        MultiLayerNetwork net = new MultiLayerNetwork(conf);
+        net.init();
+        DataSetIterator iter = new IrisDataSetIterator(150, 150);
+        for (int i = 0; i < 10; i++) {
+            net.fit(iter);
+            iter.reset();
+        }
+
+        MultiLayerNetwork quantized = ModelQuantizer.toInt8Storage(net);
+        assertEquals(PrecisionPolicy.Full, net.getLayerWiseConfigurations().getPrecisionPolicy());
+        assertEquals(PrecisionPolicy.Int8SerializedWeights,
+                        quantized.getLayerWiseConfigurations().getPrecisionPolicy());
+
+        //Conv (20x1x2x2), dense (20x100) and output layer (100x3) weights; biases are not quantized
+        List<int[]> ranges = Int8QuantizationUtil.weightRanges(net);
+        assertEquals(3, ranges.size());
+        int nWeights = 0;
+        for (int[] range : ranges)
+            nWeights += range[1];
+        assertEquals(2000 + 80 + 300, nWeights);
+        for (int i = 0; i < 3; i++)
+            assertEquals(net.getLayer(i).getParam("b"), quantized.getLayer(i).getParam("b"));
+
+        //Rounding error: at most half a quantization step (max abs value / 127 per output channel)
+        float[] original = net.params().data().asFloat();
+        float[] rounded = quantized.params().data().asFloat();
+        for (int[] range : ranges) {
+            int channelLength = range[1] / range[2];
+            for (int c = 0; c < range[2]; c++) {
+                float maxAbs = 0.0f;
+                for (int i = range[0] + c * channelLength; i < range[0] + (c + 1) * channelLength; i++)
+                    maxAbs = Math.max(maxAbs, Math.abs(original[i]));
+                for (int i = range[0] + c * channelLength; i < range[0] + (c + 1) * channelLength; i++)
+                    assertEquals(original[i], rounded[i], maxAbs / 254.0f + 1e-6f);
+            }
+        }
+
+        Pair<Evaluation, Evaluation> eval = ModelQuantizer.evaluate(net, quantized, iter);
+        assertEquals(eval.getFirst().accuracy(), eval.getSecond().accuracy(), 0.05);
+
+        File tempFile = File.createTempFile("tsfs", "fdfsdf");
+        tempFile.deleteOnExit();
+        ModelSerializer.writeModel(quantized, tempFile, false);
+
+        File fullFile = File.createTempFile("tsfs", "fdfsdf");
+        fullFile.deleteOnExit();
+        ModelSerializer.writeModel(net, fullFile, false);
+
+        try (ZipFile zipFile = new ZipFile(tempFile); ZipFile fullZipFile = new ZipFile(fullFile)) {
+            assertNull(zipFile.getEntry(ModelSerializer.COEFFICIENTS_BIN));
+            long int8Size = zipFile.getEntry(ModelSerializer.COEFFICIENTS_INT8_BIN).getSize();
+            long fullSize = fullZipFile.getEntry(ModelSerializer.COEFFICIENTS_BIN).getSize();
+            assertTrue(int8Size < fullSize / 2);
+        }
+
+        MultiLayerNetwork restored = ModelSerializer.restoreMultiLayerNetwork(tempFile);
+        assertEquals(PrecisionPolicy.Int8SerializedWeights,
+                        restored.getLayerWiseConfigurations().getPrecisionPolicy());
+        assertTrue(quantized.params().equalsWithEps(restored.params(), 1e-6));
+        iter.reset();
+        INDArray features = iter.next().getFeatureMatrix();
+        assertTrue(quantized.output(features).equalsWithEps(restored.output(features), 1e-5));
+    }
 }
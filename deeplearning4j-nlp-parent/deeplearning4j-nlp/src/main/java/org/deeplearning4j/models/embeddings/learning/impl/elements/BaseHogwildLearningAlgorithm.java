@@ -0,0 +1,309 @@
+package org.deeplearning4j.models.embeddings.learning.impl.elements;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.deeplearning4j.models.embeddings.WeightLookupTable;
+import org.deeplearning4j.models.embeddings.inmemory.InMemoryLookupTable;
+import org.deeplearning4j.models.embeddings.learning.ElementsLearningAlgorithm;
+import org.deeplearning4j.models.embeddings.loader.VectorsConfiguration;
+import org.deeplearning4j.models.sequencevectors.interfaces.SequenceIterator;
+import org.deeplearning4j.models.sequencevectors.sequence.Sequence;
+import org.deeplearning4j.models.sequencevectors.sequence.SequenceElement;
+import org.deeplearning4j.models.word2vec.wordstore.VocabCache;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Base class for Hogwild-style ElementsLearningAlgorithm implementations.
+ *
+ * Instead of building one native aggregate op per training sample, weights are kept in flat float[] arrays shared
+ * by all worker threads, and updated in place without any locking, the same way original word2vec C code does.
+ * Occasional lost updates caused by concurrent writes are tolerated: with sparse updates they don't affect
+ * convergence, but the per-sample op construction and dispatch overhead goes away entirely.
+ * Each worker thread reuses its own scratch vectors, so there are no allocations in the training loop.
+ *
+ * PLEASE NOTE: syn0/syn1/syn1Neg are copied out of the lookup table in {@link #configure}, and written back on
+ * {@link #finish()}, i.e. at the end of each epoch. Lookup table contents are stale in between, and weights are
+ * held twice in memory during training.
+ */
+@Slf4j
+public abstract class BaseHogwildLearningAlgorithm<T extends SequenceElement> implements ElementsLearningAlgorithm<T> {
+    protected static final double MAX_EXP = 6;
+
+    protected VocabCache<T> vocabCache;
+    protected WeightLookupTable<T> lookupTable;
+    protected VectorsConfiguration configuration;
+
+    protected int window;
+    protected int negative;
+    protected double sampling;
+    protected int[] variableWindows;
+    protected boolean useHS;
+    protected int vectorLength;
+    protected int numWords;
+
+    protected float[] syn0, syn1, syn1Neg, expTable;
+    protected int[] table;
+
+    protected volatile boolean dirty = false;
+
+    protected ThreadLocal<Scratch> scratch = new ThreadLocal<>();
+
+    /**
+     * Per-thread reusable buffers
+     */
+    protected static class Scratch {
+        protected final float[] neu1;
+        protected final float[] neu1e;
+        protected long nextRandom;
+
+        protected Scratch(int vectorLength) {
+            this.neu1 = new float[vectorLength];
+            this.neu1e = new float[vectorLength];
+        }
+    }
+
+    @Override
+    public void configure(@NonNull VocabCache<T> vocabCache, @NonNull WeightLookupTable<T> lookupTable,
+                    @NonNull VectorsConfiguration configuration) {
+        if (!(lookupTable instanceof InMemoryLookupTable))
+            throw new IllegalStateException(getCodeName() + " requires InMemoryLookupTable");
+
+        this.vocabCache = vocabCache;
+        this.lookupTable = lookupTable;
+        this.configuration = configuration;
+
+        InMemoryLookupTable<T> inMemoryTable = (InMemoryLookupTable<T>) lookupTable;
+        if (configuration.getNegative() > 0) {
+            if (inMemoryTable.getSyn1Neg() == null) {
+                log.info("Initializing syn1Neg...");
+                inMemoryTable.setUseHS(configuration.isUseHierarchicSoftmax());
+                inMemoryTable.setNegative(configuration.getNegative());
+                inMemoryTable.resetWeights(false);
+            }
+        }
+
+        this.window = configuration.getWindow();
+        this.negative = (int) configuration.getNegative();
+        this.sampling = configuration.getSampling();
+        this.variableWindows = configuration.getVariableWindows();
+        this.useHS = configuration.isUseHierarchicSoftmax();
+        this.vectorLength = lookupTable.layerSize();
+        this.numWords = vocabCache.numWords();
+
+        this.syn0 = flatten(inMemoryTable.getSyn0());
+        this.syn1 = useHS ? flatten(inMemoryTable.getSyn1()) : null;
+        this.syn1Neg = negative > 0 ? flatten(inMemoryTable.getSyn1Neg()) : null;
+        this.table = negative > 0 ? inMemoryTable.getTable().data().asInt() : null;
+
+        double[] exp = inMemoryTable.getExpTable();
+        this.expTable = new float[exp.length];
+        for (int i = 0; i < exp.length; i++)
+            expTable[i] = (float) exp[i];
+
+        this.dirty = false;
+    }
+
+    protected static float[] flatten(INDArray array) {
+        if (array == null)
+            return null;
+
+        if (array.length() > Integer.MAX_VALUE - 8)
+            throw new IllegalStateException("Weights matrix is too large for flat storage: " + array.length()
+                            + " elements");
+
+        return array.dup('c').data().asFloat();
+    }
+
+    /**
+     * Hogwild algorithms don't involve any pretraining
+     */
+    @Override
+    public void pretrain(SequenceIterator<T> iterator) {
+        // no-op
+    }
+
+    /**
+     * Writes flat weights back into the lookup table
+     */
+    @Override
+    public synchronized void finish() {
+        if (!dirty)
+            return;
+
+        // other threads might still be training, so reset the flag first: they'll write back on their own finish()
+        dirty = false;
+
+        InMemoryLookupTable<T> inMemoryTable = (InMemoryLookupTable<T>) lookupTable;
+        writeBack(syn0, inMemoryTable.getSyn0());
+        if (syn1 != null)
+            writeBack(syn1, inMemoryTable.getSyn1());
+        if (syn1Neg != null)
+            writeBack(syn1Neg, inMemoryTable.getSyn1Neg());
+    }
+
+    protected static void writeBack(float[] data, INDArray target) {
+        target.assign(Nd4j.create(data, target.shape()));
+    }
+
+    @Override
+    public boolean isEarlyTerminationHit() {
+        return false;
+    }
+
+    protected Scratch getScratch() {
+        Scratch s = scratch.get();
+        if (s == null || s.neu1.length != vectorLength) {
+            s = new Scratch(vectorLength);
+            scratch.set(s);
+        }
+        return s;
+    }
+
+    @Override
+    public double learnSequence(Sequence<T> sequence, AtomicLong nextRandom, double learningRate) {
+        Scratch s = getScratch();
+        s.nextRandom = nextRandom.get();
+
+        List<T> elements = sequence.getElements();
+        if (sampling > 0)
+            elements = applySubsampling(elements, s);
+
+        int currentWindow = window;
+        if (variableWindows != null && variableWindows.length != 0) {
+            currentWindow = variableWindows[RandomUtils.nextInt(variableWindows.length)];
+        }
+
+        float alpha = (float) learningRate;
+        for (int i = 0; i < elements.size(); i++) {
+            s.nextRandom = nextRandom(s.nextRandom);
+            int b = (int) (s.nextRandom % currentWindow);
+            learnWindow(elements, i, b, currentWindow, alpha, s);
+        }
+
+        dirty = true;
+        nextRandom.set(s.nextRandom);
+        return 0;
+    }
+
+    /**
+     * Trains single window around element at position i
+     *
+     * @param elements      sequence elements
+     * @param i             position of the current element
+     * @param b             random window shrink
+     * @param currentWindow window size
+     */
+    protected abstract void learnWindow(List<T> elements, int i, int b, int currentWindow, float alpha, Scratch s);
+
+    protected static long nextRandom(long nextRandom) {
+        return Math.abs(nextRandom * 25214903917L + 11);
+    }
+
+    protected List<T> applySubsampling(List<T> elements, Scratch s) {
+        double numWords = vocabCache.totalWordOccurrences();
+        List<T> result = new ArrayList<>(elements.size());
+        for (T element : elements) {
+            double ran = (Math.sqrt(element.getElementFrequency() / (sampling * numWords)) + 1) * (sampling * numWords)
+                            / element.getElementFrequency();
+
+            s.nextRandom = nextRandom(s.nextRandom);
+            if (ran < (s.nextRandom & 0xFFFF) / (double) 65536)
+                continue;
+
+            result.add(element);
+        }
+        return result;
+    }
+
+    /**
+     * Runs hierarchic softmax and/or negative sampling for the given target element. Updates of syn1/syn1Neg are
+     * applied immediately, while the error for the input vector is accumulated into neu1e.
+     *
+     * @param target   element being predicted
+     * @param in       array holding the input vector
+     * @param inOffset offset of the input vector within in
+     * @param neu1e    error accumulator
+     */
+    protected void trainTarget(T target, float[] in, int inOffset, float[] neu1e, float alpha, Scratch s) {
+        int targetIdx = target.getIndex();
+
+        if (useHS && syn1 != null) {
+            int codeLength = target.getCodeLength();
+            for (int d = 0; d < codeLength; d++) {
+                int point = target.getPoints().get(d);
+                if (point < 0)
+                    continue;
+
+                int l2 = point * vectorLength;
+                float f = dot(in, inOffset, syn1, l2);
+                if (f <= -MAX_EXP || f >= MAX_EXP)
+                    continue;
+
+                float g = (1 - target.getCodes().get(d) - sigmoid(f)) * alpha;
+                update(neu1e, in, inOffset, syn1, l2, g);
+            }
+        }
+
+        if (negative > 0 && syn1Neg != null) {
+            for (int d = 0; d < negative + 1; d++) {
+                int label;
+                int sample;
+                if (d == 0) {
+                    sample = targetIdx;
+                    label = 1;
+                } else {
+                    s.nextRandom = nextRandom(s.nextRandom);
+                    sample = table[(int) ((s.nextRandom >> 16) % table.length)];
+                    if (sample <= 0 || sample >= numWords)
+                        sample = (int) (s.nextRandom % (numWords - 1)) + 1;
+                    if (sample == targetIdx)
+                        continue;
+                    label = 0;
+                }
+
+                int l2 = sample * vectorLength;
+                float f = dot(in, inOffset, syn1Neg, l2);
+                float g;
+                if (f > MAX_EXP)
+                    g = (label - 1) * alpha;
+                else if (f < -MAX_EXP)
+                    g = label * alpha;
+                else
+                    g = (label - sigmoid(f)) * alpha;
+
+                update(neu1e, in, inOffset, syn1Neg, l2, g);
+            }
+        }
+    }
+
+    protected float sigmoid(float f) {
+        int idx = (int) ((f + MAX_EXP) * (expTable.length / MAX_EXP / 2.0));
+        if (idx >= expTable.length)
+            idx = expTable.length - 1;
+        else if (idx < 0)
+            idx = 0;
+        return expTable[idx];
+    }
+
+    protected float dot(float[] x, int xOffset, float[] y, int yOffset) {
+        float f = 0;
+        for (int c = 0; c < vectorLength; c++)
+            f += x[xOffset + c] * y[yOffset + c];
+        return f;
+    }
+
+    /**
+     * neu1e += g * out; out += g * in
+     */
+    protected void update(float[] neu1e, float[] in, int inOffset, float[] out, int outOffset, float g) {
+        for (int c = 0; c < vectorLength; c++) {
+            neu1e[c] += g * out[outOffset + c];
+            out[outOffset + c] += g * in[inOffset + c];
+        }
+    }
+}
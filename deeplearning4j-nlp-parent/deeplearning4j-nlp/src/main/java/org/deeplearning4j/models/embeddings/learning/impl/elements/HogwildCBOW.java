@@ -0,0 +1,72 @@
+package org.deeplearning4j.models.embeddings.learning.impl.elements;
+
+import org.deeplearning4j.models.sequencevectors.sequence.SequenceElement;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Lock-free CBOW implementation working directly on shared flat weights,
+ * see {@link BaseHogwildLearningAlgorithm} for details.
+ */
+public class HogwildCBOW<T extends SequenceElement> extends BaseHogwildLearningAlgorithm<T> {
+
+    /**
+     * Dummy construction is required for reflection
+     */
+    public HogwildCBOW() {
+
+    }
+
+    @Override
+    public String getCodeName() {
+        return "HogwildCBOW";
+    }
+
+    @Override
+    protected void learnWindow(List<T> elements, int i, int b, int currentWindow, float alpha, Scratch s) {
+        T word = elements.get(i);
+        int end = currentWindow * 2 + 1 - b;
+        float[] neu1 = s.neu1;
+        float[] neu1e = s.neu1e;
+
+        Arrays.fill(neu1, 0f);
+        Arrays.fill(neu1e, 0f);
+
+        int cw = 0;
+        for (int a = b; a < end; a++) {
+            if (a == currentWindow)
+                continue;
+
+            int c = i - currentWindow + a;
+            if (c < 0 || c >= elements.size())
+                continue;
+
+            int l1 = elements.get(c).getIndex() * vectorLength;
+            for (int x = 0; x < vectorLength; x++)
+                neu1[x] += syn0[l1 + x];
+            cw++;
+        }
+
+        if (cw == 0)
+            return;
+
+        for (int x = 0; x < vectorLength; x++)
+            neu1[x] /= cw;
+
+        trainTarget(word, neu1, 0, neu1e, alpha, s);
+
+        for (int a = b; a < end; a++) {
+            if (a == currentWindow)
+                continue;
+
+            int c = i - currentWindow + a;
+            if (c < 0 || c >= elements.size())
+                continue;
+
+            int l1 = elements.get(c).getIndex() * vectorLength;
+            for (int x = 0; x < vectorLength; x++)
+                syn0[l1 + x] += neu1e[x];
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package org.deeplearning4j.models.embeddings.learning.impl.elements;
+
+import org.deeplearning4j.models.sequencevectors.sequence.SequenceElement;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Lock-free Skip-Gram implementation working directly on shared flat weights,
+ * see {@link BaseHogwildLearningAlgorithm} for details.
+ */
+public class HogwildSkipGram<T extends SequenceElement> extends BaseHogwildLearningAlgorithm<T> {
+
+    /**
+     * Dummy construction is required for reflection
+     */
+    public HogwildSkipGram() {
+
+    }
+
+    @Override
+    public String getCodeName() {
+        return "HogwildSkipGram";
+    }
+
+    @Override
+    protected void learnWindow(List<T> elements, int i, int b, int currentWindow, float alpha, Scratch s) {
+        T word = elements.get(i);
+        int end = currentWindow * 2 + 1 - b;
+        float[] neu1e = s.neu1e;
+
+        for (int a = b; a < end; a++) {
+            if (a == currentWindow)
+                continue;
+
+            int c = i - currentWindow + a;
+            if (c < 0 || c >= elements.size())
+                continue;
+
+            int l1 = elements.get(c).getIndex() * vectorLength;
+            Arrays.fill(neu1e, 0f);
+            trainTarget(word, syn0, l1, neu1e, alpha, s);
+
+            for (int x = 0; x < vectorLength; x++)
+                syn0[l1 + x] += neu1e[x];
+        }
+    }
+}
@@ -43,6 +43,7 @@ import org.deeplearning4j.berkeley.Pair;
 import org.deeplearning4j.models.embeddings.WeightLookupTable;
 import org.deeplearning4j.models.embeddings.inmemory.InMemoryLookupTable;
 import org.deeplearning4j.models.embeddings.reader.impl.BasicModelUtils;
+import org.deeplearning4j.models.embeddings.wordvectors.MappedWordVectors;
 import org.deeplearning4j.models.embeddings.wordvectors.WordVectors;
 import org.deeplearning4j.models.embeddings.wordvectors.WordVectorsImpl;
 import org.deeplearning4j.models.glove.Glove;
@@ -68,6 +69,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
@@ -2781,6 +2785,189 @@ public class WordVectorSerializer {
         }
     }
 
+    /**
+     * This method saves word vectors in memory-mappable binary format: an aligned float matrix, plus offset-indexed
+     * vocabulary with on-disk hash index. Saved file can be loaded almost instantly via
+     * {@link #readMappedWordVectors(File)}, regardless of its size. See {@link MappedWordVectors} for format details.
+     *
+     * @param vectors WordVectors to be saved
+     * @param file    destination file
+     * @throws IOException
+     */
+    public static void writeMappedWordVectors(@NonNull WordVectors vectors, @NonNull File file) throws IOException {
+        VocabCache<?> vocab = vectors.vocab();
+        int numWords = vocab.numWords();
+        int vectorLength = vectors.lookupTable().layerSize();
+
+        byte[][] words = new byte[numWords][];
+        long dataLength = 0;
+        for (int i = 0; i < numWords; i++) {
+            words[i] = vocab.wordAtIndex(i).getBytes("UTF-8");
+            dataLength += words[i].length;
+        }
+
+        // open addressing hash table, with load factor <= 0.5
+        int hashSize = 2;
+        while (hashSize < 2L * numWords)
+            hashSize <<= 1;
+        int[] table = new int[hashSize];
+        for (int i = 0; i < numWords; i++) {
+            int slot = MappedWordVectors.hash(words[i]) & (hashSize - 1);
+            while (table[slot] != 0)
+                slot = (slot + 1) & (hashSize - 1);
+            table[slot] = i + 1;
+        }
+
+        long hashOffset = MappedWordVectors.HEADER_SIZE;
+        long vocabIndexOffset = alignMapped(hashOffset + 4L * hashSize);
+        long vocabDataOffset = alignMapped(vocabIndexOffset + 8L * (numWords + 1));
+        long normsOffset = alignMapped(vocabDataOffset + dataLength);
+        long matrixOffset = alignMapped(normsOffset + 4L * numWords);
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw"); FileChannel channel = raf.getChannel()) {
+            raf.setLength(0);
+            MappedWriter writer = new MappedWriter(channel);
+
+            writer.putLong(MappedWordVectors.MAGIC);
+            writer.putInt(MappedWordVectors.VERSION);
+            writer.putInt(vectorLength);
+            writer.putLong(numWords);
+            writer.putInt(hashSize);
+            writer.putInt(0);
+            writer.putLong(hashOffset);
+            writer.putLong(vocabIndexOffset);
+            writer.putLong(vocabDataOffset);
+            writer.putLong(normsOffset);
+            writer.putLong(matrixOffset);
+
+            writer.seek(hashOffset);
+            for (int value : table)
+                writer.putInt(value);
+
+            writer.seek(vocabIndexOffset);
+            long offset = 0;
+            for (int i = 0; i < numWords; i++) {
+                writer.putLong(offset);
+                offset += words[i].length;
+            }
+            writer.putLong(offset);
+
+            writer.seek(vocabDataOffset);
+            for (int i = 0; i < numWords; i++)
+                writer.put(words[i]);
+
+            // matrix goes first, so norms can be computed on the fly
+            float[] norms = new float[numWords];
+            writer.seek(matrixOffset);
+            for (int i = 0; i < numWords; i++) {
+                float[] vector = vectors.getWordVectorMatrix(vocab.wordAtIndex(i)).dup().data().asFloat();
+                if (vector.length != vectorLength)
+                    throw new DL4JInvalidInputException("Vector length [" + vector.length + "] for word ["
+                                    + vocab.wordAtIndex(i) + "] doesn't match layer size [" + vectorLength + "]");
+
+                double norm = 0.0;
+                for (float v : vector) {
+                    writer.putFloat(v);
+                    norm += v * v;
+                }
+                norms[i] = (float) Math.sqrt(norm);
+            }
+
+            writer.seek(normsOffset);
+            for (float norm : norms)
+                writer.putFloat(norm);
+
+            writer.flush();
+        }
+    }
+
+    /**
+     * This method saves word vectors in memory-mappable binary format.
+     * See {@link #writeMappedWordVectors(WordVectors, File)}
+     *
+     * @param vectors WordVectors to be saved
+     * @param path    destination file path
+     * @throws IOException
+     */
+    public static void writeMappedWordVectors(@NonNull WordVectors vectors, @NonNull String path) throws IOException {
+        writeMappedWordVectors(vectors, new File(path));
+    }
+
+    /**
+     * This method maps word vectors previously saved via {@link #writeMappedWordVectors(WordVectors, File)}.
+     * Nothing is loaded onto heap: vectors are read directly from the memory-mapped file on demand.
+     *
+     * @param file file with mapped word vectors
+     * @return MappedWordVectors instance
+     */
+    public static MappedWordVectors readMappedWordVectors(@NonNull File file) {
+        try {
+            return new MappedWordVectors(file);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static long alignMapped(long offset) {
+        long a = MappedWordVectors.ALIGNMENT;
+        return (offset + a - 1) / a * a;
+    }
+
+    /**
+     * Buffered little-endian writer on top of FileChannel, with support for seeking
+     */
+    private static class MappedWriter {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(1024 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+        private long position = 0;
+
+        private MappedWriter(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes)
+                flush();
+        }
+
+        private void putInt(int value) throws IOException {
+            ensure(4);
+            buffer.putInt(value);
+        }
+
+        private void putLong(long value) throws IOException {
+            ensure(8);
+            buffer.putLong(value);
+        }
+
+        private void putFloat(float value) throws IOException {
+            ensure(4);
+            buffer.putFloat(value);
+        }
+
+        private void put(byte[] bytes) throws IOException {
+            int pos = 0;
+            while (pos < bytes.length) {
+                ensure(1);
+                int len = Math.min(buffer.remaining(), bytes.length - pos);
+                buffer.put(bytes, pos, len);
+                pos += len;
+            }
+        }
+
+        private void seek(long newPosition) throws IOException {
+            flush();
+            position = newPosition;
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining())
+                position += channel.write(buffer, position);
+            buffer.clear();
+        }
+    }
+
     public static String encodeB64(String word) {
         try {
             return "B64:" + Base64.encodeBase64String(word.getBytes("UTF-8")).replaceAll("(\r|\n)", "");
@@ -0,0 +1,191 @@
+package org.deeplearning4j.models.embeddings.reader.impl;
+
+import lombok.NonNull;
+import org.deeplearning4j.berkeley.Pair;
+import org.deeplearning4j.clustering.hnsw.HnswIndex;
+import org.deeplearning4j.models.embeddings.WeightLookupTable;
+import org.deeplearning4j.models.sequencevectors.sequence.SequenceElement;
+import org.deeplearning4j.util.SetUtils;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * This is HNSW-based implementation for wordsNearest methods, suited for online "similar items" queries over
+ * large vocabularies: each query is roughly O(log V) instead of a full scan over the vocabulary.
+ * Results are approximate, recall/latency are controlled via m, efConstruction and efSearch,
+ * see {@link HnswIndex} for details.
+ *
+ * Index is built upon first call to wordsNearest, or can be restored via {@link #loadIndex(File)}. Words added to
+ * the vocabulary later on are inserted incrementally, on next query or {@link #updateIndex()} call.
+ *
+ * PLEASE NOTE: index holds its own normalized copy of every vector, so it takes about as much memory as the
+ * lookup table itself. Updates of existing vectors (i.e. further training) are NOT reflected in the index: call
+ * {@link #rebuildIndex()} after training.
+ */
+public class HnswModelUtils<T extends SequenceElement> extends BasicModelUtils<T> {
+    private static final Logger log = LoggerFactory.getLogger(HnswModelUtils.class);
+
+    protected int m = 16;
+    protected int efConstruction = 200;
+    protected int efSearch = 50;
+    protected volatile HnswIndex index;
+
+    public HnswModelUtils() {
+
+    }
+
+    /**
+     * @param m              max number of links per element in the index
+     * @param efConstruction candidate list size used during index construction
+     * @param efSearch       candidate list size used during queries
+     */
+    public HnswModelUtils(int m, int efConstruction, int efSearch) {
+        this.m = m;
+        this.efConstruction = efConstruction;
+        this.efSearch = efSearch;
+    }
+
+    @Override
+    public void init(@NonNull WeightLookupTable<T> lookupTable) {
+        super.init(lookupTable);
+
+        // index restored from disk is kept, if it still matches the model
+        if (index != null && index.getDimension() != lookupTable.layerSize())
+            index = null;
+    }
+
+    /**
+     * Sets candidate list size used during queries. Higher values give better recall, but slower queries.
+     */
+    public void setEfSearch(int efSearch) {
+        this.efSearch = efSearch;
+        if (index != null)
+            index.setEfSearch(efSearch);
+    }
+
+    public HnswIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Inserts all vocabulary elements that are not in the index yet, building the index if necessary
+     */
+    public synchronized void updateIndex() {
+        if (index == null)
+            index = new HnswIndex(lookupTable.layerSize(), m, efConstruction, efSearch, 12345);
+
+        int added = 0;
+        for (String word : vocabCache.words()) {
+            int idx = vocabCache.indexOf(word);
+            if (index.contains(idx))
+                continue;
+
+            INDArray vector = lookupTable.vector(word);
+            if (vector == null)
+                continue;
+
+            if (index.add(idx, vector.dup().data().asFloat()))
+                added++;
+        }
+
+        if (added > 0)
+            log.debug("Added {} elements to HNSW index; index size: {}", added, index.size());
+    }
+
+    /**
+     * Drops existing index, and builds it from scratch
+     */
+    public synchronized void rebuildIndex() {
+        index = null;
+        updateIndex();
+    }
+
+    protected void checkIndex() {
+        if (index == null || index.size() < vocabCache.numWords())
+            updateIndex();
+    }
+
+    /**
+     * Saves the index, so it can be restored alongside the model via {@link #loadIndex(File)}
+     */
+    public void saveIndex(@NonNull File file) throws IOException {
+        checkIndex();
+        index.write(file);
+    }
+
+    /**
+     * Restores the index saved via {@link #saveIndex(File)}. Elements missing in the index are added on next query.
+     */
+    public synchronized void loadIndex(@NonNull File file) throws IOException {
+        index = HnswIndex.read(file);
+        index.setEfSearch(efSearch);
+    }
+
+    @Override
+    public Collection<String> wordsNearest(String label, int n) {
+        if (!vocabCache.hasToken(label))
+            return new ArrayList<>();
+
+        List<String> collection = new ArrayList<>(wordsNearest(Arrays.asList(label), new ArrayList<String>(), n + 1));
+        collection.remove(label);
+
+        while (collection.size() > n)
+            collection.remove(collection.size() - 1);
+
+        return collection;
+    }
+
+    @Override
+    public Collection<String> wordsNearest(@NonNull Collection<String> positive, @NonNull Collection<String> negative,
+                    int top) {
+        // Check every word is in the model
+        for (String p : SetUtils.union(new HashSet<>(positive), new HashSet<>(negative))) {
+            if (!vocabCache.containsWord(p)) {
+                return new ArrayList<>();
+            }
+        }
+
+        INDArray mean = null;
+        for (String s : positive) {
+            mean = mean == null ? lookupTable.vector(s).dup() : mean.addi(lookupTable.vector(s));
+        }
+
+        for (String s : negative) {
+            mean = mean == null ? lookupTable.vector(s).mul(-1) : mean.subi(lookupTable.vector(s));
+        }
+
+        if (mean == null)
+            return new ArrayList<>();
+
+        mean.divi(positive.size() + negative.size());
+
+        Collection<String> tempRes = wordsNearest(mean, top + positive.size() + negative.size());
+        List<String> realResults = new ArrayList<>();
+        for (String word : tempRes) {
+            if (!positive.contains(word) && !negative.contains(word) && realResults.size() < top)
+                realResults.add(word);
+        }
+
+        return realResults;
+    }
+
+    @Override
+    public Collection<String> wordsNearest(@NonNull INDArray words, int top) {
+        checkIndex();
+
+        List<Pair<Integer, Double>> result = index.search(words.dup().data().asFloat(), top + 2);
+        List<String> ret = new ArrayList<>();
+        for (Pair<Integer, Double> p : result) {
+            String word = vocabCache.wordAtIndex(p.getFirst());
+            if (word != null && !word.equals("UNK") && !word.equals("STOP") && ret.size() < top)
+                ret.add(word);
+        }
+
+        return ret;
+    }
+}
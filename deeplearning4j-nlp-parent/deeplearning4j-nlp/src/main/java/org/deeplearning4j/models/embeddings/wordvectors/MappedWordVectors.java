@@ -0,0 +1,483 @@
+package org.deeplearning4j.models.embeddings.wordvectors;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.deeplearning4j.models.embeddings.WeightLookupTable;
+import org.deeplearning4j.models.embeddings.reader.ModelUtils;
+import org.deeplearning4j.models.word2vec.wordstore.VocabCache;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.*;
+
+/**
+ * WordVectors implementation backed by memory-mapped file, written by
+ * {@link org.deeplearning4j.models.embeddings.loader.WordVectorSerializer#writeMappedWordVectors(WordVectors, File)}.
+ *
+ * Nothing besides the file header is read at construction time: vocabulary lookups go through the on-disk hash
+ * index, and vectors are read straight from the mapped region. So startup time doesn't depend on model size, and
+ * multiple JVMs on the same host share the same page cache.
+ *
+ * File layout (little endian), with every section aligned to 64 bytes:
+ * <pre>
+ * header:  magic (long), version (int), vectorLength (int), numWords (long), hashSize (int), padding (int),
+ *          hashOffset, vocabIndexOffset, vocabDataOffset, normsOffset, matrixOffset (long each)
+ * hash:    int[hashSize], open addressing table of (word index + 1), 0 for empty slots
+ * index:   long[numWords + 1], offsets of UTF-8 encoded words within data section
+ * data:    UTF-8 encoded words
+ * norms:   float[numWords], L2 norms of vectors
+ * matrix:  float[numWords][vectorLength], row-major
+ * </pre>
+ *
+ * PLEASE NOTE: This implementation is read-only, and DOES NOT provide vocab(), lookupTable(), accuracy() or
+ * similarWordsInVocabTo() methods.
+ */
+@Slf4j
+public class MappedWordVectors implements WordVectors, AutoCloseable {
+    public static final long MAGIC = 0x444C344A4D4D4150L; // "DL4JMMAP"
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 128;
+    public static final int ALIGNMENT = 64;
+
+    protected static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final File file;
+    private final int vectorLength;
+    private final int numWords;
+    private final int hashSize;
+
+    private transient ByteBuffer hash;
+    private transient ByteBuffer vocabIndex;
+    private transient ByteBuffer vocabData;
+    private transient ByteBuffer norms;
+    // matrix is split into chunks of whole rows, since single mapping can't be larger than 2GB
+    private transient ByteBuffer[] matrix;
+    private final int rowsPerChunk;
+
+    private String unk = null;
+
+    public MappedWordVectors(@NonNull File file) throws IOException {
+        this.file = file;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+            ByteBuffer header = map(channel, 0, HEADER_SIZE);
+            if (header.getLong(0) != MAGIC)
+                throw new IOException("File [" + file.getAbsolutePath() + "] isn't mapped word vectors file");
+
+            int version = header.getInt(8);
+            if (version != VERSION)
+                throw new IOException("Unsupported mapped word vectors version: [" + version + "]");
+
+            vectorLength = header.getInt(12);
+            long words = header.getLong(16);
+            if (words > Integer.MAX_VALUE)
+                throw new IOException("Number of words [" + words + "] is too large");
+            numWords = (int) words;
+            hashSize = header.getInt(24);
+
+            long hashOffset = header.getLong(32);
+            long vocabIndexOffset = header.getLong(40);
+            long vocabDataOffset = header.getLong(48);
+            long normsOffset = header.getLong(56);
+            long matrixOffset = header.getLong(64);
+
+            hash = map(channel, hashOffset, 4L * hashSize);
+            vocabIndex = map(channel, vocabIndexOffset, 8L * (numWords + 1));
+            vocabData = map(channel, vocabDataOffset, vocabIndex.getLong(8 * numWords));
+            norms = map(channel, normsOffset, 4L * numWords);
+
+            long rowBytes = 4L * vectorLength;
+            rowsPerChunk = (int) Math.max(1, Math.min(numWords, Integer.MAX_VALUE / rowBytes));
+            int numChunks = numWords == 0 ? 0 : (numWords + rowsPerChunk - 1) / rowsPerChunk;
+            matrix = new ByteBuffer[numChunks];
+            for (int i = 0; i < numChunks; i++) {
+                int rows = Math.min(rowsPerChunk, numWords - i * rowsPerChunk);
+                matrix[i] = map(channel, matrixOffset + i * rowsPerChunk * rowBytes, rows * rowBytes);
+            }
+        }
+
+        log.info("Mapped {} words with vector length {} from [{}]", numWords, vectorLength, file.getAbsolutePath());
+    }
+
+    protected static ByteBuffer map(FileChannel channel, long offset, long length) throws IOException {
+        if (length > Integer.MAX_VALUE)
+            throw new IOException("Section of " + length + " bytes can't be mapped");
+
+        return channel.map(FileChannel.MapMode.READ_ONLY, offset, length).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * FNV-1a hash over UTF-8 bytes, used for vocabulary index
+     */
+    public static int hash(byte[] bytes) {
+        int h = 0x811C9DC5;
+        for (byte b : bytes) {
+            h ^= (b & 0xFF);
+            h *= 0x01000193;
+        }
+        return h & 0x7FFFFFFF;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public int getVectorLength() {
+        return vectorLength;
+    }
+
+    public int numWords() {
+        return numWords;
+    }
+
+    @Override
+    public String getUNK() {
+        return unk;
+    }
+
+    @Override
+    public void setUNK(String newUNK) {
+        this.unk = newUNK;
+    }
+
+    @Override
+    public int indexOf(String word) {
+        if (word == null)
+            return -1;
+
+        byte[] bytes = word.getBytes(UTF8);
+        int mask = hashSize - 1;
+        int slot = hash(bytes) & mask;
+        while (true) {
+            int value = hash.getInt(4 * slot);
+            if (value == 0)
+                return -1;
+
+            if (wordEquals(value - 1, bytes))
+                return value - 1;
+
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private boolean wordEquals(int index, byte[] bytes) {
+        long start = vocabIndex.getLong(8 * index);
+        long end = vocabIndex.getLong(8 * (index + 1));
+        if (end - start != bytes.length)
+            return false;
+
+        int pos = (int) start;
+        for (int i = 0; i < bytes.length; i++) {
+            if (vocabData.get(pos + i) != bytes[i])
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns word at given index, or null if index is out of range
+     */
+    public String wordAtIndex(int index) {
+        if (index < 0 || index >= numWords)
+            return null;
+
+        int start = (int) vocabIndex.getLong(8 * index);
+        int end = (int) vocabIndex.getLong(8 * (index + 1));
+        byte[] bytes = new byte[end - start];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = vocabData.get(start + i);
+        }
+        return new String(bytes, UTF8);
+    }
+
+    @Override
+    public boolean hasWord(String word) {
+        return indexOf(word) >= 0;
+    }
+
+    /**
+     * Returns index of the word, falling back to UNK if it's defined
+     */
+    protected int indexOrUnk(String word) {
+        int idx = indexOf(word);
+        if (idx < 0 && unk != null)
+            idx = indexOf(unk);
+        return idx;
+    }
+
+    /**
+     * Copies vector at given index into target array
+     */
+    public void getVector(int index, float[] target) {
+        ByteBuffer chunk = matrix[index / rowsPerChunk];
+        int pos = (index % rowsPerChunk) * vectorLength * 4;
+        for (int i = 0; i < vectorLength; i++) {
+            target[i] = chunk.getFloat(pos + 4 * i);
+        }
+    }
+
+    protected float dot(int index, float[] vector) {
+        ByteBuffer chunk = matrix[index / rowsPerChunk];
+        int pos = (index % rowsPerChunk) * vectorLength * 4;
+        float sum = 0.0f;
+        for (int i = 0; i < vectorLength; i++) {
+            sum += chunk.getFloat(pos + 4 * i) * vector[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public double[] getWordVector(String word) {
+        int idx = indexOrUnk(word);
+        if (idx < 0)
+            return null;
+
+        float[] vector = new float[vectorLength];
+        getVector(idx, vector);
+        double[] result = new double[vectorLength];
+        for (int i = 0; i < vectorLength; i++) {
+            result[i] = vector[i];
+        }
+        return result;
+    }
+
+    @Override
+    public INDArray getWordVectorMatrix(String word) {
+        int idx = indexOrUnk(word);
+        if (idx < 0)
+            return null;
+
+        float[] vector = new float[vectorLength];
+        getVector(idx, vector);
+        return Nd4j.create(vector);
+    }
+
+    @Override
+    public INDArray getWordVectorMatrixNormalized(String word) {
+        int idx = indexOrUnk(word);
+        if (idx < 0)
+            return null;
+
+        float[] vector = new float[vectorLength];
+        getVector(idx, vector);
+        float norm = norms.getFloat(4 * idx);
+        if (norm > 0.0f) {
+            for (int i = 0; i < vectorLength; i++) {
+                vector[i] /= norm;
+            }
+        }
+        return Nd4j.create(vector);
+    }
+
+    @Override
+    public INDArray getWordVectors(Collection<String> labels) {
+        List<float[]> rows = new ArrayList<>();
+        for (String label : labels) {
+            int idx = indexOrUnk(label);
+            if (idx >= 0) {
+                float[] vector = new float[vectorLength];
+                getVector(idx, vector);
+                rows.add(vector);
+            }
+        }
+
+        if (rows.isEmpty())
+            return null;
+
+        return Nd4j.create(rows.toArray(new float[rows.size()][]));
+    }
+
+    @Override
+    public INDArray getWordVectorsMean(Collection<String> labels) {
+        INDArray matrix = getWordVectors(labels);
+        if (matrix == null)
+            return null;
+
+        return matrix.mean(0);
+    }
+
+    @Override
+    public double similarity(String word, String word2) {
+        int idx1 = indexOf(word);
+        int idx2 = indexOf(word2);
+        if (idx1 < 0 || idx2 < 0) {
+            log.debug("{}: {}; {}: {}", word, idx1 < 0 ? "null" : "exists", word2, idx2 < 0 ? "null" : "exists");
+            return Double.NaN;
+        }
+
+        if (idx1 == idx2)
+            return 1.0;
+
+        float[] vector = new float[vectorLength];
+        getVector(idx1, vector);
+        float n1 = norms.getFloat(4 * idx1);
+        float n2 = norms.getFloat(4 * idx2);
+        if (n1 == 0.0f || n2 == 0.0f)
+            return 0.0;
+
+        return dot(idx2, vector) / (n1 * n2);
+    }
+
+    /**
+     * Returns up to top words nearest (by cosine similarity) to the given vector, skipping excluded indexes
+     */
+    protected List<String> nearest(float[] vector, int top, Set<Integer> exclude) {
+        double norm = 0.0;
+        for (float v : vector)
+            norm += v * v;
+        norm = Math.sqrt(norm);
+        if (norm == 0.0 || top <= 0)
+            return new ArrayList<>();
+
+        // min-heap of (similarity, index), holding current top results
+        PriorityQueue<double[]> heap = new PriorityQueue<>(top + 1, new Comparator<double[]>() {
+            @Override
+            public int compare(double[] o1, double[] o2) {
+                return Double.compare(o1[0], o2[0]);
+            }
+        });
+
+        for (int i = 0; i < numWords; i++) {
+            if (exclude.contains(i))
+                continue;
+
+            float n = norms.getFloat(4 * i);
+            if (n == 0.0f)
+                continue;
+
+            double sim = dot(i, vector) / (n * norm);
+            if (heap.size() < top) {
+                heap.add(new double[] {sim, i});
+            } else if (sim > heap.peek()[0]) {
+                heap.poll();
+                heap.add(new double[] {sim, i});
+            }
+        }
+
+        List<String> result = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            result.add(wordAtIndex((int) heap.poll()[1]));
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    protected float[] toFloats(INDArray array) {
+        float[] result = new float[vectorLength];
+        for (int i = 0; i < vectorLength; i++) {
+            result[i] = array.getFloat(i);
+        }
+        return result;
+    }
+
+    @Override
+    public Collection<String> wordsNearest(INDArray words, int top) {
+        return nearest(toFloats(words), top, Collections.<Integer>emptySet());
+    }
+
+    /**
+     * PLEASE NOTE: In this implementation this method is equal to {@link #wordsNearest(INDArray, int)}
+     */
+    @Override
+    public Collection<String> wordsNearestSum(INDArray words, int top) {
+        return wordsNearest(words, top);
+    }
+
+    @Override
+    public Collection<String> wordsNearestSum(String word, int n) {
+        return wordsNearest(word, n);
+    }
+
+    @Override
+    public Collection<String> wordsNearestSum(Collection<String> positive, Collection<String> negative, int top) {
+        return wordsNearest(positive, negative, top);
+    }
+
+    @Override
+    public Collection<String> wordsNearest(String word, int n) {
+        return wordsNearest(Collections.singletonList(word), Collections.<String>emptyList(), n);
+    }
+
+    @Override
+    public Collection<String> wordsNearest(Collection<String> positive, Collection<String> negative, int top) {
+        Set<Integer> exclude = new HashSet<>();
+        float[] mean = new float[vectorLength];
+        float[] vector = new float[vectorLength];
+        int cnt = 0;
+        for (String word : positive) {
+            int idx = indexOf(word);
+            if (idx < 0)
+                return new ArrayList<>();
+            getVector(idx, vector);
+            for (int i = 0; i < vectorLength; i++)
+                mean[i] += vector[i];
+            exclude.add(idx);
+            cnt++;
+        }
+
+        for (String word : negative) {
+            int idx = indexOf(word);
+            if (idx < 0)
+                return new ArrayList<>();
+            getVector(idx, vector);
+            for (int i = 0; i < vectorLength; i++)
+                mean[i] -= vector[i];
+            exclude.add(idx);
+            cnt++;
+        }
+
+        if (cnt == 0)
+            return new ArrayList<>();
+
+        for (int i = 0; i < vectorLength; i++)
+            mean[i] /= cnt;
+
+        return nearest(mean, top, exclude);
+    }
+
+    @Override
+    public Map<String, Double> accuracy(List<String> questions) {
+        throw new UnsupportedOperationException("Method isn't implemented. Please use usual Word2Vec implementation");
+    }
+
+    @Override
+    public List<String> similarWordsInVocabTo(String word, double accuracy) {
+        throw new UnsupportedOperationException("Method isn't implemented. Please use usual Word2Vec implementation");
+    }
+
+    @Override
+    public VocabCache vocab() {
+        throw new UnsupportedOperationException("Method isn't implemented. Please use usual Word2Vec implementation");
+    }
+
+    @Override
+    public WeightLookupTable lookupTable() {
+        throw new UnsupportedOperationException("Method isn't implemented. Please use usual Word2Vec implementation");
+    }
+
+    /**
+     * PLEASE NOTE: This method has no effect in this implementation.
+     */
+    @Override
+    public void setModelUtils(ModelUtils utils) {
+        // no-op
+    }
+
+    /**
+     * Releases references to mapped buffers. Mapping itself is released by GC.
+     */
+    @Override
+    public void close() {
+        hash = null;
+        vocabIndex = null;
+        vocabData = null;
+        norms = null;
+        matrix = null;
+    }
+}
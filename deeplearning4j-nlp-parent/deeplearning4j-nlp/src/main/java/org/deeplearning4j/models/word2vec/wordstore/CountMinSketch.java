@@ -0,0 +1,75 @@
+package org.deeplearning4j.models.word2vec.wordstore;
+
+/**
+ * Count-min sketch with conservative update, used to estimate element frequencies in fixed memory.
+ * Estimates are never below true counts, and exceed them by at most ~ e * N / width with probability 1 - e^-depth,
+ * where N is total number of counted occurrences.
+ *
+ * Please note: this class is NOT thread-safe
+ */
+public class CountMinSketch {
+    private final int width;
+    private final int depth;
+    private final int mask;
+    private final int[] counters;
+
+    /**
+     * @param width number of counters per row, rounded up to power of 2
+     * @param depth number of rows, i.e. hash functions
+     */
+    public CountMinSketch(int width, int depth) {
+        if (width < 1 || depth < 1)
+            throw new IllegalArgumentException("Width and depth should be positive");
+
+        int w = 1;
+        while (w < width && w < (1 << 30))
+            w <<= 1;
+
+        this.width = w;
+        this.depth = depth;
+        this.mask = w - 1;
+        this.counters = new int[w * depth];
+    }
+
+    private int position(long hash, int row) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        return row * width + ((h1 + row * h2) & mask);
+    }
+
+    /**
+     * Adds specified count for element with given 64-bit hash
+     *
+     * @return frequency estimate after update
+     */
+    public long add(long hash, long count) {
+        long estimate = estimate(hash) + count;
+        int value = (int) Math.min(estimate, Integer.MAX_VALUE);
+
+        // conservative update: counters are only raised up to new estimate
+        for (int row = 0; row < depth; row++) {
+            int pos = position(hash, row);
+            if (counters[pos] < value)
+                counters[pos] = value;
+        }
+        return estimate;
+    }
+
+    /**
+     * Returns frequency estimate for element with given 64-bit hash
+     */
+    public long estimate(long hash) {
+        long result = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++)
+            result = Math.min(result, counters[position(hash, row)]);
+        return result;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+}
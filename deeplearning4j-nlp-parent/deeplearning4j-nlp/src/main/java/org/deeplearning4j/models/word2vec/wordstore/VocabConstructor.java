@@ -10,6 +10,7 @@ import org.deeplearning4j.models.sequencevectors.sequence.Sequence;
 import org.deeplearning4j.models.sequencevectors.sequence.SequenceElement;
 import org.deeplearning4j.models.word2vec.Huffman;
 import org.deeplearning4j.models.word2vec.wordstore.inmemory.AbstractCache;
+import org.deeplearning4j.models.word2vec.wordstore.inmemory.CompactVocabCache;
 import org.deeplearning4j.text.invertedindex.InvertedIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,6 +18,7 @@ import org.slf4j.LoggerFactory;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.LockSupport;
 
 /**
@@ -41,6 +43,13 @@ public class VocabConstructor<T extends SequenceElement> {
     private boolean enableScavenger = false;
     private T unk;
     private boolean allowParallelBuilder = true;
+    private boolean shardedCounting = false;
+    private int countingThreads = 0;
+    private int sketchWidth = 0;
+    private int sketchDepth = 0;
+
+    // number of sequences passed to counting thread at once, in sharded mode
+    protected static final int SHARDED_BATCH_SIZE = 64;
 
     protected static final Logger log = LoggerFactory.getLogger(VocabConstructor.class);
 
@@ -180,7 +189,7 @@ public class VocabConstructor<T extends SequenceElement> {
         log.debug("Target vocab size before building: [" + cache.numWords() + "]");
         final AtomicLong loopCounter = new AtomicLong(0);
 
-        AbstractCache<T> topHolder = new AbstractCache.Builder<T>().minElementFrequency(0).build();
+        VocabCache<T> topHolder = createHolder();
 
         int cnt = 0;
         int numProc = Runtime.getRuntime().availableProcessors();
@@ -198,7 +207,13 @@ public class VocabConstructor<T extends SequenceElement> {
             log.debug("Target vocab size before building: [" + cache.numWords() + "]");
             cnt++;
 
-            AbstractCache<T> tempHolder = new AbstractCache.Builder<T>().build();
+            if (shardedCounting && index == null) {
+                topHolder.importVocabulary(buildShardedVocabulary(iterator, source.getMinWordFrequency(),
+                                parsedCount));
+                continue;
+            }
+
+            VocabCache<T> tempHolder = createHolder();
 
 
 
@@ -374,7 +389,117 @@ public class VocabConstructor<T extends SequenceElement> {
         return cache;
     }
 
-    protected void filterVocab(AbstractCache<T> cache, int minWordFrequency) {
+    /**
+     * This method counts elements of single source using multiple threads. Counters are sharded by element hash,
+     * so threads rarely contend, and shards are merged once source is exhausted.
+     * If count-min pre-filter is enabled, elements are only admitted into exact counters once their estimated
+     * frequency reaches minWordFrequency, so rare elements never hit the heap.
+     *
+     * @param iterator source iterator
+     * @param minWordFrequency elements with frequency below this value won't be returned
+     * @param parsedCount counter of parsed elements
+     * @return vocabulary of the source, with minWordFrequency already applied
+     */
+    protected VocabCache<T> buildShardedVocabulary(@NonNull SequenceIterator<T> iterator, int minWordFrequency,
+                    @NonNull AtomicLong parsedCount) {
+        int numThreads = countingThreads > 0 ? countingThreads : Runtime.getRuntime().availableProcessors();
+        int numShards = 1;
+        while (numShards < numThreads * 4)
+            numShards <<= 1;
+
+        // sketch makes no sense if every element is kept anyway
+        boolean useSketch = sketchWidth > 0 && sketchDepth > 0 && minWordFrequency > 1;
+
+        final List<VocabShard<T>> shards = new ArrayList<>(numShards);
+        for (int i = 0; i < numShards; i++)
+            shards.add(new VocabShard<T>(
+                            useSketch ? new CountMinSketch(Math.max(1024, sketchWidth / numShards), sketchDepth)
+                                            : null,
+                            minWordFrequency));
+
+        VocabCache<T> holder = createHolder();
+
+        ExecutorService executorService = Executors.newFixedThreadPool(numThreads);
+        int maxInFlight = numThreads * 2;
+        Semaphore semaphore = new Semaphore(maxInFlight);
+        AtomicReference<Throwable> error = new AtomicReference<>();
+
+        long lastTime = System.currentTimeMillis();
+        long lastSequences = seqCount.get();
+        List<Sequence<T>> batch = new ArrayList<>(SHARDED_BATCH_SIZE);
+        while (iterator.hasMoreSequences() && error.get() == null) {
+            Sequence<T> document = iterator.nextSequence();
+
+            seqCount.incrementAndGet();
+            parsedCount.addAndGet(document.size());
+            holder.incrementTotalDocCount();
+
+            batch.add(document);
+            if (batch.size() >= SHARDED_BATCH_SIZE) {
+                semaphore.acquireUninterruptibly();
+                executorService.execute(new ShardedVocabRunnable(batch, shards, semaphore, error));
+                batch = new ArrayList<>(SHARDED_BATCH_SIZE);
+            }
+
+            if (seqCount.get() % 100000 == 0) {
+                long currentTime = System.currentTimeMillis();
+                double seconds = (currentTime - lastTime) / (double) 1000;
+                log.info("Sequences checked: [{}]; Sequences/sec: {};", seqCount.get(),
+                                String.format("%.2f", (seqCount.get() - lastSequences) / seconds));
+                lastTime = currentTime;
+                lastSequences = seqCount.get();
+            }
+        }
+
+        if (!batch.isEmpty() && error.get() == null) {
+            semaphore.acquireUninterruptibly();
+            executorService.execute(new ShardedVocabRunnable(batch, shards, semaphore, error));
+        }
+
+        // block until all threads are finished
+        semaphore.acquireUninterruptibly(maxInFlight);
+        executorService.shutdown();
+
+        if (error.get() != null)
+            throw new RuntimeException(error.get());
+
+        int admitted = 0;
+        for (VocabShard<T> shard : shards) {
+            for (T element : shard.elements.values()) {
+                admitted++;
+                if (minWordFrequency > 0 && element.getElementFrequency() < minWordFrequency && !element.isSpecial()
+                                && !element.isLabel())
+                    continue;
+
+                holder.addToken(element);
+            }
+            shard.elements.clear();
+        }
+
+        log.debug("Sharded counting: elements admitted: [{}], elements after truncation: [{}]", admitted,
+                        holder.numWords());
+
+        return holder;
+    }
+
+    /**
+     * This method creates intermediate vocabulary holder, used while elements are counted.
+     * If target VocabCache is CompactVocabCache, holders use the same packed storage, so counting doesn't need
+     * one object per element either.
+     *
+     * @return empty vocabulary holder
+     */
+    protected VocabCache<T> createHolder() {
+        if (cache instanceof CompactVocabCache) {
+            // CompactVocabCache only stores VocabWords, so T is VocabWord here
+            VocabCache holder = new CompactVocabCache();
+            return holder;
+        }
+
+        return new AbstractCache.Builder<T>().build();
+    }
+
+    protected void filterVocab(VocabCache<T> cache, int minWordFrequency) {
         int numWords = cache.numWords();
         LinkedBlockingQueue<String> labelsToRemove = new LinkedBlockingQueue<>();
         for (T element : cache.vocabWords()) {
@@ -400,6 +525,10 @@ public class VocabConstructor<T extends SequenceElement> {
         private boolean enableScavenger = false;
         private T unk;
         private boolean allowParallelBuilder = true;
+        private boolean shardedCounting = false;
+        private int countingThreads = 0;
+        private int sketchWidth = 0;
+        private int sketchDepth = 0;
 
         public Builder() {
 
@@ -424,6 +553,46 @@ public class VocabConstructor<T extends SequenceElement> {
             return this;
         }
 
+        /**
+         * This method enables sharded counting: each source is counted by multiple threads, with counters sharded
+         * by element hash, instead of all threads updating single vocabulary.
+         *
+         * PLEASE NOTE: sharded counting isn't used if InvertedIndex is set.
+         *
+         * @param reallyEnable
+         * @return
+         */
+        public Builder<T> enableShardedCounting(boolean reallyEnable) {
+            this.shardedCounting = reallyEnable;
+            return this;
+        }
+
+        /**
+         * Number of counting threads used in sharded mode. Default value is number of available processors.
+         *
+         * @param numThreads
+         * @return
+         */
+        public Builder<T> setCountingThreads(int numThreads) {
+            this.countingThreads = numThreads;
+            return this;
+        }
+
+        /**
+         * This method enables approximate pre-filter for sharded counting: element gets exact counter only after its
+         * frequency, estimated by count-min sketch, reaches source minWordFrequency. That bounds memory used for rare
+         * elements, at the cost of slightly overestimated frequencies for elements near the threshold.
+         *
+         * @param width total number of counters per sketch row, i.e. 1 << 22
+         * @param depth number of sketch rows, i.e. 4
+         * @return
+         */
+        public Builder<T> enableCountMinFilter(int width, int depth) {
+            this.sketchWidth = width;
+            this.sketchDepth = depth;
+            return this;
+        }
+
         /**
          * Defines, if adaptive gradients should be created during vocabulary mastering
          *
@@ -436,7 +605,8 @@ public class VocabConstructor<T extends SequenceElement> {
         }
 
         /**
-         * After temporary internal vocabulary is built, it will be transferred to target VocabCache you pass here
+         * After temporary internal vocabulary is built, it will be transferred to target VocabCache you pass here.
+         * If it's CompactVocabCache, temporary vocabularies will be stored in CompactVocabCache as well.
          *
          * @param cache target VocabCache
          * @return
@@ -519,6 +689,10 @@ public class VocabConstructor<T extends SequenceElement> {
             constructor.enableScavenger = this.enableScavenger;
             constructor.unk = this.unk;
             constructor.allowParallelBuilder = this.allowParallelBuilder;
+            constructor.shardedCounting = this.shardedCounting;
+            constructor.countingThreads = this.countingThreads;
+            constructor.sketchWidth = this.sketchWidth;
+            constructor.sketchDepth = this.sketchDepth;
 
             return constructor;
         }
@@ -533,13 +707,148 @@ public class VocabConstructor<T extends SequenceElement> {
     }
 
 
+    /**
+     * Single shard of counters used in sharded mode
+     */
+    protected static class VocabShard<T extends SequenceElement> {
+        private final Map<String, T> elements = new HashMap<>();
+        private final CountMinSketch sketch;
+        private final int admissionThreshold;
+
+        protected VocabShard(CountMinSketch sketch, int admissionThreshold) {
+            this.sketch = sketch;
+            this.admissionThreshold = admissionThreshold;
+        }
+
+        protected synchronized void merge(List<TokenCounter<T>> counters) {
+            for (TokenCounter<T> counter : counters) {
+                T existing = elements.get(counter.label);
+                if (existing != null) {
+                    if (!counter.isLabel) {
+                        existing.increaseElementFrequency((int) counter.frequency);
+                        existing.incrementSequencesCount(counter.sequences);
+                    }
+                    continue;
+                }
+
+                long frequency = counter.frequency;
+                if (sketch != null && !counter.isLabel) {
+                    // estimate covers occurrences seen before admission as well
+                    frequency = sketch.add(counter.hash, counter.frequency);
+                    if (frequency < admissionThreshold)
+                        continue;
+                }
+
+                counter.element.setElementFrequency(frequency);
+                counter.element.setSequencesCount(counter.sequences);
+                elements.put(counter.label, counter.element);
+            }
+        }
+    }
+
+    /**
+     * Element counters aggregated over single batch of sequences
+     */
+    protected static class TokenCounter<T extends SequenceElement> {
+        private final String label;
+        private final long hash;
+        private final T element;
+        private final boolean isLabel;
+        private long frequency;
+        private long sequences;
+        private int lastSequence = -1;
+
+        protected TokenCounter(String label, T element, boolean isLabel) {
+            this.label = label;
+            this.hash = SequenceElement.getLongHash(label);
+            this.element = element;
+            this.isLabel = isLabel;
+        }
+    }
+
+    protected class ShardedVocabRunnable implements Runnable {
+        private final List<Sequence<T>> documents;
+        private final List<VocabShard<T>> shards;
+        private final Semaphore semaphore;
+        private final AtomicReference<Throwable> error;
+
+        public ShardedVocabRunnable(@NonNull List<Sequence<T>> documents, @NonNull List<VocabShard<T>> shards,
+                        @NonNull Semaphore semaphore, @NonNull AtomicReference<Throwable> error) {
+            this.documents = documents;
+            this.shards = shards;
+            this.semaphore = semaphore;
+            this.error = error;
+        }
+
+        @Override
+        public void run() {
+            try {
+                Map<String, TokenCounter<T>> counters = new HashMap<>();
+                for (int d = 0; d < documents.size(); d++) {
+                    Sequence<T> document = documents.get(d);
+
+                    if (fetchLabels && document.getSequenceLabels() != null) {
+                        for (T labelWord : document.getSequenceLabels()) {
+                            if (!counters.containsKey(labelWord.getLabel())) {
+                                labelWord.setSpecial(true);
+                                labelWord.markAsLabel(true);
+                                TokenCounter<T> counter = new TokenCounter<>(labelWord.getLabel(), labelWord, true);
+                                counter.frequency = 1;
+                                counters.put(labelWord.getLabel(), counter);
+                            }
+                        }
+                    }
+
+                    for (String token : document.asLabels()) {
+                        if (stopWords != null && stopWords.contains(token))
+                            continue;
+                        if (token == null || token.isEmpty())
+                            continue;
+
+                        TokenCounter<T> counter = counters.get(token);
+                        if (counter == null) {
+                            counter = new TokenCounter<>(token, document.getElementByLabel(token), false);
+                            counters.put(token, counter);
+                        }
+
+                        counter.frequency++;
+                        if (counter.lastSequence != d) {
+                            counter.lastSequence = d;
+                            counter.sequences++;
+                        }
+                    }
+                }
+
+                // grouping counters by shard, so each shard is locked once per batch
+                int mask = shards.size() - 1;
+                List<List<TokenCounter<T>>> grouped = new ArrayList<>(shards.size());
+                for (int i = 0; i < shards.size(); i++)
+                    grouped.add(new ArrayList<TokenCounter<T>>());
+
+                for (TokenCounter<T> counter : counters.values()) {
+                    long h = counter.hash * 0x9E3779B97F4A7C15L;
+                    grouped.get((int) (h >>> 40) & mask).add(counter);
+                }
+
+                for (int i = 0; i < shards.size(); i++) {
+                    if (!grouped.get(i).isEmpty())
+                        shards.get(i).merge(grouped.get(i));
+                }
+            } catch (Throwable t) {
+                error.compareAndSet(null, t);
+            } finally {
+                semaphore.release();
+            }
+        }
+    }
+
     protected class VocabRunnable implements Runnable {
         private final AtomicLong finalCounter;
         private final Sequence<T> document;
-        private final AbstractCache<T> targetVocab;
+        private final VocabCache<T> targetVocab;
         private final AtomicLong loopCounter;
 
-        public VocabRunnable(@NonNull AbstractCache<T> targetVocab, @NonNull Sequence<T> sequence,
+        public VocabRunnable(@NonNull VocabCache<T> targetVocab, @NonNull Sequence<T> sequence,
                         @NonNull AtomicLong finalCounter, @NonNull AtomicLong loopCounter) {
             this.finalCounter = finalCounter;
             this.document = sequence;
@@ -0,0 +1,1080 @@
+package org.deeplearning4j.models.word2vec.wordstore.inmemory;
+
+import lombok.NonNull;
+import org.deeplearning4j.models.sequencevectors.sequence.SequenceElement;
+import org.deeplearning4j.models.word2vec.VocabWord;
+import org.deeplearning4j.models.word2vec.wordstore.VocabCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.Charset;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * VocabCache implementation designed for very large vocabularies.
+ *
+ * Instead of one VocabWord object per element plus three hash maps, as {@link AbstractCache} does, all per-element
+ * state (counters, Huffman index, codes and points, flags) is packed into paged primitive arrays, labels are kept as
+ * UTF-8 bytes in a shared pool, and lookups go through an open-addressing int[] hash table. That's about 64 bytes per
+ * element, plus label bytes and Huffman points.
+ *
+ * Elements returned by this cache are lightweight views over the packed storage: changes made to them (i.e. by
+ * {@link org.deeplearning4j.models.word2vec.Huffman} or VocabConstructor) are written through, but views are
+ * created on each call, so please don't keep references to them for long.
+ *
+ * If this cache is used as target VocabCache of VocabConstructor, intermediate vocabulary holders use it as well.
+ *
+ * Reads are lock-free, all modifications are synchronized.
+ */
+public class CompactVocabCache implements VocabCache<VocabWord> {
+    private static final Logger logger = LoggerFactory.getLogger(CompactVocabCache.class);
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    // element records are stored in pages of PAGE_SIZE elements, STRIDE longs each
+    protected static final int PAGE_BITS = 16;
+    protected static final int PAGE_SIZE = 1 << PAGE_BITS;
+    protected static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    // labels and points are stored in pools, split into pages of POOL_PAGE_SIZE elements
+    protected static final int POOL_PAGE_BITS = 20;
+    protected static final int POOL_PAGE_SIZE = 1 << POOL_PAGE_BITS;
+    protected static final int POOL_PAGE_MASK = POOL_PAGE_SIZE - 1;
+
+    protected static final int STRIDE = 8;
+    // element frequency, as double bits: frequencies can be fractional, same as in SequenceElement
+    protected static final int F_FREQUENCY = 0;
+    protected static final int F_SEQUENCES = 1;
+    protected static final int F_STORAGE_ID = 2;
+    protected static final int F_HASH = 3;
+    // label pool offset << 16 | label length
+    protected static final int F_LABEL = 4;
+    // Huffman codes, one bit per code
+    protected static final int F_CODES = 5;
+    // points pool offset
+    protected static final int F_POINTS = 6;
+    // index:32 | codeLength:8 | pointsSize:8 | pointsCapacity:8 | flags:8
+    protected static final int F_META = 7;
+
+    protected static final int FLAG_SPECIAL = 1;
+    protected static final int FLAG_LABEL = 2;
+    protected static final int FLAG_REMOVED = 4;
+
+    protected static final int TOMBSTONE = -1;
+    protected static final int MAX_CODE_LENGTH = 64;
+    protected static final int MAX_POINTS = 255;
+    protected static final int MAX_LABEL_LENGTH = 65535;
+
+    protected volatile long[][] records = new long[16][];
+    protected volatile int[][] indexPages = new int[16][];
+    protected volatile byte[][] labelPages = new byte[16][];
+    protected volatile int[][] pointPages = new int[16][];
+
+    // number of allocated slots, including removed ones
+    protected volatile int size = 0;
+    protected volatile int numWords = 0;
+
+    // hash table holds slot + 1, 0 means empty cell
+    protected volatile int[] table;
+    protected int tableUsed = 0;
+
+    protected long labelTail = 0;
+    protected long pointsTail = 0;
+
+    // storageIds that differ from label hash, normally empty
+    protected Map<Long, Integer> customIds = new ConcurrentHashMap<>();
+
+    protected AtomicLong totalWordCount = new AtomicLong(0);
+    protected AtomicLong documentsCounter = new AtomicLong(0);
+
+    public CompactVocabCache() {
+        this(1024);
+    }
+
+    /**
+     * @param expectedSize expected number of elements, used to size hash table
+     */
+    public CompactVocabCache(int expectedSize) {
+        int capacity = 16;
+        while (capacity < expectedSize * 2L && capacity < (1 << 30))
+            capacity <<= 1;
+        table = new int[capacity];
+    }
+
+    /*
+        Packed storage access
+     */
+
+    protected long get(int slot, int field) {
+        return records[slot >>> PAGE_BITS][(slot & PAGE_MASK) * STRIDE + field];
+    }
+
+    protected void put(int slot, int field, long value) {
+        records[slot >>> PAGE_BITS][(slot & PAGE_MASK) * STRIDE + field] = value;
+    }
+
+    protected static int metaIndex(long meta) {
+        return (int) meta;
+    }
+
+    protected static int metaCodeLength(long meta) {
+        return (int) (meta >>> 32) & 0xFF;
+    }
+
+    protected static int metaPointsSize(long meta) {
+        return (int) (meta >>> 40) & 0xFF;
+    }
+
+    protected static int metaPointsCapacity(long meta) {
+        return (int) (meta >>> 48) & 0xFF;
+    }
+
+    protected static int metaFlags(long meta) {
+        return (int) (meta >>> 56) & 0xFF;
+    }
+
+    protected static long meta(int index, int codeLength, int pointsSize, int pointsCapacity, int flags) {
+        return (index & 0xFFFFFFFFL) | ((long) codeLength << 32) | ((long) pointsSize << 40)
+                        | ((long) pointsCapacity << 48) | ((long) flags << 56);
+    }
+
+    protected static <A> A[] ensureDirectory(A[] directory, int page) {
+        if (page < directory.length)
+            return directory;
+
+        int length = directory.length;
+        while (length <= page)
+            length *= 2;
+        return Arrays.copyOf(directory, length);
+    }
+
+    protected byte[] labelBytes(String label) {
+        byte[] bytes = label.getBytes(UTF8);
+        if (bytes.length > MAX_LABEL_LENGTH)
+            throw new IllegalArgumentException("Label is too long: " + bytes.length + " bytes");
+        return bytes;
+    }
+
+    protected long storeLabel(byte[] bytes) {
+        if ((labelTail & POOL_PAGE_MASK) + bytes.length > POOL_PAGE_SIZE)
+            labelTail = (labelTail | POOL_PAGE_MASK) + 1;
+
+        int page = (int) (labelTail >>> POOL_PAGE_BITS);
+        byte[][] directory = ensureDirectory(labelPages, page);
+        if (directory[page] == null)
+            directory[page] = new byte[POOL_PAGE_SIZE];
+        System.arraycopy(bytes, 0, directory[page], (int) (labelTail & POOL_PAGE_MASK), bytes.length);
+        labelPages = directory;
+
+        long ref = (labelTail << 16) | bytes.length;
+        labelTail += bytes.length;
+        return ref;
+    }
+
+    protected String labelAt(int slot) {
+        long ref = get(slot, F_LABEL);
+        long offset = ref >>> 16;
+        int length = (int) (ref & 0xFFFF);
+        return new String(labelPages[(int) (offset >>> POOL_PAGE_BITS)], (int) (offset & POOL_PAGE_MASK), length,
+                        UTF8);
+    }
+
+    protected boolean labelEquals(int slot, byte[] bytes) {
+        long ref = get(slot, F_LABEL);
+        if ((int) (ref & 0xFFFF) != bytes.length)
+            return false;
+
+        long offset = ref >>> 16;
+        byte[] page = labelPages[(int) (offset >>> POOL_PAGE_BITS)];
+        int start = (int) (offset & POOL_PAGE_MASK);
+        for (int i = 0; i < bytes.length; i++) {
+            if (page[start + i] != bytes[i])
+                return false;
+        }
+        return true;
+    }
+
+    protected static int mix(long hash) {
+        int h = (int) (hash ^ (hash >>> 32));
+        return h * 0x9E3779B9;
+    }
+
+    /*
+        Hash table
+     */
+
+    /**
+     * Lock-free lookup
+     *
+     * @return slot, -1 if label isn't found, -2 if slot isn't fully published yet
+     */
+    protected int probe(long hash, byte[] bytes) {
+        int[] t = table;
+        int mask = t.length - 1;
+        for (int pos = mix(hash) & mask, cnt = 0; cnt < t.length; pos = (pos + 1) & mask, cnt++) {
+            int e = t[pos];
+            if (e == 0)
+                return -1;
+            if (e == TOMBSTONE)
+                continue;
+
+            int slot = e - 1;
+            if (slot >= size)
+                return -2;
+
+            if (get(slot, F_HASH) == hash && (bytes == null ? get(slot, F_STORAGE_ID) == hash
+                            : labelEquals(slot, bytes)))
+                return slot;
+        }
+        return -1;
+    }
+
+    protected int slotOf(String label) {
+        if (label == null)
+            return -1;
+
+        long hash = SequenceElement.getLongHash(label);
+        byte[] bytes = label.getBytes(UTF8);
+        int slot = probe(hash, bytes);
+        if (slot == -2) {
+            synchronized (this) {
+                slot = probe(hash, bytes);
+            }
+        }
+        return slot;
+    }
+
+    protected int slotOf(long storageId) {
+        Integer custom = customIds.get(storageId);
+        if (custom != null)
+            return custom;
+
+        int slot = probe(storageId, null);
+        if (slot == -2) {
+            synchronized (this) {
+                slot = probe(storageId, null);
+            }
+        }
+        return slot;
+    }
+
+    protected void tableInsert(int[] t, int slot, long hash) {
+        int mask = t.length - 1;
+        int pos = mix(hash) & mask;
+        while (t[pos] != 0 && t[pos] != TOMBSTONE)
+            pos = (pos + 1) & mask;
+        t[pos] = slot + 1;
+    }
+
+    protected void rehash(int capacity) {
+        int[] t = new int[capacity];
+        for (int slot = 0; slot < size; slot++) {
+            if ((metaFlags(get(slot, F_META)) & FLAG_REMOVED) == 0)
+                tableInsert(t, slot, get(slot, F_HASH));
+        }
+        tableUsed = numWords;
+        table = t;
+    }
+
+    protected synchronized int insert(String label, long storageId) {
+        byte[] bytes = labelBytes(label);
+        long hash = SequenceElement.getLongHash(label);
+
+        int slot = size;
+        int page = slot >>> PAGE_BITS;
+        long[][] directory = ensureDirectory(records, page);
+        if (directory[page] == null)
+            directory[page] = new long[PAGE_SIZE * STRIDE];
+        records = directory;
+
+        put(slot, F_HASH, hash);
+        put(slot, F_STORAGE_ID, storageId);
+        put(slot, F_LABEL, storeLabel(bytes));
+        put(slot, F_META, meta(-1, 0, 0, 0, 0));
+
+        // slot contents become visible to readers here
+        size = slot + 1;
+
+        if ((tableUsed + 1) * 2L > table.length)
+            rehash(numWords * 4L > table.length ? table.length * 2 : table.length);
+
+        tableInsert(table, slot, hash);
+        tableUsed++;
+        numWords++;
+
+        if (storageId != hash)
+            customIds.put(storageId, slot);
+
+        return slot;
+    }
+
+    /*
+        Element state, used by views
+     */
+
+    protected synchronized void add(int slot, int field, long value) {
+        put(slot, field, get(slot, field) + value);
+    }
+
+    protected synchronized void set(int slot, int field, long value) {
+        put(slot, field, value);
+    }
+
+    protected double getFrequency(int slot) {
+        return Double.longBitsToDouble(get(slot, F_FREQUENCY));
+    }
+
+    protected synchronized void setFrequency(int slot, double frequency) {
+        put(slot, F_FREQUENCY, Double.doubleToLongBits(frequency));
+    }
+
+    protected synchronized void addFrequency(int slot, double increment) {
+        setFrequency(slot, getFrequency(slot) + increment);
+    }
+
+    protected synchronized void setIndex(int slot, int index) {
+        long meta = get(slot, F_META);
+        put(slot, F_META, meta(index, metaCodeLength(meta), metaPointsSize(meta), metaPointsCapacity(meta),
+                        metaFlags(meta)));
+    }
+
+    protected synchronized void setFlag(int slot, int flag, boolean value) {
+        long meta = get(slot, F_META);
+        int flags = value ? metaFlags(meta) | flag : metaFlags(meta) & ~flag;
+        put(slot, F_META, meta(metaIndex(meta), metaCodeLength(meta), metaPointsSize(meta),
+                        metaPointsCapacity(meta), flags));
+    }
+
+    protected boolean hasFlag(int slot, int flag) {
+        return (metaFlags(get(slot, F_META)) & flag) != 0;
+    }
+
+    protected synchronized void setCodeLength(int slot, int codeLength) {
+        if (codeLength > MAX_CODE_LENGTH)
+            throw new IllegalArgumentException("Code length can't exceed " + MAX_CODE_LENGTH);
+
+        long meta = get(slot, F_META);
+        put(slot, F_META, meta(metaIndex(meta), codeLength, metaPointsSize(meta), metaPointsCapacity(meta),
+                        metaFlags(meta)));
+    }
+
+    protected synchronized void setCode(int slot, int position, boolean value) {
+        long codes = get(slot, F_CODES);
+        put(slot, F_CODES, value ? codes | (1L << position) : codes & ~(1L << position));
+    }
+
+    protected int pointAt(int slot, int position) {
+        long offset = get(slot, F_POINTS) + position;
+        return pointPages[(int) (offset >>> POOL_PAGE_BITS)][(int) (offset & POOL_PAGE_MASK)];
+    }
+
+    protected synchronized void setPoint(int slot, int position, int value) {
+        long offset = get(slot, F_POINTS) + position;
+        pointPages[(int) (offset >>> POOL_PAGE_BITS)][(int) (offset & POOL_PAGE_MASK)] = value;
+    }
+
+    /**
+     * Makes sure there's room for at least specified number of points for given element
+     */
+    protected synchronized void ensurePointsCapacity(int slot, int capacity) {
+        long meta = get(slot, F_META);
+        if (metaPointsCapacity(meta) >= capacity)
+            return;
+
+        if (capacity > MAX_POINTS)
+            throw new IllegalArgumentException("Number of points can't exceed " + MAX_POINTS);
+
+        if ((pointsTail & POOL_PAGE_MASK) + capacity > POOL_PAGE_SIZE)
+            pointsTail = (pointsTail | POOL_PAGE_MASK) + 1;
+
+        int page = (int) (pointsTail >>> POOL_PAGE_BITS);
+        int[][] directory = ensureDirectory(pointPages, page);
+        if (directory[page] == null)
+            directory[page] = new int[POOL_PAGE_SIZE];
+        pointPages = directory;
+
+        // previous allocation is abandoned, that only happens if Huffman tree is rebuilt
+        int pointsSize = metaPointsSize(meta);
+        int[] target = directory[page];
+        for (int i = 0; i < pointsSize; i++)
+            target[(int) ((pointsTail + i) & POOL_PAGE_MASK)] = pointAt(slot, i);
+
+        put(slot, F_POINTS, pointsTail);
+        put(slot, F_META, meta(metaIndex(meta), metaCodeLength(meta), pointsSize, capacity, metaFlags(meta)));
+        pointsTail += capacity;
+    }
+
+    /**
+     * Resizes points list of given element, new positions are filled with zeros
+     */
+    protected synchronized void setPointsSize(int slot, int pointsSize) {
+        ensurePointsCapacity(slot, pointsSize);
+
+        long meta = get(slot, F_META);
+        for (int i = metaPointsSize(meta); i < pointsSize; i++)
+            setPoint(slot, i, 0);
+
+        put(slot, F_META, meta(metaIndex(meta), metaCodeLength(meta), pointsSize, metaPointsCapacity(meta),
+                        metaFlags(meta)));
+    }
+
+    protected synchronized void appendPoint(int slot, int value) {
+        int pointsSize = metaPointsSize(get(slot, F_META));
+        if (metaPointsCapacity(get(slot, F_META)) <= pointsSize)
+            ensurePointsCapacity(slot, Math.min(MAX_POINTS, Math.max(4, pointsSize * 2)));
+
+        setPointsSize(slot, pointsSize + 1);
+        setPoint(slot, pointsSize, value);
+    }
+
+    protected int slotAtIndex(int index) {
+        if (index < 0)
+            return -1;
+
+        int[][] directory = indexPages;
+        int page = index >>> PAGE_BITS;
+        if (page >= directory.length || directory[page] == null)
+            return -1;
+
+        int slot = directory[page][index & PAGE_MASK] - 1;
+        return slot < size ? slot : -1;
+    }
+
+    protected synchronized void mapIndex(int index, int slot) {
+        int page = index >>> PAGE_BITS;
+        int[][] directory = ensureDirectory(indexPages, page);
+        if (directory[page] == null)
+            directory[page] = new int[PAGE_SIZE];
+        directory[page][index & PAGE_MASK] = slot + 1;
+        indexPages = directory;
+    }
+
+    protected Element view(int slot, String label) {
+        return slot < 0 ? null : new Element(this, slot, label);
+    }
+
+    /*
+        VocabCache implementation
+     */
+
+    /**
+     * Deserialize vocabulary from specified path
+     */
+    @Override
+    public void loadVocab() {
+        // TODO: this method should be static and accept path
+    }
+
+    @Override
+    public boolean vocabExists() {
+        return numWords > 0;
+    }
+
+    /**
+     * Serialize vocabulary to specified path
+     */
+    @Override
+    public void saveVocab() {
+        // TODO: this method should be static and accept path
+    }
+
+    /**
+     * Returns collection of labels available in this vocabulary. Labels are decoded on the fly.
+     */
+    @Override
+    public Collection<String> words() {
+        return new AbstractCollection<String>() {
+            @Override
+            public Iterator<String> iterator() {
+                final Iterator<Integer> slots = new SlotIterator();
+                return new Iterator<String>() {
+                    @Override
+                    public boolean hasNext() {
+                        return slots.hasNext();
+                    }
+
+                    @Override
+                    public String next() {
+                        return labelAt(slots.next());
+                    }
+
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return numWords;
+            }
+        };
+    }
+
+    @Override
+    public void incrementWordCount(String word) {
+        incrementWordCount(word, 1);
+    }
+
+    @Override
+    public void incrementWordCount(String word, int increment) {
+        int slot = slotOf(word);
+        if (slot >= 0) {
+            addFrequency(slot, increment);
+            totalWordCount.addAndGet(increment);
+        }
+    }
+
+    @Override
+    public int wordFrequency(@NonNull String word) {
+        int slot = slotOf(word);
+        return slot >= 0 ? (int) getFrequency(slot) : 0;
+    }
+
+    @Override
+    public boolean containsWord(String word) {
+        return slotOf(word) >= 0;
+    }
+
+    @Override
+    public String wordAtIndex(int index) {
+        int slot = slotAtIndex(index);
+        return slot >= 0 ? labelAt(slot) : null;
+    }
+
+    @Override
+    public VocabWord elementAtIndex(int index) {
+        return view(slotAtIndex(index), null);
+    }
+
+    /**
+     * Returns Huffman index for specified label
+     *
+     * @param label the label to get index for
+     * @return >=0 if label exists, -1 if Huffman tree wasn't built yet, -2 if specified label wasn't found
+     */
+    @Override
+    public int indexOf(String label) {
+        int slot = slotOf(label);
+        return slot >= 0 ? metaIndex(get(slot, F_META)) : -2;
+    }
+
+    /**
+     * Returns collection of views over elements stored in this vocabulary
+     */
+    @Override
+    public Collection<VocabWord> vocabWords() {
+        return new AbstractCollection<VocabWord>() {
+            @Override
+            public Iterator<VocabWord> iterator() {
+                final Iterator<Integer> slots = new SlotIterator();
+                return new Iterator<VocabWord>() {
+                    @Override
+                    public boolean hasNext() {
+                        return slots.hasNext();
+                    }
+
+                    @Override
+                    public VocabWord next() {
+                        return view(slots.next(), null);
+                    }
+
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return numWords;
+            }
+        };
+    }
+
+    @Override
+    public long totalWordOccurrences() {
+        return totalWordCount.get();
+    }
+
+    @Override
+    public VocabWord wordFor(@NonNull String word) {
+        return view(slotOf(word), word);
+    }
+
+    @Override
+    public VocabWord wordFor(long id) {
+        return view(slotOf(id), null);
+    }
+
+    @Override
+    public void addWordToIndex(int index, String word) {
+        if (index < 0)
+            return;
+
+        int slot = slotOf(word);
+        if (slot >= 0) {
+            mapIndex(index, slot);
+            setIndex(slot, index);
+        }
+    }
+
+    @Override
+    public void addWordToIndex(int index, long elementId) {
+        if (index < 0)
+            return;
+
+        int slot = slotOf(elementId);
+        if (slot >= 0)
+            mapIndex(index, slot);
+    }
+
+    @Override
+    @Deprecated
+    public void putVocabWord(String word) {
+        if (!containsWord(word))
+            throw new IllegalStateException("Specified label is not present in vocabulary");
+    }
+
+    @Override
+    public int numWords() {
+        return numWords;
+    }
+
+    @Override
+    public int docAppearedIn(String word) {
+        int slot = slotOf(word);
+        return slot >= 0 ? (int) get(slot, F_SEQUENCES) : -1;
+    }
+
+    @Override
+    public void incrementDocCount(String word, long howMuch) {
+        int slot = slotOf(word);
+        if (slot >= 0)
+            add(slot, F_SEQUENCES, howMuch);
+    }
+
+    @Override
+    public void setCountForDoc(String word, long count) {
+        int slot = slotOf(word);
+        if (slot >= 0)
+            set(slot, F_SEQUENCES, count);
+    }
+
+    @Override
+    public long totalNumberOfDocs() {
+        return documentsCounter.get();
+    }
+
+    @Override
+    public void incrementTotalDocCount() {
+        documentsCounter.incrementAndGet();
+    }
+
+    @Override
+    public void incrementTotalDocCount(long by) {
+        documentsCounter.addAndGet(by);
+    }
+
+    @Override
+    public Collection<VocabWord> tokens() {
+        return vocabWords();
+    }
+
+    /**
+     * Adds specified element to vocabulary. Element state is copied into packed storage, so element itself isn't
+     * referenced afterwards. If element already exists, its counters are increased.
+     */
+    @Override
+    public void addToken(@NonNull VocabWord element) {
+        String label = element.getLabel();
+        double frequency = element.getElementFrequency();
+
+        synchronized (this) {
+            int slot = slotOf(label);
+            if (slot >= 0) {
+                add(slot, F_SEQUENCES, element.getSequencesCount());
+                addFrequency(slot, frequency);
+            } else {
+                slot = insert(label, element.getStorageId());
+                setFrequency(slot, frequency);
+                put(slot, F_SEQUENCES, element.getSequencesCount());
+                setIndex(slot, element.getIndex());
+                setFlag(slot, FLAG_SPECIAL, element.isSpecial());
+                setFlag(slot, FLAG_LABEL, element.isLabel());
+
+                // transferring Huffman tree, if it's available
+                int codeLength = element.getCodeLength();
+                if (codeLength > 0) {
+                    setCodeLength(slot, codeLength);
+                    List<Byte> codes = element.getCodes();
+                    for (int i = 0; i < codeLength && i < codes.size(); i++)
+                        setCode(slot, i, codes.get(i) != 0);
+
+                    List<Integer> points = element.getPoints();
+                    setPointsSize(slot, points.size());
+                    for (int i = 0; i < points.size(); i++)
+                        setPoint(slot, i, points.get(i));
+                }
+            }
+        }
+        totalWordCount.addAndGet((long) frequency);
+    }
+
+    @Override
+    public VocabWord tokenFor(String label) {
+        return wordFor(label);
+    }
+
+    @Override
+    public VocabWord tokenFor(long id) {
+        return wordFor(id);
+    }
+
+    @Override
+    public boolean hasToken(String token) {
+        return containsWord(token);
+    }
+
+    @Override
+    public void importVocabulary(@NonNull VocabCache<VocabWord> vocabCache) {
+        for (VocabWord element : vocabCache.vocabWords()) {
+            this.addToken(element);
+        }
+        this.documentsCounter.addAndGet(vocabCache.totalNumberOfDocs());
+    }
+
+    @Override
+    public void updateWordsOccurencies() {
+        long total = 0;
+        for (int slot = 0; slot < size; slot++) {
+            if (hasFlag(slot, FLAG_REMOVED))
+                continue;
+
+            long value = (long) getFrequency(slot);
+            if (value > 0)
+                total += value;
+        }
+        totalWordCount.set(total);
+        logger.info("Updated counter: [" + totalWordCount.get() + "]");
+    }
+
+    @Override
+    public synchronized void removeElement(String label) {
+        long hash = SequenceElement.getLongHash(label);
+        byte[] bytes = label.getBytes(UTF8);
+
+        int[] t = table;
+        int mask = t.length - 1;
+        for (int pos = mix(hash) & mask, cnt = 0; cnt < t.length && t[pos] != 0; pos = (pos + 1) & mask, cnt++) {
+            int slot = t[pos] - 1;
+            if (t[pos] == TOMBSTONE || get(slot, F_HASH) != hash || !labelEquals(slot, bytes))
+                continue;
+
+            t[pos] = TOMBSTONE;
+
+            totalWordCount.getAndAdd(-(long) getFrequency(slot));
+            int index = metaIndex(get(slot, F_META));
+            if (slotAtIndex(index) == slot)
+                mapIndex(index, -1);
+
+            customIds.remove(get(slot, F_STORAGE_ID));
+            setFlag(slot, FLAG_REMOVED, true);
+            numWords--;
+            return;
+        }
+
+        throw new IllegalStateException("Can't get label: '" + label + "'");
+    }
+
+    @Override
+    public void removeElement(VocabWord element) {
+        removeElement(element.getLabel());
+    }
+
+    /**
+     * Iterates over live slots
+     */
+    protected class SlotIterator implements Iterator<Integer> {
+        private final int limit = size;
+        private int next = advance(0);
+
+        private int advance(int from) {
+            while (from < limit && hasFlag(from, FLAG_REMOVED))
+                from++;
+            return from;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < limit;
+        }
+
+        @Override
+        public Integer next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+
+            int slot = next;
+            next = advance(next + 1);
+            return slot;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * VocabWord view over packed element state. All getters and setters go straight to the cache storage.
+     */
+    public static class Element extends VocabWord {
+        private final CompactVocabCache cache;
+        private final int slot;
+        private String label;
+        private transient List<Byte> codesView;
+        private transient List<Integer> pointsView;
+
+        protected Element(CompactVocabCache cache, int slot, String label) {
+            this.cache = cache;
+            this.slot = slot;
+            this.label = label;
+        }
+
+        @Override
+        public String getLabel() {
+            if (label == null)
+                label = cache.labelAt(slot);
+            return label;
+        }
+
+        @Override
+        public String getWord() {
+            return getLabel();
+        }
+
+        @Override
+        public void setWord(String word) {
+            throw new UnsupportedOperationException("Labels of CompactVocabCache elements can't be changed");
+        }
+
+        @Override
+        public Long getStorageId() {
+            return cache.get(slot, F_STORAGE_ID);
+        }
+
+        @Override
+        public void setStorageId(Long storageId) {
+            throw new UnsupportedOperationException("StorageId of CompactVocabCache elements can't be changed");
+        }
+
+        @Override
+        public double getElementFrequency() {
+            return cache.getFrequency(slot);
+        }
+
+        @Override
+        public void setElementFrequency(long value) {
+            cache.setFrequency(slot, value);
+        }
+
+        @Override
+        public void increaseElementFrequency(int by) {
+            cache.addFrequency(slot, by);
+        }
+
+        @Override
+        public long getSequencesCount() {
+            return cache.get(slot, F_SEQUENCES);
+        }
+
+        @Override
+        public void setSequencesCount(long count) {
+            cache.set(slot, F_SEQUENCES, count);
+        }
+
+        @Override
+        public void incrementSequencesCount() {
+            cache.add(slot, F_SEQUENCES, 1);
+        }
+
+        @Override
+        public void incrementSequencesCount(long count) {
+            cache.add(slot, F_SEQUENCES, count);
+        }
+
+        @Override
+        public boolean isSpecial() {
+            return cache.hasFlag(slot, FLAG_SPECIAL);
+        }
+
+        @Override
+        public void setSpecial(boolean special) {
+            cache.setFlag(slot, FLAG_SPECIAL, special);
+        }
+
+        @Override
+        public boolean isLabel() {
+            return cache.hasFlag(slot, FLAG_LABEL);
+        }
+
+        @Override
+        public void markAsLabel(boolean isLabel) {
+            cache.setFlag(slot, FLAG_LABEL, isLabel);
+        }
+
+        @Override
+        public int getIndex() {
+            return metaIndex(cache.get(slot, F_META));
+        }
+
+        @Override
+        public void setIndex(int index) {
+            cache.setIndex(slot, index);
+        }
+
+        @Override
+        public int getCodeLength() {
+            return metaCodeLength(cache.get(slot, F_META));
+        }
+
+        @Override
+        public void setCodeLength(short codeLength) {
+            cache.setCodeLength(slot, codeLength);
+
+            // same semantics as SequenceElement: points are padded with zeros, and there's room for Huffman root
+            int pointsSize = metaPointsSize(cache.get(slot, F_META));
+            if (pointsSize < codeLength) {
+                cache.ensurePointsCapacity(slot, codeLength + 1);
+                cache.setPointsSize(slot, codeLength);
+            }
+        }
+
+        @Override
+        public List<Byte> getCodes() {
+            if (codesView == null) {
+                codesView = new AbstractList<Byte>() {
+                    @Override
+                    public Byte get(int index) {
+                        if (index < 0 || index >= size())
+                            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size());
+                        return (byte) ((cache.get(slot, F_CODES) >>> index) & 1);
+                    }
+
+                    @Override
+                    public Byte set(int index, Byte element) {
+                        Byte old = get(index);
+                        cache.setCode(slot, index, element != 0);
+                        return old;
+                    }
+
+                    @Override
+                    public int size() {
+                        return getCodeLength();
+                    }
+                };
+            }
+            return codesView;
+        }
+
+        @Override
+        public void setCodes(List<Byte> codes) {
+            cache.setCodeLength(slot, codes.size());
+            for (int i = 0; i < codes.size(); i++)
+                cache.setCode(slot, i, codes.get(i) != 0);
+        }
+
+        @Override
+        public List<Integer> getPoints() {
+            if (pointsView == null) {
+                pointsView = new AbstractList<Integer>() {
+                    @Override
+                    public Integer get(int index) {
+                        if (index < 0 || index >= size())
+                            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size());
+                        return cache.pointAt(slot, index);
+                    }
+
+                    @Override
+                    public Integer set(int index, Integer element) {
+                        Integer old = get(index);
+                        cache.setPoint(slot, index, element);
+                        return old;
+                    }
+
+                    @Override
+                    public void add(int index, Integer element) {
+                        if (index != size())
+                            throw new UnsupportedOperationException("Points can only be appended");
+                        cache.appendPoint(slot, element);
+                    }
+
+                    @Override
+                    public int size() {
+                        return metaPointsSize(cache.get(slot, F_META));
+                    }
+                };
+            }
+            return pointsView;
+        }
+
+        @Override
+        public void setPoints(List<Integer> points) {
+            cache.setPointsSize(slot, points.size());
+            for (int i = 0; i < points.size(); i++)
+                cache.setPoint(slot, i, points.get(i));
+        }
+
+        @Override
+        public void setPoints(int[] points) {
+            cache.setPointsSize(slot, points.length);
+            for (int i = 0; i < points.length; i++)
+                cache.setPoint(slot, i, points[i]);
+        }
+
+        @Override
+        public int compareTo(SequenceElement o) {
+            return Double.compare(getElementFrequency(), o.getElementFrequency());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof VocabWord))
+                return false;
+            return getLabel().equals(((VocabWord) o).getLabel());
+        }
+
+        @Override
+        public int hashCode() {
+            return getLabel().hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return "VocabWord{" + "wordFrequency=" + getElementFrequency() + ", index=" + getIndex() + ", word='"
+                            + getLabel() + '\'' + ", codeLength=" + getCodeLength() + '}';
+        }
+    }
+
+    public static class Builder {
+        protected int expectedSize = 1024;
+
+        /**
+         * Expected number of elements. Used to size hash table, to avoid rehashing while vocabulary is built.
+         */
+        public Builder expectedSize(int expectedSize) {
+            this.expectedSize = expectedSize;
+            return this;
+        }
+
+        public CompactVocabCache build() {
+            return new CompactVocabCache(expectedSize);
+        }
+    }
+}
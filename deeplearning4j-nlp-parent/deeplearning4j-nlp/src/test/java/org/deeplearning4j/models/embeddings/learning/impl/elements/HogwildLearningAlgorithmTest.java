@@ -0,0 +1,61 @@
+package org.deeplearning4j.models.embeddings.learning.impl.elements;
+
+import org.datavec.api.util.ClassPathResource;
+import org.deeplearning4j.models.embeddings.learning.ElementsLearningAlgorithm;
+import org.deeplearning4j.models.embeddings.reader.impl.BasicModelUtils;
+import org.deeplearning4j.models.word2vec.VocabWord;
+import org.deeplearning4j.models.word2vec.Word2Vec;
+import org.deeplearning4j.text.sentenceiterator.BasicLineIterator;
+import org.deeplearning4j.text.sentenceiterator.SentenceIterator;
+import org.deeplearning4j.text.tokenization.tokenizer.preprocessor.CommonPreprocessor;
+import org.deeplearning4j.text.tokenization.tokenizerfactory.DefaultTokenizerFactory;
+import org.deeplearning4j.text.tokenization.tokenizerfactory.TokenizerFactory;
+import org.junit.Test;
+
+import java.io.File;
+
+import static org.junit.Assert.assertTrue;
+
+public class HogwildLearningAlgorithmTest {
+
+    private Word2Vec fit(ElementsLearningAlgorithm<VocabWord> algorithm, boolean useHS, int negative)
+                    throws Exception {
+        File inputFile = new ClassPathResource("/big/raw_sentences.txt").getFile();
+        SentenceIterator iter = new BasicLineIterator(inputFile.getAbsolutePath());
+
+        TokenizerFactory t = new DefaultTokenizerFactory();
+        t.setTokenPreProcessor(new CommonPreprocessor());
+
+        Word2Vec vec = new Word2Vec.Builder().minWordFrequency(5).iterations(1).epochs(1).learningRate(0.025)
+                        .layerSize(100).seed(42).sampling(0).negativeSample(negative).useHierarchicSoftmax(useHS)
+                        .windowSize(5).modelUtils(new BasicModelUtils<VocabWord>()).iterate(iter).workers(4)
+                        .tokenizerFactory(t).elementsLearningAlgorithm(algorithm).build();
+
+        vec.fit();
+        return vec;
+    }
+
+    @Test
+    public void testSkipGramHS() throws Exception {
+        Word2Vec vec = fit(new HogwildSkipGram<VocabWord>(), true, 0);
+
+        double sim = vec.similarity("day", "night");
+        assertTrue("Day/night similarity: " + sim, sim > 0.6);
+    }
+
+    @Test
+    public void testSkipGramNegative() throws Exception {
+        Word2Vec vec = fit(new HogwildSkipGram<VocabWord>(), false, 5);
+
+        double sim = vec.similarity("day", "night");
+        assertTrue("Day/night similarity: " + sim, sim > 0.6);
+    }
+
+    @Test
+    public void testCBOW() throws Exception {
+        Word2Vec vec = fit(new HogwildCBOW<VocabWord>(), true, 0);
+
+        double sim = vec.similarity("day", "night");
+        assertTrue("Day/night similarity: " + sim, sim > 0.6);
+    }
+}
@@ -0,0 +1,48 @@
+package org.deeplearning4j.models.embeddings.reader.impl;
+
+import org.datavec.api.util.ClassPathResource;
+import org.deeplearning4j.models.embeddings.loader.WordVectorSerializer;
+import org.deeplearning4j.models.word2vec.VocabWord;
+import org.deeplearning4j.models.word2vec.Word2Vec;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+
+import static org.junit.Assert.*;
+
+public class HnswModelUtilsTest {
+
+    @Rule
+    public TemporaryFolder testDir = new TemporaryFolder();
+
+    @Test
+    public void testWordsNearestMatchesFullScan() throws Exception {
+        Word2Vec vec = WordVectorSerializer.loadGoogleModel(new ClassPathResource("vec.bin").getFile(), true, true);
+
+        vec.setModelUtils(new BasicModelUtils<VocabWord>());
+        Collection<String> expected = new ArrayList<>(vec.wordsNearest("Adam", 3));
+
+        HnswModelUtils<VocabWord> utils = new HnswModelUtils<>(8, 100, 50);
+        vec.setModelUtils(utils);
+        Collection<String> actual = vec.wordsNearest("Adam", 3);
+
+        // vocabulary is tiny, so approximate search is exact here
+        assertEquals(new HashSet<>(expected), new HashSet<>(actual));
+        assertFalse(actual.contains("Adam"));
+        assertEquals(vec.vocab().numWords(), utils.getIndex().size());
+
+        File file = testDir.newFile("index.bin");
+        utils.saveIndex(file);
+
+        HnswModelUtils<VocabWord> restored = new HnswModelUtils<>(8, 100, 50);
+        restored.loadIndex(file);
+        vec.setModelUtils(restored);
+        assertEquals(new HashSet<>(actual), new HashSet<>(vec.wordsNearest("Adam", 3)));
+        assertEquals(utils.getIndex().size(), restored.getIndex().size());
+    }
+}
@@ -0,0 +1,56 @@
+package org.deeplearning4j.models.embeddings.wordvectors;
+
+import org.datavec.api.util.ClassPathResource;
+import org.deeplearning4j.models.embeddings.loader.WordVectorSerializer;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+
+import static org.junit.Assert.*;
+
+public class MappedWordVectorsTest {
+
+    @Rule
+    public TemporaryFolder testDir = new TemporaryFolder();
+
+    @Test
+    public void testWriteAndMap() throws Exception {
+        WordVectors original = WordVectorSerializer.loadGoogleModel(new ClassPathResource("vec.bin").getFile(), true,
+                        true);
+
+        File file = testDir.newFile("vectors.mmap");
+        WordVectorSerializer.writeMappedWordVectors(original, file);
+
+        MappedWordVectors mapped = WordVectorSerializer.readMappedWordVectors(file);
+        assertEquals(original.vocab().numWords(), mapped.numWords());
+        assertEquals(original.lookupTable().layerSize(), mapped.getVectorLength());
+
+        for (int i = 0; i < mapped.numWords(); i++) {
+            String word = original.vocab().wordAtIndex(i);
+            assertEquals(i, mapped.indexOf(word));
+            assertEquals(word, mapped.wordAtIndex(i));
+            assertArrayEquals(original.getWordVector(word), mapped.getWordVector(word), 1e-5);
+        }
+
+        assertFalse(mapped.hasWord("definitely-not-in-vocab"));
+        assertNull(mapped.getWordVectorMatrix("definitely-not-in-vocab"));
+
+        assertEquals(original.similarity("Adam", "is"), mapped.similarity("Adam", "is"), 1e-4);
+
+        Collection<String> expected = original.wordsNearest("Adam", 3);
+        Collection<String> actual = mapped.wordsNearest("Adam", 3);
+        assertEquals(new HashSet<>(expected), new HashSet<>(actual));
+
+        Collection<String> sum = mapped.wordsNearest(Arrays.asList("Adam", "is"), new ArrayList<String>(), 2);
+        assertEquals(2, sum.size());
+        assertFalse(sum.contains("Adam"));
+
+        mapped.close();
+    }
+}
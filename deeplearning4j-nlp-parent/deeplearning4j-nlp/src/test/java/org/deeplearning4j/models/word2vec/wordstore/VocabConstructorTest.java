@@ -7,6 +7,7 @@ import org.deeplearning4j.models.sequencevectors.sequence.Sequence;
 import org.deeplearning4j.models.sequencevectors.transformers.impl.SentenceTransformer;
 import org.deeplearning4j.models.word2vec.VocabWord;
 import org.deeplearning4j.models.word2vec.wordstore.inmemory.AbstractCache;
+import org.deeplearning4j.models.word2vec.wordstore.inmemory.CompactVocabCache;
 import org.deeplearning4j.text.documentiterator.FileLabelAwareIterator;
 import org.deeplearning4j.text.sentenceiterator.BasicLineIterator;
 import org.deeplearning4j.text.sentenceiterator.SentenceIterator;
@@ -312,4 +313,72 @@ public class VocabConstructorTest {
         assertTrue(cacheTarget.indexOf("Zscience") > sourceSize - 1);
         assertTrue(cacheTarget.indexOf("Zhealth") > sourceSize - 1);
     }
+
+    @Test
+    public void testShardedCounting() throws Exception {
+        File inputFile = new ClassPathResource("big/raw_sentences.txt").getFile();
+
+        VocabCache<VocabWord> expected = buildVocab(inputFile, 5, false, false);
+        VocabCache<VocabWord> sharded = buildVocab(inputFile, 5, true, false);
+
+        assertEquals(expected.numWords(), sharded.numWords());
+        assertEquals(expected.totalWordOccurrences(), sharded.totalWordOccurrences());
+        assertEquals(expected.totalNumberOfDocs(), sharded.totalNumberOfDocs());
+        for (String word : expected.words()) {
+            assertEquals(expected.wordFrequency(word), sharded.wordFrequency(word));
+            assertEquals(expected.docAppearedIn(word), sharded.docAppearedIn(word));
+        }
+
+        // approximate pre-filter never drops frequent elements, and never underestimates them
+        VocabCache<VocabWord> filtered = buildVocab(inputFile, 5, true, true);
+        for (String word : expected.words()) {
+            assertTrue(filtered.containsWord(word));
+            assertTrue(filtered.wordFrequency(word) >= expected.wordFrequency(word));
+        }
+    }
+
+    @Test
+    public void testCompactHolders() throws Exception {
+        File inputFile = new ClassPathResource("big/raw_sentences.txt").getFile();
+
+        VocabConstructor<VocabWord> constructor = new VocabConstructor.Builder<VocabWord>()
+                        .setTargetVocabCache(new CompactVocabCache()).build();
+        assertTrue(constructor.createHolder() instanceof CompactVocabCache);
+
+        for (boolean sharded : new boolean[] {false, true}) {
+            VocabCache<VocabWord> expected = buildVocab(inputFile, 5, sharded, false);
+            VocabCache<VocabWord> compact =
+                            buildVocab(inputFile, 5, sharded, false, new CompactVocabCache.Builder().build());
+
+            assertEquals(expected.numWords(), compact.numWords());
+            assertEquals(expected.totalWordOccurrences(), compact.totalWordOccurrences());
+            assertEquals(expected.totalNumberOfDocs(), compact.totalNumberOfDocs());
+            for (String word : expected.words()) {
+                assertEquals(expected.wordFrequency(word), compact.wordFrequency(word));
+                assertEquals(expected.docAppearedIn(word), compact.docAppearedIn(word));
+            }
+        }
+    }
+
+    private VocabCache<VocabWord> buildVocab(File file, int minWordFrequency, boolean sharded, boolean sketch)
+                    throws Exception {
+        return buildVocab(file, minWordFrequency, sharded, sketch, new AbstractCache.Builder<VocabWord>().build());
+    }
+
+    private VocabCache<VocabWord> buildVocab(File file, int minWordFrequency, boolean sharded, boolean sketch,
+                    VocabCache<VocabWord> cache) throws Exception {
+        SentenceTransformer transformer = new SentenceTransformer.Builder().iterator(new BasicLineIterator(file))
+                        .tokenizerFactory(t).build();
+        AbstractSequenceIterator<VocabWord> sequenceIterator =
+                        new AbstractSequenceIterator.Builder<>(transformer).build();
+
+        VocabConstructor.Builder<VocabWord> builder = new VocabConstructor.Builder<VocabWord>()
+                        .addSource(sequenceIterator, minWordFrequency).setTargetVocabCache(cache)
+                        .enableShardedCounting(sharded).setCountingThreads(4);
+        if (sketch)
+            builder.enableCountMinFilter(1 << 12, 4);
+
+        builder.build().buildJointVocabulary(false, true);
+        return cache;
+    }
 }
@@ -0,0 +1,173 @@
+package org.deeplearning4j.models.word2vec.wordstore.inmemory;
+
+import org.datavec.api.util.ClassPathResource;
+import org.deeplearning4j.models.sequencevectors.iterators.AbstractSequenceIterator;
+import org.deeplearning4j.models.sequencevectors.transformers.impl.SentenceTransformer;
+import org.deeplearning4j.models.word2vec.Huffman;
+import org.deeplearning4j.models.word2vec.VocabWord;
+import org.deeplearning4j.models.word2vec.wordstore.VocabCache;
+import org.deeplearning4j.models.word2vec.wordstore.VocabConstructor;
+import org.deeplearning4j.text.sentenceiterator.BasicLineIterator;
+import org.deeplearning4j.text.tokenization.tokenizer.preprocessor.CommonPreprocessor;
+import org.deeplearning4j.text.tokenization.tokenizerfactory.DefaultTokenizerFactory;
+import org.deeplearning4j.text.tokenization.tokenizerfactory.TokenizerFactory;
+import org.junit.Test;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+public class CompactVocabCacheTest {
+
+    @Test
+    public void testBasicOperations() throws Exception {
+        CompactVocabCache cache = new CompactVocabCache.Builder().expectedSize(4).build();
+
+        // enough elements to trigger a few rehashes
+        for (int i = 0; i < 10000; i++)
+            cache.addToken(new VocabWord(i % 7 + 1, "word_" + i));
+        cache.addToken(new VocabWord(2.0, "word_10"));
+        cache.addToken(new VocabWord(1.0, "слово"));
+
+        assertEquals(10001, cache.numWords());
+        assertTrue(cache.containsWord("word_9999"));
+        assertTrue(cache.containsWord("слово"));
+        assertFalse(cache.containsWord("word_10000"));
+        assertEquals(6, cache.wordFrequency("word_10"));
+
+        cache.incrementWordCount("word_10", 4);
+        assertEquals(10, cache.wordFrequency("word_10"));
+        assertEquals(10.0, cache.wordFor("word_10").getElementFrequency(), 1e-5);
+
+        VocabWord word = cache.wordFor("word_5");
+        word.incrementSequencesCount();
+        word.setSpecial(true);
+        assertEquals(1, cache.docAppearedIn("word_5"));
+        assertTrue(cache.tokenFor(word.getStorageId()).isSpecial());
+        assertEquals("word_5", cache.tokenFor(word.getStorageId()).getLabel());
+
+        long total = cache.totalWordOccurrences();
+        cache.removeElement("word_5");
+        assertEquals(10000, cache.numWords());
+        assertFalse(cache.containsWord("word_5"));
+        assertEquals(total - 6, cache.totalWordOccurrences());
+        assertEquals(10000, cache.words().size());
+        assertFalse(cache.words().contains("word_5"));
+
+        // removed element can be added back
+        cache.addToken(new VocabWord(1.0, "word_5"));
+        assertEquals(1, cache.wordFrequency("word_5"));
+    }
+
+    @Test
+    public void testFractionalFrequencies() throws Exception {
+        AbstractCache<VocabWord> expected = new AbstractCache.Builder<VocabWord>().build();
+        CompactVocabCache actual = new CompactVocabCache();
+
+        // frequencies only differ in their fractional part, so truncating them would break the ordering
+        double[] frequencies = {1.75, 1.25, 0.5, 1.5, 2.0, 0.25};
+        for (int i = 0; i < frequencies.length; i++) {
+            expected.addToken(new VocabWord(frequencies[i], "word_" + i));
+            actual.addToken(new VocabWord(frequencies[i], "word_" + i));
+        }
+
+        for (int i = 0; i < frequencies.length; i++) {
+            assertEquals(frequencies[i], actual.wordFor("word_" + i).getElementFrequency(), 0.0);
+            assertEquals(expected.wordFrequency("word_" + i), actual.wordFrequency("word_" + i));
+        }
+        assertEquals(expected.totalWordOccurrences(), actual.totalWordOccurrences());
+
+        Huffman huffman = new Huffman(expected.vocabWords());
+        huffman.build();
+        huffman.applyIndexes(expected);
+
+        huffman = new Huffman(actual.vocabWords());
+        huffman.build();
+        huffman.applyIndexes(actual);
+
+        for (int i = 0; i < expected.numWords(); i++) {
+            String label = expected.wordAtIndex(i);
+            assertEquals(label, actual.wordAtIndex(i));
+            assertEquals(expected.wordFor(label).getCodes().subList(0, expected.wordFor(label).getCodeLength()),
+                            actual.wordFor(label).getCodes());
+        }
+
+        // fractional part is kept when element counters are merged and increased
+        actual.addToken(new VocabWord(0.5, "word_0"));
+        assertEquals(2.25, actual.wordFor("word_0").getElementFrequency(), 0.0);
+        actual.wordFor("word_0").increaseElementFrequency(1);
+        assertEquals(3.25, actual.wordFor("word_0").getElementFrequency(), 0.0);
+        assertEquals(3, actual.wordFrequency("word_0"));
+    }
+
+    @Test
+    public void testHuffmanMatchesAbstractCache() throws Exception {
+        AbstractCache<VocabWord> expected = new AbstractCache.Builder<VocabWord>().build();
+        CompactVocabCache actual = new CompactVocabCache();
+
+        // unique frequencies, so both caches get the same ordering
+        for (int i = 0; i < 1000; i++) {
+            int frequency = (i * 7919) % 1000 + 1;
+            expected.addToken(new VocabWord(frequency, "word_" + i));
+            actual.addToken(new VocabWord(frequency, "word_" + i));
+        }
+
+        Huffman huffman = new Huffman(expected.vocabWords());
+        huffman.build();
+        huffman.applyIndexes(expected);
+
+        huffman = new Huffman(actual.vocabWords());
+        huffman.build();
+        huffman.applyIndexes(actual);
+
+        for (int i = 0; i < expected.numWords(); i++) {
+            String label = expected.wordAtIndex(i);
+            assertEquals(label, actual.wordAtIndex(i));
+
+            VocabWord e = expected.wordFor(label);
+            VocabWord a = actual.elementAtIndex(i);
+            assertEquals(e.getIndex(), a.getIndex());
+            assertEquals(e.getCodeLength(), a.getCodeLength());
+            assertEquals(e.getCodes().subList(0, e.getCodeLength()), a.getCodes());
+            assertEquals(e.getPoints(), a.getPoints());
+        }
+
+        // Huffman tree is transferred between caches
+        CompactVocabCache copy = new CompactVocabCache();
+        copy.importVocabulary(actual);
+        for (VocabWord a : actual.vocabWords()) {
+            VocabWord c = copy.wordFor(a.getLabel());
+            assertEquals(a.getCodes(), c.getCodes());
+            assertEquals(a.getPoints(), c.getPoints());
+        }
+    }
+
+    @Test
+    public void testVocabConstructor() throws Exception {
+        File inputFile = new ClassPathResource("big/raw_sentences.txt").getFile();
+        TokenizerFactory t = new DefaultTokenizerFactory();
+        t.setTokenPreProcessor(new CommonPreprocessor());
+
+        VocabCache<VocabWord> expected = new AbstractCache.Builder<VocabWord>().build();
+        VocabCache<VocabWord> actual = new CompactVocabCache();
+
+        for (VocabCache<VocabWord> cache : new VocabCache[] {expected, actual}) {
+            SentenceTransformer transformer = new SentenceTransformer.Builder()
+                            .iterator(new BasicLineIterator(inputFile)).tokenizerFactory(t).build();
+            AbstractSequenceIterator<VocabWord> sequenceIterator =
+                            new AbstractSequenceIterator.Builder<>(transformer).build();
+
+            VocabConstructor<VocabWord> constructor = new VocabConstructor.Builder<VocabWord>()
+                            .addSource(sequenceIterator, 5).setTargetVocabCache(cache).build();
+            constructor.buildJointVocabulary(false, true);
+        }
+
+        assertEquals(expected.numWords(), actual.numWords());
+        assertEquals(expected.totalWordOccurrences(), actual.totalWordOccurrences());
+        for (String word : expected.words()) {
+            assertEquals(expected.wordFrequency(word), actual.wordFrequency(word));
+            assertEquals(expected.docAppearedIn(word), actual.docAppearedIn(word));
+            assertEquals(word, actual.wordAtIndex(actual.indexOf(word)));
+        }
+    }
+}
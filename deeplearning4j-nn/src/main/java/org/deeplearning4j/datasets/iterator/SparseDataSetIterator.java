@@ -0,0 +1,165 @@
+package org.deeplearning4j.datasets.iterator;
+
+import lombok.Getter;
+import lombok.NonNull;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.dataset.api.DataSetPreProcessor;
+import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * DataSetIterator for sparse (multi-hot or bag of words) features, given in compressed sparse row (CSR) format:
+ * the column indices of the non-zero features of example i are columnIndices[rowPointers[i]] to
+ * columnIndices[rowPointers[i+1]-1]. A column index may appear more than once for the same example (i.e., counts).<br>
+ * Features are never materialized densely: each minibatch has features of shape [batchSize, maxIndices], holding the
+ * column indices of each example padded with -1, where maxIndices is the largest number of indices of any example in
+ * the minibatch. This is the input format of an {@link org.deeplearning4j.nn.conf.layers.EmbeddingLayer} with bag
+ * input, which is the sparse equivalent of a DenseLayer with nIn = {@link #inputColumns()}.
+ */
+public class SparseDataSetIterator implements DataSetIterator {
+    @Getter
+    private DataSetPreProcessor preProcessor;
+
+    private final int[] rowPointers;
+    private final int[] columnIndices;
+    private final int numColumns;
+    private final INDArray labels;
+    private final int batchSize;
+    private int cursor = 0;
+
+    /**
+     * @param rowPointers   CSR row pointers: length numExamples+1
+     * @param columnIndices CSR column indices of the non-zero features
+     * @param numColumns    Total number of feature columns (i.e., nIn of the embedding layer)
+     * @param labels        Labels, with shape [numExamples, numLabels]
+     * @param batchSize     Minibatch size
+     */
+    public SparseDataSetIterator(@NonNull int[] rowPointers, @NonNull int[] columnIndices, int numColumns,
+                    @NonNull INDArray labels, int batchSize) {
+        if (batchSize < 1)
+            throw new IllegalStateException("batchSize can't be < 1");
+        if (rowPointers.length != labels.rows() + 1)
+            throw new IllegalArgumentException("Invalid row pointers: expected length " + (labels.rows() + 1)
+                            + " for " + labels.rows() + " examples, got length " + rowPointers.length);
+        if (rowPointers[rowPointers.length - 1] > columnIndices.length)
+            throw new IllegalArgumentException("Invalid row pointers: last row pointer is "
+                            + rowPointers[rowPointers.length - 1] + " with only " + columnIndices.length
+                            + " column indices");
+
+        this.rowPointers = rowPointers;
+        this.columnIndices = columnIndices;
+        this.numColumns = numColumns;
+        this.labels = labels;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Convert rows fromRow (inclusive) to toRow (exclusive) of a CSR matrix to padded indices: shape
+     * [toRow-fromRow, maxIndices], padded with -1
+     */
+    public static INDArray toPaddedIndices(int[] rowPointers, int[] columnIndices, int fromRow, int toRow) {
+        int maxIndices = 1;
+        for (int i = fromRow; i < toRow; i++)
+            maxIndices = Math.max(maxIndices, rowPointers[i + 1] - rowPointers[i]);
+
+        float[] indices = new float[(toRow - fromRow) * maxIndices];
+        for (int i = fromRow; i < toRow; i++) {
+            int offset = (i - fromRow) * maxIndices;
+            int nIndices = rowPointers[i + 1] - rowPointers[i];
+            for (int j = 0; j < maxIndices; j++)
+                indices[offset + j] = (j < nIndices ? columnIndices[rowPointers[i] + j] : -1);
+        }
+        return Nd4j.create(indices, new int[] {toRow - fromRow, maxIndices}, 'c');
+    }
+
+    @Override
+    public DataSet next(int num) {
+        if (!hasNext())
+            throw new NoSuchElementException();
+
+        int end = Math.min(cursor + num, totalExamples());
+        INDArray features = toPaddedIndices(rowPointers, columnIndices, cursor, end);
+        INDArray batchLabels = labels.get(NDArrayIndex.interval(cursor, end), NDArrayIndex.all()).dup();
+        cursor = end;
+
+        DataSet ds = new DataSet(features, batchLabels);
+        if (preProcessor != null)
+            preProcessor.preProcess(ds);
+        return ds;
+    }
+
+    @Override
+    public int totalExamples() {
+        return labels.rows();
+    }
+
+    @Override
+    public int inputColumns() {
+        return numColumns;
+    }
+
+    @Override
+    public int totalOutcomes() {
+        return labels.columns();
+    }
+
+    @Override
+    public boolean resetSupported() {
+        return true;
+    }
+
+    @Override
+    public boolean asyncSupported() {
+        return true;
+    }
+
+    @Override
+    public void reset() {
+        cursor = 0;
+    }
+
+    @Override
+    public int batch() {
+        return batchSize;
+    }
+
+    @Override
+    public int cursor() {
+        return cursor;
+    }
+
+    @Override
+    public int numExamples() {
+        return totalExamples();
+    }
+
+    @Override
+    public void setPreProcessor(DataSetPreProcessor preProcessor) {
+        this.preProcessor = preProcessor;
+    }
+
+    @Override
+    public List<String> getLabels() {
+        return null;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return cursor < totalExamples();
+    }
+
+    @Override
+    public DataSet next() {
+        return next(batchSize);
+    }
+
+    @Override
+    public void remove() {
+        // no-op
+    }
+}
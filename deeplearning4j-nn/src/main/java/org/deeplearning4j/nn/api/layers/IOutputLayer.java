@@ -59,5 +59,18 @@ public interface IOutputLayer extends Layer, Classifier {
      */
     INDArray computeScoreForExamples(double fullNetworkL1, double fullNetworkL2);
 
+    /**
+     * Set the loss scaling factor: the error signal of this layer (and so, all gradients computed by backprop from
+     * it) is multiplied by this factor. Used to keep small gradients from underflowing with half precision; the
+     * network divides gradients by the same factor before passing them to the updater.
+     *
+     * @param lossScale loss scaling factor. 1.0 for no scaling
+     */
+    void setLossScale(double lossScale);
+
+    /**
+     * @return The loss scaling factor set with {@link #setLossScale(double)}
+     */
+    double getLossScale();
 
 }
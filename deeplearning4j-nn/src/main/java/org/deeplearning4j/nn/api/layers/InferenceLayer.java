@@ -0,0 +1,40 @@
+/*-
+ *  * Copyright 2017 Skymind,Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.deeplearning4j.nn.api.layers;
+
+import org.deeplearning4j.nn.api.Layer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+/**
+ * Interface for layers that support a stateless, test-time forward pass.<br>
+ * Unlike {@link Layer#activate(INDArray, boolean)}, implementations of {@link #activateInference(INDArray)} must not
+ * modify any fields of the layer (input, mask array, dropout state, cached intermediate values etc). Consequently,
+ * the same layer instance can be used for inference from multiple threads at once, and no references to the
+ * input or intermediate arrays are retained after the method returns.
+ *
+ * @see org.deeplearning4j.util.InferenceUtils
+ */
+public interface InferenceLayer extends Layer {
+
+    /**
+     * Calculate the test-time activations for the given input, without modifying the state of the layer.
+     *
+     * @param input Input to the layer. Must not be modified by the implementation.
+     * @return Activations of the layer
+     */
+    INDArray activateInference(INDArray input);
+}
@@ -0,0 +1,21 @@
+package org.deeplearning4j.nn.api.layers;
+
+import org.deeplearning4j.nn.api.Layer;
+
+/**
+ * Interface for layers whose gradient for some parameters is non-zero only on a subset of the rows after each
+ * backprop pass, such as the weights of an embedding layer. For those parameters,
+ * {@link org.deeplearning4j.nn.updater.LayerUpdater} applies the updater and regularization to the listed rows only,
+ * so that the cost of an iteration is proportional to the number of rows actually used instead of the parameter size.
+ */
+public interface RowSparseGradientLayer extends Layer {
+
+    /**
+     * Get the rows of the gradient for the given parameter that may be non-zero after the last backprop pass. All
+     * other rows of the gradient are zero.
+     *
+     * @param paramName Name of the parameter
+     * @return Unique row indices (sorted), or null if the gradient for this parameter should be treated as dense
+     */
+    int[] getGradientRows(String paramName);
+}
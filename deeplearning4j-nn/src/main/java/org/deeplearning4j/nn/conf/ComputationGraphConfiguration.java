@@ -74,6 +74,13 @@ public class ComputationGraphConfiguration implements Serializable, Cloneable {
     protected BackpropType backpropType = BackpropType.Standard;
     protected int tbpttFwdLength = 20;
     protected int tbpttBackLength = 20;
+    protected boolean fusedUpdater = false;
+    protected PrecisionPolicy precisionPolicy = PrecisionPolicy.Full;
+    protected double lossScale = 1.0;
+    /**
+     * Vertices whose activations are retained for backprop, when using gradient checkpointing. Empty: no checkpointing
+     */
+    protected List<String> checkpointVertices = new ArrayList<>();
 
     protected NeuralNetConfiguration defaultConfiguration;
 
@@ -222,6 +229,10 @@ public class ComputationGraphConfiguration implements Serializable, Cloneable {
         conf.backpropType = backpropType;
         conf.tbpttFwdLength = tbpttFwdLength;
         conf.tbpttBackLength = tbpttBackLength;
+        conf.fusedUpdater = fusedUpdater;
+        conf.precisionPolicy = precisionPolicy;
+        conf.lossScale = lossScale;
+        conf.checkpointVertices = new ArrayList<>(checkpointVertices);
         conf.defaultConfiguration = defaultConfiguration.clone();
 
         return conf;
@@ -273,6 +284,14 @@ public class ComputationGraphConfiguration implements Serializable, Cloneable {
             }
         }
 
+        //Check checkpoint names:
+        for (String s : checkpointVertices) {
+            if (!vertices.containsKey(s)) {
+                throw new IllegalStateException(
+                                "Invalid configuration: Checkpoint name \"" + s + "\" is not a valid vertex");
+            }
+        }
+
         //Check for no graph cycles: done in ComputationGraph.init()
     }
 
@@ -429,6 +448,10 @@ public class ComputationGraphConfiguration implements Serializable, Cloneable {
         protected BackpropType backpropType = BackpropType.Standard;
         protected int tbpttFwdLength = 20;
         protected int tbpttBackLength = 20;
+        protected boolean fusedUpdater = false;
+        protected PrecisionPolicy precisionPolicy = PrecisionPolicy.Full;
+        protected double lossScale = 1.0;
+        protected List<String> checkpointVertices = new ArrayList<>();
 
         protected Map<String, InputPreProcessor> inputPreProcessors = new LinkedHashMap<>();
 
@@ -454,6 +477,10 @@ public class ComputationGraphConfiguration implements Serializable, Cloneable {
             this.backpropType = clonedConf.getBackpropType();
             this.tbpttFwdLength = clonedConf.getTbpttFwdLength();
             this.tbpttBackLength = clonedConf.getTbpttBackLength();
+            this.fusedUpdater = clonedConf.isFusedUpdater();
+            this.precisionPolicy = clonedConf.getPrecisionPolicy();
+            this.lossScale = clonedConf.getLossScale();
+            this.checkpointVertices = new ArrayList<>(clonedConf.getCheckpointVertices());
             this.globalConfiguration = globalConfiguration;
             //this.getGlobalConfiguration().setSeed(clonedConf.getDefaultConfiguration().getSeed());
         }
@@ -533,6 +560,60 @@ public class ComputationGraphConfiguration implements Serializable, Cloneable {
             return this;
         }
 
+        /**
+         * Whether to apply updaters over contiguous blocks of the flattened parameters, instead of one parameter at a
+         * time. Consecutive parameters (in topological order) sharing the same updater configuration, and without
+         * learning rate policies or gradient normalization, are updated with a single op per block.<br>
+         * Note that Adam and AdaDelta state is laid out per block in this mode, so updater state saved with this
+         * option enabled can only be restored with it enabled as well.
+         *
+         * @param fusedUpdater whether to use fused updater or not. Default: false
+         */
+        public GraphBuilder fusedUpdater(boolean fusedUpdater) {
+            this.fusedUpdater = fusedUpdater;
+            return this;
+        }
+
+        /**
+         * Precision used to store the network. See {@link PrecisionPolicy}
+         *
+         * @param precisionPolicy precision policy. Default: PrecisionPolicy.Full
+         */
+        public GraphBuilder precisionPolicy(PrecisionPolicy precisionPolicy) {
+            this.precisionPolicy = precisionPolicy;
+            return this;
+        }
+
+        /**
+         * Static loss scaling factor. Output layers multiply their error signal by this factor, so that small
+         * gradients don't underflow when training with a half precision data type; gradients are divided by the same
+         * factor before being passed to the updater.
+         *
+         * @param lossScale loss scaling factor, > 0. Default: 1.0 (no scaling)
+         */
+        public GraphBuilder lossScale(double lossScale) {
+            if (lossScale <= 0)
+                throw new IllegalArgumentException("Loss scale must be > 0; got " + lossScale);
+            this.lossScale = lossScale;
+            return this;
+        }
+
+        /**
+         * Gradient checkpointing: mark the specified vertices as checkpoints. Checkpoints split the network (in
+         * topological order) into segments; during training, activations internal to a segment are released once the
+         * forward pass through that segment is done, and are recomputed segment by segment during backprop. Only
+         * activations that cross segment boundaries (usually, the outputs of the checkpoint vertices) are retained.<br>
+         * This trades one additional forward pass for activation memory: with checkpoints every sqrt(n) vertices in a
+         * network of depth n, roughly sqrt(n) activations need to be kept at any time.<br>
+         * Note: only applies to standard backprop, not truncated BPTT.
+         *
+         * @param vertexNames names of the checkpoint vertices
+         */
+        public GraphBuilder checkpointVertices(String... vertexNames) {
+            Collections.addAll(checkpointVertices, vertexNames);
+            return this;
+        }
+
         /**
          * Add a layer, with no {@link InputPreProcessor}, with the specified name and specified inputs.
          *
@@ -683,6 +764,10 @@ public class ComputationGraphConfiguration implements Serializable, Cloneable {
             conf.backpropType = backpropType;
             conf.tbpttBackLength = tbpttBackLength;
             conf.tbpttFwdLength = tbpttFwdLength;
+            conf.fusedUpdater = fusedUpdater;
+            conf.precisionPolicy = precisionPolicy;
+            conf.lossScale = lossScale;
+            conf.checkpointVertices = checkpointVertices;
 
             conf.networkInputs = networkInputs;
             conf.networkOutputs = networkOutputs;
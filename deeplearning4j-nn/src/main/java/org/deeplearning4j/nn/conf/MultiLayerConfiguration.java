@@ -66,6 +66,9 @@ public class MultiLayerConfiguration implements Serializable, Cloneable {
     protected BackpropType backpropType = BackpropType.Standard;
     protected int tbpttFwdLength = 20;
     protected int tbpttBackLength = 20;
+    protected boolean fusedUpdater = false;
+    protected PrecisionPolicy precisionPolicy = PrecisionPolicy.Full;
+    protected double lossScale = 1.0;
 
     //Counter for the number of parameter updates so far
     // This is important for learning rate schedules, for example, and is stored here to ensure it is persisted
@@ -301,6 +304,9 @@ public class MultiLayerConfiguration implements Serializable, Cloneable {
         protected BackpropType backpropType = BackpropType.Standard;
         protected int tbpttFwdLength = 20;
         protected int tbpttBackLength = 20;
+        protected boolean fusedUpdater = false;
+        protected PrecisionPolicy precisionPolicy = PrecisionPolicy.Full;
+        protected double lossScale = 1.0;
         protected InputType inputType;
         @Deprecated
         protected int[] cnnInputSize;
@@ -367,6 +373,42 @@ public class MultiLayerConfiguration implements Serializable, Cloneable {
             return this;
         }
 
+        /**
+         * Whether to apply updaters over contiguous blocks of the flattened parameters, instead of one parameter at a
+         * time. Consecutive parameters sharing the same updater configuration (and without learning rate policies or
+         * gradient normalization) are updated with a single op per block, which cuts updater overhead for networks
+         * with many small layers.<br>
+         * Note that Adam and AdaDelta state is laid out per block in this mode, so updater state saved with this
+         * option enabled can only be restored with it enabled as well.
+         * @param fusedUpdater whether to use fused updater or not. Default: false
+         */
+        public Builder fusedUpdater(boolean fusedUpdater) {
+            this.fusedUpdater = fusedUpdater;
+            return this;
+        }
+
+        /**
+         * Precision used to store the network. See {@link PrecisionPolicy}
+         * @param precisionPolicy precision policy. Default: PrecisionPolicy.Full
+         */
+        public Builder precisionPolicy(PrecisionPolicy precisionPolicy) {
+            this.precisionPolicy = precisionPolicy;
+            return this;
+        }
+
+        /**
+         * Static loss scaling factor. The output layer multiplies its error signal by this factor, so that small
+         * gradients don't underflow when training with a half precision data type; gradients are divided by the same
+         * factor before being passed to the updater.
+         * @param lossScale loss scaling factor, > 0. Default: 1.0 (no scaling)
+         */
+        public Builder lossScale(double lossScale) {
+            if (lossScale <= 0)
+                throw new IllegalArgumentException("Loss scale must be > 0; got " + lossScale);
+            this.lossScale = lossScale;
+            return this;
+        }
+
         /**
          * Whether to do pre train or not
          * @param pretrain whether to do pre train or not
@@ -493,6 +535,9 @@ public class MultiLayerConfiguration implements Serializable, Cloneable {
             conf.backpropType = backpropType;
             conf.tbpttFwdLength = tbpttFwdLength;
             conf.tbpttBackLength = tbpttBackLength;
+            conf.fusedUpdater = fusedUpdater;
+            conf.precisionPolicy = precisionPolicy;
+            conf.lossScale = lossScale;
             Nd4j.getRandom().setSeed(conf.getConf(0).getSeed());
             return conf;
 
@@ -228,6 +228,21 @@ public class NeuralNetConfiguration implements Serializable, Cloneable {
             return this;
         }
 
+        public ListBuilder fusedUpdater(boolean fusedUpdater) {
+            this.fusedUpdater = fusedUpdater;
+            return this;
+        }
+
+        public ListBuilder precisionPolicy(PrecisionPolicy precisionPolicy) {
+            this.precisionPolicy = precisionPolicy;
+            return this;
+        }
+
+        public ListBuilder lossScale(double lossScale) {
+            super.lossScale(lossScale);
+            return this;
+        }
+
         public ListBuilder layer(int ind, Layer layer) {
             if (layerwise.containsKey(ind)) {
                 layerwise.get(ind).layer(layer);
@@ -270,8 +285,9 @@ public class NeuralNetConfiguration implements Serializable, Cloneable {
             }
             return new MultiLayerConfiguration.Builder().backprop(backprop).inputPreProcessors(inputPreProcessors)
                             .pretrain(pretrain).backpropType(backpropType).tBPTTForwardLength(tbpttFwdLength)
-                            .tBPTTBackwardLength(tbpttBackLength).cnnInputSize(this.cnnInputSize)
-                            .setInputType(this.inputType).confs(list).build();
+                            .tBPTTBackwardLength(tbpttBackLength).fusedUpdater(fusedUpdater)
+                            .precisionPolicy(precisionPolicy).lossScale(lossScale)
+                            .cnnInputSize(this.cnnInputSize).setInputType(this.inputType).confs(list).build();
         }
 
     }
@@ -0,0 +1,20 @@
+package org.deeplearning4j.nn.conf;
+
+/** Defines the precision used to store a network, on top of the global Nd4j data type used for training.
+ * 'Full' setting (default) stores everything in the global data type.
+ */
+public enum PrecisionPolicy {
+    /** Default option. Parameters are stored (and serialized) in the global Nd4j data type */
+    Full,
+    /** Parameters are kept in the global Nd4j data type in memory (usually FP32, i.e. master weights for training),
+     * but are serialized in half precision (FP16) by ModelSerializer, halving the size of saved models.
+     * Updater state is always serialized in full precision.
+     */
+    HalfSerializedParams,
+    /** Parameters are kept in the global Nd4j data type in memory, but the weights of dense, convolution and output
+     * layers are serialized by ModelSerializer as int8 values with one scale per output channel (about 4x smaller).
+     * Other parameters (biases etc) and updater state are serialized in full precision.
+     * See {@link org.deeplearning4j.util.ModelQuantizer} to convert a trained network to this storage format.
+     */
+    Int8SerializedWeights
+}
@@ -18,7 +18,9 @@ import java.util.Map;
  * with all but one value being zero).<br>
  * <b>Note</b>: can only be used as the first layer for a network<br>
  * <b>Note 2</b>: For a given example index i, the output is activationFunction(weights.getRow(i) + bias), hence the
- * weight rows can be considered a vector/embedding for each example.
+ * weight rows can be considered a vector/embedding for each example.<br>
+ * <b>Note 3</b>: With {@link Builder#bagInput(boolean)}, the input for each example is a set (or bag) of indices instead
+ * of a single index: see {@link #bagInput}
  * @author Alex Black
  */
 @Data
@@ -27,8 +29,28 @@ import java.util.Map;
 @EqualsAndHashCode(callSuper = true)
 public class EmbeddingLayer extends FeedForwardLayer {
 
+    /**
+     * If true: input has shape [numExamples,maxIndices], each row holding the indices of the active (non-zero) inputs
+     * for that example, padded with negative values (for example, -1). The output for an example is
+     * activationFunction(sum of the weight rows for its indices + bias); an index appearing more than once is counted
+     * more than once. This is equivalent to a DenseLayer with a multi-hot (or bag of words count) input, with memory
+     * and compute scaling with the number of active inputs instead of nIn.
+     */
+    protected boolean bagInput = false;
+
+    /**
+     * If true: the weight gradient is treated as row-sparse, and the updater (including its state, and regularization)
+     * is only applied to the weight rows of the indices present in each minibatch ("lazy" updates). The
+     * per-iteration cost is then proportional to the number of unique indices in the minibatch, instead of nIn.
+     * Note that with momentum-based updaters (Nesterovs, Adam etc), rows not present in a minibatch are not updated
+     * at all, instead of being updated with the decayed momentum only.
+     */
+    protected boolean rowSparseUpdates = false;
+
     private EmbeddingLayer(Builder builder) {
         super(builder);
+        this.bagInput = builder.bagInput;
+        this.rowSparseUpdates = builder.rowSparseUpdates;
     }
 
     @Override
@@ -51,8 +73,33 @@ public class EmbeddingLayer extends FeedForwardLayer {
     }
 
     @AllArgsConstructor
+    @NoArgsConstructor
     public static class Builder extends FeedForwardLayer.Builder<Builder> {
 
+        private boolean bagInput = false;
+        private boolean rowSparseUpdates = false;
+
+        /**
+         * If true: each example is a set (or bag) of indices, padded with negative values, instead of a single index.
+         * See {@link EmbeddingLayer#bagInput}
+         *
+         * @param bagInput Whether the input is a set/bag of indices for each example
+         */
+        public Builder bagInput(boolean bagInput) {
+            this.bagInput = bagInput;
+            return this;
+        }
+
+        /**
+         * If true: only update the weight rows used in each minibatch. See {@link EmbeddingLayer#rowSparseUpdates}
+         *
+         * @param rowSparseUpdates Whether to apply the updater to the used weight rows only
+         */
+        public Builder rowSparseUpdates(boolean rowSparseUpdates) {
+            this.rowSparseUpdates = rowSparseUpdates;
+            return this;
+        }
+
         @Override
         @SuppressWarnings("unchecked")
         public EmbeddingLayer build() {
@@ -34,22 +34,29 @@ import org.deeplearning4j.nn.api.layers.IOutputLayer;
 import org.deeplearning4j.nn.api.layers.RecurrentLayer;
 import org.deeplearning4j.nn.conf.BackpropType;
 import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
+import org.deeplearning4j.nn.conf.InputPreProcessor;
 import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.inputs.InputType;
 import org.deeplearning4j.nn.conf.layers.FeedForwardLayer;
 import org.deeplearning4j.nn.gradient.DefaultGradient;
 import org.deeplearning4j.nn.gradient.Gradient;
+import org.deeplearning4j.nn.graph.util.ActivationBufferPool;
+import org.deeplearning4j.nn.graph.util.ActivationMemoryPlan;
 import org.deeplearning4j.nn.graph.util.ComputationGraphUtil;
 import org.deeplearning4j.nn.graph.vertex.GraphVertex;
 import org.deeplearning4j.nn.graph.vertex.VertexIndices;
 import org.deeplearning4j.nn.graph.vertex.impl.InputVertex;
 import org.deeplearning4j.nn.graph.vertex.impl.LayerVertex;
 import org.deeplearning4j.nn.layers.FrozenLayer;
+import org.deeplearning4j.nn.layers.normalization.BatchNormalization;
+import org.deeplearning4j.nn.params.BatchNormalizationParamInitializer;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
 import org.deeplearning4j.nn.updater.graph.ComputationGraphUpdater;
 import org.deeplearning4j.optimize.Solver;
 import org.deeplearning4j.optimize.api.ConvexOptimizer;
 import org.deeplearning4j.optimize.api.IterationListener;
 import org.deeplearning4j.optimize.api.TrainingListener;
+import org.deeplearning4j.util.InferenceUtils;
 import org.deeplearning4j.util.ModelSerializer;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.dataset.api.DataSet;
@@ -79,6 +86,8 @@ import java.util.*;
 public class ComputationGraph implements Serializable, Model {
 
     private static final Logger log = LoggerFactory.getLogger(ComputationGraph.class);
+    //Odd 64-bit constant (golden ratio), used to derive distinct per-segment seeds from a single base seed
+    private static final long SEGMENT_SEED_STRIDE = 0x9E3779B97F4A7C15L;
 
     protected ComputationGraphConfiguration configuration;
     protected boolean initCalled = false;
@@ -126,6 +135,21 @@ public class ComputationGraph implements Serializable, Model {
     private transient INDArray[] inputMaskArrays;
     private transient INDArray[] labelMaskArrays;
 
+    //Memory plan (if any) and the buffers backing it. See planMemory(InputType...)
+    protected transient ActivationMemoryPlan memoryPlan;
+    protected transient ActivationBufferPool bufferPool;
+
+    //Gradient checkpointing: segment of each vertex (by vertex index), first topological position of each segment,
+    // and the RNG seed each segment was last run with (so that recomputation reproduces dropout masks etc)
+    protected transient int[] checkpointSegment;
+    protected transient int[] segmentStart;
+    protected transient long[] segmentSeeds;
+    //Seed the global RNG is reset to once the segments are no longer needed, so that the per-segment reseeding (and
+    // recomputation) doesn't leave the global RNG at a state that is reused by the next iteration
+    protected transient long continuationSeed;
+    //True if the forward pass released (non-checkpointed) activations, that must be recomputed during backprop
+    protected transient boolean activationsReleased;
+
     private NeuralNetConfiguration defaultConfiguration;
     private Collection<IterationListener> listeners = new ArrayList<>();
     private Collection<TrainingListener> trainingListeners = new ArrayList<>();
@@ -474,6 +498,18 @@ public class ComputationGraph implements Serializable, Model {
             gv.setOutputVertices(outputIndices);
         }
 
+        double lossScale = configuration.getLossScale();
+        for (String outputName : configuration.getNetworkOutputs()) {
+            Layer outputLayer = verticesMap.get(outputName).getLayer();
+            if (outputLayer instanceof IOutputLayer) {
+                ((IOutputLayer) outputLayer).setLossScale(lossScale);
+            } else if (lossScale != 1.0) {
+                //Gradients would be unscaled without having been scaled in the first place
+                throw new IllegalStateException("Cannot use loss scaling: network output \"" + outputName
+                                + "\" is not an output layer that supports loss scaling");
+            }
+        }
+
         initCalled = true;
     }
 
@@ -991,6 +1027,18 @@ public class ComputationGraph implements Serializable, Model {
         return out;
     }
 
+    /**
+     * Undo the loss scaling (see {@link ComputationGraphConfiguration.GraphBuilder#lossScale(double)}) applied by the
+     * output layers, so that the updater gets the actual gradients
+     */
+    protected void unscaleGradients() {
+        double lossScale = configuration.getLossScale();
+        if (lossScale == 1.0 || gradient == null)
+            return;
+        for (INDArray g : gradient.gradientForVariable().values())
+            g.divi(lossScale);
+    }
+
     @Override
     public void computeGradientAndScore() {
         //Calculate activations (which are stored in each layer, and used in backprop)
@@ -1003,14 +1051,17 @@ public class ComputationGraph implements Serializable, Model {
             }
             calcBackpropGradients(true);
         } else {
-            Map<String, INDArray> activations = feedForward(true, true);
+            Map<String, INDArray> activations =
+                            feedForward(true, true, !configuration.getCheckpointVertices().isEmpty());
             if (trainingListeners.size() > 0) {
                 for (TrainingListener tl : trainingListeners) {
                     tl.onForwardPass(this, activations);
                 }
             }
+            activations = null;
             calcBackpropGradients(false);
         }
+        unscaleGradients();
 
         //Score: sum of the scores for the various output layers...
         double l1 = calcL1();
@@ -1087,11 +1138,38 @@ public class ComputationGraph implements Serializable, Model {
     }
 
     private Map<String, INDArray> feedForward(boolean train, boolean excludeOutputLayers) {
+        return feedForward(train, excludeOutputLayers, false);
+    }
+
+    /**
+     * @param checkpointing If true: release the activations internal to each checkpoint segment once the forward
+     *                      pass through that segment is done (see {@link #releaseSegment(int)}). In that case,
+     *                      activations are only returned if there are training listeners to pass them to
+     */
+    private Map<String, INDArray> feedForward(boolean train, boolean excludeOutputLayers, boolean checkpointing) {
         Map<String, INDArray> layerActivations = new HashMap<>();
+        boolean collectActivations = !checkpointing || trainingListeners.size() > 0;
+        if (checkpointing && checkpointSegment == null)
+            initCheckpointSegments();
+        int currentSegment = -1;
+        long baseSeed = 0;
+        if (checkpointing) {
+            //Only two values are drawn from the global RNG, regardless of the number of segments
+            baseSeed = Nd4j.getRandom().nextLong();
+            continuationSeed = Nd4j.getRandom().nextLong();
+        }
 
         //Do forward pass according to the topological ordering of the network
         for (int i = 0; i < topologicalOrder.length; i++) {
             GraphVertex current = vertices[topologicalOrder[i]];
+            if (checkpointing && checkpointSegment[current.getVertexIndex()] != currentSegment) {
+                if (currentSegment >= 0)
+                    releaseSegment(currentSegment);
+                currentSegment = checkpointSegment[current.getVertexIndex()];
+                segmentSeeds[currentSegment] = baseSeed + currentSegment * SEGMENT_SEED_STRIDE;
+                Nd4j.getRandom().setSeed(segmentSeeds[currentSegment]);
+            }
+
             if (current.isInputVertex()) {
                 VertexIndices[] inputsTo = current.getOutputVertices();
                 INDArray input = inputs[current.getVertexIndex()];
@@ -1115,7 +1193,7 @@ public class ComputationGraph implements Serializable, Model {
                 }
                 INDArray out = current.doForward(train);
 
-                if (current.hasLayer()) {
+                if (current.hasLayer() && collectActivations) {
                     layerActivations.put(current.getVertexName(), out);
                 }
 
@@ -1131,6 +1209,10 @@ public class ComputationGraph implements Serializable, Model {
                 }
             }
         }
+        //Activations of the last segment are needed right away for backprop: no point in releasing them
+        activationsReleased = checkpointing && currentSegment > 0;
+        if (checkpointing && !activationsReleased)
+            Nd4j.getRandom().setSeed(continuationSeed);
 
         return layerActivations;
     }
@@ -1177,6 +1259,86 @@ public class ComputationGraph implements Serializable, Model {
         return outputs;
     }
 
+    /**
+     * Test-time forward pass that does not modify the state of the network, its vertices or its layers.<br>
+     * Unlike {@link #output(INDArray...)}, activations are passed between vertices via a per-call array indexed by
+     * vertex, and each activation is released as soon as the last vertex consuming it (in topological order) has
+     * been executed. Only the network outputs are retained until the end of the call.<br>
+     * Layers implementing {@link org.deeplearning4j.nn.api.layers.InferenceLayer} can be used concurrently from
+     * multiple threads; all other layers and non-layer vertices are executed one thread at a time (synchronized
+     * on the layer/vertex), and are cleared afterwards.<br>
+     * <b>Note</b>: mask arrays are not supported by this method.
+     *
+     * @param input Inputs to the network
+     * @return Output activations (order: same as defined in network configuration)
+     */
+    public INDArray[] outputStateless(INDArray... input) {
+        if (input == null || input.length != numInputArrays)
+            throw new IllegalArgumentException("Invalid input: expected " + numInputArrays + " input arrays, got "
+                            + (input == null ? 0 : input.length));
+        if (!initCalled)
+            throw new IllegalStateException("Network has not been initialized: call init() first");
+
+        int minibatchSize = input[0].size(0);
+
+        //Number of not-yet-executed connections out of each vertex, and whether the vertex is a network output
+        int[] remainingConsumers = new int[vertices.length];
+        boolean[] isNetworkOutput = new boolean[vertices.length];
+        for (GraphVertex v : vertices) {
+            VertexIndices[] outputsTo = v.getOutputVertices();
+            remainingConsumers[v.getVertexIndex()] = (outputsTo == null ? 0 : outputsTo.length);
+        }
+        List<String> networkOutputs = configuration.getNetworkOutputs();
+        for (String s : networkOutputs) {
+            isNetworkOutput[verticesMap.get(s).getVertexIndex()] = true;
+        }
+
+        INDArray[] activations = new INDArray[vertices.length];
+        for (int i = 0; i < topologicalOrder.length; i++) {
+            GraphVertex current = vertices[topologicalOrder[i]];
+            int vIdx = current.getVertexIndex();
+            if (current.isInputVertex()) {
+                activations[vIdx] = input[vIdx];
+                continue;
+            }
+
+            VertexIndices[] inputsFrom = current.getInputVertices();
+            INDArray[] vertexInputs = new INDArray[inputsFrom.length];
+            for (int j = 0; j < inputsFrom.length; j++) {
+                vertexInputs[j] = activations[inputsFrom[j].getVertexIndex()];
+            }
+
+            INDArray out;
+            if (current.hasLayer()) {
+                InputPreProcessor preProcessor = (current instanceof LayerVertex
+                                ? ((LayerVertex) current).getLayerPreProcessor() : null);
+                out = InferenceUtils.activate(current.getLayer(), preProcessor, vertexInputs[0], minibatchSize);
+            } else {
+                synchronized (current) {
+                    current.setInputs(vertexInputs);
+                    out = current.doForward(false);
+                    current.clear();
+                }
+            }
+            activations[vIdx] = out;
+
+            //Release the inputs of this vertex, if no other vertex needs them
+            for (VertexIndices v : inputsFrom) {
+                int from = v.getVertexIndex();
+                if (--remainingConsumers[from] == 0 && !isNetworkOutput[from]) {
+                    activations[from] = null;
+                }
+            }
+        }
+
+        INDArray[] outputs = new INDArray[numOutputArrays];
+        int i = 0;
+        for (String s : networkOutputs) {
+            outputs[i++] = activations[verticesMap.get(s).getVertexIndex()];
+        }
+        return outputs;
+    }
+
     /**
      * A convenience method that returns a single INDArray, instead of an INDArray[].
      * Useful for ComputationGraphs that have only a single output.
@@ -1226,12 +1388,22 @@ public class ComputationGraph implements Serializable, Model {
             initGradientsView();
 
         LinkedList<Triple<String, INDArray, Character>> gradients = new LinkedList<>();
+        int lastSegment = (checkpointSegment != null ? segmentStart.length - 1 : -1);
+        int recomputedSegment = lastSegment;
 
         //Do backprop according to the reverse of the topological ordering of the network
         boolean[] setVertexEpsilon = new boolean[topologicalOrder.length]; //If true: already set epsilon for this vertex; later epsilons should be *added* to the existing one, not set
         for (int i = topologicalOrder.length - 1; i >= 0; i--) {
             GraphVertex current = vertices[topologicalOrder[i]];
 
+            if (activationsReleased && checkpointSegment[current.getVertexIndex()] != recomputedSegment) {
+                //Entering a new checkpoint segment: recompute its activations, and release those of the previous one
+                if (recomputedSegment != lastSegment)
+                    releaseSegment(recomputedSegment);
+                recomputedSegment = checkpointSegment[current.getVertexIndex()];
+                recomputeSegment(recomputedSegment);
+            }
+
             if (current.isInputVertex())
                 continue; //No op
             //FIXME: make the frozen vertex feature extraction more flexible
@@ -1269,7 +1441,16 @@ public class ComputationGraph implements Serializable, Model {
                     if (setVertexEpsilon[gv.getVertexIndex()]) {
                         //This vertex: must output to multiple vertices... we want to add the epsilons here
                         INDArray currentEps = gv.getEpsilon();
-                        gv.setEpsilon(currentEps.add(epsilons[j++])); //TODO: in some circumstances, it may be safe  to do in-place add (but not always)
+                        int buffer = (bufferPool != null ? memoryPlan.getEpsilonBuffer(gv.getVertexName()) : -1);
+                        if (buffer >= 0) {
+                            //Sum into the planned buffer: safe to do in-place, as no other live array uses it
+                            INDArray sum = bufferPool.get(buffer, currentEps.shape());
+                            if (sum != currentEps)
+                                sum.assign(currentEps);
+                            gv.setEpsilon(sum.addi(epsilons[j++]));
+                        } else {
+                            gv.setEpsilon(currentEps.add(epsilons[j++])); //TODO: in some circumstances, it may be safe  to do in-place add (but not always)
+                        }
                     } else {
                         gv.setEpsilon(epsilons[j++]);
                     }
@@ -1292,6 +1473,13 @@ public class ComputationGraph implements Serializable, Model {
             }
         }
 
+        if (activationsReleased) {
+            if (recomputedSegment != lastSegment)
+                releaseSegment(recomputedSegment);
+            activationsReleased = false;
+            Nd4j.getRandom().setSeed(continuationSeed);
+        }
+
         //Now, add the gradients in the order we need them in for flattening (same as params order)
         Gradient gradient = new DefaultGradient(flattenedGradients);
         for (Triple<String, INDArray, Character> t : gradients) {
@@ -1301,6 +1489,104 @@ public class ComputationGraph implements Serializable, Model {
         this.gradient = gradient;
     }
 
+    /**
+     * Work out the gradient checkpointing segments: checkpoint vertices split the topological order into segments,
+     * each checkpoint vertex being the last vertex of its segment
+     */
+    protected void initCheckpointSegments() {
+        Set<String> checkpoints = new HashSet<>(configuration.getCheckpointVertices());
+        checkpointSegment = new int[topologicalOrder.length];
+        List<Integer> starts = new ArrayList<>();
+        starts.add(0);
+        for (int i = 0; i < topologicalOrder.length; i++) {
+            GraphVertex current = vertices[topologicalOrder[i]];
+            checkpointSegment[current.getVertexIndex()] = starts.size() - 1;
+            if (checkpoints.contains(current.getVertexName()) && i < topologicalOrder.length - 1)
+                starts.add(i + 1);
+        }
+
+        segmentStart = new int[starts.size()];
+        for (int i = 0; i < segmentStart.length; i++)
+            segmentStart[i] = starts.get(i);
+        segmentSeeds = new long[segmentStart.length];
+    }
+
+    private int segmentEnd(int segment) {
+        return segment + 1 < segmentStart.length ? segmentStart[segment + 1] : topologicalOrder.length;
+    }
+
+    /**
+     * Release the activations internal to the given checkpoint segment: i.e., vertex inputs that are produced within
+     * the same segment. Inputs coming from other segments or from the network inputs, and inputs to output layers
+     * (needed for scoring), are retained
+     */
+    protected void releaseSegment(int segment) {
+        for (int i = segmentStart[segment]; i < segmentEnd(segment); i++) {
+            GraphVertex current = vertices[topologicalOrder[i]];
+            VertexIndices[] inputsFrom = current.getInputVertices();
+            if (current.isInputVertex() || inputsFrom == null || current.getLayer() instanceof IOutputLayer)
+                continue;
+
+            for (VertexIndices v : inputsFrom) {
+                GraphVertex from = vertices[v.getVertexIndex()];
+                if (from.isInputVertex() || checkpointSegment[from.getVertexIndex()] != segment)
+                    continue;
+
+                if (current.hasLayer()) {
+                    //Layer vertices have a single input, also held by the layer itself
+                    current.clear();
+                    current.getLayer().setInput(null);
+                } else {
+                    current.setInput(v.getVertexEdgeNumber(), null);
+                }
+            }
+        }
+    }
+
+    /**
+     * Redo the forward pass through the given checkpoint segment (released by {@link #releaseSegment(int)}), with
+     * the same RNG seed as the original forward pass
+     */
+    protected void recomputeSegment(int segment) {
+        Nd4j.getRandom().setSeed(segmentSeeds[segment]);
+        for (int i = segmentStart[segment]; i < segmentEnd(segment); i++) {
+            GraphVertex current = vertices[topologicalOrder[i]];
+            if (current.isInputVertex())
+                continue;
+
+            //Reset retained inputs, so that per-input state (such as dropout) is recomputed in the same way
+            INDArray[] currentInputs = current.getInputs();
+            for (int j = 0; j < currentInputs.length; j++) {
+                if (currentInputs[j] != null)
+                    current.setInput(j, currentInputs[j]);
+            }
+
+            if (current.isOutputVertex() && current.hasLayer() && current.getLayer() instanceof IOutputLayer)
+                continue; //As per feedForward: output layers only need their input to be set
+
+            INDArray out;
+            if (current.getLayer() instanceof BatchNormalization) {
+                //Don't update the global mean/variance twice for the same minibatch
+                Layer bn = current.getLayer();
+                INDArray mean = bn.getParam(BatchNormalizationParamInitializer.GLOBAL_MEAN).dup();
+                INDArray var = bn.getParam(BatchNormalizationParamInitializer.GLOBAL_VAR).dup();
+                out = current.doForward(true);
+                bn.getParam(BatchNormalizationParamInitializer.GLOBAL_MEAN).assign(mean);
+                bn.getParam(BatchNormalizationParamInitializer.GLOBAL_VAR).assign(var);
+            } else {
+                out = current.doForward(true);
+            }
+
+            VertexIndices[] outputsTo = current.getOutputVertices();
+            if (outputsTo != null) {
+                for (VertexIndices v : outputsTo) {
+                    if (checkpointSegment[v.getVertexIndex()] == segment)
+                        vertices[v.getVertexIndex()].setInput(v.getVertexEdgeNumber(), out);
+                }
+            }
+        }
+    }
+
     @Override
     public ComputationGraph clone() {
         ComputationGraph cg = new ComputationGraph(configuration.clone());
@@ -1746,6 +2032,14 @@ public class ComputationGraph implements Serializable, Model {
         return gradient;
     }
 
+    /**
+     * Flattened gradients array for the network: the gradients of all layers are views of this array.
+     * May be null if the gradients view hasn't been initialized yet (see {@link #initGradientsView()})
+     */
+    public INDArray getFlattenedGradients() {
+        return flattenedGradients;
+    }
+
     @Override
     public Pair<Gradient, Double> gradientAndScore() {
         return new Pair<>(gradient(), score());
@@ -1836,6 +2130,42 @@ public class ComputationGraph implements Serializable, Model {
         getLayer(layerName).setParam(paramType, val);
     }
 
+    /**
+     * Compute a memory plan for training this network on inputs of the given types, and use it for the arrays
+     * that are allocated by the ComputationGraph itself during backprop (i.e., the sums of epsilons for vertices
+     * that feed into more than one other vertex). Arrays whose lifetimes (in topological order, forward and
+     * backward) don't overlap share the same buffer, which is allocated once and reused for subsequent iterations.
+     * <br>
+     * Note that the activations of layers are still allocated by the layers themselves; the returned plan can be
+     * used to inspect the achievable reuse for those too (see {@link ActivationMemoryPlan#getPlannedSizePerExample()}
+     * and {@link ActivationMemoryPlan#getUnplannedSizePerExample()}).
+     *
+     * @param inputTypes Types of the network inputs
+     * @return The memory plan
+     */
+    public ActivationMemoryPlan planMemory(InputType... inputTypes) {
+        if (!initCalled)
+            init();
+        memoryPlan = ActivationMemoryPlan.plan(this, true, inputTypes);
+        bufferPool = new ActivationBufferPool(memoryPlan);
+        return memoryPlan;
+    }
+
+    /**
+     * Get the memory plan set via {@link #planMemory(InputType...)}, or null if no plan is in use
+     */
+    public ActivationMemoryPlan getMemoryPlan() {
+        return memoryPlan;
+    }
+
+    /**
+     * Stop using the memory plan (if any), and release all planned buffers
+     */
+    public void clearMemoryPlan() {
+        memoryPlan = null;
+        bufferPool = null;
+    }
+
     @Override
     public void clear() {
         inputs = null;
@@ -0,0 +1,83 @@
+/*-
+ *
+ *  * Copyright 2017 Skymind,Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ *
+ */
+
+package org.deeplearning4j.nn.graph.util;
+
+import lombok.Getter;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.util.ArrayUtil;
+
+import java.util.Arrays;
+
+/**
+ * Buffers backing an {@link ActivationMemoryPlan}. Buffers are allocated lazily, the first time they are requested,
+ * and are kept for subsequent iterations. A buffer is only reallocated when the requested length changes (for
+ * example: different minibatch size or time series length); requests with the same length but a different shape
+ * return a reshaped view of the same memory.<br>
+ * Arrays returned by this class are only valid until the same buffer index is requested again.
+ */
+public class ActivationBufferPool {
+
+    @Getter
+    private final ActivationMemoryPlan plan;
+    private final INDArray[] buffers;
+
+    public ActivationBufferPool(ActivationMemoryPlan plan) {
+        this.plan = plan;
+        this.buffers = new INDArray[plan.numBuffers()];
+    }
+
+    /**
+     * Get the given buffer, with the specified shape ('c' order). Contents are undefined.
+     *
+     * @param buffer Index of the buffer, as per the memory plan
+     * @param shape  Shape of the required array
+     */
+    public INDArray get(int buffer, int[] shape) {
+        INDArray b = buffers[buffer];
+        int length = ArrayUtil.prod(shape);
+        if (b == null || b.length() != length) {
+            b = Nd4j.createUninitialized(shape, 'c');
+            buffers[buffer] = b;
+        } else if (!Arrays.equals(b.shape(), shape)) {
+            b = b.reshape('c', shape);
+            buffers[buffer] = b;
+        }
+        return b;
+    }
+
+    /**
+     * Total number of elements currently allocated by this pool
+     */
+    public long allocatedLength() {
+        long sum = 0;
+        for (INDArray b : buffers) {
+            if (b != null)
+                sum += b.length();
+        }
+        return sum;
+    }
+
+    /**
+     * Release all buffers. They will be reallocated on the next use
+     */
+    public void clear() {
+        Arrays.fill(buffers, null);
+    }
+}
@@ -0,0 +1,276 @@
+/*-
+ *
+ *  * Copyright 2017 Skymind,Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ *
+ */
+
+package org.deeplearning4j.nn.graph.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
+import org.deeplearning4j.nn.conf.inputs.InputType;
+import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.nn.graph.vertex.GraphVertex;
+import org.deeplearning4j.nn.graph.vertex.VertexIndices;
+
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * Memory plan for the activations and epsilons (gradients with respect to vertex outputs) of a ComputationGraph.<br>
+ * The plan is computed from the topological order of the graph: forward pass of vertex i happens at time i, and
+ * backward pass of vertex i at time (2*numVertices - 1 - i). Each activation/epsilon has a lifetime [start,end] on
+ * that timeline, and arrays whose lifetimes don't overlap and that have the same type and size are assigned the same
+ * buffer. Buffers are keyed by {@link InputType.Type} and size per example (per time step, for recurrent activations),
+ * hence the plan is independent of the minibatch size and the time series length. The type is part of the key because
+ * the actual length of a recurrent array is a multiple of its size per time step: sharing a buffer between, for
+ * example, an RNN and a feed-forward array of the same layer size would reallocate that buffer on every use.<br>
+ * Lifetimes are conservative with respect to aliasing: layers commonly return epsilons that are views of, or
+ * modified in-place versions of, the epsilon that was passed in. An epsilon buffer is therefore only considered
+ * free once backprop has finished for all vertices upstream of it.<br>
+ * See {@link ComputationGraph#planMemory(InputType...)}
+ */
+@Data
+public class ActivationMemoryPlan implements Serializable {
+
+    /** Lifetime and buffer assignment for a single activations or epsilons array */
+    @Data
+    @AllArgsConstructor
+    public static class ArrayLifetime implements Serializable {
+        private String vertexName;
+        private boolean epsilon;
+        private InputType.Type type;
+        private long sizePerExample;
+        private int start;
+        private int end;
+        private int buffer;
+    }
+
+    private final boolean training;
+    private final List<ArrayLifetime> lifetimes;
+    private final long[] bufferSizes;
+    private final Map<String, Integer> activationBuffers;
+    private final Map<String, Integer> epsilonBuffers;
+
+    private ActivationMemoryPlan(boolean training, List<ArrayLifetime> lifetimes, long[] bufferSizes) {
+        this.training = training;
+        this.lifetimes = Collections.unmodifiableList(lifetimes);
+        this.bufferSizes = bufferSizes;
+        this.activationBuffers = new HashMap<>();
+        this.epsilonBuffers = new HashMap<>();
+        for (ArrayLifetime l : lifetimes) {
+            (l.isEpsilon() ? epsilonBuffers : activationBuffers).put(l.getVertexName(), l.getBuffer());
+        }
+    }
+
+    /**
+     * Buffer index for the activations of the given vertex, or -1 if the activations are not part of the plan
+     */
+    public int getActivationBuffer(String vertexName) {
+        Integer b = activationBuffers.get(vertexName);
+        return b == null ? -1 : b;
+    }
+
+    /**
+     * Buffer index for the epsilons of the given vertex, or -1 if the epsilons are not part of the plan
+     */
+    public int getEpsilonBuffer(String vertexName) {
+        Integer b = epsilonBuffers.get(vertexName);
+        return b == null ? -1 : b;
+    }
+
+    public int numBuffers() {
+        return bufferSizes.length;
+    }
+
+    /** Total size (elements per example) of all buffers in the plan */
+    public long getPlannedSizePerExample() {
+        long sum = 0;
+        for (long l : bufferSizes)
+            sum += l;
+        return sum;
+    }
+
+    /** Total size (elements per example) of all arrays, if each array was allocated separately */
+    public long getUnplannedSizePerExample() {
+        long sum = 0;
+        for (ArrayLifetime l : lifetimes)
+            sum += l.getSizePerExample();
+        return sum;
+    }
+
+    /**
+     * Compute the memory plan for the given (initialized) network.
+     *
+     * @param graph      Network to plan the activation memory for
+     * @param training   If true: plan for a full forward + backward pass. Activations are kept alive until the
+     *                   backward pass of the vertices that consume them, and epsilons are planned too.
+     *                   If false: plan for the forward pass only
+     * @param inputTypes Types of the network inputs, in the same order as the network inputs in the configuration
+     * @return Memory plan
+     */
+    public static ActivationMemoryPlan plan(ComputationGraph graph, boolean training, InputType... inputTypes) {
+        ComputationGraphConfiguration conf = graph.getConfiguration();
+        List<String> networkInputs = conf.getNetworkInputs();
+        if (inputTypes == null || inputTypes.length != networkInputs.size()) {
+            throw new IllegalArgumentException("Invalid number of InputTypes: expected " + networkInputs.size()
+                            + ", got " + (inputTypes == null ? 0 : inputTypes.length));
+        }
+
+        GraphVertex[] vertices = graph.getVertices();
+        int[] topologicalOrder = graph.topologicalSortOrder();
+        int n = topologicalOrder.length;
+        int[] position = new int[vertices.length];
+        for (int i = 0; i < n; i++) {
+            position[topologicalOrder[i]] = i;
+        }
+
+        //Output types (i.e., sizes) of every vertex: equivalent of a forward pass on InputTypes
+        InputType[] outputTypes = new InputType[vertices.length];
+        int layerIdx = 0;
+        for (int i = 0; i < n; i++) {
+            GraphVertex gv = vertices[topologicalOrder[i]];
+            if (gv.isInputVertex()) {
+                outputTypes[gv.getVertexIndex()] = inputTypes[networkInputs.indexOf(gv.getVertexName())];
+                continue;
+            }
+            VertexIndices[] inputsFrom = gv.getInputVertices();
+            InputType[] in = new InputType[inputsFrom.length];
+            for (int j = 0; j < in.length; j++) {
+                in[j] = outputTypes[inputsFrom[j].getVertexIndex()];
+            }
+            outputTypes[gv.getVertexIndex()] =
+                            conf.getVertices().get(gv.getVertexName()).getOutputType(layerIdx, in);
+            if (gv.hasLayer())
+                layerIdx++;
+        }
+
+        //Earliest topological position of any vertex upstream of (or equal to) each vertex. Used for conservative
+        // epsilon lifetimes, as epsilons may be aliased all the way down the graph
+        int[] minUpstream = new int[vertices.length];
+        for (int i = 0; i < n; i++) {
+            GraphVertex gv = vertices[topologicalOrder[i]];
+            int min = i;
+            VertexIndices[] inputsFrom = gv.getInputVertices();
+            if (inputsFrom != null) {
+                for (VertexIndices v : inputsFrom) {
+                    min = Math.min(min, minUpstream[v.getVertexIndex()]);
+                }
+            }
+            minUpstream[gv.getVertexIndex()] = min;
+        }
+
+        Set<String> networkOutputs = new HashSet<>(conf.getNetworkOutputs());
+        int endOfTime = (training ? 2 * n - 1 : n - 1);
+        List<ArrayLifetime> lifetimes = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            GraphVertex gv = vertices[topologicalOrder[i]];
+            InputType.Type type = outputTypes[gv.getVertexIndex()].getType();
+            long size = sizePerExample(outputTypes[gv.getVertexIndex()]);
+            VertexIndices[] outputsTo = gv.getOutputVertices();
+
+            //Activations: from forward pass of this vertex, until the last use by a consumer
+            int lastUse = i;
+            int firstConsumer = Integer.MAX_VALUE;
+            if (outputsTo != null) {
+                for (VertexIndices v : outputsTo) {
+                    int p = position[v.getVertexIndex()];
+                    //Consumers keep their input for backprop
+                    lastUse = Math.max(lastUse, training ? backwardTime(p, n) : p);
+                    firstConsumer = Math.min(firstConsumer, p);
+                }
+            }
+            if (networkOutputs.contains(gv.getVertexName()))
+                lastUse = endOfTime;
+            lifetimes.add(new ArrayLifetime(gv.getVertexName(), false, type, size, i, lastUse, -1));
+
+            //Epsilons: from backward pass of the last consumer, until backward pass has completed upstream
+            if (training && !gv.isInputVertex() && firstConsumer != Integer.MAX_VALUE) {
+                int lastConsumer = 0;
+                for (VertexIndices v : outputsTo) {
+                    lastConsumer = Math.max(lastConsumer, position[v.getVertexIndex()]);
+                }
+                lifetimes.add(new ArrayLifetime(gv.getVertexName(), true, type, size, backwardTime(lastConsumer, n),
+                                backwardTime(minUpstream[gv.getVertexIndex()], n), -1));
+            }
+        }
+
+        //Greedy interval assignment: arrays sorted by start time take the first free buffer of the same type and size
+        List<ArrayLifetime> sorted = new ArrayList<>(lifetimes);
+        Collections.sort(sorted, new Comparator<ArrayLifetime>() {
+            @Override
+            public int compare(ArrayLifetime o1, ArrayLifetime o2) {
+                return Integer.compare(o1.getStart(), o2.getStart());
+            }
+        });
+        List<Long> bufferSizes = new ArrayList<>();
+        List<InputType.Type> bufferTypes = new ArrayList<>();
+        List<Integer> bufferFreeAt = new ArrayList<>();
+        for (ArrayLifetime l : sorted) {
+            int assigned = -1;
+            for (int b = 0; b < bufferSizes.size(); b++) {
+                if (bufferTypes.get(b) == l.getType() && bufferSizes.get(b) == l.getSizePerExample()
+                                && bufferFreeAt.get(b) < l.getStart()) {
+                    assigned = b;
+                    break;
+                }
+            }
+            if (assigned == -1) {
+                assigned = bufferSizes.size();
+                bufferSizes.add(l.getSizePerExample());
+                bufferTypes.add(l.getType());
+                bufferFreeAt.add(l.getEnd());
+            } else {
+                bufferFreeAt.set(assigned, l.getEnd());
+            }
+            l.setBuffer(assigned);
+        }
+
+        long[] sizes = new long[bufferSizes.size()];
+        for (int i = 0; i < sizes.length; i++) {
+            sizes[i] = bufferSizes.get(i);
+        }
+        return new ActivationMemoryPlan(training, lifetimes, sizes);
+    }
+
+    private static int backwardTime(int topologicalPosition, int numVertices) {
+        return 2 * numVertices - 1 - topologicalPosition;
+    }
+
+    private static long sizePerExample(InputType type) {
+        switch (type.getType()) {
+            case FF:
+                return ((InputType.InputTypeFeedForward) type).getSize();
+            case RNN:
+                //Per time step
+                return ((InputType.InputTypeRecurrent) type).getSize();
+            case CNN:
+                InputType.InputTypeConvolutional c = (InputType.InputTypeConvolutional) type;
+                return (long) c.getHeight() * c.getWidth() * c.getDepth();
+            case CNNFlat:
+                return ((InputType.InputTypeConvolutionalFlat) type).getFlattenedSize();
+            default:
+                throw new IllegalStateException("Unknown input type: " + type);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ActivationMemoryPlan(training=" + training + ", arrays=" + lifetimes.size() + ", buffers="
+                        + bufferSizes.length + ", plannedSizePerExample=" + getPlannedSizePerExample()
+                        + ", unplannedSizePerExample=" + getUnplannedSizePerExample() + ")";
+    }
+}
@@ -21,6 +21,7 @@ package org.deeplearning4j.nn.layers;
 
 import org.deeplearning4j.berkeley.Pair;
 import org.deeplearning4j.nn.api.Layer;
+import org.deeplearning4j.nn.api.layers.InferenceLayer;
 import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
 import org.deeplearning4j.nn.gradient.DefaultGradient;
 import org.deeplearning4j.nn.gradient.Gradient;
@@ -36,7 +37,8 @@ import org.nd4j.linalg.factory.Nd4j;
  * BatchNormLayer. For example, use "identity" activation on the layer prior to BatchNorm and
  * apply this layer after the BatchNorm.
  */
-public class ActivationLayer extends BaseLayer<org.deeplearning4j.nn.conf.layers.ActivationLayer> {
+public class ActivationLayer extends BaseLayer<org.deeplearning4j.nn.conf.layers.ActivationLayer>
+                implements InferenceLayer {
 
     public ActivationLayer(NeuralNetConfiguration conf) {
         super(conf);
@@ -94,6 +96,12 @@ public class ActivationLayer extends BaseLayer<org.deeplearning4j.nn.conf.layers
 
     }
 
+    @Override
+    public INDArray activateInference(INDArray input) {
+        //dup required: activation functions are applied in-place, and the input must not be modified
+        return conf().getLayer().getActivationFn().getActivation(input.dup(), false);
+    }
+
     @Override
     public Layer transpose() {
         throw new UnsupportedOperationException("Not yet implemented");
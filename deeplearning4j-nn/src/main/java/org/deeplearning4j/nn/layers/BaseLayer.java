@@ -360,16 +360,7 @@ public abstract class BaseLayer<LayerConfT extends org.deeplearning4j.nn.conf.la
         INDArray b = getParam(DefaultParamInitializer.BIAS_KEY);
         INDArray W = getParam(DefaultParamInitializer.WEIGHT_KEY);
 
-        //Input validation:
-        if (input.rank() != 2 || input.columns() != W.rows()) {
-            if (input.rank() != 2) {
-                throw new DL4JInvalidInputException("Input that is not a matrix; expected matrix (rank 2), got rank "
-                                + input.rank() + " array with shape " + Arrays.toString(input.shape()));
-            }
-            throw new DL4JInvalidInputException("Input size (" + input.columns() + " columns; shape = "
-                            + Arrays.toString(input.shape())
-                            + ") is invalid: does not match layer input size (layer # inputs = " + W.size(0) + ")");
-        }
+        validateInput(input, W);
 
         if (conf.isUseDropConnect() && training && conf.getLayer().getDropOut() > 0) {
             W = Dropout.applyDropConnect(this, DefaultParamInitializer.WEIGHT_KEY);
@@ -384,6 +375,30 @@ public abstract class BaseLayer<LayerConfT extends org.deeplearning4j.nn.conf.la
         return ret;
     }
 
+    /**
+     * Test-time pre-output (z = input * W + b) for the given input. Unlike {@link #preOutput(INDArray, boolean)}, this
+     * does not modify the state of the layer; used by {@link org.deeplearning4j.nn.api.layers.InferenceLayer}
+     * implementations
+     */
+    protected INDArray preOutputInference(INDArray input) {
+        INDArray b = getParam(DefaultParamInitializer.BIAS_KEY);
+        INDArray W = getParam(DefaultParamInitializer.WEIGHT_KEY);
+        validateInput(input, W);
+        return input.mmul(W).addiRowVector(b);
+    }
+
+    private void validateInput(INDArray input, INDArray W) {
+        if (input.rank() != 2 || input.columns() != W.rows()) {
+            if (input.rank() != 2) {
+                throw new DL4JInvalidInputException("Input that is not a matrix; expected matrix (rank 2), got rank "
+                                + input.rank() + " array with shape " + Arrays.toString(input.shape()));
+            }
+            throw new DL4JInvalidInputException("Input size (" + input.columns() + " columns; shape = "
+                            + Arrays.toString(input.shape())
+                            + ") is invalid: does not match layer input size (layer # inputs = " + W.size(0) + ")");
+        }
+    }
+
     protected void applyMask(INDArray to) {
         to.muliColumnVector(maskArray);
     }
@@ -71,6 +71,9 @@ public abstract class BaseOutputLayer<LayerConfT extends org.deeplearning4j.nn.c
     protected INDArray inputMaskArray;
     protected MaskState inputMaskArrayState;
 
+    //Loss scaling: delta (and hence all backprop gradients) is multiplied by this factor
+    protected double lossScale = 1.0;
+
     public BaseOutputLayer(NeuralNetConfiguration conf) {
         super(conf);
     }
@@ -170,6 +173,16 @@ public abstract class BaseOutputLayer<LayerConfT extends org.deeplearning4j.nn.c
         return gradient;
     }
 
+    @Override
+    public void setLossScale(double lossScale) {
+        this.lossScale = lossScale;
+    }
+
+    @Override
+    public double getLossScale() {
+        return lossScale;
+    }
+
     /** Returns tuple: {Gradient,Delta,Output} given preOut */
     private Pair<Gradient, INDArray> getGradientsAndDelta(INDArray preOut) {
         ILossFunction lossFunction = layerConf().getLossFn();
@@ -180,6 +193,8 @@ public abstract class BaseOutputLayer<LayerConfT extends org.deeplearning4j.nn.c
         }
         //INDArray delta = lossFunction.computeGradient(labels2d, preOut, layerConf().getActivationFunction(), maskArray);
         INDArray delta = lossFunction.computeGradient(labels2d, preOut, layerConf().getActivationFn(), maskArray);
+        if (lossScale != 1.0)
+            delta.muli(lossScale);
 
         Gradient gradient = new DefaultGradient();
 
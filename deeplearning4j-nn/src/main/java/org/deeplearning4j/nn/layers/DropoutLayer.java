@@ -2,6 +2,7 @@ package org.deeplearning4j.nn.layers;
 
 import org.deeplearning4j.berkeley.Pair;
 import org.deeplearning4j.nn.api.Layer;
+import org.deeplearning4j.nn.api.layers.InferenceLayer;
 import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
 import org.deeplearning4j.nn.gradient.DefaultGradient;
 import org.deeplearning4j.nn.gradient.Gradient;
@@ -11,7 +12,7 @@ import org.nd4j.linalg.factory.Nd4j;
 /**
  * Created by davekale on 12/7/16.
  */
-public class DropoutLayer extends BaseLayer<org.deeplearning4j.nn.conf.layers.DropoutLayer> {
+public class DropoutLayer extends BaseLayer<org.deeplearning4j.nn.conf.layers.DropoutLayer> implements InferenceLayer {
 
     public DropoutLayer(NeuralNetConfiguration conf) {
         super(conf);
@@ -79,6 +80,12 @@ public class DropoutLayer extends BaseLayer<org.deeplearning4j.nn.conf.layers.Dr
         return z;
     }
 
+    @Override
+    public INDArray activateInference(INDArray input) {
+        //Dropout is only applied at training time
+        return input;
+    }
+
     @Override
     public Layer transpose() {
         throw new UnsupportedOperationException("Not yet implemented");
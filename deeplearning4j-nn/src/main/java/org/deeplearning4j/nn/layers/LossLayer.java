@@ -57,6 +57,9 @@ public class LossLayer extends BaseLayer<org.deeplearning4j.nn.conf.layers.LossL
     private double fullNetworkL1;
     private double fullNetworkL2;
 
+    //Loss scaling: delta (and hence all backprop gradients) is multiplied by this factor
+    protected double lossScale = 1.0;
+
     public LossLayer(NeuralNetConfiguration conf) {
         super(conf);
     }
@@ -148,6 +151,8 @@ public class LossLayer extends BaseLayer<org.deeplearning4j.nn.conf.layers.LossL
         // delta calculation
         ILossFunction lossFunction = layerConf().getLossFn();
         INDArray delta = lossFunction.computeGradient(getLabels2d(), preOut, layerConf().getActivationFn(), maskArray);
+        if (lossScale != 1.0)
+            delta.muli(lossScale);
 
         // grab the empty gradient
         Gradient gradient = new DefaultGradient();
@@ -155,6 +160,16 @@ public class LossLayer extends BaseLayer<org.deeplearning4j.nn.conf.layers.LossL
         return new Pair<>(gradient, delta);
     }
 
+    @Override
+    public void setLossScale(double lossScale) {
+        this.lossScale = lossScale;
+    }
+
+    @Override
+    public double getLossScale() {
+        return lossScale;
+    }
+
     /**
      * Gets the gradient from one training iteration
      * @return the gradient (bias and weight matrix)
@@ -18,6 +18,7 @@
 
 package org.deeplearning4j.nn.layers;
 
+import org.deeplearning4j.nn.api.layers.InferenceLayer;
 import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
 import org.nd4j.linalg.api.ndarray.INDArray;
 
@@ -29,7 +30,8 @@ import org.nd4j.linalg.api.ndarray.INDArray;
  * @author Adam Gibson
  *
  */
-public class OutputLayer extends BaseOutputLayer<org.deeplearning4j.nn.conf.layers.OutputLayer> {
+public class OutputLayer extends BaseOutputLayer<org.deeplearning4j.nn.conf.layers.OutputLayer>
+                implements InferenceLayer {
 
     public OutputLayer(NeuralNetConfiguration conf) {
         super(conf);
@@ -39,4 +41,8 @@ public class OutputLayer extends BaseOutputLayer<org.deeplearning4j.nn.conf.laye
         super(conf, input);
     }
 
+    @Override
+    public INDArray activateInference(INDArray input) {
+        return conf.getLayer().getActivationFn().getActivation(preOutputInference(input), false);
+    }
 }
@@ -78,4 +78,11 @@ public class Convolution1DLayer extends ConvolutionLayer {
 
         return preOutput;
     }
+
+    @Override
+    public INDArray activateInference(INDArray input) {
+        // add singleton fourth dimension to input, and remove it from the output activations
+        INDArray acts = super.activateInference(input.reshape(input.size(0), input.size(1), input.size(2), 1));
+        return acts.reshape(acts.size(0), acts.size(1), acts.size(2));
+    }
 }
@@ -22,6 +22,7 @@ package org.deeplearning4j.nn.layers.convolution;
 import org.deeplearning4j.berkeley.Pair;
 import org.deeplearning4j.exception.DL4JInvalidInputException;
 import org.deeplearning4j.nn.api.Layer;
+import org.deeplearning4j.nn.api.layers.InferenceLayer;
 import org.deeplearning4j.nn.conf.ConvolutionMode;
 import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
 import org.deeplearning4j.nn.gradient.DefaultGradient;
@@ -49,7 +50,8 @@ import java.util.Map;
  *
  * @author Adam Gibson (original impl), Alex Black (current version)
  */
-public class ConvolutionLayer extends BaseLayer<org.deeplearning4j.nn.conf.layers.ConvolutionLayer> {
+public class ConvolutionLayer extends BaseLayer<org.deeplearning4j.nn.conf.layers.ConvolutionLayer>
+                implements InferenceLayer {
     protected static final Logger log = LoggerFactory.getLogger(ConvolutionLayer.class);
 
     protected ConvolutionHelper helper = null;
@@ -222,6 +224,13 @@ public class ConvolutionLayer extends BaseLayer<org.deeplearning4j.nn.conf.layer
     }
 
     public INDArray preOutput(boolean training) {
+        return preOutputHelper(input, training);
+    }
+
+    /**
+     * Pre-output for the given (4d) input. Does not modify the state of the layer
+     */
+    protected INDArray preOutputHelper(INDArray input, boolean training) {
         INDArray weights = getParam(ConvolutionParamInitializer.WEIGHT_KEY);
         INDArray bias = getParam(ConvolutionParamInitializer.BIAS_KEY);
         if(conf.isUseDropConnect() && training && conf.getLayer().getDropOut() > 0) {
@@ -326,6 +335,21 @@ public class ConvolutionLayer extends BaseLayer<org.deeplearning4j.nn.conf.layer
         return activation;
     }
 
+    @Override
+    public INDArray activateInference(INDArray input) {
+        INDArray z = preOutputHelper(input, false);
+        IActivation afn = conf.getLayer().getActivationFn();
+
+        if (helper != null && Nd4j.dataType() != DataBuffer.Type.HALF) {
+            INDArray ret = helper.activate(z, afn);
+            if (ret != null) {
+                return ret;
+            }
+        }
+
+        return afn.getActivation(z, false);
+    }
+
     @Override
     public Layer transpose(){
         throw new UnsupportedOperationException("Not yet implemented");
@@ -72,4 +72,14 @@ public class Subsampling1DLayer extends SubsamplingLayer {
 
         return acts;
     }
+
+    @Override
+    public INDArray activateInference(INDArray input) {
+        if (input.rank() != 3)
+            throw new DL4JInvalidInputException("Got rank " + input.rank() + " array as input to Subsampling1DLayer with shape "
+                    + Arrays.toString(input.shape()) + ". Expected rank 3 array with shape [minibatchSize, features, length].");
+
+        INDArray acts = super.activateInference(input.reshape(input.size(0), input.size(1), input.size(2), 1));
+        return acts.reshape(acts.size(0), acts.size(1), acts.size(2));
+    }
 }
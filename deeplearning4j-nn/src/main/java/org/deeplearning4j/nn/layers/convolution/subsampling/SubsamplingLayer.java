@@ -22,6 +22,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.deeplearning4j.berkeley.Pair;
 import org.deeplearning4j.exception.DL4JInvalidInputException;
 import org.deeplearning4j.nn.api.Layer;
+import org.deeplearning4j.nn.api.layers.InferenceLayer;
 import org.deeplearning4j.nn.conf.ConvolutionMode;
 import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
 import org.deeplearning4j.nn.conf.layers.PoolingType;
@@ -54,7 +55,8 @@ import java.util.Arrays;
  * @author Adam Gibson
  */
 @Slf4j
-public class SubsamplingLayer extends BaseLayer<org.deeplearning4j.nn.conf.layers.SubsamplingLayer> {
+public class SubsamplingLayer extends BaseLayer<org.deeplearning4j.nn.conf.layers.SubsamplingLayer>
+                implements InferenceLayer {
 
     protected SubsamplingHelper helper = null;
     protected ConvolutionMode convolutionMode;
@@ -249,6 +251,18 @@ public class SubsamplingLayer extends BaseLayer<org.deeplearning4j.nn.conf.layer
             Dropout.applyDropout(input, conf.getLayer().getDropOut());
         }
 
+        return activateHelper(input, training);
+    }
+
+    @Override
+    public INDArray activateInference(INDArray input) {
+        return activateHelper(input, false);
+    }
+
+    /**
+     * Pooling forward pass for the given (4d) input. Does not modify the state of the layer
+     */
+    protected INDArray activateHelper(INDArray input, boolean training) {
         //Input validation: expect rank 4 matrix
         if (input.rank() != 4) {
             throw new DL4JInvalidInputException("Got rank " + input.rank()
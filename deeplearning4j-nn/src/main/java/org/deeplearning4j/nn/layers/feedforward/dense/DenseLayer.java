@@ -1,5 +1,6 @@
 package org.deeplearning4j.nn.layers.feedforward.dense;
 
+import org.deeplearning4j.nn.api.layers.InferenceLayer;
 import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
 import org.deeplearning4j.nn.layers.BaseLayer;
 import org.nd4j.linalg.api.ndarray.INDArray;
@@ -7,7 +8,7 @@ import org.nd4j.linalg.api.ndarray.INDArray;
 /**
  * @author Adam Gibson
  */
-public class DenseLayer extends BaseLayer<org.deeplearning4j.nn.conf.layers.DenseLayer> {
+public class DenseLayer extends BaseLayer<org.deeplearning4j.nn.conf.layers.DenseLayer> implements InferenceLayer {
     public DenseLayer(NeuralNetConfiguration conf) {
         super(conf);
     }
@@ -23,4 +24,9 @@ public class DenseLayer extends BaseLayer<org.deeplearning4j.nn.conf.layers.Dens
     public boolean isPretrainLayer() {
         return false;
     }
+
+    @Override
+    public INDArray activateInference(INDArray input) {
+        return conf.getLayer().getActivationFn().getActivation(preOutputInference(input), false);
+    }
 }
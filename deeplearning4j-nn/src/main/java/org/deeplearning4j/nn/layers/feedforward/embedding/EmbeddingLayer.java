@@ -20,6 +20,8 @@ package org.deeplearning4j.nn.layers.feedforward.embedding;
 
 import org.deeplearning4j.berkeley.Pair;
 import org.deeplearning4j.exception.DL4JInvalidInputException;
+import org.deeplearning4j.nn.api.layers.InferenceLayer;
+import org.deeplearning4j.nn.api.layers.RowSparseGradientLayer;
 import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
 import org.deeplearning4j.nn.gradient.DefaultGradient;
 import org.deeplearning4j.nn.gradient.Gradient;
@@ -27,6 +29,9 @@ import org.deeplearning4j.nn.layers.BaseLayer;
 import org.deeplearning4j.nn.params.DefaultParamInitializer;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+
+import java.util.Arrays;
 
 /**Embedding layer: feed-forward layer that expects single integers per example as input (class numbers, in range 0 to numClass-1)
  * as input. This input has shape [numExamples,1] instead of [numExamples,numClasses] for the equivalent one-hot representation.
@@ -35,10 +40,17 @@ import org.nd4j.linalg.factory.Nd4j;
  * with all but one value being zero).<br>
  * <b>Note</b>: can only be used as the first layer for a network<br>
  * <b>Note 2</b>: For a given example index i, the output is activationFunction(weights.getRow(i) + bias), hence the
- * weight rows can be considered a vector/embedding for each example.
+ * weight rows can be considered a vector/embedding for each example.<br>
+ * <b>Note 3</b>: With bag input (see {@link org.deeplearning4j.nn.conf.layers.EmbeddingLayer#bagInput}), each example
+ * is a set/bag of indices padded with negative values, and the output is activationFunction(sum of the weight rows + bias)
  * @author Alex Black
  */
-public class EmbeddingLayer extends BaseLayer<org.deeplearning4j.nn.conf.layers.EmbeddingLayer> {
+public class EmbeddingLayer extends BaseLayer<org.deeplearning4j.nn.conf.layers.EmbeddingLayer>
+                implements InferenceLayer, RowSparseGradientLayer {
+    //With row-sparse updates: rows of the weight gradient (view) that were set by the last backprop pass
+    private int[] weightGradientRows;
+    private INDArray weightGradientRowsView;
+
     public EmbeddingLayer(NeuralNetConfiguration conf) {
         super(conf);
     }
@@ -57,15 +69,42 @@ public class EmbeddingLayer extends BaseLayer<org.deeplearning4j.nn.conf.layers.
             delta.muliColumnVector(maskArray);
         }
 
-        INDArray weights = getParam(DefaultParamInitializer.WEIGHT_KEY);
         INDArray weightGradients = gradientViews.get(DefaultParamInitializer.WEIGHT_KEY);
-        weightGradients.assign(0);
+        boolean rowSparse = layerConf().isRowSparseUpdates();
+        if (rowSparse && weightGradients == weightGradientRowsView) {
+            //Only the rows set by the last iteration can be non-zero
+            for (int row : weightGradientRows)
+                weightGradients.getRow(row).assign(0);
+        } else {
+            weightGradients.assign(0);
+        }
 
         int[] indexes = new int[input.length()];
-        for (int i = 0; i < indexes.length; i++) {
-            indexes[i] = input.getInt(i, 0);
+        int count = 0;
+        if (layerConf().isBagInput()) {
+            //Only the weight rows of the active inputs have a non-zero gradient
+            for (int i = 0; i < input.rows(); i++) {
+                INDArray deltaRow = delta.getRow(i);
+                for (int j = 0; j < input.columns(); j++) {
+                    int index = input.getInt(i, j);
+                    if (index >= 0) {
+                        indexes[count++] = index;
+                        weightGradients.getRow(index).addi(deltaRow);
+                    }
+                }
+            }
+        } else {
+            for (int i = 0; i < indexes.length; i++) {
+                indexes[i] = input.getInt(i, 0);
+
+                weightGradients.getRow(indexes[i]).addi(delta.getRow(i));
+            }
+            count = indexes.length;
+        }
 
-            weightGradients.getRow(indexes[i]).addi(delta.getRow(i));
+        if (rowSparse) {
+            weightGradientRows = uniqueSorted(indexes, count);
+            weightGradientRowsView = weightGradients;
         }
 
         INDArray biasGradientsView = gradientViews.get(DefaultParamInitializer.BIAS_KEY);
@@ -81,6 +120,14 @@ public class EmbeddingLayer extends BaseLayer<org.deeplearning4j.nn.conf.layers.
 
     @Override
     public INDArray preOutput(boolean training) {
+        return preOutputInference(input);
+    }
+
+    @Override
+    protected INDArray preOutputInference(INDArray input) {
+        if (layerConf().isBagInput())
+            return preOutputBag(input);
+
         if (input.columns() != 1) {
             //Assume shape is [numExamples,1], and each entry is an integer index
             throw new DL4JInvalidInputException(
@@ -108,6 +155,46 @@ public class EmbeddingLayer extends BaseLayer<org.deeplearning4j.nn.conf.layers.
         return rows;
     }
 
+    /**
+     * Forward pass for set/bag of indices input (padded with negative values): sum of the weight rows of the active
+     * inputs for each example, plus bias
+     */
+    private INDArray preOutputBag(INDArray input) {
+        int nIn = layerConf().getNIn();
+        int[] rowEnds = new int[input.rows()];
+        int[] indexes = new int[input.length()];
+        int count = 0;
+        for (int i = 0; i < input.rows(); i++) {
+            for (int j = 0; j < input.columns(); j++) {
+                int index = input.getInt(i, j);
+                if (index >= nIn)
+                    throw new DL4JInvalidInputException("Invalid index for embedding layer: got index " + index
+                                    + " for example " + i + ", with nIn = " + nIn);
+                if (index >= 0)
+                    indexes[count++] = index;
+            }
+            rowEnds[i] = count;
+        }
+
+        INDArray weights = getParam(DefaultParamInitializer.WEIGHT_KEY);
+        INDArray bias = getParam(DefaultParamInitializer.BIAS_KEY);
+
+        INDArray ret = Nd4j.zeros(input.rows(), weights.columns());
+        if (count > 0) {
+            INDArray rows = Nd4j.pullRows(weights, 1, Arrays.copyOf(indexes, count));
+            int start = 0;
+            for (int i = 0; i < rowEnds.length; i++) {
+                if (rowEnds[i] > start)
+                    ret.getRow(i).assign(rows.get(NDArrayIndex.interval(start, rowEnds[i]), NDArrayIndex.all())
+                                    .sum(0));
+                start = rowEnds[i];
+            }
+        }
+        ret.addiRowVector(bias);
+
+        return ret;
+    }
+
     @Override
     public INDArray activate(boolean training) {
         INDArray rows = preOutput(training);
@@ -120,6 +207,29 @@ public class EmbeddingLayer extends BaseLayer<org.deeplearning4j.nn.conf.layers.
         return ret;
     }
 
+    @Override
+    public INDArray activateInference(INDArray input) {
+        return conf.getLayer().getActivationFn().getActivation(preOutputInference(input), false);
+    }
+
+    @Override
+    public int[] getGradientRows(String paramName) {
+        if (!layerConf().isRowSparseUpdates() || !DefaultParamInitializer.WEIGHT_KEY.equals(paramName))
+            return null;
+        return weightGradientRows;
+    }
+
+    private static int[] uniqueSorted(int[] values, int count) {
+        int[] sorted = Arrays.copyOf(values, count);
+        Arrays.sort(sorted);
+        int nUnique = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1])
+                sorted[nUnique++] = sorted[i];
+        }
+        return Arrays.copyOf(sorted, nUnique);
+    }
+
     @Override
     public boolean isPretrainLayer() {
         return false;
@@ -2,6 +2,7 @@ package org.deeplearning4j.nn.layers.normalization;
 
 import org.deeplearning4j.berkeley.Pair;
 import org.deeplearning4j.nn.api.Layer;
+import org.deeplearning4j.nn.api.layers.InferenceLayer;
 import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
 import org.deeplearning4j.nn.gradient.DefaultGradient;
 import org.deeplearning4j.nn.gradient.Gradient;
@@ -35,7 +36,8 @@ import java.util.List;
  *
  * ideal to apply this between linear and non-linear transformations in layers it follows
  **/
-public class BatchNormalization extends BaseLayer<org.deeplearning4j.nn.conf.layers.BatchNormalization> {
+public class BatchNormalization extends BaseLayer<org.deeplearning4j.nn.conf.layers.BatchNormalization>
+                implements InferenceLayer {
     protected static final Logger log = LoggerFactory.getLogger(BatchNormalization.class);
 
     BatchNormalizationHelper helper = null;
@@ -236,6 +238,46 @@ public class BatchNormalization extends BaseLayer<org.deeplearning4j.nn.conf.lay
         return gradient;
     }
 
+    @Override
+    public INDArray activateInference(INDArray x) {
+        //Test time: normalize using the global mean/variance estimates. Unlike preOutput, std/xMu/xHat are not stored
+        org.deeplearning4j.nn.conf.layers.BatchNormalization layerConf = layerConf();
+        INDArray mean = getParam(BatchNormalizationParamInitializer.GLOBAL_MEAN);
+        INDArray std = Transforms.sqrt(getParam(BatchNormalizationParamInitializer.GLOBAL_VAR), true);
+
+        INDArray xHat;
+        if (x.rank() == 2) {
+            xHat = x.subRowVector(mean).diviRowVector(std);
+        } else if (x.rank() == 4) {
+            if (!Shape.strideDescendingCAscendingF(x))
+                x = x.dup(); //TODO: temp Workaround for broadcast bug. To be removed when fixed
+            xHat = Nd4j.getExecutioner().execAndReturn(
+                            new BroadcastSubOp(x, mean, Nd4j.createUninitialized(x.shape(), x.ordering()), 1));
+            xHat = Nd4j.getExecutioner().execAndReturn(new BroadcastDivOp(xHat, std, xHat, 1));
+        } else {
+            throw new IllegalStateException(
+                            "The layer prior to BatchNorm in the configuration is not currently supported.");
+        }
+
+        if (layerConf.isLockGammaBeta()) {
+            //Same special case as in preOutput
+            double g = layerConf.getGamma();
+            double b = layerConf.getBeta();
+            if (g != 1.0 && b != 0.0) {
+                xHat.muli(g).addi(b);
+            }
+            return xHat;
+        }
+
+        INDArray gamma = getParam(BatchNormalizationParamInitializer.GAMMA);
+        INDArray beta = getParam(BatchNormalizationParamInitializer.BETA);
+        if (x.rank() == 2) {
+            return xHat.muliRowVector(gamma).addiRowVector(beta);
+        }
+        xHat = Nd4j.getExecutioner().execAndReturn(new BroadcastMulOp(xHat, gamma, xHat, 1));
+        return Nd4j.getExecutioner().execAndReturn(new BroadcastAddOp(xHat, beta, xHat, 1));
+    }
+
     @Override
     public INDArray preOutput(INDArray x) {
         return preOutput(x, TrainingMode.TRAIN);
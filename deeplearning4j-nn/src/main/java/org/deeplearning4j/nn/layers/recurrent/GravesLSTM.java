@@ -21,6 +21,7 @@ package org.deeplearning4j.nn.layers.recurrent;
 import org.deeplearning4j.berkeley.Pair;
 import org.deeplearning4j.nn.api.Layer;
 import org.deeplearning4j.nn.api.MaskState;
+import org.deeplearning4j.nn.api.layers.InferenceLayer;
 import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
 import org.deeplearning4j.nn.gradient.Gradient;
 import org.deeplearning4j.nn.params.GravesLSTMParamInitializer;
@@ -38,7 +39,8 @@ import java.util.Map;
  *
  * @author Alex Black
  */
-public class GravesLSTM extends BaseRecurrentLayer<org.deeplearning4j.nn.conf.layers.GravesLSTM> {
+public class GravesLSTM extends BaseRecurrentLayer<org.deeplearning4j.nn.conf.layers.GravesLSTM>
+                implements InferenceLayer {
     public static final String STATE_KEY_PREV_ACTIVATION = "prevAct";
     public static final String STATE_KEY_PREV_MEMCELL = "prevMem";
 
@@ -144,6 +146,17 @@ public class GravesLSTM extends BaseRecurrentLayer<org.deeplearning4j.nn.conf.la
                         forBackprop, true, GravesLSTMParamInitializer.INPUT_WEIGHT_KEY, null);
     }
 
+    @Override
+    public INDArray activateInference(INDArray input) {
+        final INDArray recurrentWeights = getParam(GravesLSTMParamInitializer.RECURRENT_WEIGHT_KEY);
+        final INDArray inputWeights = getParam(GravesLSTMParamInitializer.INPUT_WEIGHT_KEY);
+        final INDArray biases = getParam(GravesLSTMParamInitializer.BIAS_KEY);
+
+        return LSTMHelpers.activateHelper(this, this.conf, this.layerConf().getGateActivationFn(), input,
+                        recurrentWeights, inputWeights, biases, false, null, null, false, true,
+                        GravesLSTMParamInitializer.INPUT_WEIGHT_KEY, null).fwdPassOutput;
+    }
+
     @Override
     public INDArray activationMean() {
         return activate();
@@ -158,6 +158,14 @@ public class LSTMHelpers {
             prevOutputActivations = Nd4j.zeros(new int[] {miniBatchSize, hiddenLayerSize});
         }
 
+        //Input to gate projections don't depend on previous time steps: calculate them for all time steps at once,
+        // as a single [miniBatch*T,nIn] x [nIn,4*layerSize] gemm, instead of T small ones. Biases are added here as well
+        //Rows of time step t are [t*miniBatch, (t+1)*miniBatch)
+        INDArray input2d = toTimeMajor2d(input);
+        INDArray ifogInputAll = Nd4j.create(new int[] {miniBatchSize * timeSeriesLength, 4 * hiddenLayerSize}, 'f');
+        Nd4j.gemm(input2d, inputWeights, ifogInputAll, false, false, 1.0, 0.0);
+        ifogInputAll.addiRowVector(biases);
+
         for (int iTimeIndex = 0; iTimeIndex < timeSeriesLength; iTimeIndex++) {
             int time = iTimeIndex;
 
@@ -166,14 +174,11 @@ public class LSTMHelpers {
             }
 
 
-            INDArray miniBatchData = (is2dInput ? input : input.tensorAlongDimension(time, 1, 0)); //[Expected shape: [m,nIn]. Also deals with edge case of T=1, with 'time series' data of shape [m,nIn], equiv. to [m,nIn,1]
-            miniBatchData = Shape.toMmulCompatible(miniBatchData);
-
-
-            //Calculate activations for: network input + forget, output, input modulation gates. Next 3 lines are first part of those
-            INDArray ifogActivations = miniBatchData.mmul(inputWeights); //Shape: [miniBatch,4*layerSize]
+            //Calculate activations for: network input + forget, output, input modulation gates. Next 2 lines are first part of those
+            INDArray ifogActivations = ifogInputAll.get(
+                            NDArrayIndex.interval(time * miniBatchSize, (time + 1) * miniBatchSize),
+                            NDArrayIndex.all()).dup('f'); //Shape: [miniBatch,4*layerSize]
             Nd4j.gemm(prevOutputActivations, recurrentWeightsIFOG, ifogActivations, false, false, 1.0, 1.0);
-            ifogActivations.addiRowVector(biases);
 
             INDArray inputActivations =
                             ifogActivations.get(NDArrayIndex.all(), NDArrayIndex.interval(0, hiddenLayerSize));
@@ -304,6 +309,10 @@ public class LSTMHelpers {
         INDArray deltagNext = deltaifogNext.get(NDArrayIndex.all(),
                         NDArrayIndex.interval(3 * hiddenLayerSize, 4 * hiddenLayerSize));
 
+        //Deltas for all time steps, in the same time-major layout as used for input projections in forward pass:
+        //input weight gradients and epsilons are calculated from these once, after the loop
+        INDArray deltaifogAll = Nd4j.zeros(new int[] {miniBatchSize * timeSeriesLength, 4 * hiddenLayerSize}, 'f');
+
         Level1 l1BLAS = Nd4j.getBlasWrapper().level1();
         int endIdx = 0;
 
@@ -443,20 +452,18 @@ public class LSTMHelpers {
                 //Later, the deltaifogNext is used to calculate: input weight gradients, recurrent weight gradients, bias gradients
             }
 
-            INDArray prevLayerActivationSlice =
-                            Shape.toMmulCompatible(is2dInput ? input : input.tensorAlongDimension(time, 1, 0));
+            //Store deltas for input weight gradients and epsilons. No contribution from forget gate at t=0
+            INDArray deltaifogTime = deltaifogAll.get(
+                            NDArrayIndex.interval(time * miniBatchSize, (time + 1) * miniBatchSize),
+                            NDArrayIndex.all());
             if (iTimeIndex > 0) {
                 //Again, deltaifog_current == deltaifogNext at this point... same array
-                Nd4j.gemm(prevLayerActivationSlice, deltaifogNext, iwGradientsOut, true, false, 1.0, 1.0);
+                deltaifogTime.assign(deltaifogNext);
             } else {
-                INDArray iwGradients_i =
-                                iwGradientsOut.get(NDArrayIndex.all(), NDArrayIndex.interval(0, hiddenLayerSize));
-                Nd4j.gemm(prevLayerActivationSlice, deltai, iwGradients_i, true, false, 1.0, 1.0);
-                INDArray iwGradients_og = iwGradientsOut.get(NDArrayIndex.all(),
-                                NDArrayIndex.interval(2 * hiddenLayerSize, 4 * hiddenLayerSize));
-                INDArray deltaog = deltaifogNext.get(NDArrayIndex.all(),
-                                NDArrayIndex.interval(2 * hiddenLayerSize, 4 * hiddenLayerSize));
-                Nd4j.gemm(prevLayerActivationSlice, deltaog, iwGradients_og, true, false, 1.0, 1.0);
+                deltaifogTime.get(NDArrayIndex.all(), NDArrayIndex.interval(0, hiddenLayerSize)).assign(deltai);
+                deltaifogTime.get(NDArrayIndex.all(), NDArrayIndex.interval(2 * hiddenLayerSize, 4 * hiddenLayerSize))
+                                .assign(deltaifogNext.get(NDArrayIndex.all(),
+                                                NDArrayIndex.interval(2 * hiddenLayerSize, 4 * hiddenLayerSize)));
             }
 
             if (iTimeIndex > 0) {
@@ -487,29 +494,19 @@ public class LSTMHelpers {
                 l1BLAS.axpy(2 * hiddenLayerSize, 1.0, ogBiasToAdd, ogBiasGrad);
             }
 
-            //Calculate epsilonNext - i.e., equiv. to what would be (w^L*(d^(Lt))^T)^T in a normal network
-            //But here, need to add 4 weights * deltas for the IFOG gates
-            INDArray epsilonNextSlice = epsilonNext.tensorAlongDimension(time, 1, 0); //This slice: f order and contiguous, due to epsilonNext being defined as f order.
-            if (iTimeIndex > 0) {
-                Nd4j.gemm(deltaifogNext, inputWeights, epsilonNextSlice, false, true, 1.0, 1.0);
-            } else {
-                //No contribution from forget gate at t=0
-                INDArray wi = inputWeights.get(NDArrayIndex.all(), NDArrayIndex.interval(0, hiddenLayerSize));
-                Nd4j.gemm(deltai, wi, epsilonNextSlice, false, true, 1.0, 1.0);
-                INDArray deltaog = deltaifogNext.get(NDArrayIndex.all(),
-                                NDArrayIndex.interval(2 * hiddenLayerSize, 4 * hiddenLayerSize));
-                INDArray wog = inputWeights.get(NDArrayIndex.all(),
-                                NDArrayIndex.interval(2 * hiddenLayerSize, 4 * hiddenLayerSize));
-                Nd4j.gemm(deltaog, wog, epsilonNextSlice, false, true, 1.0, 1.0); //epsilonNextSlice.addi(deltao.mmul(woTranspose)).addi(deltag.mmul(wgTranspose));
-            }
-
-            if (maskArray != null) {
-                //Mask array is present: bidirectional RNN -> need to zero out these errors to avoid sending anything
-                // but 0s to the layer below at this time step (for the given example)
-                epsilonNextSlice.muliColumnVector(timeStepMaskColumn);
-            }
         }
 
+        //Input weight gradients, summed over all time steps in one gemm: [nIn,miniBatch*T] x [miniBatch*T,4*layerSize]
+        //Deltas of time steps not processed (truncated BPTT) are zeros, so they don't contribute
+        INDArray input2d = toTimeMajor2d(input);
+        Nd4j.gemm(input2d, deltaifogAll, iwGradientsOut, true, false, 1.0, 1.0);
+
+        //Calculate epsilonNext - i.e., equiv. to what would be (w^L*(d^(Lt))^T)^T in a normal network
+        //But here, need to add 4 weights * deltas for the IFOG gates. Masked steps have zero deltas, thus zero epsilons
+        INDArray epsilonNext2d = Nd4j.create(new int[] {miniBatchSize * timeSeriesLength, prevLayerSize}, 'f');
+        Nd4j.gemm(deltaifogAll, inputWeights, epsilonNext2d, false, true, 1.0, 0.0);
+        epsilonNext.assign(epsilonNext2d.reshape('f', miniBatchSize, timeSeriesLength, prevLayerSize).permute(0, 2, 1));
+
         Gradient retGradient = new DefaultGradient();
         retGradient.gradientForVariable().put(inputWeightKey, iwGradientsOut);
         retGradient.gradientForVariable().put(recurrentWeightKey, rwGradientsOut);
@@ -517,4 +514,16 @@ public class LSTMHelpers {
 
         return new Pair<>(retGradient, epsilonNext);
     }
+
+    /**
+     * Reshapes time series input of shape [miniBatch,n,T] to 2d matrix of shape [miniBatch*T,n], suitable for gemm.
+     * Rows of time step t are [t*miniBatch, (t+1)*miniBatch). 2d input (T=1 edge case) is returned as is.
+     */
+    private static INDArray toTimeMajor2d(INDArray input) {
+        if (input.rank() < 3)
+            return Shape.toMmulCompatible(input);
+
+        int[] shape = input.shape();
+        return input.permute(0, 2, 1).dup('f').reshape('f', shape[0] * shape[2], shape[1]);
+    }
 }
@@ -20,6 +20,7 @@ package org.deeplearning4j.nn.layers.recurrent;
 import org.deeplearning4j.berkeley.Pair;
 import org.deeplearning4j.nn.api.Layer;
 import org.deeplearning4j.nn.api.MaskState;
+import org.deeplearning4j.nn.api.layers.InferenceLayer;
 import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
 import org.deeplearning4j.nn.gradient.Gradient;
 import org.deeplearning4j.nn.layers.BaseOutputLayer;
@@ -44,7 +45,8 @@ import java.util.Arrays;
  * @author Alex Black
  * @see BaseOutputLayer, OutputLayer
  */
-public class RnnOutputLayer extends BaseOutputLayer<org.deeplearning4j.nn.conf.layers.RnnOutputLayer> {
+public class RnnOutputLayer extends BaseOutputLayer<org.deeplearning4j.nn.conf.layers.RnnOutputLayer>
+                implements InferenceLayer {
 
     public RnnOutputLayer(NeuralNetConfiguration conf) {
         super(conf);
@@ -174,6 +176,15 @@ public class RnnOutputLayer extends BaseOutputLayer<org.deeplearning4j.nn.conf.l
         return TimeSeriesUtils.reshape2dTo3d(act2d, input.size(0));
     }
 
+    @Override
+    public INDArray activateInference(INDArray input) {
+        if (input.rank() != 3)
+            throw new IllegalArgumentException("Input must be rank 3 (is: " + input.rank() + ")");
+        INDArray z2d = preOutputInference(TimeSeriesUtils.reshape3dTo2d(input));
+        INDArray act2d = conf.getLayer().getActivationFn().getActivation(z2d, false);
+        return TimeSeriesUtils.reshape2dTo3d(act2d, input.size(0));
+    }
+
     @Override
     public void setMaskArray(INDArray maskArray) {
         if (maskArray != null) {
@@ -176,7 +176,7 @@ public class CenterLossOutputLayer extends BaseOutputLayer<org.deeplearning4j.nn
 
         INDArray epsilonNext = params.get(CenterLossParamInitializer.WEIGHT_KEY).mmul(delta.transpose()).transpose();
         double lambda = layerConf().getLambda();
-        epsilonNext.addi(dLcdai.muli(lambda)); // add center loss here
+        epsilonNext.addi(dLcdai.muli(lambda * lossScale)); // add center loss here
         return new Pair<>(pair.getFirst(), epsilonNext);
     }
 
@@ -199,6 +199,8 @@ public class CenterLossOutputLayer extends BaseOutputLayer<org.deeplearning4j.nn
         }
 
         INDArray delta = lossFunction.computeGradient(labels2d, preOut, layerConf().getActivationFn(), maskArray);
+        if (lossScale != 1.0)
+            delta.muli(lossScale);
 
         Gradient gradient = new DefaultGradient();
 
@@ -223,6 +225,8 @@ public class CenterLossOutputLayer extends BaseOutputLayer<org.deeplearning4j.nn
         } else {
             deltaC = numerator.diviColumnVector(denominator);
         }
+        if (lossScale != 1.0)
+            deltaC.muli(lossScale);
         centersGradView.assign(deltaC);
 
 
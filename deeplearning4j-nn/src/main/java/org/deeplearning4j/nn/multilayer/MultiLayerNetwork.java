@@ -44,6 +44,7 @@ import org.deeplearning4j.optimize.Solver;
 import org.deeplearning4j.optimize.api.ConvexOptimizer;
 import org.deeplearning4j.optimize.api.IterationListener;
 import org.deeplearning4j.optimize.api.TrainingListener;
+import org.deeplearning4j.util.InferenceUtils;
 import org.deeplearning4j.util.ModelSerializer;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.dataset.DataSet;
@@ -462,6 +463,14 @@ public class MultiLayerNetwork implements Serializable, Classifier, Layer {
                 layers[i] = conf.getLayer().instantiate(conf, listeners, i, paramsView, initializeParams);
                 layerMap.put(conf.getLayer().getLayerName(), layers[i]);
             }
+            double lossScale = layerWiseConfigurations.getLossScale();
+            if (layers[nLayers - 1] instanceof IOutputLayer) {
+                ((IOutputLayer) layers[nLayers - 1]).setLossScale(lossScale);
+            } else if (lossScale != 1.0) {
+                //Gradients would be unscaled without having been scaled in the first place
+                throw new IllegalStateException("Cannot use loss scaling: last layer (" + layers[nLayers - 1].getClass()
+                                .getSimpleName() + ") is not an output layer that supports loss scaling");
+            }
             initCalled = true;
         }
 
@@ -777,6 +786,14 @@ public class MultiLayerNetwork implements Serializable, Classifier, Layer {
         return gradient;
     }
 
+    /**
+     * Flattened gradients array for the network: the gradients of all layers are views of this array.
+     * May be null if the gradients view hasn't been initialized yet (see {@link #initGradientsView()})
+     */
+    public INDArray getFlattenedGradients() {
+        return flattenedGradients;
+    }
+
     public INDArray epsilon() {
         return epsilon;
     }
@@ -1559,6 +1576,35 @@ public class MultiLayerNetwork implements Serializable, Classifier, Layer {
         return output(input, TrainingMode.TEST);
     }
 
+    /**
+     * Test-time forward pass that does not modify the state of the network or its layers.<br>
+     * Unlike {@link #output(INDArray)}, the activations are passed from layer to layer only via local variables:
+     * the network input, layer inputs and mask arrays are not set, so each intermediate activation array can be
+     * released as soon as the next layer has consumed it. Peak memory is therefore bounded by the largest pair
+     * of adjacent activations, rather than by all activations of the network.<br>
+     * Layers implementing {@link org.deeplearning4j.nn.api.layers.InferenceLayer} can be used concurrently from
+     * multiple threads; any other layers are executed one thread at a time (synchronized on the layer).<br>
+     * <b>Note</b>: mask arrays are not supported by this method; use {@link #output(INDArray, boolean, INDArray, INDArray)}
+     * for masked (variable length) time series.
+     *
+     * @param input Input to the network
+     * @return Network output (activations of the last layer)
+     */
+    public INDArray outputStateless(INDArray input) {
+        if (input == null)
+            throw new IllegalArgumentException("Unable to perform forward pass: input is null");
+        if (!initCalled)
+            throw new IllegalStateException("Network has not been initialized: call init() first");
+
+        int minibatchSize = input.size(0);
+        INDArray current = input;
+        for (int i = 0; i < layers.length; i++) {
+            current = InferenceUtils.activate(layers[i], layerWiseConfigurations.getInputPreProcess(i), current,
+                            minibatchSize);
+        }
+        return current;
+    }
+
     /**
      * Label the probabilities of the input
      *
@@ -1801,6 +1847,18 @@ public class MultiLayerNetwork implements Serializable, Classifier, Layer {
         this.score = score;
     }
 
+    /**
+     * Undo the loss scaling (see {@link MultiLayerConfiguration.Builder#lossScale(double)}) applied by the output
+     * layer, so that the updater gets the actual gradients
+     */
+    protected void unscaleGradients() {
+        double lossScale = layerWiseConfigurations.getLossScale();
+        if (lossScale == 1.0 || gradient == null)
+            return;
+        for (INDArray g : gradient.gradientForVariable().values())
+            g.divi(lossScale);
+    }
+
     @Override
     public void computeGradientAndScore() {
         //Calculate activations (which are stored in each layer, and used in backprop)
@@ -1831,6 +1889,7 @@ public class MultiLayerNetwork implements Serializable, Classifier, Layer {
             //Then: compute gradients
             backprop();
         }
+        unscaleGradients();
 
         //Calculate score
         if (!(getOutputLayer() instanceof IOutputLayer)) {
@@ -0,0 +1,356 @@
+package org.deeplearning4j.nn.updater;
+
+import org.deeplearning4j.nn.api.Layer;
+import org.deeplearning4j.nn.api.Updater;
+import org.deeplearning4j.nn.api.layers.RowSparseGradientLayer;
+import org.deeplearning4j.nn.conf.GradientNormalization;
+import org.deeplearning4j.nn.conf.LearningRatePolicy;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.gradient.DefaultGradient;
+import org.deeplearning4j.nn.gradient.Gradient;
+import org.deeplearning4j.nn.layers.FrozenLayer;
+import org.deeplearning4j.nn.params.PretrainParamInitializer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+import org.nd4j.linalg.learning.GradientUpdater;
+import org.nd4j.linalg.ops.transforms.Transforms;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * FusedUpdater: applies gradient updaters over contiguous blocks of the flattened gradient array, instead of
+ * one parameter at a time.<br>
+ * Parameters are grouped into blocks of consecutive parameters (in flattening order) sharing exactly the same updater
+ * configuration. Each block has a single {@link GradientUpdater}, operating on a view of the flattened gradients and
+ * on its own slice of the updater state, so a network with many small layers needs a handful of ops per iteration
+ * instead of several ops per parameter.<br>
+ * Layers that need per-layer processing (learning rate policies, momentum schedules, gradient normalization,
+ * frozen and pretrain layers) are not fused, and are updated by their own {@link Updater} as usual.<br>
+ * <br>
+ * Updater state layout: state of each block is contiguous, with blocks and non-fused layers following flattening
+ * order. For SGD, Nesterovs, AdaGrad and RmsProp this is the same as the non-fused layout. For Adam and AdaDelta
+ * (which keep two arrays per updater) it is not: state is [m, v] for the whole block rather than per parameter.
+ */
+public class FusedUpdater implements Serializable {
+
+    private final List<Block> blocks;
+    private final int[] layerStateOffsets;
+    private final int[] layerStateSizes;
+    private final String[] layerKeys;
+    private final Map<String, Integer> layerForKey;
+    private final int stateSize;
+
+    private static class Variable implements Serializable {
+        private final int layerIdx;
+        private final String paramName;
+        private final String key;
+
+        private Variable(int layerIdx, String paramName, String key) {
+            this.layerIdx = layerIdx;
+            this.paramName = paramName;
+            this.key = key;
+        }
+    }
+
+    private static class Block implements Serializable {
+        private final List<Variable> variables = new ArrayList<>();
+        private final int offset;
+        private int length;
+        private GradientUpdater updater;
+        private boolean miniBatch;
+        private int stateOffset;
+        private int stateSize;
+
+        private Block(int offset) {
+            this.offset = offset;
+        }
+    }
+
+    /**
+     * @param layers        Layers, in the same order as their parameters in the flattened parameters/gradients array
+     * @param layerKeys     Gradient key prefix for each layer: keys are expected to be "layerKey_paramName"
+     * @param layerUpdaters Per-layer updaters, used for layers that can't be fused
+     */
+    public FusedUpdater(Layer[] layers, String[] layerKeys, Updater[] layerUpdaters) {
+        this.layerKeys = layerKeys;
+        this.blocks = new ArrayList<>();
+        this.layerStateOffsets = new int[layers.length];
+        this.layerStateSizes = new int[layers.length];
+        this.layerForKey = new HashMap<>();
+
+        int paramOffset = 0;
+        int stateOffset = 0;
+        Block current = null;
+        String currentConfig = null;
+        for (int i = 0; i < layers.length; i++) {
+            Layer layer = layers[i];
+            Map<String, INDArray> params = layer.paramTable();
+            for (String paramName : params.keySet())
+                layerForKey.put(layerKeys[i] + "_" + paramName, i);
+
+            if (params.isEmpty()) {
+                //No parameters: doesn't break the current block
+                layerStateOffsets[i] = -1;
+                continue;
+            }
+
+            if (!canFuse(layer)) {
+                stateOffset = closeBlock(current, stateOffset);
+                current = null;
+                currentConfig = null;
+
+                layerStateOffsets[i] = stateOffset;
+                layerStateSizes[i] = layerUpdaters[i].stateSizeForLayer(layer);
+                stateOffset += layerStateSizes[i];
+                for (INDArray p : params.values())
+                    paramOffset += p.length();
+                continue;
+            }
+
+            layerStateOffsets[i] = -1;
+            for (Map.Entry<String, INDArray> entry : params.entrySet()) {
+                int length = entry.getValue().length();
+                if (length == 0)
+                    continue;
+
+                String config = configKey(layer, entry.getKey());
+                if (current == null || !config.equals(currentConfig)) {
+                    stateOffset = closeBlock(current, stateOffset);
+                    current = new Block(paramOffset);
+                    current.updater = new LayerUpdater().init(entry.getKey(), layer);
+                    current.miniBatch = layer.conf().isMiniBatch();
+                    currentConfig = config;
+                    blocks.add(current);
+                }
+
+                current.variables.add(new Variable(i, entry.getKey(), layerKeys[i] + "_" + entry.getKey()));
+                current.length += length;
+                paramOffset += length;
+            }
+        }
+        this.stateSize = closeBlock(current, stateOffset);
+    }
+
+    private FusedUpdater(FusedUpdater other) {
+        this.blocks = new ArrayList<>();
+        for (Block b : other.blocks) {
+            Block copy = new Block(b.offset);
+            copy.variables.addAll(b.variables);
+            copy.length = b.length;
+            copy.updater = b.updater.getAggregator(true).getUpdater();
+            copy.miniBatch = b.miniBatch;
+            copy.stateOffset = b.stateOffset;
+            copy.stateSize = b.stateSize;
+            blocks.add(copy);
+        }
+        this.layerStateOffsets = other.layerStateOffsets.clone();
+        this.layerStateSizes = other.layerStateSizes.clone();
+        this.layerKeys = other.layerKeys.clone();
+        this.layerForKey = new HashMap<>(other.layerForKey);
+        this.stateSize = other.stateSize;
+    }
+
+    private static int closeBlock(Block block, int stateOffset) {
+        if (block == null)
+            return stateOffset;
+        block.stateOffset = stateOffset;
+        block.stateSize = block.updater.stateSizeForInputSize(block.length);
+        return stateOffset + block.stateSize;
+    }
+
+    /**
+     * Whether all parameters of the given layer can be updated as part of a block: i.e., updates don't depend on
+     * anything other than the (elementwise) updater itself and regularization
+     */
+    protected static boolean canFuse(Layer layer) {
+        if (layer instanceof FrozenLayer || layer instanceof RowSparseGradientLayer)
+            return false;
+
+        NeuralNetConfiguration conf = layer.conf();
+        if (conf.isPretrain() || conf.getLearningRatePolicy() != LearningRatePolicy.None)
+            return false;
+
+        GradientNormalization normalization = conf.getLayer().getGradientNormalization();
+        if (normalization != null && normalization != GradientNormalization.None)
+            return false;
+
+        Map<Integer, Double> momentumSchedule = conf.getLayer().getMomentumSchedule();
+        if (momentumSchedule != null && !momentumSchedule.isEmpty())
+            return false;
+
+        for (String paramName : layer.paramTable().keySet()) {
+            if (PretrainParamInitializer.VISIBLE_BIAS_KEY.equals(paramName.split("_")[0]))
+                return false;
+            if (conf.getLayer().getUpdaterByParam(paramName) == org.deeplearning4j.nn.conf.Updater.CUSTOM)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Parameters can share a block only if this key is equal for both of them
+     */
+    protected static String configKey(Layer layer, String paramName) {
+        NeuralNetConfiguration conf = layer.conf();
+        org.deeplearning4j.nn.conf.layers.Layer l = conf.getLayer();
+        return l.getUpdaterByParam(paramName) + "_" + conf.getLearningRateByParam(paramName) + "_" + l.getMomentum()
+                        + "_" + l.getAdamMeanDecay() + "_" + l.getAdamVarDecay() + "_" + l.getEpsilon() + "_"
+                        + l.getRho() + "_" + l.getRmsDecay() + "_" + conf.isMiniBatch();
+    }
+
+    /**
+     * @return Total updater state size: blocks plus non-fused layers
+     */
+    public int stateSize() {
+        return stateSize;
+    }
+
+    /**
+     * @return Number of blocks the fused parameters were grouped into
+     */
+    public int numBlocks() {
+        return blocks.size();
+    }
+
+    /**
+     * @return True if parameters of the given layer are updated as part of a block
+     */
+    public boolean isFused(int layerIdx) {
+        return layerStateOffsets[layerIdx] < 0;
+    }
+
+    public void setStateViewArray(Layer[] layers, Updater[] layerUpdaters, INDArray viewArray, boolean initialize) {
+        for (Block b : blocks) {
+            if (b.stateSize == 0)
+                continue;
+            INDArray subset = viewArray.get(NDArrayIndex.point(0),
+                            NDArrayIndex.interval(b.stateOffset, b.stateOffset + b.stateSize));
+            b.updater.setStateViewArray(subset, new int[] {1, b.length}, 'f', initialize);
+        }
+
+        for (int i = 0; i < layers.length; i++) {
+            if (isFused(i) || layerStateSizes[i] == 0)
+                continue;
+            INDArray subset = viewArray.get(NDArrayIndex.point(0),
+                            NDArrayIndex.interval(layerStateOffsets[i], layerStateOffsets[i] + layerStateSizes[i]));
+            layerUpdaters[i].setStateViewArray(layers[i], subset, initialize);
+        }
+    }
+
+    /**
+     * Update the gradients
+     *
+     * @param layers             Layers, in the same order as on construction
+     * @param layerUpdaters      Per-layer updaters, used for layers that aren't fused
+     * @param flattenedGradients Flattened gradients array of the network
+     * @param gradient           Gradients for all layers, keyed by "layerKey_paramName"
+     */
+    public void update(Layer[] layers, Updater[] layerUpdaters, INDArray flattenedGradients, Gradient gradient,
+                    int iteration, int batchSize) {
+        Map<String, INDArray> gradients = gradient.gradientForVariable();
+
+        //Block views can be used only if per-parameter gradients are views of the network's flattened gradients.
+        //This holds for gradients produced by the network itself; otherwise we copy each block in and out
+        boolean useViews = flattenedGradients != null && gradient instanceof DefaultGradient
+                        && gradient.gradient() == flattenedGradients;
+
+        for (Block b : blocks) {
+            List<INDArray> blockGradients = new ArrayList<>(b.variables.size());
+            for (Variable v : b.variables) {
+                INDArray g = gradients.get(v.key);
+                if (g == null)
+                    throw new IllegalStateException("No gradient for variable \"" + v.key + "\"");
+                blockGradients.add(g);
+            }
+
+            INDArray blockGradient;
+            if (useViews) {
+                blockGradient = flattenedGradients.get(NDArrayIndex.point(0),
+                                NDArrayIndex.interval(b.offset, b.offset + b.length));
+            } else {
+                blockGradient = Nd4j.toFlattened('f', blockGradients);
+            }
+
+            INDArray updated = b.updater.getGradient(blockGradient, iteration);
+            if (updated != blockGradient)
+                blockGradient.assign(updated);
+
+            if (!useViews) {
+                int soFar = 0;
+                for (int j = 0; j < blockGradients.size(); j++) {
+                    INDArray g = blockGradients.get(j);
+                    g.assign(blockGradient.get(NDArrayIndex.point(0), NDArrayIndex.interval(soFar, soFar + g.length()))
+                                    .reshape('f', g.shape()));
+                    soFar += g.length();
+                }
+            }
+
+            for (int j = 0; j < b.variables.size(); j++) {
+                Variable v = b.variables.get(j);
+                applyRegularization(layers[v.layerIdx], blockGradients.get(j), v.paramName);
+            }
+
+            if (b.miniBatch) {
+                if (useViews) {
+                    blockGradient.divi(batchSize);
+                } else {
+                    for (INDArray g : blockGradients)
+                        g.divi(batchSize);
+                }
+            }
+        }
+
+        Map<Integer, Gradient> layerGradients = new LinkedHashMap<>();
+        for (Map.Entry<String, INDArray> entry : gradients.entrySet()) {
+            Integer layerIdx = layerForKey.get(entry.getKey());
+            if (layerIdx == null)
+                throw new IllegalStateException("Invalid key: no layer found for gradient \"" + entry.getKey() + "\"");
+            if (isFused(layerIdx))
+                continue;
+
+            Gradient g = layerGradients.get(layerIdx);
+            if (g == null) {
+                g = new DefaultGradient();
+                layerGradients.put(layerIdx, g);
+            }
+            g.gradientForVariable().put(entry.getKey().substring(layerKeys[layerIdx].length() + 1), entry.getValue());
+        }
+
+        for (Map.Entry<Integer, Gradient> entry : layerGradients.entrySet()) {
+            int layerIdx = entry.getKey();
+            layerUpdaters[layerIdx].update(layers[layerIdx], entry.getValue(), iteration, batchSize);
+
+            //Gradients may be replaced by LayerUpdater.update()
+            for (Map.Entry<String, INDArray> entry2 : entry.getValue().gradientForVariable().entrySet()) {
+                gradient.setGradientFor(layerKeys[layerIdx] + "_" + entry2.getKey(), entry2.getValue());
+            }
+        }
+    }
+
+    /**
+     * L1/L2 regularization, as per {@link LayerUpdater#postApply(Layer, INDArray, String, int)} (minus the division
+     * by minibatch size, which is done once for the whole block)
+     */
+    private static void applyRegularization(Layer layer, INDArray gradient, String paramName) {
+        NeuralNetConfiguration conf = layer.conf();
+        if (!conf.isUseRegularization())
+            return;
+
+        INDArray params = layer.getParam(paramName);
+        if (conf.getL2ByParam(paramName) > 0)
+            gradient.addi(params.mul(conf.getL2ByParam(paramName)));
+        if (conf.getL1ByParam(paramName) > 0)
+            gradient.addi(Transforms.sign(params).muli(conf.getL1ByParam(paramName)));
+    }
+
+    @Override
+    public FusedUpdater clone() {
+        return new FusedUpdater(this);
+    }
+}
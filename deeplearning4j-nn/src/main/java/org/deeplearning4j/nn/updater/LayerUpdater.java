@@ -4,6 +4,7 @@ import com.google.common.base.Preconditions;
 import org.apache.commons.math3.util.FastMath;
 import org.deeplearning4j.nn.api.Layer;
 import org.deeplearning4j.nn.api.Updater;
+import org.deeplearning4j.nn.api.layers.RowSparseGradientLayer;
 import org.deeplearning4j.nn.conf.GradientNormalization;
 import org.deeplearning4j.nn.conf.LearningRatePolicy;
 import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
@@ -12,6 +13,7 @@ import org.deeplearning4j.nn.layers.FrozenLayer;
 import org.deeplearning4j.nn.params.PretrainParamInitializer;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.api.ops.impl.accum.Norm2;
+import org.nd4j.linalg.api.shape.Shape;
 import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.linalg.indexing.BooleanIndexing;
 import org.nd4j.linalg.indexing.NDArrayIndex;
@@ -30,6 +32,8 @@ import java.util.Map;
 public class LayerUpdater implements Updater {
     protected Map<String, GradientUpdater> updaterForVariable = new LinkedHashMap<>();
     protected INDArray viewArray;
+    //Updater state (subset of the view array) for each variable, for row-sparse updates
+    protected Map<String, INDArray> stateViewForVariable = new HashMap<>();
 
     @Override
     public void setStateViewArray(Layer layer, INDArray viewArray, boolean initialize) {
@@ -45,6 +49,7 @@ public class LayerUpdater implements Updater {
                 continue;
             INDArray subset = viewArray.get(NDArrayIndex.point(0), NDArrayIndex.interval(count, count + thisSize));
             gu.setStateViewArray(subset, paramsArray.shape(), paramsArray.ordering(), initialize);
+            stateViewForVariable.put(entry.getKey(), subset);
             count += thisSize;
         }
     }
@@ -90,12 +95,77 @@ public class LayerUpdater implements Updater {
                             || layer.conf().getLayer().getUpdater() == org.deeplearning4j.nn.conf.Updater.NESTEROVS)
                 applyLrDecayPolicy(decay, layer, iteration, paramName);
             updater = init(paramName, layer);
+            int[] rows = (layer instanceof RowSparseGradientLayer
+                            ? ((RowSparseGradientLayer) layer).getGradientRows(paramName) : null);
+            if (rows != null) {
+                updateRows(layer, gradientOrig, paramName, rows, iteration, miniBatchSize);
+                continue;
+            }
             gradient2 = updater.getGradient(gradientOrig, iteration);
             postApply(layer, gradient2, paramName, miniBatchSize);
             gradient.setGradientFor(paramName, gradient2);
         }
     }
 
+    /**
+     * Row-sparse version of the updater and regularization, for a gradient that is zero except for the given rows:
+     * gathers the gradient, updater state and parameters for those rows, applies a (temporary) updater to them and
+     * scatters the results back. The gradient is modified in place; all other rows remain zero.
+     */
+    protected void updateRows(Layer layer, INDArray gradient, String param, int[] rows, int iteration,
+                    int miniBatchSize) {
+        if (rows.length == 0)
+            return;
+        int nColumns = gradient.columns();
+        int[] rowsShape = new int[] {rows.length, nColumns};
+
+        INDArray rowGradient = Nd4j.create(rowsShape, 'f');
+        for (int i = 0; i < rows.length; i++)
+            rowGradient.getRow(i).assign(gradient.getRow(rows[i]));
+
+        //Updater state consists of segments (for example, Adam: m and v), each with the same shape as the gradient
+        INDArray state = stateViewForVariable.get(param);
+        int nSegments = (state == null ? 0 : state.length() / gradient.length());
+        INDArray[] segments = new INDArray[nSegments];
+        INDArray[] rowSegments = new INDArray[nSegments];
+        INDArray rowState = (nSegments > 0 ? Nd4j.create(1, nSegments * rows.length * nColumns) : null);
+        for (int s = 0; s < nSegments; s++) {
+            segments[s] = Shape.newShapeNoCopy(state.get(NDArrayIndex.point(0),
+                            NDArrayIndex.interval(s * gradient.length(), (s + 1) * gradient.length())),
+                            gradient.shape(), gradient.ordering() == 'f');
+            rowSegments[s] = Shape.newShapeNoCopy(rowState.get(NDArrayIndex.point(0),
+                            NDArrayIndex.interval(s * rows.length * nColumns, (s + 1) * rows.length * nColumns)),
+                            rowsShape, true);
+            for (int i = 0; i < rows.length; i++)
+                rowSegments[s].getRow(i).assign(segments[s].getRow(rows[i]));
+        }
+
+        GradientUpdater rowUpdater = createUpdater(param, layer);
+        if (rowState != null)
+            rowUpdater.setStateViewArray(rowState, rowsShape, 'f', false);
+        INDArray update = rowUpdater.getGradient(rowGradient, iteration);
+
+        NeuralNetConfiguration conf = layer.conf();
+        if (conf.isUseRegularization() && (conf.getL2ByParam(param) > 0 || conf.getL1ByParam(param) > 0)) {
+            INDArray params = layer.getParam(param);
+            INDArray rowParams = Nd4j.create(rowsShape, 'f');
+            for (int i = 0; i < rows.length; i++)
+                rowParams.getRow(i).assign(params.getRow(rows[i]));
+            if (conf.getL2ByParam(param) > 0)
+                update.addi(rowParams.mul(conf.getL2ByParam(param)));
+            if (conf.getL1ByParam(param) > 0)
+                update.addi(Transforms.sign(rowParams).muli(conf.getL1ByParam(param)));
+        }
+        if (conf.isMiniBatch())
+            update.divi(miniBatchSize);
+
+        for (int i = 0; i < rows.length; i++) {
+            gradient.getRow(rows[i]).assign(update.getRow(i));
+            for (int s = 0; s < nSegments; s++)
+                segments[s].getRow(rows[i]).assign(rowSegments[s].getRow(i));
+        }
+    }
+
     /**
      * Apply the regularization
      *
@@ -254,44 +324,53 @@ public class LayerUpdater implements Updater {
     public GradientUpdater init(String variable, Layer layer) {
         GradientUpdater updater = updaterForVariable.get(variable);
         if (updater == null) {
-            org.deeplearning4j.nn.conf.Updater u = layer.conf().getLayer().getUpdaterByParam(variable);
-            switch (u) {
-                case SGD:
-                    updater = new org.nd4j.linalg.learning.Sgd(layer.conf().getLearningRateByParam(variable));
-                    break;
-                case ADAM:
-                    updater = new Adam(layer.conf().getLearningRateByParam(variable),
-                                    layer.conf().getLayer().getAdamMeanDecay(),
-                                    layer.conf().getLayer().getAdamVarDecay(), layer.conf().getLayer().getEpsilon());
-                    break;
-                case ADADELTA:
-                    updater = new AdaDelta(layer.conf().getLayer().getRho(), layer.conf().getLayer().getEpsilon());
-                    break;
-                case NESTEROVS:
-                    updater = new Nesterovs(layer.conf().getLayer().getMomentum(),
-                                    layer.conf().getLearningRateByParam(variable));
-                    break;
-                case ADAGRAD:
-                    updater = new AdaGrad(layer.conf().getLearningRateByParam(variable),
-                                    layer.conf().getLayer().getEpsilon());
-                    break;
-                case RMSPROP:
-                    updater = new org.nd4j.linalg.learning.RmsProp(layer.conf().getLearningRateByParam(variable),
-                                    layer.conf().getLayer().getRmsDecay(), layer.conf().getLayer().getEpsilon());
-                    break;
-                case NONE:
-                    updater = new NoOpUpdater();
-                    break;
-                case CUSTOM:
-                    throw new UnsupportedOperationException("Custom updaters: not yet implemented");
-                default:
-                    throw new IllegalArgumentException("Unknown updater: " + u);
-            }
+            updater = createUpdater(variable, layer);
             updaterForVariable.put(variable, updater);
         }
         return updater;
     }
 
+    /**
+     * Create a new GradientUpdater for the given variable, according to the current layer configuration
+     */
+    protected GradientUpdater createUpdater(String variable, Layer layer) {
+        GradientUpdater updater;
+        org.deeplearning4j.nn.conf.Updater u = layer.conf().getLayer().getUpdaterByParam(variable);
+        switch (u) {
+            case SGD:
+                updater = new org.nd4j.linalg.learning.Sgd(layer.conf().getLearningRateByParam(variable));
+                break;
+            case ADAM:
+                updater = new Adam(layer.conf().getLearningRateByParam(variable),
+                                layer.conf().getLayer().getAdamMeanDecay(),
+                                layer.conf().getLayer().getAdamVarDecay(), layer.conf().getLayer().getEpsilon());
+                break;
+            case ADADELTA:
+                updater = new AdaDelta(layer.conf().getLayer().getRho(), layer.conf().getLayer().getEpsilon());
+                break;
+            case NESTEROVS:
+                updater = new Nesterovs(layer.conf().getLayer().getMomentum(),
+                                layer.conf().getLearningRateByParam(variable));
+                break;
+            case ADAGRAD:
+                updater = new AdaGrad(layer.conf().getLearningRateByParam(variable),
+                                layer.conf().getLayer().getEpsilon());
+                break;
+            case RMSPROP:
+                updater = new org.nd4j.linalg.learning.RmsProp(layer.conf().getLearningRateByParam(variable),
+                                layer.conf().getLayer().getRmsDecay(), layer.conf().getLayer().getEpsilon());
+                break;
+            case NONE:
+                updater = new NoOpUpdater();
+                break;
+            case CUSTOM:
+                throw new UnsupportedOperationException("Custom updaters: not yet implemented");
+            default:
+                throw new IllegalArgumentException("Unknown updater: " + u);
+        }
+        return updater;
+    }
+
     @Override
     public boolean equals(Object other) {
         if (!(other instanceof LayerUpdater))
@@ -17,12 +17,15 @@ import java.util.Map;
 /**
  * MultiLayerUpdater: Gradient updater for MultiLayerNetworks.
  * Expects backprop gradients for all layers to be in single Gradient object,
- * keyed by "0_b", "1_w" etc., as per MultiLayerNetwork.backward()
+ * keyed by "0_b", "1_w" etc., as per MultiLayerNetwork.backward()<br>
+ * If {@link org.deeplearning4j.nn.conf.MultiLayerConfiguration#isFusedUpdater()} is set, updates are applied
+ * over blocks of the flattened gradients by a {@link FusedUpdater}
  */
 @EqualsAndHashCode
 @Getter
 public class MultiLayerUpdater implements Updater {
     private final Updater[] layerUpdaters;
+    private FusedUpdater fusedUpdater;
     private INDArray viewArray;
 
     public MultiLayerUpdater(MultiLayerNetwork network) {
@@ -41,11 +44,21 @@ public class MultiLayerUpdater implements Updater {
             updaterStateSize += layerUpdaters[i].stateSizeForLayer(layer);
         }
 
+        if (network.getLayerWiseConfigurations().isFusedUpdater()) {
+            fusedUpdater = new FusedUpdater(layers, layerKeys(layers.length), layerUpdaters);
+            updaterStateSize = fusedUpdater.stateSize();
+        }
+
         //Initialize the updater state:
         if (updaterStateSize > 0) {
             //May be 0 if all SGD updaters, for example
             viewArray = Nd4j.createUninitialized(new int[] {1, updaterStateSize}, Nd4j.order());
         }
+        if (fusedUpdater != null) {
+            if (viewArray != null)
+                fusedUpdater.setStateViewArray(layers, layerUpdaters, viewArray, true);
+            return;
+        }
         int soFar = 0;
         for (int i = 0; i < layers.length; i++) {
             int thisSize = layerUpdaters[i].stateSizeForLayer(layers[i]);
@@ -67,6 +80,11 @@ public class MultiLayerUpdater implements Updater {
             updaterStateSize += layerUpdaters[i].stateSizeForLayer(layers[i]);
         }
 
+        if (network.getLayerWiseConfigurations().isFusedUpdater()) {
+            fusedUpdater = new FusedUpdater(layers, layerKeys(layers.length), layerUpdaters);
+            updaterStateSize = fusedUpdater.stateSize();
+        }
+
         if (updaterState != null) {
             if (updaterState.length() != updaterStateSize) {
                 throw new IllegalStateException("Expected updater state with size " + updaterStateSize + ", got size "
@@ -74,6 +92,10 @@ public class MultiLayerUpdater implements Updater {
             }
             //Assign subsets to the various updaters, without initializing (overwriting) the layer values
             this.viewArray = updaterState;
+            if (fusedUpdater != null) {
+                fusedUpdater.setStateViewArray(layers, layerUpdaters, viewArray, false);
+                return;
+            }
             int soFar = 0;
             for (int i = 0; i < layers.length; i++) {
                 int thisSize = layerUpdaters[i].stateSizeForLayer(layers[i]);
@@ -90,6 +112,13 @@ public class MultiLayerUpdater implements Updater {
         }
     }
 
+    private static String[] layerKeys(int numLayers) {
+        String[] keys = new String[numLayers];
+        for (int i = 0; i < numLayers; i++)
+            keys[i] = String.valueOf(i);
+        return keys;
+    }
+
     @Override
     public void setStateViewArray(Layer layer, INDArray viewArray, boolean initialize) {
         if (this.viewArray.length() != viewArray.length())
@@ -115,6 +144,12 @@ public class MultiLayerUpdater implements Updater {
     public void update(Layer layer, Gradient gradient, int iteration, int batchSize) {
         MultiLayerNetwork mln = (MultiLayerNetwork) layer;
 
+        if (fusedUpdater != null) {
+            fusedUpdater.update(mln.getLayers(), layerUpdaters, mln.getFlattenedGradients(), gradient, iteration,
+                            batchSize);
+            return;
+        }
+
         Gradient[] layerGradients = new Gradient[layerUpdaters.length];
         for (int i = 0; i < layerGradients.length; i++)
             layerGradients[i] = new DefaultGradient();
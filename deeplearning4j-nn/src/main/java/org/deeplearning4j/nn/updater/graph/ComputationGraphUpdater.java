@@ -5,19 +5,26 @@ import org.deeplearning4j.nn.api.Updater;
 import org.deeplearning4j.nn.gradient.DefaultGradient;
 import org.deeplearning4j.nn.gradient.Gradient;
 import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.nn.graph.vertex.GraphVertex;
+import org.deeplearning4j.nn.updater.FusedUpdater;
 import org.deeplearning4j.nn.updater.UpdaterCreator;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.linalg.indexing.NDArrayIndex;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * Gradient updater for ComputationGraph.<br>
  * Note: ComputationGraph does not implement the Layer interface (due to multiple in/out etc), hence ComputationGraphUpdater
- * can't be defined as an {@link Updater}.
+ * can't be defined as an {@link Updater}.<br>
+ * If {@link org.deeplearning4j.nn.conf.ComputationGraphConfiguration#isFusedUpdater()} is set, updates are applied
+ * over blocks of the flattened gradients by a {@link FusedUpdater}. Layers are then taken in topological order (i.e.,
+ * the order in which parameters and gradients are flattened), and so is the updater state.
  *
  * @author Alex Black
  */
@@ -25,6 +32,8 @@ public class ComputationGraphUpdater implements Serializable, Cloneable {
 
     private final Updater[] layerUpdaters;
     private final Map<String, Integer> layerUpdatersMap;
+    private FusedUpdater fusedUpdater;
+    private int[] fusedLayerOrder;
     private INDArray viewArray;
 
     public ComputationGraphUpdater(ComputationGraph graph) {
@@ -41,11 +50,21 @@ public class ComputationGraphUpdater implements Serializable, Cloneable {
             i++;
         }
 
+        if (graph.getConfiguration().isFusedUpdater()) {
+            initFusedUpdater(graph);
+            updaterStateSize = fusedUpdater.stateSize();
+        }
+
         //Initialize the updater state
         if (updaterStateSize > 0) {
             //May be 0 if all SGD updaters, for example
             viewArray = Nd4j.createUninitialized(new int[] {1, updaterStateSize}, Nd4j.order());
         }
+        if (fusedUpdater != null) {
+            if (viewArray != null)
+                fusedUpdater.setStateViewArray(fusedLayers(graph), fusedLayerUpdaters(), viewArray, true);
+            return;
+        }
         int soFar = 0;
         i = 0;
         for (Layer layer : graph.getLayers()) {
@@ -72,6 +91,11 @@ public class ComputationGraphUpdater implements Serializable, Cloneable {
             layerUpdatersMap.put(layers[i].conf().getLayer().getLayerName(), i);
         }
 
+        if (graph.getConfiguration().isFusedUpdater()) {
+            initFusedUpdater(graph);
+            updaterStateSize = fusedUpdater.stateSize();
+        }
+
         if (updaterState != null) {
             if (updaterState.length() != updaterStateSize) {
                 throw new IllegalStateException("Expected updater state with size " + updaterStateSize + ", got size "
@@ -79,6 +103,10 @@ public class ComputationGraphUpdater implements Serializable, Cloneable {
             }
             //Assign subsets to the various updaters, without initializing (overwriting) the layer values
             this.viewArray = updaterState;
+            if (fusedUpdater != null) {
+                fusedUpdater.setStateViewArray(fusedLayers(graph), fusedLayerUpdaters(), viewArray, false);
+                return;
+            }
             int soFar = 0;
             for (int i = 0; i < layers.length; i++) {
                 int thisSize = layerUpdaters[i].stateSizeForLayer(layers[i]);
@@ -105,6 +133,48 @@ public class ComputationGraphUpdater implements Serializable, Cloneable {
         for (int i = 0; i < layerUpdaters.length; i++)
             layerUpdaters[i] = updater.layerUpdaters[i].clone();
         layerUpdatersMap = new HashMap<>(updater.layerUpdatersMap);
+        if (updater.fusedUpdater != null) {
+            fusedUpdater = updater.fusedUpdater.clone();
+            fusedLayerOrder = updater.fusedLayerOrder.clone();
+        }
+    }
+
+    /**
+     * Work out the layer order for the fused updater: layers of the graph (indices as per
+     * {@link ComputationGraph#getLayers()}) in topological order, as used for flattening the gradients
+     */
+    private void initFusedUpdater(ComputationGraph graph) {
+        GraphVertex[] vertices = graph.getVertices();
+        List<Integer> order = new ArrayList<>();
+        for (int vertexIdx : graph.topologicalSortOrder()) {
+            GraphVertex gv = vertices[vertexIdx];
+            if (gv.hasLayer())
+                order.add(layerUpdatersMap.get(gv.getVertexName()));
+        }
+        fusedLayerOrder = new int[order.size()];
+        for (int i = 0; i < fusedLayerOrder.length; i++)
+            fusedLayerOrder[i] = order.get(i);
+
+        Layer[] layers = fusedLayers(graph);
+        String[] layerKeys = new String[layers.length];
+        for (int i = 0; i < layers.length; i++)
+            layerKeys[i] = layers[i].conf().getLayer().getLayerName();
+        fusedUpdater = new FusedUpdater(layers, layerKeys, fusedLayerUpdaters());
+    }
+
+    private Layer[] fusedLayers(ComputationGraph graph) {
+        Layer[] graphLayers = graph.getLayers();
+        Layer[] layers = new Layer[fusedLayerOrder.length];
+        for (int i = 0; i < layers.length; i++)
+            layers[i] = graphLayers[fusedLayerOrder[i]];
+        return layers;
+    }
+
+    private Updater[] fusedLayerUpdaters() {
+        Updater[] updaters = new Updater[fusedLayerOrder.length];
+        for (int i = 0; i < updaters.length; i++)
+            updaters[i] = layerUpdaters[fusedLayerOrder[i]];
+        return updaters;
     }
 
     @Override
@@ -116,6 +186,12 @@ public class ComputationGraphUpdater implements Serializable, Cloneable {
      * Update the gradients for the given ComputationGraph
      */
     public void update(ComputationGraph graph, Gradient gradient, int iteration, int batchSize) {
+        if (fusedUpdater != null) {
+            fusedUpdater.update(fusedLayers(graph), fusedLayerUpdaters(), graph.getFlattenedGradients(), gradient,
+                            iteration, batchSize);
+            return;
+        }
+
         Map<String, Gradient> layerGradients = new HashMap<>();
 
         for (Map.Entry<String, INDArray> gradientPair : gradient.gradientForVariable().entrySet()) {
@@ -0,0 +1,101 @@
+package org.deeplearning4j.util;
+
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Conversion between single precision and IEEE 754 half precision (FP16) values, stored as shorts.
+ * Used to serialize parameters in half precision, independently of the global Nd4j data type.
+ */
+public class HalfPrecisionUtil {
+
+    private HalfPrecisionUtil() {}
+
+    /**
+     * Convert a float to half precision, following IEEE 754 round to nearest, ties to even. Finite values of magnitude
+     * 65520 or more (i.e., values that round above the largest half value 65504) become +/- infinity; they are not
+     * saturated to 65504. Values too small become (signed) zero.
+     */
+    public static short toHalf(float value) {
+        int bits = Float.floatToIntBits(value);
+        int sign = (bits >>> 16) & 0x8000;
+        int abs = bits & 0x7fffffff;
+
+        if (abs >= 0x7f800000)
+            return (short) (sign | 0x7c00 | (abs > 0x7f800000 ? 0x200 : 0)); //Infinity or NaN: keep NaN a NaN
+        if (abs >= 0x477ff000)
+            return (short) (sign | 0x7c00); //65520 or more: rounds to infinity
+        if (abs >= 0x38800000) {
+            //Normal half value: re-bias exponent, round to nearest even on the 13 dropped mantissa bits
+            int rebiased = abs - 0x38000000;
+            return (short) (sign | ((rebiased + 0xfff + ((rebiased >>> 13) & 1)) >>> 13));
+        }
+        if (abs <= 0x33000000)
+            return (short) sign; //Half of the smallest subnormal or less: zero (ties to even)
+
+        //Subnormal half value
+        int exponent = abs >>> 23;
+        int mantissa = (abs & 0x7fffff) | 0x800000;
+        int shift = 126 - exponent;
+        int result = mantissa >>> shift;
+        int remainder = mantissa & ((1 << shift) - 1);
+        int halfway = 1 << (shift - 1);
+        if (remainder > halfway || (remainder == halfway && (result & 1) != 0))
+            result++;
+        return (short) (sign | result);
+    }
+
+    /**
+     * Convert a half precision value (as returned by {@link #toHalf(float)}) to float
+     */
+    public static float toFloat(short half) {
+        int bits = half & 0xffff;
+        int mantissa = bits & 0x03ff;
+        int exponent = bits & 0x7c00;
+
+        if (exponent == 0x7c00) {
+            exponent = 0x3fc00; //Infinity or NaN
+        } else if (exponent != 0) {
+            exponent += 0x1c000; //Normal value: re-bias exponent
+        } else if (mantissa != 0) {
+            //Subnormal half value: normalize
+            exponent = 0x1c400;
+            do {
+                mantissa <<= 1;
+                exponent -= 0x400;
+            } while ((mantissa & 0x400) == 0);
+            mantissa &= 0x3ff;
+        }
+        return Float.intBitsToFloat((bits & 0x8000) << 16 | (exponent | mantissa) << 13);
+    }
+
+    /**
+     * Write the given row vector in half precision: length, followed by one short per value
+     */
+    public static void writeHalf(INDArray rowVector, DataOutputStream dos) throws IOException {
+        if (!rowVector.isRowVector())
+            throw new IllegalArgumentException(
+                            "Expected row vector; got array with shape " + Arrays.toString(rowVector.shape()));
+
+        float[] values = (rowVector.isView() ? rowVector.dup() : rowVector).data().asFloat();
+        dos.writeInt(values.length);
+        for (float f : values)
+            dos.writeShort(toHalf(f));
+    }
+
+    /**
+     * Read a row vector written by {@link #writeHalf(INDArray, DataOutputStream)}, in the global Nd4j data type
+     */
+    public static INDArray readHalf(DataInputStream dis) throws IOException {
+        int length = dis.readInt();
+        float[] values = new float[length];
+        for (int i = 0; i < length; i++)
+            values[i] = toFloat(dis.readShort());
+        return Nd4j.create(values, new int[] {1, length});
+    }
+}
@@ -0,0 +1,245 @@
+package org.deeplearning4j.util;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.deeplearning4j.nn.api.Layer;
+import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
+import org.deeplearning4j.nn.conf.InputPreProcessor;
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.graph.GraphVertex;
+import org.deeplearning4j.nn.conf.graph.LayerVertex;
+import org.deeplearning4j.nn.conf.layers.ActivationLayer;
+import org.deeplearning4j.nn.conf.layers.BatchNormalization;
+import org.deeplearning4j.nn.conf.layers.ConvolutionLayer;
+import org.deeplearning4j.nn.conf.layers.DenseLayer;
+import org.deeplearning4j.nn.conf.layers.DropoutLayer;
+import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.nn.params.BatchNormalizationParamInitializer;
+import org.deeplearning4j.nn.params.DefaultParamInitializer;
+import org.nd4j.linalg.activations.impl.ActivationIdentity;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ops.impl.broadcast.BroadcastMulOp;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.ops.transforms.Transforms;
+
+import java.util.*;
+
+/**
+ * Offline optimization of a trained network for inference. The returned network computes the same test-time output
+ * as the original one, with fewer layers:
+ * <ul>
+ * <li>{@link BatchNormalization} layers directly after a {@link DenseLayer} or {@link ConvolutionLayer} with identity
+ * activation are folded into the weights and biases of that layer, using the global mean/variance estimates</li>
+ * <li>{@link ActivationLayer}s directly after a dense or convolution layer with identity activation (for example,
+ * after a folded batch normalization layer) are fused into that layer</li>
+ * <li>{@link DropoutLayer}s are removed</li>
+ * </ul>
+ * Layers with an input preprocessor are not folded into the previous layer. The original network is not modified.
+ * The optimized network is meant for inference only: batch normalization can no longer be trained, and updater state
+ * is not copied.
+ */
+@Slf4j
+public class InferenceOptimizer {
+
+    private InferenceOptimizer() {}
+
+    /**
+     * Get an optimized copy of the given network, for inference
+     */
+    public static MultiLayerNetwork optimize(@NonNull MultiLayerNetwork network) {
+        MultiLayerConfiguration origConf = network.getLayerWiseConfigurations();
+        int nLayers = origConf.getConfs().size();
+
+        List<NeuralNetConfiguration> confs = new ArrayList<>();
+        List<Map<String, INDArray>> params = new ArrayList<>();
+        Map<Integer, InputPreProcessor> preProcessors = new HashMap<>();
+        InputPreProcessor pending = null; //Preprocessor of a removed dropout layer, to be applied to the next layer
+        for (int i = 0; i < nLayers; i++) {
+            NeuralNetConfiguration conf = origConf.getConf(i);
+            InputPreProcessor preProcessor = origConf.getInputPreProcess(i);
+            if (pending != null) {
+                preProcessor = pending;
+                pending = null;
+            }
+            int last = confs.size() - 1;
+
+            if (conf.getLayer() instanceof DropoutLayer && i < nLayers - 1
+                            && (preProcessor == null || origConf.getInputPreProcess(i + 1) == null)) {
+                pending = preProcessor;
+                continue;
+            }
+            if (preProcessor == null && last >= 0 && canFold(confs.get(last), conf)) {
+                fold(confs.get(last), params.get(last), conf, network.getLayer(i).paramTable());
+                continue;
+            }
+
+            confs.add(conf.clone());
+            params.add(copyParams(network.getLayer(i)));
+            if (preProcessor != null)
+                preProcessors.put(confs.size() - 1, preProcessor.clone());
+        }
+
+        MultiLayerConfiguration conf = origConf.clone();
+        conf.setConfs(confs);
+        conf.setInputPreProcessors(preProcessors);
+
+        MultiLayerNetwork optimized = new MultiLayerNetwork(conf);
+        optimized.init();
+        for (int i = 0; i < confs.size(); i++)
+            setParams(optimized.getLayer(i), params.get(i));
+
+        log.info("Optimized network for inference: {} layers -> {} layers", nLayers, confs.size());
+        return optimized;
+    }
+
+    /**
+     * Get an optimized copy of the given network, for inference
+     */
+    public static ComputationGraph optimize(@NonNull ComputationGraph network) {
+        ComputationGraphConfiguration conf = network.getConfiguration().clone();
+        Map<String, GraphVertex> vertices = conf.getVertices();
+        Map<String, List<String>> vertexInputs = conf.getVertexInputs();
+        int nVertices = vertices.size();
+
+        Map<String, Map<String, INDArray>> params = new HashMap<>();
+        for (Map.Entry<String, GraphVertex> entry : vertices.entrySet()) {
+            if (entry.getValue() instanceof LayerVertex)
+                params.put(entry.getKey(), copyParams(network.getLayer(entry.getKey())));
+        }
+
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (String name : new ArrayList<>(vertices.keySet())) {
+                if (!(vertices.get(name) instanceof LayerVertex))
+                    continue;
+                LayerVertex vertex = (LayerVertex) vertices.get(name);
+                List<String> inputs = vertexInputs.get(name);
+                if (vertex.getPreProcessor() != null || inputs == null || inputs.size() != 1)
+                    continue;
+                String inputName = inputs.get(0);
+                List<String> consumers = consumers(vertexInputs, name);
+
+                if (vertex.getLayerConf().getLayer() instanceof DropoutLayer
+                                && !conf.getNetworkOutputs().contains(name)) {
+                    //Connect the consumers of the dropout layer directly to its input
+                    for (String consumer : consumers)
+                        Collections.replaceAll(vertexInputs.get(consumer), name, inputName);
+                    vertices.remove(name);
+                    vertexInputs.remove(name);
+                    params.remove(name);
+                    conf.getCheckpointVertices().remove(name);
+                    changed = true;
+                    continue;
+                }
+
+                //Fold the (single) input layer into this vertex, keeping this vertex's name
+                GraphVertex input = vertices.get(inputName);
+                if (!(input instanceof LayerVertex) || conf.getNetworkOutputs().contains(inputName)
+                                || !consumers(vertexInputs, inputName).equals(Collections.singletonList(name)))
+                    continue;
+                LayerVertex inputVertex = (LayerVertex) input;
+                if (!canFold(inputVertex.getLayerConf(), vertex.getLayerConf()))
+                    continue;
+
+                fold(inputVertex.getLayerConf(), params.get(inputName), vertex.getLayerConf(), params.get(name));
+                NeuralNetConfiguration folded = inputVertex.getLayerConf();
+                folded.getLayer().setLayerName(name);
+                LayerVertex foldedVertex = new LayerVertex(folded, inputVertex.getPreProcessor());
+                foldedVertex.setOutputVertex(vertex.isOutputVertex());
+
+                vertices.put(name, foldedVertex);
+                vertexInputs.put(name, vertexInputs.get(inputName));
+                params.put(name, params.get(inputName));
+                vertices.remove(inputName);
+                vertexInputs.remove(inputName);
+                params.remove(inputName);
+                if (conf.getCheckpointVertices().remove(inputName) && !conf.getCheckpointVertices().contains(name))
+                    conf.getCheckpointVertices().add(name);
+                changed = true;
+            }
+        }
+
+        ComputationGraph optimized = new ComputationGraph(conf);
+        optimized.init();
+        for (Map.Entry<String, Map<String, INDArray>> entry : params.entrySet())
+            setParams(optimized.getLayer(entry.getKey()), entry.getValue());
+
+        log.info("Optimized network for inference: {} vertices -> {} vertices", nVertices, vertices.size());
+        return optimized;
+    }
+
+    private static List<String> consumers(Map<String, List<String>> vertexInputs, String vertexName) {
+        List<String> consumers = new ArrayList<>();
+        for (Map.Entry<String, List<String>> entry : vertexInputs.entrySet()) {
+            if (entry.getValue() != null && entry.getValue().contains(vertexName))
+                consumers.add(entry.getKey());
+        }
+        return consumers;
+    }
+
+    /**
+     * Whether the given batch normalization or activation layer can be folded into the previous layer: only dense and
+     * convolution layers with identity activation
+     */
+    private static boolean canFold(NeuralNetConfiguration previous, NeuralNetConfiguration conf) {
+        org.deeplearning4j.nn.conf.layers.Layer prevLayer = previous.getLayer();
+        boolean foldable = prevLayer.getClass() == DenseLayer.class || prevLayer.getClass() == ConvolutionLayer.class;
+        boolean foldInto = conf.getLayer() instanceof BatchNormalization || conf.getLayer() instanceof ActivationLayer;
+        return foldable && foldInto && prevLayer.getActivationFn() instanceof ActivationIdentity;
+    }
+
+    /**
+     * Fold the given batch normalization or activation layer into the previous (dense or convolution) layer: modifies
+     * the configuration and parameters of the previous layer in place
+     */
+    private static void fold(NeuralNetConfiguration previous, Map<String, INDArray> previousParams,
+                    NeuralNetConfiguration conf, Map<String, INDArray> layerParams) {
+        if (conf.getLayer() instanceof ActivationLayer) {
+            previous.getLayer().setActivationFn(conf.getLayer().getActivationFn().clone());
+            return;
+        }
+
+        //Test time batch norm: y = gamma * (x - mean) / sqrt(var) + beta, where var already includes epsilon
+        // With x = W.in + b: W' = W * s, b' = (b - mean) * s + beta, where s = gamma / sqrt(var) per output
+        BatchNormalization bn = (BatchNormalization) conf.getLayer();
+        INDArray mean = layerParams.get(BatchNormalizationParamInitializer.GLOBAL_MEAN);
+        INDArray std = Transforms.sqrt(layerParams.get(BatchNormalizationParamInitializer.GLOBAL_VAR), true);
+        INDArray scale;
+        INDArray shift;
+        if (bn.isLockGammaBeta()) {
+            //Same special case as BatchNormalization layer: fixed gamma/beta only applied if both are non-default
+            boolean apply = bn.getGamma() != 1.0 && bn.getBeta() != 0.0;
+            scale = Nd4j.valueArrayOf(mean.shape(), apply ? bn.getGamma() : 1.0).divi(std);
+            shift = Nd4j.valueArrayOf(mean.shape(), apply ? bn.getBeta() : 0.0);
+        } else {
+            scale = layerParams.get(BatchNormalizationParamInitializer.GAMMA).div(std);
+            shift = layerParams.get(BatchNormalizationParamInitializer.BETA).dup();
+        }
+
+        INDArray w = previousParams.get(DefaultParamInitializer.WEIGHT_KEY);
+        INDArray b = previousParams.get(DefaultParamInitializer.BIAS_KEY);
+        if (w.rank() == 2) {
+            //Dense: [nIn, nOut]
+            w.muliRowVector(scale);
+        } else {
+            //Convolution: [nOut, nIn, kH, kW]
+            Nd4j.getExecutioner().execAndReturn(new BroadcastMulOp(w, scale, w, 0));
+        }
+        b.subi(mean).muli(scale).addi(shift);
+    }
+
+    private static Map<String, INDArray> copyParams(Layer layer) {
+        Map<String, INDArray> params = new LinkedHashMap<>();
+        for (Map.Entry<String, INDArray> entry : layer.paramTable().entrySet())
+            params.put(entry.getKey(), entry.getValue().dup());
+        return params;
+    }
+
+    private static void setParams(Layer layer, Map<String, INDArray> params) {
+        for (Map.Entry<String, INDArray> entry : params.entrySet())
+            layer.getParam(entry.getKey()).assign(entry.getValue());
+    }
+}
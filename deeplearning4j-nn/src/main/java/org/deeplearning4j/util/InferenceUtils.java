@@ -0,0 +1,74 @@
+/*-
+ *  * Copyright 2017 Skymind,Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.deeplearning4j.util;
+
+import org.deeplearning4j.nn.api.Layer;
+import org.deeplearning4j.nn.api.layers.InferenceLayer;
+import org.deeplearning4j.nn.conf.InputPreProcessor;
+import org.deeplearning4j.nn.layers.FrozenLayer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+/**
+ * Utilities for the stateless inference forward pass: see
+ * {@link org.deeplearning4j.nn.multilayer.MultiLayerNetwork#outputStateless(INDArray)} and
+ * {@link org.deeplearning4j.nn.graph.ComputationGraph#outputStateless(INDArray...)}
+ */
+public class InferenceUtils {
+
+    private InferenceUtils() {}
+
+    /**
+     * Calculate the test-time activations of the given layer, after applying the (optional) preprocessor.<br>
+     * Layers implementing {@link InferenceLayer} are executed without any modification of layer state. All other
+     * layers fall back to {@link Layer#activate(INDArray, boolean)}, synchronized on the layer instance; the layer
+     * input and mask are cleared afterwards so that the activations are not retained by the layer.
+     *
+     * @param layer         Layer to activate
+     * @param preProcessor  Input preprocessor for the layer. May be null
+     * @param input         Input activations
+     * @param minibatchSize Minibatch size (used by the preprocessor)
+     * @return Layer activations
+     */
+    public static INDArray activate(Layer layer, InputPreProcessor preProcessor, INDArray input, int minibatchSize) {
+        if (preProcessor != null) {
+            input = preProcessor.preProcess(input, minibatchSize);
+        }
+        return activate(layer, input);
+    }
+
+    /**
+     * As per {@link #activate(Layer, InputPreProcessor, INDArray, int)} with no preprocessor
+     */
+    public static INDArray activate(Layer layer, INDArray input) {
+        Layer l = layer;
+        if (l instanceof FrozenLayer) {
+            //Frozen layers are identical to the underlying layer at test time
+            l = ((FrozenLayer) l).getInsideLayer();
+        }
+
+        if (l instanceof InferenceLayer) {
+            return ((InferenceLayer) l).activateInference(input);
+        }
+
+        synchronized (layer) {
+            INDArray out = layer.activate(input, false);
+            layer.setInput(null);
+            layer.setMaskArray(null);
+            return out;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package org.deeplearning4j.util;
+
+import org.deeplearning4j.nn.api.Layer;
+import org.deeplearning4j.nn.api.Model;
+import org.deeplearning4j.nn.conf.layers.BaseOutputLayer;
+import org.deeplearning4j.nn.conf.layers.ConvolutionLayer;
+import org.deeplearning4j.nn.conf.layers.DenseLayer;
+import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.nn.graph.vertex.GraphVertex;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.nn.params.DefaultParamInitializer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Int8 storage format for the weights of {@link DenseLayer}, {@link ConvolutionLayer} and output layers: symmetric
+ * quantization with one scale per output channel, weight = scale * q, with q in [-127, 127].<br>
+ * Weight ranges are described as int[] {offset, length, nOut}, relative to the network's flattened parameters.
+ * In both dense (nIn x nOut, 'f' order) and convolution (nOut x nIn x kH x kW, 'c' order) weights, each output
+ * channel is a contiguous block of length/nOut values.
+ */
+public class Int8QuantizationUtil {
+
+    private Int8QuantizationUtil() {}
+
+    /**
+     * Get the quantizable weight ranges of the given network, in the order of its flattened parameters
+     */
+    public static List<int[]> weightRanges(Model model) {
+        Layer[] layers;
+        if (model instanceof MultiLayerNetwork) {
+            layers = ((MultiLayerNetwork) model).getLayers();
+        } else if (model instanceof ComputationGraph) {
+            //Computation graph parameters are flattened in topological order
+            ComputationGraph graph = (ComputationGraph) model;
+            GraphVertex[] vertices = graph.getVertices();
+            List<Layer> list = new ArrayList<>();
+            for (int vertexIdx : graph.topologicalSortOrder()) {
+                if (vertices[vertexIdx].hasLayer())
+                    list.add(vertices[vertexIdx].getLayer());
+            }
+            layers = list.toArray(new Layer[list.size()]);
+        } else {
+            throw new IllegalArgumentException("Unsupported model type: " + model.getClass().getName());
+        }
+
+        List<int[]> ranges = new ArrayList<>();
+        int offset = 0;
+        for (Layer layer : layers) {
+            org.deeplearning4j.nn.conf.layers.Layer conf = layer.conf().getLayer();
+            boolean quantizable = conf instanceof DenseLayer || conf instanceof ConvolutionLayer
+                            || conf instanceof BaseOutputLayer;
+            for (Map.Entry<String, INDArray> entry : layer.paramTable().entrySet()) {
+                int length = entry.getValue().length();
+                if (quantizable && DefaultParamInitializer.WEIGHT_KEY.equals(entry.getKey())) {
+                    int nOut = ((org.deeplearning4j.nn.conf.layers.FeedForwardLayer) conf).getNOut();
+                    ranges.add(new int[] {offset, length, nOut});
+                }
+                offset += length;
+            }
+        }
+        return ranges;
+    }
+
+    /**
+     * Round the given weight ranges of the parameters to the values representable in the int8 storage format
+     * (i.e., scale * q), in place. The parameters keep their data type
+     */
+    public static void roundToInt8(INDArray params, List<int[]> ranges) {
+        float[] values = (params.isView() ? params.dup() : params).data().asFloat();
+
+        for (int[] range : ranges) {
+            int channelLength = range[1] / range[2];
+            for (int c = 0; c < range[2]; c++) {
+                int start = range[0] + c * channelLength;
+                float scale = scale(values, start, channelLength);
+                for (int i = start; i < start + channelLength; i++)
+                    values[i] = scale * toInt8(values[i], scale);
+            }
+        }
+        params.assign(Nd4j.create(values, params.shape()));
+    }
+
+    /**
+     * Write the given row vector of parameters: quantizable weight ranges as int8 values (plus one float scale per
+     * output channel), and all other values in single precision
+     */
+    public static void writeInt8(INDArray params, List<int[]> ranges, DataOutputStream dos) throws IOException {
+        if (!params.isRowVector())
+            throw new IllegalArgumentException(
+                            "Expected row vector; got array with shape " + Arrays.toString(params.shape()));
+
+        float[] values = (params.isView() ? params.dup() : params).data().asFloat();
+        dos.writeInt(values.length);
+        dos.writeInt(ranges.size());
+        int pos = 0;
+        for (int[] range : ranges) {
+            //Full precision values before this weight range
+            dos.writeInt(range[0] - pos);
+            for (int i = pos; i < range[0]; i++)
+                dos.writeFloat(values[i]);
+
+            dos.writeInt(range[1]);
+            dos.writeInt(range[2]);
+            int channelLength = range[1] / range[2];
+            for (int c = 0; c < range[2]; c++) {
+                int start = range[0] + c * channelLength;
+                float scale = scale(values, start, channelLength);
+                dos.writeFloat(scale);
+                for (int i = start; i < start + channelLength; i++)
+                    dos.writeByte(toInt8(values[i], scale));
+            }
+            pos = range[0] + range[1];
+        }
+        dos.writeInt(values.length - pos);
+        for (int i = pos; i < values.length; i++)
+            dos.writeFloat(values[i]);
+    }
+
+    /**
+     * Read a row vector written by {@link #writeInt8(INDArray, List, DataOutputStream)}, in the global Nd4j data
+     * type
+     */
+    public static INDArray readInt8(DataInputStream dis) throws IOException {
+        int length = dis.readInt();
+        int nRanges = dis.readInt();
+        float[] values = new float[length];
+        int pos = 0;
+        for (int r = 0; r < nRanges; r++) {
+            int nFull = dis.readInt();
+            for (int i = 0; i < nFull; i++)
+                values[pos++] = dis.readFloat();
+
+            int rangeLength = dis.readInt();
+            int nChannels = dis.readInt();
+            int channelLength = rangeLength / nChannels;
+            for (int c = 0; c < nChannels; c++) {
+                float scale = dis.readFloat();
+                for (int i = 0; i < channelLength; i++)
+                    values[pos++] = scale * dis.readByte();
+            }
+        }
+        int nFull = dis.readInt();
+        for (int i = 0; i < nFull; i++)
+            values[pos++] = dis.readFloat();
+
+        return Nd4j.create(values, new int[] {1, length});
+    }
+
+    private static float scale(float[] values, int start, int length) {
+        float maxAbs = 0.0f;
+        for (int i = start; i < start + length; i++)
+            maxAbs = Math.max(maxAbs, Math.abs(values[i]));
+        return maxAbs / 127.0f;
+    }
+
+    private static byte toInt8(float value, float scale) {
+        if (scale == 0.0f)
+            return 0;
+        return (byte) Math.max(-127, Math.min(127, Math.round(value / scale)));
+    }
+}
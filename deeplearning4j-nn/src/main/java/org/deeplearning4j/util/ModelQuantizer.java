@@ -0,0 +1,82 @@
+package org.deeplearning4j.util;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.deeplearning4j.berkeley.Pair;
+import org.deeplearning4j.eval.Evaluation;
+import org.deeplearning4j.nn.conf.PrecisionPolicy;
+import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
+
+/**
+ * Post-training conversion of a network to the int8 weight storage format, for inference.<br>
+ * The converted network is a copy of the original one, with the weights of dense, convolution and output layers
+ * rounded to values representable in int8 (one max-abs scale per output channel, derived from the weights alone),
+ * and {@link PrecisionPolicy#Int8SerializedWeights} set: it is saved by {@link ModelSerializer} with about 4x
+ * smaller weights, and computes exactly what the network restored from that file computes.<br>
+ * Only the storage format is int8: Nd4j uses one global data type, so in memory the weights (and all computation)
+ * stay in that data type, and activations are not quantized. Updater state is not copied.<br>
+ * Use {@link #evaluate(MultiLayerNetwork, MultiLayerNetwork, DataSetIterator)} on test data to check the accuracy of
+ * the converted network against the original network.
+ */
+@Slf4j
+public class ModelQuantizer {
+
+    private ModelQuantizer() {}
+
+    /**
+     * Get a copy of the given network in the int8 weight storage format. The original network is not modified.
+     */
+    public static MultiLayerNetwork toInt8Storage(@NonNull MultiLayerNetwork network) {
+        MultiLayerNetwork quantized = new MultiLayerNetwork(network.getLayerWiseConfigurations().clone());
+        quantized.init(network.params().dup(), false);
+        quantized.getLayerWiseConfigurations().setPrecisionPolicy(PrecisionPolicy.Int8SerializedWeights);
+        Int8QuantizationUtil.roundToInt8(quantized.params(), Int8QuantizationUtil.weightRanges(quantized));
+        return quantized;
+    }
+
+    /**
+     * Get a copy of the given network in the int8 weight storage format. The original network is not modified.
+     */
+    public static ComputationGraph toInt8Storage(@NonNull ComputationGraph network) {
+        ComputationGraph quantized = new ComputationGraph(network.getConfiguration().clone());
+        quantized.init(network.params().dup(), false);
+        quantized.getConfiguration().setPrecisionPolicy(PrecisionPolicy.Int8SerializedWeights);
+        Int8QuantizationUtil.roundToInt8(quantized.params(), Int8QuantizationUtil.weightRanges(quantized));
+        return quantized;
+    }
+
+    /**
+     * Evaluate the original and the int8 storage network on the given test data
+     *
+     * @return Evaluation of the original network (first) and of the int8 storage network (second)
+     */
+    public static Pair<Evaluation, Evaluation> evaluate(@NonNull MultiLayerNetwork original,
+                    @NonNull MultiLayerNetwork quantized, @NonNull DataSetIterator iterator) {
+        Evaluation originalEval = original.evaluate(iterator);
+        iterator.reset();
+        Evaluation quantizedEval = quantized.evaluate(iterator);
+        logAccuracy(originalEval, quantizedEval);
+        return new Pair<>(originalEval, quantizedEval);
+    }
+
+    /**
+     * Evaluate the original and the int8 storage network (single input, single output) on the given test data
+     *
+     * @return Evaluation of the original network (first) and of the int8 storage network (second)
+     */
+    public static Pair<Evaluation, Evaluation> evaluate(@NonNull ComputationGraph original,
+                    @NonNull ComputationGraph quantized, @NonNull DataSetIterator iterator) {
+        Evaluation originalEval = original.evaluate(iterator);
+        iterator.reset();
+        Evaluation quantizedEval = quantized.evaluate(iterator);
+        logAccuracy(originalEval, quantizedEval);
+        return new Pair<>(originalEval, quantizedEval);
+    }
+
+    private static void logAccuracy(Evaluation originalEval, Evaluation quantizedEval) {
+        log.info("Accuracy: original network = {}, int8 storage network = {}", originalEval.accuracy(),
+                        quantizedEval.accuracy());
+    }
+}
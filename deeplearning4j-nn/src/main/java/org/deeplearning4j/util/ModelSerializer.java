@@ -10,6 +10,7 @@ import org.deeplearning4j.nn.api.Model;
 import org.deeplearning4j.nn.api.Updater;
 import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
 import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.conf.PrecisionPolicy;
 import org.deeplearning4j.nn.conf.layers.RBM;
 import org.deeplearning4j.nn.graph.ComputationGraph;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
@@ -39,6 +40,9 @@ public class ModelSerializer {
     public static final String OLD_UPDATER_BIN = "updater.bin";
     public static final String UPDATER_BIN = "updaterState.bin";
     public static final String NORMALIZER_BIN = "normalizer.bin";
+    public static final String COEFFICIENTS_BIN = "coefficients.bin";
+    public static final String COEFFICIENTS_FP16_BIN = "coefficients_fp16.bin";
+    public static final String COEFFICIENTS_INT8_BIN = "coefficients_int8.bin";
 
     private ModelSerializer() {}
 
@@ -92,11 +96,34 @@ public class ModelSerializer {
         zipfile.write(json.getBytes());
 
         // Save parameters as binary
-        ZipEntry coefficients = new ZipEntry("coefficients.bin");
+        PrecisionPolicy precisionPolicy = PrecisionPolicy.Full;
+        if (model instanceof MultiLayerNetwork) {
+            precisionPolicy = ((MultiLayerNetwork) model).getLayerWiseConfigurations().getPrecisionPolicy();
+        } else if (model instanceof ComputationGraph) {
+            precisionPolicy = ((ComputationGraph) model).getConfiguration().getPrecisionPolicy();
+        }
+        String coefficientsName;
+        switch (precisionPolicy) {
+            case HalfSerializedParams:
+                coefficientsName = COEFFICIENTS_FP16_BIN;
+                break;
+            case Int8SerializedWeights:
+                coefficientsName = COEFFICIENTS_INT8_BIN;
+                break;
+            default:
+                coefficientsName = COEFFICIENTS_BIN;
+        }
+
+        ZipEntry coefficients = new ZipEntry(coefficientsName);
         zipfile.putNextEntry(coefficients);
         DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(zipfile));
         try {
-            Nd4j.write(model.params(), dos);
+            if (precisionPolicy == PrecisionPolicy.HalfSerializedParams)
+                HalfPrecisionUtil.writeHalf(model.params(), dos);
+            else if (precisionPolicy == PrecisionPolicy.Int8SerializedWeights)
+                Int8QuantizationUtil.writeInt8(model.params(), Int8QuantizationUtil.weightRanges(model), dos);
+            else
+                Nd4j.write(model.params(), dos);
         } finally {
             dos.flush();
             if(!saveUpdater) dos.close();
@@ -127,6 +154,29 @@ public class ModelSerializer {
         zipfile.close();
     }
 
+    /**
+     * Read parameters saved in half precision (see {@link PrecisionPolicy#HalfSerializedParams}) or with int8
+     * weights (see {@link PrecisionPolicy#Int8SerializedWeights}), if present
+     */
+    private static INDArray readReducedPrecisionCoefficients(ZipFile zipFile) throws IOException {
+        ZipEntry coefficients = zipFile.getEntry(COEFFICIENTS_FP16_BIN);
+        if (coefficients != null) {
+            try (DataInputStream dis =
+                            new DataInputStream(new BufferedInputStream(zipFile.getInputStream(coefficients)))) {
+                return HalfPrecisionUtil.readHalf(dis);
+            }
+        }
+
+        coefficients = zipFile.getEntry(COEFFICIENTS_INT8_BIN);
+        if (coefficients != null) {
+            try (DataInputStream dis =
+                            new DataInputStream(new BufferedInputStream(zipFile.getInputStream(coefficients)))) {
+                return Int8QuantizationUtil.readInt8(dis);
+            }
+        }
+        return null;
+    }
+
     /**
      * Load a multi layer network from a file
      *
@@ -181,7 +231,7 @@ public class ModelSerializer {
         }
 
 
-        ZipEntry coefficients = zipFile.getEntry("coefficients.bin");
+        ZipEntry coefficients = zipFile.getEntry(COEFFICIENTS_BIN);
         if (coefficients != null) {
             InputStream stream = zipFile.getInputStream(coefficients);
             DataInputStream dis = new DataInputStream(new BufferedInputStream(stream));
@@ -189,6 +239,9 @@ public class ModelSerializer {
 
             dis.close();
             gotCoefficients = true;
+        } else {
+            params = readReducedPrecisionCoefficients(zipFile);
+            gotCoefficients = params != null;
         }
 
         if (loadUpdater) {
@@ -398,7 +451,7 @@ public class ModelSerializer {
         }
 
 
-        ZipEntry coefficients = zipFile.getEntry("coefficients.bin");
+        ZipEntry coefficients = zipFile.getEntry(COEFFICIENTS_BIN);
         if (coefficients != null) {
             InputStream stream = zipFile.getInputStream(coefficients);
             DataInputStream dis = new DataInputStream(new BufferedInputStream(stream));
@@ -406,6 +459,9 @@ public class ModelSerializer {
 
             dis.close();
             gotCoefficients = true;
+        } else {
+            params = readReducedPrecisionCoefficients(zipFile);
+            gotCoefficients = params != null;
         }
 
 
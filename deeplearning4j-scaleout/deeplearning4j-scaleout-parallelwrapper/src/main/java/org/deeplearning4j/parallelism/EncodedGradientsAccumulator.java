@@ -0,0 +1,168 @@
+package org.deeplearning4j.parallelism;
+
+import lombok.NonNull;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class is shared accumulator for threshold-encoded updates, used by ParallelWrapper in
+ * {@link ParallelWrapper.TrainingMode#SHARED_GRADIENTS} mode.
+ *
+ * Each worker keeps a residual vector of its own updates that weren't shared yet. After each iteration, every
+ * element of the residual that is above threshold (by absolute value) is sent to all other workers as +threshold
+ * or -threshold, and subtracted from the residual. Messages are sparse: one int per element, holding (index + 1)
+ * with the sign of the update.
+ *
+ * There's no barrier involved: messages are put into lock-free per-worker queues, and each worker applies
+ * pending messages to its own parameters whenever it's done with its own iteration.
+ *
+ * Based on: Strom, 2015 - "Scalable Distributed DNN Training Using Commodity GPU Cloud Computing"
+ */
+public class EncodedGradientsAccumulator {
+    protected final int numWorkers;
+    protected final double threshold;
+    protected final ConcurrentLinkedQueue<int[]>[] queues;
+
+    protected final AtomicLong messagesSent = new AtomicLong(0);
+    protected final AtomicLong elementsSent = new AtomicLong(0);
+
+    @SuppressWarnings("unchecked")
+    public EncodedGradientsAccumulator(int numWorkers, double threshold) {
+        if (numWorkers < 1)
+            throw new IllegalArgumentException("Number of workers should be positive");
+        if (threshold <= 0.0)
+            throw new IllegalArgumentException("Threshold should be positive");
+
+        this.numWorkers = numWorkers;
+        this.threshold = threshold;
+        this.queues = new ConcurrentLinkedQueue[numWorkers];
+        for (int i = 0; i < numWorkers; i++) {
+            queues[i] = new ConcurrentLinkedQueue<>();
+        }
+    }
+
+    public double getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * This method adds given update to the residual of the worker, and encodes everything above threshold.
+     * Encoded elements are removed from the residual.
+     *
+     * @param update   update, as it was applied to the parameters: params -= update
+     * @param residual residual of the worker, should have the same length as update
+     * @return encoded message, possibly empty
+     */
+    public int[] encode(@NonNull INDArray update, @NonNull float[] residual) {
+        float[] u = toFloatArray(update);
+        if (u.length != residual.length)
+            throw new IllegalStateException("Update length [" + u.length + "] doesn't match residual length ["
+                            + residual.length + "]");
+
+        float t = (float) threshold;
+        int cnt = 0;
+        for (int i = 0; i < u.length; i++) {
+            float r = residual[i] + u[i];
+            residual[i] = r;
+            if (r >= t || r <= -t)
+                cnt++;
+        }
+
+        int[] message = new int[cnt];
+        int pos = 0;
+        for (int i = 0; i < residual.length && pos < cnt; i++) {
+            float r = residual[i];
+            if (r >= t) {
+                message[pos++] = i + 1;
+                residual[i] = r - t;
+            } else if (r <= -t) {
+                message[pos++] = -(i + 1);
+                residual[i] = r + t;
+            }
+        }
+        return message;
+    }
+
+    /**
+     * This method sends encoded message to all workers except the sender
+     *
+     * @param workerId sender
+     * @param message  encoded message
+     */
+    public void storeUpdate(int workerId, @NonNull int[] message) {
+        if (message.length == 0)
+            return;
+
+        for (int i = 0; i < numWorkers; i++) {
+            if (i != workerId)
+                queues[i].add(message);
+        }
+
+        messagesSent.incrementAndGet();
+        elementsSent.addAndGet(message.length);
+    }
+
+    /**
+     * This method returns true if there are messages pending for given worker
+     */
+    public boolean hasAnything(int workerId) {
+        return !queues[workerId].isEmpty();
+    }
+
+    /**
+     * This method decodes all pending messages for the given worker into the buffer, and subtracts them from params.
+     * Buffer is zeroed afterwards.
+     *
+     * @param workerId receiver
+     * @param params   parameters of the receiver
+     * @param buffer   decoding buffer, with length equal to the number of parameters
+     * @return number of messages applied
+     */
+    public int applyUpdates(int workerId, @NonNull INDArray params, @NonNull float[] buffer) {
+        int cnt = 0;
+        float t = (float) threshold;
+        int[] message;
+        while ((message = queues[workerId].poll()) != null) {
+            for (int e : message) {
+                if (e > 0)
+                    buffer[e - 1] += t;
+                else
+                    buffer[-e - 1] -= t;
+            }
+            cnt++;
+        }
+
+        if (cnt > 0) {
+            params.subi(Nd4j.create(buffer, params.shape()));
+            Arrays.fill(buffer, 0.0f);
+        }
+
+        return cnt;
+    }
+
+    /**
+     * This method drops all pending messages
+     */
+    public void reset() {
+        for (ConcurrentLinkedQueue<int[]> queue : queues) {
+            queue.clear();
+        }
+    }
+
+    /**
+     * Average number of elements per message sent so far
+     */
+    public double getAverageMessageSize() {
+        long m = messagesSent.get();
+        return m == 0 ? 0.0 : elementsSent.get() / (double) m;
+    }
+
+    protected static float[] toFloatArray(INDArray array) {
+        INDArray a = array.isView() || array.length() != array.data().length() ? array.dup() : array;
+        return a.data().asFloat();
+    }
+}
@@ -0,0 +1,412 @@
+package org.deeplearning4j.parallelism;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.deeplearning4j.nn.api.Model;
+import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ops.executioner.GridExecutioner;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.INDArrayIndex;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * This is simple data-parallel inference wrapper, suitable for serving a single model to many concurrent callers.
+ *
+ * Each worker thread holds its own replica of the model (obtained via clone()), so concurrent output() calls
+ * never touch the same layer instances. Small requests are coalesced into one minibatch (bounded by batchLimit
+ * examples and maxWaitMillis), executed on one replica, and the results are split back to each caller.
+ *
+ * PLEASE NOTE: requests can only be batched together if all their inputs have the same shape apart from
+ * the minibatch dimension. Incompatible requests are simply executed in separate batches.
+ */
+@Slf4j
+public class ParallelInference implements AutoCloseable {
+    protected Model model;
+    protected int workers;
+    protected int batchLimit;
+    protected long maxWaitMillis;
+    protected int queueLimit;
+
+    protected LinkedBlockingQueue<InferenceRequest> queue;
+    protected InferenceWorker zoo[];
+    protected AtomicBoolean isRunning = new AtomicBoolean(true);
+
+    // log uncaught exceptions
+    Thread.UncaughtExceptionHandler handler = new Thread.UncaughtExceptionHandler() {
+        public void uncaughtException(Thread th, Throwable ex) {
+            log.error("Uncaught exception: " + ex);
+        }
+    };
+
+    protected ParallelInference(Model model, int workers, int batchLimit, long maxWaitMillis, int queueLimit) {
+        if (!(model instanceof MultiLayerNetwork) && !(model instanceof ComputationGraph))
+            throw new IllegalArgumentException("ParallelInference supports MultiLayerNetwork and ComputationGraph only; got "
+                            + model.getClass().getName());
+
+        this.model = model;
+        this.workers = workers;
+        this.batchLimit = batchLimit;
+        this.maxWaitMillis = maxWaitMillis;
+        this.queueLimit = queueLimit;
+        this.queue = new LinkedBlockingQueue<>(queueLimit);
+
+        zoo = new InferenceWorker[workers];
+        for (int cnt = 0; cnt < workers; cnt++) {
+            zoo[cnt] = new InferenceWorker(cnt, replicate(model));
+            zoo[cnt].setUncaughtExceptionHandler(handler);
+
+            Nd4j.getAffinityManager().attachThreadToDevice(zoo[cnt], cnt % Nd4j.getAffinityManager().getNumberOfDevices());
+            zoo[cnt].start();
+        }
+    }
+
+    protected static Model replicate(Model model) {
+        if (model instanceof MultiLayerNetwork) {
+            return ((MultiLayerNetwork) model).clone();
+        } else {
+            return ((ComputationGraph) model).clone();
+        }
+    }
+
+    /**
+     * Generate predictions for the given input. This method is thread-safe, and may block until a worker
+     * becomes available.
+     *
+     * @param input input features, with the minibatch as dimension 0
+     * @return network output for the given input
+     */
+    public INDArray output(@NonNull INDArray input) {
+        return output(new INDArray[] {input})[0];
+    }
+
+    /**
+     * Generate predictions for the given inputs (one array per network input). This method is thread-safe.
+     *
+     * @param input input features, with the minibatch as dimension 0 of each array
+     * @return network outputs (one array per network output)
+     */
+    public INDArray[] output(@NonNull INDArray... input) {
+        if (!isRunning.get())
+            throw new IllegalStateException("ParallelInference was shut down");
+
+        if (model instanceof MultiLayerNetwork && input.length != 1)
+            throw new IllegalArgumentException("MultiLayerNetwork accepts exactly 1 input; got " + input.length);
+
+        // commit scheduled ops before handing the arrays over to another thread
+        if (Nd4j.getExecutioner() instanceof GridExecutioner)
+            ((GridExecutioner) Nd4j.getExecutioner()).flushQueueBlocking();
+
+        InferenceRequest request = new InferenceRequest(input);
+        try {
+            queue.put(request);
+
+            // close() could have drained the queue between the isRunning check above and put(): nobody is going
+            // to pick up this request then. If the request is still queued, it's ours to fail
+            if (!isRunning.get() && queue.remove(request))
+                request.fail(new IllegalStateException("ParallelInference was shut down"));
+
+            request.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+
+        if (request.exception != null)
+            throw new RuntimeException(request.exception);
+
+        return request.output;
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (isRunning.compareAndSet(true, false)) {
+            for (int i = 0; i < zoo.length; i++) {
+                zoo[i].shutdown();
+            }
+
+            // nobody is going to process leftovers now
+            InferenceRequest request;
+            while ((request = queue.poll()) != null) {
+                request.fail(new IllegalStateException("ParallelInference was shut down"));
+            }
+        }
+    }
+
+    /**
+     * This method causes all inference threads to stop
+     */
+    public void shutdown() {
+        try {
+            close();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static class Builder {
+        protected Model model;
+        protected int workers = Nd4j.getAffinityManager().getNumberOfDevices();
+        protected int batchLimit = 32;
+        protected long maxWaitMillis = 5;
+        protected int queueLimit = 64;
+
+        /**
+         * Build ParallelInference for MultiLayerNetwork or ComputationGraph
+         *
+         * @param model
+         */
+        public Builder(@NonNull Model model) {
+            this.model = model;
+        }
+
+        /**
+         * This method allows to configure number of workers (model replicas) that'll be used for inference
+         *
+         * Default value: number of devices
+         *
+         * @param num
+         * @return
+         */
+        public Builder workers(int num) {
+            if (num < 1)
+                throw new IllegalArgumentException("Number of workers can't be lower then 1!");
+
+            this.workers = num;
+            return this;
+        }
+
+        /**
+         * Maximum number of examples coalesced into one minibatch. Requests larger than this value are still
+         * executed, but never combined with other requests.
+         *
+         * Default value: 32. Use 1 to disable batching.
+         *
+         * @param limit
+         * @return
+         */
+        public Builder batchLimit(int limit) {
+            if (limit < 1)
+                throw new IllegalArgumentException("Batch limit can't be lower then 1!");
+
+            this.batchLimit = limit;
+            return this;
+        }
+
+        /**
+         * Maximum time a worker waits for further requests after it picked up the first one for a minibatch
+         *
+         * Default value: 5 ms
+         *
+         * @param millis 0 to only batch requests that are already queued
+         * @return
+         */
+        public Builder maxWaitMillis(long millis) {
+            if (millis < 0)
+                millis = 0;
+
+            this.maxWaitMillis = millis;
+            return this;
+        }
+
+        /**
+         * Maximum number of pending requests. Callers block in output() once this limit is reached.
+         *
+         * Default value: 64
+         *
+         * @param limit
+         * @return
+         */
+        public Builder queueLimit(int limit) {
+            if (limit < 1)
+                throw new IllegalArgumentException("Queue limit can't be lower then 1!");
+
+            this.queueLimit = limit;
+            return this;
+        }
+
+        /**
+         * This method returns ParallelInference instance
+         *
+         * @return
+         */
+        public ParallelInference build() {
+            return new ParallelInference(model, workers, batchLimit, maxWaitMillis, queueLimit);
+        }
+    }
+
+    protected static class InferenceRequest {
+        protected final INDArray[] input;
+        protected final CountDownLatch latch = new CountDownLatch(1);
+        protected volatile INDArray[] output;
+        protected volatile Exception exception;
+
+        protected InferenceRequest(INDArray[] input) {
+            this.input = input;
+        }
+
+        protected int size() {
+            return input[0].size(0);
+        }
+
+        /**
+         * Requests can be merged if all inputs have the same shape, apart from the minibatch dimension
+         */
+        protected boolean isCompatible(InferenceRequest other) {
+            if (other.input.length != input.length)
+                return false;
+
+            for (int i = 0; i < input.length; i++) {
+                int[] a = input[i].shape();
+                int[] b = other.input[i].shape();
+                if (a.length != b.length || !Arrays.equals(Arrays.copyOfRange(a, 1, a.length),
+                                Arrays.copyOfRange(b, 1, b.length)))
+                    return false;
+            }
+            return true;
+        }
+
+        protected void complete(INDArray[] output) {
+            this.output = output;
+            latch.countDown();
+        }
+
+        protected void fail(Exception e) {
+            this.exception = e;
+            latch.countDown();
+        }
+
+        protected void await() throws InterruptedException {
+            latch.await();
+        }
+    }
+
+    private class InferenceWorker extends Thread implements Runnable {
+        private final Model replicatedModel;
+        private final AtomicBoolean shouldStop = new AtomicBoolean(false);
+        // request that didn't fit into the previous batch, it opens the next one
+        private InferenceRequest carried;
+
+        public InferenceWorker(int threadId, Model replicatedModel) {
+            this.replicatedModel = replicatedModel;
+            this.setDaemon(true);
+            this.setName("ParallelInference worker " + threadId);
+        }
+
+        public void shutdown() {
+            shouldStop.set(true);
+        }
+
+        @Override
+        public void run() {
+            List<InferenceRequest> batch = new ArrayList<>();
+            while (!shouldStop.get() || carried != null) {
+                try {
+                    InferenceRequest first = carried;
+                    carried = null;
+                    if (first == null)
+                        first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null)
+                        continue;
+
+                    batch.clear();
+                    batch.add(first);
+                    collect(first, batch);
+                    process(batch);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+
+        /**
+         * Collects further compatible requests into the batch, until either batchLimit or maxWaitMillis is reached
+         */
+        private void collect(InferenceRequest first, List<InferenceRequest> batch) throws InterruptedException {
+            int size = first.size();
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+            while (size < batchLimit) {
+                long left = deadline - System.nanoTime();
+                InferenceRequest next = left > 0 ? queue.poll(left, TimeUnit.NANOSECONDS) : queue.poll();
+                if (next == null)
+                    break;
+
+                if (!first.isCompatible(next) || size + next.size() > batchLimit) {
+                    carried = next;
+                    break;
+                }
+
+                batch.add(next);
+                size += next.size();
+            }
+        }
+
+        private void process(List<InferenceRequest> batch) {
+            try {
+                INDArray[] input;
+                if (batch.size() == 1) {
+                    input = batch.get(0).input;
+                } else {
+                    int numInputs = batch.get(0).input.length;
+                    input = new INDArray[numInputs];
+                    for (int i = 0; i < numInputs; i++) {
+                        INDArray[] parts = new INDArray[batch.size()];
+                        for (int j = 0; j < parts.length; j++) {
+                            parts[j] = batch.get(j).input[i];
+                        }
+                        input[i] = Nd4j.concat(0, parts);
+                    }
+                }
+
+                INDArray[] output;
+                if (replicatedModel instanceof MultiLayerNetwork) {
+                    output = new INDArray[] {((MultiLayerNetwork) replicatedModel).output(input[0], false)};
+                } else {
+                    output = ((ComputationGraph) replicatedModel).output(false, input);
+                }
+
+                if (batch.size() == 1) {
+                    batch.get(0).complete(output);
+                } else {
+                    int offset = 0;
+                    for (InferenceRequest request : batch) {
+                        int size = request.size();
+                        INDArray[] split = new INDArray[output.length];
+                        for (int i = 0; i < output.length; i++) {
+                            split[i] = slice(output[i], offset, offset + size);
+                        }
+                        offset += size;
+                        request.complete(split);
+                    }
+                }
+
+                if (Nd4j.getExecutioner() instanceof GridExecutioner)
+                    ((GridExecutioner) Nd4j.getExecutioner()).flushQueueBlocking();
+            } catch (Exception e) {
+                log.error("Inference failed", e);
+                for (InferenceRequest request : batch) {
+                    request.fail(e);
+                }
+            }
+        }
+
+        private INDArray slice(INDArray array, int from, int to) {
+            INDArrayIndex[] indexes = new INDArrayIndex[array.rank()];
+            indexes[0] = NDArrayIndex.interval(from, to);
+            for (int i = 1; i < indexes.length; i++) {
+                indexes[i] = NDArrayIndex.all();
+            }
+            return array.get(indexes).dup();
+        }
+    }
+}
@@ -13,6 +13,7 @@ import org.deeplearning4j.nn.api.Model;
 import org.deeplearning4j.nn.api.Updater;
 import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
 import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.gradient.Gradient;
 import org.deeplearning4j.nn.graph.ComputationGraph;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
 import org.deeplearning4j.nn.updater.graph.ComputationGraphUpdater;
@@ -46,6 +47,18 @@ import java.util.concurrent.locks.LockSupport;
 // TODO: We want this thing to be NUMA-aware in foreseable future
 @Slf4j
 public class ParallelWrapper implements AutoCloseable {
+
+    /**
+     * AVERAGING: workers are synchronized every averagingFrequency iterations, and parameters (and optionally
+     * updater state) are averaged.<br>
+     * SHARED_GRADIENTS: workers never wait for each other. After each iteration, each worker sends the
+     * threshold-encoded part of its update to all other workers, and applies updates received from other workers
+     * to its own parameters. See {@link EncodedGradientsAccumulator}
+     */
+    public enum TrainingMode {
+        AVERAGING, SHARED_GRADIENTS
+    }
+
     protected Model model;
     protected int workers = 2;
     protected int prefetchSize = 2;
@@ -60,6 +73,9 @@ public class ParallelWrapper implements AutoCloseable {
     protected List<IterationListener> listeners = new ArrayList<>();
     protected StatsStorageRouter storageRouter;
     protected boolean isMQ;
+    protected TrainingMode trainingMode = TrainingMode.AVERAGING;
+    protected double gradientsThreshold = 1e-3;
+    protected EncodedGradientsAccumulator accumulator;
 
     // log uncaught exceptions
     Thread.UncaughtExceptionHandler handler = new Thread.UncaughtExceptionHandler() {
@@ -125,6 +141,9 @@ public class ParallelWrapper implements AutoCloseable {
     public synchronized void fit(@NonNull MultiDataSetIterator source) {
         stopFit.set(false);
         if (zoo == null) {
+            if (trainingMode == TrainingMode.SHARED_GRADIENTS)
+                accumulator = new EncodedGradientsAccumulator(workers, gradientsThreshold);
+
             zoo = new Trainer[workers];
             for (int cnt = 0; cnt < workers; cnt++) {
                 // we pass true here, to tell Trainer to use MultiDataSet queue for training
@@ -145,6 +164,11 @@ public class ParallelWrapper implements AutoCloseable {
         } else
             iterator = source;
 
+        if (trainingMode == TrainingMode.SHARED_GRADIENTS) {
+            fitSharedGradients(iterator);
+            return;
+        }
+
         AtomicInteger locker = new AtomicInteger(0);
 
         while (iterator.hasNext() && !stopFit.get()) {
@@ -206,6 +230,75 @@ public class ParallelWrapper implements AutoCloseable {
         //        iterationsCounter.set(0);
     }
 
+    /**
+     * Training loop for TrainingMode.SHARED_GRADIENTS: each DataSet/MultiDataSet goes to the first worker that
+     * has less than 2 pending batches, and there's no barrier between workers. Parameters are averaged once, at the
+     * end of the fit() call, to get rid of the differences caused by residuals not yet shared.
+     */
+    private void fitSharedGradients(Iterator<?> iterator) {
+        int next = 0;
+        while (iterator.hasNext() && !stopFit.get()) {
+            Object dataSet = iterator.next();
+
+            if (dataSet == null)
+                throw new ND4JIllegalStateException("You can't have NULL as DataSet");
+
+            if (zoo == null)
+                throw new IllegalStateException(
+                                "ParallelWrapper.shutdown() has been called too early and will fail from this point forward.");
+
+            // looking for worker with free slot, starting from the next one to keep the load even
+            int pos = -1;
+            while (pos < 0) {
+                for (int i = 0; i < workers; i++) {
+                    int cnt = (next + i) % workers;
+                    if (zoo[cnt].pending() < 2) {
+                        pos = cnt;
+                        break;
+                    }
+                }
+
+                if (pos < 0)
+                    LockSupport.parkNanos(50000L);
+            }
+            next = (pos + 1) % workers;
+
+            if (dataSet instanceof MultiDataSet) {
+                zoo[pos].feedMultiDataSet((MultiDataSet) dataSet);
+            } else {
+                zoo[pos].feedDataSet((DataSet) dataSet);
+            }
+
+            iterationsCounter.incrementAndGet();
+        }
+
+        for (int cnt = 0; cnt < workers; cnt++) {
+            zoo[cnt].waitTillRunning();
+        }
+
+        // all workers are idle now, so we can deliver leftovers from here
+        for (int cnt = 0; cnt < workers; cnt++) {
+            INDArray params = zoo[cnt].getModel().params();
+            accumulator.applyUpdates(cnt, params, new float[params.length()]);
+        }
+
+        double score = getScore(new AtomicInteger(workers));
+        if (model instanceof MultiLayerNetwork) {
+            ((MultiLayerNetwork) model).setScore(score);
+        } else if (model instanceof ComputationGraph) {
+            ((ComputationGraph) model).setScore(score);
+        }
+
+        if (legacyAveraging && Nd4j.getAffinityManager().getNumberOfDevices() > 1) {
+            for (int cnt = 0; cnt < workers; cnt++) {
+                zoo[cnt].updateModel(model);
+            }
+        }
+
+        log.debug("Iterations passed: {}; average message size: {}", iterationsCounter.get(),
+                        accumulator.getAverageMessageSize());
+    }
+
     private double getScore(AtomicInteger locker) {
         wasAveraged = true;
         double score = 0.0;
@@ -343,6 +436,9 @@ public class ParallelWrapper implements AutoCloseable {
     public synchronized void fit(@NonNull DataSetIterator source) {
         stopFit.set(false);
         if (zoo == null) {
+            if (trainingMode == TrainingMode.SHARED_GRADIENTS)
+                accumulator = new EncodedGradientsAccumulator(workers, gradientsThreshold);
+
             zoo = new Trainer[workers];
             for (int cnt = 0; cnt < workers; cnt++) {
                 zoo[cnt] = new Trainer(cnt, model, Nd4j.getAffinityManager().getDeviceForCurrentThread());
@@ -372,6 +468,11 @@ public class ParallelWrapper implements AutoCloseable {
         } else
             iterator = source;
 
+        if (trainingMode == TrainingMode.SHARED_GRADIENTS) {
+            fitSharedGradients(iterator);
+            return;
+        }
+
         AtomicInteger locker = new AtomicInteger(0);
         int whiles = 0;
         while (iterator.hasNext() && !stopFit.get()) {
@@ -474,6 +575,8 @@ public class ParallelWrapper implements AutoCloseable {
         protected boolean averageUpdaters = true;
         protected boolean legacyAveraging = true;
         protected boolean isMQ = false; // Nd4j.getAffinityManager().getNumberOfDevices() > 1;
+        protected TrainingMode trainingMode = TrainingMode.AVERAGING;
+        protected double gradientsThreshold = 1e-3;
 
         /**
          * Build ParallelWrapper for MultiLayerNetwork
@@ -572,6 +675,39 @@ public class ParallelWrapper implements AutoCloseable {
         }
 
 
+        /**
+         * This method allows to choose between parameters averaging and asynchronous gradients sharing.
+         *
+         * Default value: AVERAGING
+         *
+         * PLEASE NOTE: in SHARED_GRADIENTS mode averagingFrequency and averageUpdaters are ignored: each worker
+         * keeps its own updater state.
+         *
+         * @param mode
+         * @return
+         */
+        public Builder trainingMode(@NonNull TrainingMode mode) {
+            this.trainingMode = mode;
+            return this;
+        }
+
+        /**
+         * Threshold used for update encoding in SHARED_GRADIENTS mode. Only elements of the accumulated update
+         * above this value (by absolute value) are sent to other workers, as +threshold/-threshold.
+         *
+         * Default value: 1e-3
+         *
+         * @param threshold
+         * @return
+         */
+        public Builder gradientsThreshold(double threshold) {
+            if (threshold <= 0.0)
+                throw new IllegalArgumentException("Threshold should be positive");
+
+            this.gradientsThreshold = threshold;
+            return this;
+        }
+
         /**
          * This method enables/disables averaged model score reporting
          *
@@ -595,6 +731,8 @@ public class ParallelWrapper implements AutoCloseable {
             wrapper.averageUpdaters = this.averageUpdaters;
             wrapper.legacyAveraging = this.legacyAveraging;
             wrapper.isMQ = this.isMQ;
+            wrapper.trainingMode = this.trainingMode;
+            wrapper.gradientsThreshold = this.gradientsThreshold;
 
             return wrapper;
         }
@@ -695,6 +833,14 @@ public class ParallelWrapper implements AutoCloseable {
                 ((GridExecutioner) Nd4j.getExecutioner()).flushQueueBlocking();
         }
 
+        public int pending() {
+            // if Trainer thread got exception during training - rethrow it here
+            if (thrownException != null)
+                throw new RuntimeException(thrownException);
+
+            return running.get();
+        }
+
         public boolean isRunning() {
             // if Trainer thread got exception during training - rethrow it here
             if (thrownException != null)
@@ -735,6 +881,9 @@ public class ParallelWrapper implements AutoCloseable {
                             }
                         }
 
+                        if (accumulator != null)
+                            replicatedListeners.add(new SharedGradientsListener());
+
                         ((MultiLayerNetwork) this.replicatedModel).setListeners(replicatedListeners);
                     }
                 } else if (originalModel instanceof ComputationGraph) {
@@ -760,10 +909,17 @@ public class ParallelWrapper implements AutoCloseable {
                             }
                         }
 
+                        if (accumulator != null)
+                            replicatedListeners.add(new SharedGradientsListener());
+
                         ((ComputationGraph) this.replicatedModel).setListeners(replicatedListeners);
                     }
                 }
 
+                // in gradients sharing mode all workers should start from the same point
+                if (accumulator != null)
+                    replicatedModel.setParams(originalModel.params().dup());
+
                 if (!useMDS) {
                     while (!shouldStop.get()) {
                         DataSet dataSet = queue.poll(100, TimeUnit.MILLISECONDS);
@@ -806,6 +962,47 @@ public class ParallelWrapper implements AutoCloseable {
             }
         }
 
+        /**
+         * After each iteration of the replicated model: shares the encoded update with other workers, and applies
+         * updates received from them
+         */
+        private class SharedGradientsListener implements IterationListener {
+            private boolean invoked = false;
+            private float[] residual;
+            private float[] buffer;
+
+            @Override
+            public boolean invoked() {
+                return invoked;
+            }
+
+            @Override
+            public void invoke() {
+                invoked = true;
+            }
+
+            @Override
+            public void iterationDone(Model model, int iteration) {
+                // layerwise pretraining reports layers here, we only share updates of the whole model
+                if (model != replicatedModel)
+                    return;
+
+                invoke();
+                INDArray params = model.params();
+                if (residual == null) {
+                    residual = new float[params.length()];
+                    buffer = new float[params.length()];
+                }
+
+                // at this point gradient view holds the update that was just applied by the updater
+                Gradient gradient = model.gradient();
+                if (gradient != null && gradient.gradient() != null)
+                    accumulator.storeUpdate(threadId, accumulator.encode(gradient.gradient(), residual));
+
+                accumulator.applyUpdates(threadId, params, buffer);
+            }
+        }
+
         public void waitTillRunning() {
             while (running.get() != 0) {
 
@@ -0,0 +1,649 @@
+package org.deeplearning4j.parallelism;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.deeplearning4j.nn.api.Layer;
+import org.deeplearning4j.nn.api.Model;
+import org.deeplearning4j.nn.api.layers.RecurrentLayer;
+import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ops.executioner.GridExecutioner;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.INDArrayIndex;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * This is session-aware streaming inference wrapper for recurrent networks, i.e. rnnTimeStep() for many concurrent
+ * sessions (for example: users of a real-time sequence scoring service) sharing a single model.
+ *
+ * Instead of keeping one stored state per RNN layer, hidden and cell states of all sessions are kept in slabs
+ * (one [capacity, stateSize] array per layer and state key), indexed by the session's slot. Each step, the pending
+ * requests of distinct sessions are coalesced into one minibatch: their states are gathered from the slabs into the
+ * RNN layers, rnnTimeStep() is executed once, and the updated states are scattered back into the slabs.
+ *
+ * Sessions are sharded across workers by session id, each worker holding its own model replica and its own slabs.
+ * Steps of a single session are always executed in order. New sessions start from the default (zero) state.
+ *
+ * PLEASE NOTE: each request is one example (minibatch size 1) for one session, and requests can only be batched
+ * together if their inputs have the same shape (i.e., the same number of time steps).
+ */
+@Slf4j
+public class StreamingRnnInference implements AutoCloseable {
+    protected Model model;
+    protected int workers;
+    protected int batchLimit;
+    protected long maxWaitMillis;
+    protected int queueLimit;
+    protected int sessionCapacity;
+
+    protected StreamingWorker zoo[];
+    protected AtomicBoolean isRunning = new AtomicBoolean(true);
+
+    // log uncaught exceptions
+    Thread.UncaughtExceptionHandler handler = new Thread.UncaughtExceptionHandler() {
+        public void uncaughtException(Thread th, Throwable ex) {
+            log.error("Uncaught exception: " + ex);
+        }
+    };
+
+    protected StreamingRnnInference(Model model, int workers, int batchLimit, long maxWaitMillis, int queueLimit,
+                    int sessionCapacity) {
+        if (!(model instanceof MultiLayerNetwork) && !(model instanceof ComputationGraph))
+            throw new IllegalArgumentException(
+                            "StreamingRnnInference supports MultiLayerNetwork and ComputationGraph only; got "
+                                            + model.getClass().getName());
+
+        this.model = model;
+        this.workers = workers;
+        this.batchLimit = batchLimit;
+        this.maxWaitMillis = maxWaitMillis;
+        this.queueLimit = queueLimit;
+        this.sessionCapacity = sessionCapacity;
+
+        zoo = new StreamingWorker[workers];
+        for (int cnt = 0; cnt < workers; cnt++) {
+            zoo[cnt] = new StreamingWorker(cnt, ParallelInference.replicate(model));
+            zoo[cnt].setUncaughtExceptionHandler(handler);
+
+            Nd4j.getAffinityManager().attachThreadToDevice(zoo[cnt], cnt % Nd4j.getAffinityManager().getNumberOfDevices());
+            zoo[cnt].start();
+        }
+    }
+
+    /**
+     * Do a forward pass for the given session, using (and updating) the stored state of that session.
+     * This method is thread-safe, and blocks until the step was executed.
+     *
+     * @param sessionId id of the session. Sessions are created on first use
+     * @param input     input for a single example: [1, inputSize] for one time step, or
+     *                  [1, inputSize, timeSeriesLength] for multiple time steps
+     * @return network output, as per rnnTimeStep()
+     */
+    public INDArray output(long sessionId, @NonNull INDArray input) {
+        return output(sessionId, new INDArray[] {input})[0];
+    }
+
+    /**
+     * Do a forward pass for the given session, with one input array per network input. This method is thread-safe.
+     *
+     * @param sessionId id of the session. Sessions are created on first use
+     * @param input     inputs for a single example (minibatch size 1)
+     * @return network outputs (one array per network output)
+     */
+    public INDArray[] output(long sessionId, @NonNull INDArray... input) {
+        if (!isRunning.get())
+            throw new IllegalStateException("StreamingRnnInference was shut down");
+
+        if (model instanceof MultiLayerNetwork && input.length != 1)
+            throw new IllegalArgumentException("MultiLayerNetwork accepts exactly 1 input; got " + input.length);
+
+        for (INDArray in : input) {
+            if (in.size(0) != 1)
+                throw new IllegalArgumentException(
+                                "Expected input with minibatch size 1 for a single session; got " + in.size(0));
+        }
+
+        // commit scheduled ops before handing the arrays over to another thread
+        if (Nd4j.getExecutioner() instanceof GridExecutioner)
+            ((GridExecutioner) Nd4j.getExecutioner()).flushQueueBlocking();
+
+        StepRequest request = new StepRequest(sessionId, input);
+        try {
+            StreamingWorker worker = workerFor(sessionId);
+            worker.queue.put(request);
+
+            // close() could have drained the queue between the isRunning check above and put(): nobody is going
+            // to pick up this request then. If the request is still queued, it's ours to fail
+            if (!isRunning.get() && worker.queue.remove(request))
+                request.fail(new IllegalStateException("StreamingRnnInference was shut down"));
+
+            request.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+
+        if (request.exception != null)
+            throw new RuntimeException(request.exception);
+
+        return request.output;
+    }
+
+    /**
+     * Close the given session, releasing its state slot. Next output() call for the same id starts a new session.
+     *
+     * @param sessionId id of the session
+     */
+    public void closeSession(long sessionId) {
+        workerFor(sessionId).slab.release(sessionId);
+    }
+
+    /**
+     * @return number of sessions currently holding a state slot
+     */
+    public int numSessions() {
+        int count = 0;
+        for (StreamingWorker worker : zoo)
+            count += worker.slab.size();
+        return count;
+    }
+
+    protected StreamingWorker workerFor(long sessionId) {
+        int idx = (int) ((sessionId ^ (sessionId >>> 32)) & Integer.MAX_VALUE) % zoo.length;
+        return zoo[idx];
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (isRunning.compareAndSet(true, false)) {
+            for (int i = 0; i < zoo.length; i++) {
+                zoo[i].shutdown();
+            }
+
+            // nobody is going to process leftovers now
+            for (StreamingWorker worker : zoo) {
+                StepRequest request;
+                while ((request = worker.queue.poll()) != null) {
+                    request.fail(new IllegalStateException("StreamingRnnInference was shut down"));
+                }
+            }
+        }
+    }
+
+    /**
+     * This method causes all inference threads to stop
+     */
+    public void shutdown() {
+        try {
+            close();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static class Builder {
+        protected Model model;
+        protected int workers = Nd4j.getAffinityManager().getNumberOfDevices();
+        protected int batchLimit = 64;
+        protected long maxWaitMillis = 2;
+        protected int queueLimit = 256;
+        protected int sessionCapacity = 1024;
+
+        /**
+         * Build StreamingRnnInference for MultiLayerNetwork or ComputationGraph
+         *
+         * @param model
+         */
+        public Builder(@NonNull Model model) {
+            this.model = model;
+        }
+
+        /**
+         * This method allows to configure number of workers (model replicas) that'll be used for inference.
+         * Sessions are distributed across workers by id.
+         *
+         * Default value: number of devices
+         *
+         * @param num
+         * @return
+         */
+        public Builder workers(int num) {
+            if (num < 1)
+                throw new IllegalArgumentException("Number of workers can't be lower then 1!");
+
+            this.workers = num;
+            return this;
+        }
+
+        /**
+         * Maximum number of sessions stepped together in one minibatch
+         *
+         * Default value: 64. Use 1 to disable batching.
+         *
+         * @param limit
+         * @return
+         */
+        public Builder batchLimit(int limit) {
+            if (limit < 1)
+                throw new IllegalArgumentException("Batch limit can't be lower then 1!");
+
+            this.batchLimit = limit;
+            return this;
+        }
+
+        /**
+         * Maximum time a worker waits for further requests after it picked up the first one for a minibatch
+         *
+         * Default value: 2 ms
+         *
+         * @param millis 0 to only batch requests that are already queued
+         * @return
+         */
+        public Builder maxWaitMillis(long millis) {
+            if (millis < 0)
+                millis = 0;
+
+            this.maxWaitMillis = millis;
+            return this;
+        }
+
+        /**
+         * Maximum number of pending requests per worker. Callers block in output() once this limit is reached.
+         *
+         * Default value: 256
+         *
+         * @param limit
+         * @return
+         */
+        public Builder queueLimit(int limit) {
+            if (limit < 1)
+                throw new IllegalArgumentException("Queue limit can't be lower then 1!");
+
+            this.queueLimit = limit;
+            return this;
+        }
+
+        /**
+         * Initial number of session slots per worker. State slabs grow (doubling) when more sessions are open.
+         *
+         * Default value: 1024
+         *
+         * @param capacity
+         * @return
+         */
+        public Builder sessionCapacity(int capacity) {
+            if (capacity < 1)
+                throw new IllegalArgumentException("Session capacity can't be lower then 1!");
+
+            this.sessionCapacity = capacity;
+            return this;
+        }
+
+        /**
+         * This method returns StreamingRnnInference instance
+         *
+         * @return
+         */
+        public StreamingRnnInference build() {
+            return new StreamingRnnInference(model, workers, batchLimit, maxWaitMillis, queueLimit, sessionCapacity);
+        }
+    }
+
+    protected static class StepRequest {
+        protected final long sessionId;
+        protected final INDArray[] input;
+        protected final CountDownLatch latch = new CountDownLatch(1);
+        protected volatile INDArray[] output;
+        protected volatile Exception exception;
+
+        protected StepRequest(long sessionId, INDArray[] input) {
+            this.sessionId = sessionId;
+            this.input = input;
+        }
+
+        /**
+         * Requests can be merged if all inputs have the same shape, apart from the minibatch dimension
+         */
+        protected boolean isCompatible(StepRequest other) {
+            if (other.input.length != input.length)
+                return false;
+
+            for (int i = 0; i < input.length; i++) {
+                int[] a = input[i].shape();
+                int[] b = other.input[i].shape();
+                if (a.length != b.length || !Arrays.equals(Arrays.copyOfRange(a, 1, a.length),
+                                Arrays.copyOfRange(b, 1, b.length)))
+                    return false;
+            }
+            return true;
+        }
+
+        protected void complete(INDArray[] output) {
+            this.output = output;
+            latch.countDown();
+        }
+
+        protected void fail(Exception e) {
+            this.exception = e;
+            latch.countDown();
+        }
+
+        protected void await() throws InterruptedException {
+            latch.await();
+        }
+    }
+
+    /**
+     * Per-session RNN state storage: for each RNN layer and state key (for example GravesLSTM's "prevAct" and
+     * "prevMem"), one [capacity, stateSize] array, with one row per session slot. Slabs are allocated on the first
+     * step, once the state shapes are known. Rows of free slots are kept at zero, i.e., the default initial state.
+     */
+    protected static class SessionStateSlab {
+        private final Map<Long, Integer> slots = new HashMap<>();
+        private final Deque<Integer> freeSlots = new ArrayDeque<>();
+        private Map<String, Map<String, INDArray>> slabs;
+        private int capacity;
+        private int nextSlot;
+
+        protected SessionStateSlab(int capacity) {
+            this.capacity = capacity;
+        }
+
+        protected synchronized int size() {
+            return slots.size();
+        }
+
+        protected synchronized boolean isAllocated() {
+            return slabs != null;
+        }
+
+        /**
+         * Get the slot of the given session, assigning a new (zero state) slot for new sessions
+         */
+        protected synchronized int slotFor(long sessionId) {
+            Integer slot = slots.get(sessionId);
+            if (slot != null)
+                return slot;
+
+            if (!freeSlots.isEmpty()) {
+                slot = freeSlots.poll();
+            } else {
+                if (nextSlot == capacity)
+                    grow(2 * capacity);
+                slot = nextSlot++;
+            }
+            slots.put(sessionId, slot);
+            return slot;
+        }
+
+        protected synchronized void release(long sessionId) {
+            Integer slot = slots.remove(sessionId);
+            if (slot == null)
+                return;
+
+            if (slabs != null) {
+                for (Map<String, INDArray> layerSlabs : slabs.values())
+                    for (INDArray slab : layerSlabs.values())
+                        slab.getRow(slot).assign(0.0);
+            }
+            freeSlots.add(slot);
+        }
+
+        /**
+         * Gather the states of the given slots into one minibatch, per layer and state key
+         */
+        protected synchronized Map<String, Map<String, INDArray>> gather(int[] batchSlots) {
+            Map<String, Map<String, INDArray>> states = new LinkedHashMap<>();
+            for (Map.Entry<String, Map<String, INDArray>> layer : slabs.entrySet()) {
+                Map<String, INDArray> layerStates = new HashMap<>();
+                for (Map.Entry<String, INDArray> entry : layer.getValue().entrySet())
+                    layerStates.put(entry.getKey(), entry.getValue().getRows(batchSlots));
+                states.put(layer.getKey(), layerStates);
+            }
+            return states;
+        }
+
+        /**
+         * Scatter the states of the given slots (minibatch, per layer and state key) back into the slabs
+         */
+        protected synchronized void scatter(int[] batchSlots, Map<String, Map<String, INDArray>> states) {
+            if (slabs == null)
+                allocate(states);
+
+            for (Map.Entry<String, Map<String, INDArray>> layer : states.entrySet()) {
+                Map<String, INDArray> layerSlabs = slabs.get(layer.getKey());
+                for (Map.Entry<String, INDArray> entry : layer.getValue().entrySet()) {
+                    INDArray slab = layerSlabs.get(entry.getKey());
+                    INDArray state = entry.getValue();
+                    for (int i = 0; i < batchSlots.length; i++)
+                        slab.putRow(batchSlots[i], state.getRow(i));
+                }
+            }
+        }
+
+        private void allocate(Map<String, Map<String, INDArray>> states) {
+            slabs = new LinkedHashMap<>();
+            for (Map.Entry<String, Map<String, INDArray>> layer : states.entrySet()) {
+                Map<String, INDArray> layerSlabs = new HashMap<>();
+                for (Map.Entry<String, INDArray> entry : layer.getValue().entrySet()) {
+                    INDArray state = entry.getValue();
+                    if (state.rank() != 2)
+                        throw new UnsupportedOperationException("Only 2d RNN states are supported; got state \""
+                                        + entry.getKey() + "\" with shape " + Arrays.toString(state.shape())
+                                        + " for layer " + layer.getKey());
+                    layerSlabs.put(entry.getKey(), Nd4j.zeros(capacity, state.size(1)));
+                }
+                slabs.put(layer.getKey(), layerSlabs);
+            }
+        }
+
+        private void grow(int newCapacity) {
+            if (slabs != null) {
+                for (Map<String, INDArray> layerSlabs : slabs.values()) {
+                    for (Map.Entry<String, INDArray> entry : layerSlabs.entrySet()) {
+                        INDArray old = entry.getValue();
+                        INDArray bigger = Nd4j.zeros(newCapacity, old.size(1));
+                        bigger.get(NDArrayIndex.interval(0, capacity), NDArrayIndex.all()).assign(old);
+                        entry.setValue(bigger);
+                    }
+                }
+            }
+            capacity = newCapacity;
+        }
+    }
+
+    private class StreamingWorker extends Thread implements Runnable {
+        private final Model replicatedModel;
+        private final LinkedBlockingQueue<StepRequest> queue = new LinkedBlockingQueue<>(queueLimit);
+        private final SessionStateSlab slab = new SessionStateSlab(sessionCapacity);
+        private final AtomicBoolean shouldStop = new AtomicBoolean(false);
+        // request that didn't fit into the previous batch, it opens the next one
+        private StepRequest carried;
+
+        public StreamingWorker(int threadId, Model replicatedModel) {
+            this.replicatedModel = replicatedModel;
+            this.setDaemon(true);
+            this.setName("StreamingRnnInference worker " + threadId);
+        }
+
+        public void shutdown() {
+            shouldStop.set(true);
+        }
+
+        @Override
+        public void run() {
+            List<StepRequest> batch = new ArrayList<>();
+            while (!shouldStop.get() || carried != null) {
+                try {
+                    StepRequest first = carried;
+                    carried = null;
+                    if (first == null)
+                        first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null)
+                        continue;
+
+                    batch.clear();
+                    batch.add(first);
+                    collect(first, batch);
+                    process(batch);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+
+        /**
+         * Collects further compatible requests of other sessions into the batch, until either batchLimit or
+         * maxWaitMillis is reached. A second request for a session already in the batch closes the batch, so steps
+         * of each session are executed in order
+         */
+        private void collect(StepRequest first, List<StepRequest> batch) throws InterruptedException {
+            Set<Long> sessions = new HashSet<>();
+            sessions.add(first.sessionId);
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+            while (batch.size() < batchLimit) {
+                long left = deadline - System.nanoTime();
+                StepRequest next = left > 0 ? queue.poll(left, TimeUnit.NANOSECONDS) : queue.poll();
+                if (next == null)
+                    break;
+
+                if (!first.isCompatible(next) || !sessions.add(next.sessionId)) {
+                    carried = next;
+                    break;
+                }
+
+                batch.add(next);
+            }
+        }
+
+        private void process(List<StepRequest> batch) {
+            try {
+                INDArray[] output;
+                //Slots are held for the whole step, so closeSession() can't release a slot we're about to write
+                synchronized (slab) {
+                    output = step(batch);
+                }
+
+                for (int j = 0; j < batch.size(); j++) {
+                    INDArray[] split = new INDArray[output.length];
+                    for (int i = 0; i < output.length; i++) {
+                        split[i] = batch.size() == 1 ? output[i] : slice(output[i], j);
+                    }
+                    batch.get(j).complete(split);
+                }
+
+                if (Nd4j.getExecutioner() instanceof GridExecutioner)
+                    ((GridExecutioner) Nd4j.getExecutioner()).flushQueueBlocking();
+            } catch (Exception e) {
+                log.error("Inference failed", e);
+                for (StepRequest request : batch) {
+                    request.fail(e);
+                }
+            }
+        }
+
+        /**
+         * Gather the states of the batch sessions, do one rnnTimeStep() for the whole batch, and scatter the
+         * updated states back
+         */
+        private INDArray[] step(List<StepRequest> batch) {
+            int[] batchSlots = new int[batch.size()];
+            for (int i = 0; i < batchSlots.length; i++)
+                batchSlots[i] = slab.slotFor(batch.get(i).sessionId);
+
+            INDArray[] input;
+            if (batch.size() == 1) {
+                input = batch.get(0).input;
+            } else {
+                int numInputs = batch.get(0).input.length;
+                input = new INDArray[numInputs];
+                for (int i = 0; i < numInputs; i++) {
+                    INDArray[] parts = new INDArray[batch.size()];
+                    for (int j = 0; j < parts.length; j++) {
+                        parts[j] = batch.get(j).input[i];
+                    }
+                    input[i] = Nd4j.concat(0, parts);
+                }
+            }
+
+            if (slab.isAllocated()) {
+                setStates(slab.gather(batchSlots));
+            } else {
+                //No session was stepped yet: all of them start from the default state
+                clearStates();
+            }
+
+            INDArray[] output;
+            if (replicatedModel instanceof MultiLayerNetwork) {
+                output = new INDArray[] {((MultiLayerNetwork) replicatedModel).rnnTimeStep(input[0])};
+            } else {
+                output = ((ComputationGraph) replicatedModel).rnnTimeStep(input);
+            }
+
+            slab.scatter(batchSlots, getStates());
+            return output;
+        }
+
+        /**
+         * @return RNN layer states of the replica, keyed by layer index (MultiLayerNetwork) or name (ComputationGraph)
+         */
+        private Map<String, Map<String, INDArray>> getStates() {
+            if (replicatedModel instanceof ComputationGraph)
+                return ((ComputationGraph) replicatedModel).rnnGetPreviousStates();
+
+            MultiLayerNetwork network = (MultiLayerNetwork) replicatedModel;
+            Layer[] layers = network.getLayers();
+            Map<String, Map<String, INDArray>> states = new LinkedHashMap<>();
+            for (int i = 0; i < layers.length; i++) {
+                if (layers[i] instanceof RecurrentLayer)
+                    states.put(String.valueOf(i), network.rnnGetPreviousState(i));
+            }
+            return states;
+        }
+
+        private void setStates(Map<String, Map<String, INDArray>> states) {
+            if (replicatedModel instanceof ComputationGraph) {
+                ((ComputationGraph) replicatedModel).rnnSetPreviousStates(states);
+                return;
+            }
+
+            MultiLayerNetwork network = (MultiLayerNetwork) replicatedModel;
+            for (Map.Entry<String, Map<String, INDArray>> entry : states.entrySet())
+                network.rnnSetPreviousState(Integer.parseInt(entry.getKey()), entry.getValue());
+        }
+
+        private void clearStates() {
+            if (replicatedModel instanceof ComputationGraph) {
+                ((ComputationGraph) replicatedModel).rnnClearPreviousState();
+            } else {
+                ((MultiLayerNetwork) replicatedModel).rnnClearPreviousState();
+            }
+        }
+
+        private INDArray slice(INDArray array, int row) {
+            INDArrayIndex[] indexes = new INDArrayIndex[array.rank()];
+            indexes[0] = NDArrayIndex.interval(row, row + 1);
+            for (int i = 1; i < indexes.length; i++) {
+                indexes[i] = NDArrayIndex.all();
+            }
+            return array.get(indexes).dup();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package org.deeplearning4j.parallelism;
+
+import org.deeplearning4j.datasets.iterator.impl.IrisDataSetIterator;
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.Updater;
+import org.deeplearning4j.nn.conf.layers.DenseLayer;
+import org.deeplearning4j.nn.conf.layers.OutputLayer;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.nn.weights.WeightInit;
+import org.junit.Test;
+import org.nd4j.linalg.activations.Activation;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.lossfunctions.LossFunctions;
+
+import static org.junit.Assert.*;
+
+public class EncodedGradientsAccumulatorTest {
+
+    @Test
+    public void testEncodeDecode() {
+        EncodedGradientsAccumulator accumulator = new EncodedGradientsAccumulator(2, 0.1);
+        float[] residual = new float[4];
+
+        INDArray update = Nd4j.create(new float[] {0.25f, -0.15f, 0.05f, 0.0f});
+        int[] message = accumulator.encode(update, residual);
+        assertArrayEquals(new int[] {1, -2}, message);
+        assertArrayEquals(new float[] {0.15f, -0.05f, 0.05f, 0.0f}, residual, 1e-6f);
+
+        // residual is accumulated over iterations
+        message = accumulator.encode(Nd4j.create(new float[] {0.0f, 0.0f, 0.06f, 0.0f}), residual);
+        assertArrayEquals(new int[] {1, 3}, message);
+
+        accumulator.storeUpdate(0, message);
+        assertFalse(accumulator.hasAnything(0));
+        assertTrue(accumulator.hasAnything(1));
+
+        INDArray params = Nd4j.zeros(1, 4);
+        assertEquals(1, accumulator.applyUpdates(1, params, new float[4]));
+        assertEquals(Nd4j.create(new float[] {-0.1f, 0.0f, -0.1f, 0.0f}), params);
+        assertFalse(accumulator.hasAnything(1));
+    }
+
+    @Test
+    public void testSharedGradientsFit() {
+        Nd4j.getRandom().setSeed(12345);
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345).learningRate(0.1)
+                        .updater(Updater.NESTEROVS).momentum(0.9).weightInit(WeightInit.XAVIER).list()
+                        .layer(0, new DenseLayer.Builder().nIn(4).nOut(10).activation(Activation.TANH).build())
+                        .layer(1, new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT).nIn(10).nOut(3)
+                                        .activation(Activation.SOFTMAX).build())
+                        .backprop(true).pretrain(false).build();
+
+        MultiLayerNetwork model = new MultiLayerNetwork(conf);
+        model.init();
+
+        DataSetIterator iter = new IrisDataSetIterator(10, 150);
+        DataSet all = new IrisDataSetIterator(150, 150).next();
+        double scoreBefore = model.score(all);
+
+        ParallelWrapper wrapper = new ParallelWrapper.Builder<>(model).workers(4).prefetchBuffer(0)
+                        .trainingMode(ParallelWrapper.TrainingMode.SHARED_GRADIENTS).gradientsThreshold(1e-3)
+                        .build();
+
+        try {
+            for (int i = 0; i < 10; i++) {
+                wrapper.fit(iter);
+            }
+        } finally {
+            wrapper.shutdown();
+        }
+
+        double scoreAfter = model.score(all);
+        assertTrue("Score did not improve: " + scoreBefore + " -> " + scoreAfter, scoreAfter < scoreBefore);
+    }
+}
@@ -0,0 +1,133 @@
+package org.deeplearning4j.parallelism;
+
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.layers.DenseLayer;
+import org.deeplearning4j.nn.conf.layers.OutputLayer;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.nn.weights.WeightInit;
+import org.junit.Test;
+import org.nd4j.linalg.activations.Activation;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.lossfunctions.LossFunctions;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class ParallelInferenceTest {
+
+    private static MultiLayerNetwork getNetwork() {
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345).weightInit(WeightInit.XAVIER)
+                        .list()
+                        .layer(0, new DenseLayer.Builder().nIn(10).nOut(20).activation(Activation.TANH).build())
+                        .layer(1, new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT).nIn(20).nOut(5)
+                                        .activation(Activation.SOFTMAX).build())
+                        .backprop(true).pretrain(false).build();
+
+        MultiLayerNetwork net = new MultiLayerNetwork(conf);
+        net.init();
+        return net;
+    }
+
+    @Test
+    public void testOutputSingleThread() throws Exception {
+        MultiLayerNetwork net = getNetwork();
+        ParallelInference inference = new ParallelInference.Builder(net).workers(2).batchLimit(16).build();
+
+        INDArray input = Nd4j.rand(3, 10);
+        INDArray expected = net.output(input, false);
+
+        try {
+            assertEquals(expected, inference.output(input));
+        } finally {
+            inference.shutdown();
+        }
+    }
+
+    @Test
+    public void testOutputConcurrentBatching() throws Exception {
+        MultiLayerNetwork net = getNetwork();
+        final ParallelInference inference = new ParallelInference.Builder(net).workers(2).batchLimit(8)
+                        .maxWaitMillis(20).build();
+
+        int nThreads = 8;
+        final INDArray[] inputs = new INDArray[nThreads];
+        INDArray[] expected = new INDArray[nThreads];
+        for (int i = 0; i < nThreads; i++) {
+            inputs[i] = Nd4j.rand(1 + i % 3, 10);
+            expected[i] = net.output(inputs[i], false);
+        }
+
+        final INDArray[] actual = new INDArray[nThreads];
+        final AtomicInteger failures = new AtomicInteger(0);
+        Thread[] threads = new Thread[nThreads];
+        for (int i = 0; i < nThreads; i++) {
+            final int idx = i;
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        actual[idx] = inference.output(inputs[idx]);
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                    }
+                }
+            });
+            threads[i].start();
+        }
+
+        for (Thread t : threads) {
+            t.join();
+        }
+        inference.shutdown();
+
+        assertEquals(0, failures.get());
+        for (int i = 0; i < nThreads; i++) {
+            assertEquals(expected[i], actual[i]);
+        }
+    }
+
+    @Test(timeout = 60000L)
+    public void testCloseWhileOutputConcurrent() throws Exception {
+        MultiLayerNetwork net = getNetwork();
+        final INDArray input = Nd4j.rand(2, 10);
+
+        for (int iter = 0; iter < 20; iter++) {
+            final ParallelInference inference = new ParallelInference.Builder(net).workers(2).batchLimit(4)
+                            .maxWaitMillis(1).queueLimit(4).build();
+
+            //Callers must either get their output or an exception: none of them may hang after close()
+            int nThreads = 8;
+            final AtomicInteger completed = new AtomicInteger(0);
+            Thread[] threads = new Thread[nThreads];
+            for (int i = 0; i < nThreads; i++) {
+                threads[i] = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        for (int j = 0; j < 50; j++) {
+                            try {
+                                inference.output(input);
+                            } catch (Exception e) {
+                                //Expected once closed
+                            }
+                            completed.incrementAndGet();
+                        }
+                    }
+                });
+                threads[i].start();
+            }
+
+            Thread.sleep(iter % 5);
+            inference.close();
+
+            for (Thread t : threads) {
+                t.join(10000);
+                assertFalse("output() call did not return after close()", t.isAlive());
+            }
+            assertEquals(nThreads * 50, completed.get());
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package org.deeplearning4j.parallelism;
+
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.layers.GravesLSTM;
+import org.deeplearning4j.nn.conf.layers.RnnOutputLayer;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.nn.weights.WeightInit;
+import org.junit.Test;
+import org.nd4j.linalg.activations.Activation;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.lossfunctions.LossFunctions;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class StreamingRnnInferenceTest {
+
+    private static MultiLayerNetwork getNetwork() {
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345).weightInit(WeightInit.XAVIER)
+                        .list()
+                        .layer(0, new GravesLSTM.Builder().nIn(4).nOut(6).activation(Activation.TANH).build())
+                        .layer(1, new RnnOutputLayer.Builder(LossFunctions.LossFunction.MCXENT).nIn(6).nOut(3)
+                                        .activation(Activation.SOFTMAX).build())
+                        .backprop(true).pretrain(false).build();
+
+        MultiLayerNetwork net = new MultiLayerNetwork(conf);
+        net.init();
+        return net;
+    }
+
+    @Test
+    public void testSessionsInterleaved() throws Exception {
+        MultiLayerNetwork net = getNetwork();
+        StreamingRnnInference inference =
+                        new StreamingRnnInference.Builder(net).workers(1).sessionCapacity(1).build();
+
+        int nSessions = 3;
+        int nSteps = 4;
+        MultiLayerNetwork[] reference = new MultiLayerNetwork[nSessions];
+        for (int s = 0; s < nSessions; s++)
+            reference[s] = net.clone();
+
+        try {
+            for (int t = 0; t < nSteps; t++) {
+                for (int s = 0; s < nSessions; s++) {
+                    INDArray input = Nd4j.rand(1, 4);
+                    INDArray expected = reference[s].rnnTimeStep(input);
+                    assertEquals(expected, inference.output(s, input));
+                }
+            }
+            assertEquals(nSessions, inference.numSessions());
+
+            //Closed session starts over from the default state
+            inference.closeSession(1);
+            assertEquals(nSessions - 1, inference.numSessions());
+            reference[1].rnnClearPreviousState();
+            INDArray input = Nd4j.rand(1, 4);
+            assertEquals(reference[1].rnnTimeStep(input), inference.output(1, input));
+        } finally {
+            inference.shutdown();
+        }
+    }
+
+    @Test
+    public void testConcurrentSessionsBatching() throws Exception {
+        MultiLayerNetwork net = getNetwork();
+        final StreamingRnnInference inference = new StreamingRnnInference.Builder(net).workers(2).batchLimit(8)
+                        .maxWaitMillis(20).build();
+
+        final int nThreads = 8;
+        final int nSteps = 5;
+        final INDArray[][] inputs = new INDArray[nThreads][nSteps];
+        final INDArray[][] expected = new INDArray[nThreads][nSteps];
+        for (int i = 0; i < nThreads; i++) {
+            MultiLayerNetwork reference = net.clone();
+            for (int t = 0; t < nSteps; t++) {
+                inputs[i][t] = Nd4j.rand(new int[] {1, 4, 2});
+                expected[i][t] = reference.rnnTimeStep(inputs[i][t]);
+            }
+        }
+
+        final INDArray[][] actual = new INDArray[nThreads][nSteps];
+        final AtomicInteger failures = new AtomicInteger(0);
+        Thread[] threads = new Thread[nThreads];
+        for (int i = 0; i < nThreads; i++) {
+            final int session = i;
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (int t = 0; t < nSteps; t++)
+                            actual[session][t] = inference.output(session, inputs[session][t]);
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                    }
+                }
+            });
+            threads[i].start();
+        }
+
+        try {
+            for (Thread t : threads)
+                t.join();
+
+            assertEquals(0, failures.get());
+            for (int i = 0; i < nThreads; i++)
+                for (int t = 0; t < nSteps; t++)
+                    assertEquals(expected[i][t], actual[i][t]);
+        } finally {
+            inference.shutdown();
+        }
+    }
+
+    @Test(timeout = 60000L)
+    public void testCloseWhileOutputConcurrent() throws Exception {
+        MultiLayerNetwork net = getNetwork();
+
+        for (int iter = 0; iter < 20; iter++) {
+            final StreamingRnnInference inference = new StreamingRnnInference.Builder(net).workers(2).batchLimit(4)
+                            .maxWaitMillis(1).queueLimit(4).build();
+
+            //Callers must either get their output or an exception: none of them may hang after close()
+            int nThreads = 8;
+            final AtomicInteger completed = new AtomicInteger(0);
+            Thread[] threads = new Thread[nThreads];
+            for (int i = 0; i < nThreads; i++) {
+                final long sessionId = i;
+                threads[i] = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        for (int j = 0; j < 50; j++) {
+                            try {
+                                inference.output(sessionId, Nd4j.rand(1, 4));
+                            } catch (Exception e) {
+                                //Expected once closed
+                            }
+                            completed.incrementAndGet();
+                        }
+                    }
+                });
+                threads[i].start();
+            }
+
+            Thread.sleep(iter % 5);
+            inference.close();
+
+            for (Thread t : threads) {
+                t.join(10000);
+                assertFalse("output() call did not return after close()", t.isAlive());
+            }
+            assertEquals(nThreads * 50, completed.get());
+        }
+    }
+}
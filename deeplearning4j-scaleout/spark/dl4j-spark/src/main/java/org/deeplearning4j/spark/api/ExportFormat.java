@@ -0,0 +1,31 @@
+/*-
+ *  * Copyright 2016 Skymind,Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.deeplearning4j.spark.api;
+
+/**
+ * Format of the minibatches exported when training with {@link RDDTrainingApproach#Export}.
+ *
+ * <b>Serialized</b>: each minibatch is saved to its own file with {@code DataSet.save(OutputStream)}, and loaded with
+ * {@code DataSet.load(InputStream)} (default).
+ * <b>MemoryMapped</b>: minibatches are written as headered, aligned binary blocks, packed into large shard files.
+ * On a local file system, workers memory-map the blocks and wrap the features, labels and masks without
+ * deserializing them. Only supported for {@code RDD<DataSet>}: {@code RDD<MultiDataSet>} is always exported
+ * in the Serialized format.
+ */
+public enum ExportFormat {
+    Serialized, MemoryMapped
+}
@@ -22,21 +22,31 @@ public class CommonSparkTrainingStats implements SparkTrainingStats {
     public static final String FILENAME_GET_INITIAL_MODEL_STATS = "workerFlatMapGetInitialModelTimeMs.txt";
     public static final String FILENAME_DATASET_GET_TIME_STATS = "workerFlatMapDataSetGetTimesMs.txt";
     public static final String FILENAME_PROCESS_MINIBATCH_TIME_STATS = "workerFlatMapProcessMiniBatchTimesMs.txt";
+    public static final String FILENAME_PREFETCH_LOAD_WAIT_TIME_STATS = "workerFlatMapPrefetchLoadWaitTimesMs.txt";
 
     public static final String WORKER_FLAT_MAP_TOTAL_TIME_MS = "WorkerFlatMapTotalTimeMs";
     public static final String WORKER_FLAT_MAP_GET_INITIAL_MODEL_TIME_MS = "WorkerFlatMapGetInitialModelTimeMs";
     public static final String WORKER_FLAT_MAP_DATA_SET_GET_TIMES_MS = "WorkerFlatMapDataSetGetTimesMs";
     public static final String WORKER_FLAT_MAP_PROCESS_MINI_BATCH_TIMES_MS = "WorkerFlatMapProcessMiniBatchTimesMs";
-    private static Set<String> columnNames =
-                    Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(WORKER_FLAT_MAP_TOTAL_TIME_MS,
-                                    WORKER_FLAT_MAP_GET_INITIAL_MODEL_TIME_MS, WORKER_FLAT_MAP_DATA_SET_GET_TIMES_MS,
-                                    WORKER_FLAT_MAP_PROCESS_MINI_BATCH_TIMES_MS)));
+    /**
+     * Time spent waiting for the background loader threads, when loading serialized DataSets/MultiDataSets with
+     * prefetching. These waits happen on the asynchronous prefetch thread, not on the training thread: they show
+     * whether loading keeps up with the prefetch thread. Training thread stalls are given by
+     * {@link #WORKER_FLAT_MAP_DATA_SET_GET_TIMES_MS}
+     */
+    public static final String WORKER_FLAT_MAP_PREFETCH_LOAD_WAIT_TIMES_MS = "WorkerFlatMapPrefetchLoadWaitTimesMs";
+    private static Set<String> columnNames = Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(
+                    WORKER_FLAT_MAP_TOTAL_TIME_MS, WORKER_FLAT_MAP_GET_INITIAL_MODEL_TIME_MS,
+                    WORKER_FLAT_MAP_DATA_SET_GET_TIMES_MS, WORKER_FLAT_MAP_PROCESS_MINI_BATCH_TIMES_MS,
+                    WORKER_FLAT_MAP_PREFETCH_LOAD_WAIT_TIMES_MS)));
 
     private SparkTrainingStats trainingWorkerSpecificStats;
     private List<EventStats> workerFlatMapTotalTimeMs;
     private List<EventStats> workerFlatMapGetInitialModelTimeMs;
     private List<EventStats> workerFlatMapDataSetGetTimesMs;
     private List<EventStats> workerFlatMapProcessMiniBatchTimesMs;
+    /** Time spent waiting for data files to be opened, read and deserialized by the prefetching loader threads */
+    private List<EventStats> workerFlatMapPrefetchLoadWaitTimesMs;
 
 
 
@@ -50,6 +60,7 @@ public class CommonSparkTrainingStats implements SparkTrainingStats {
         this.workerFlatMapGetInitialModelTimeMs = builder.workerFlatMapGetInitialModelTimeMs;
         this.workerFlatMapDataSetGetTimesMs = builder.workerFlatMapDataSetGetTimesMs;
         this.workerFlatMapProcessMiniBatchTimesMs = builder.workerFlatMapProcessMiniBatchTimesMs;
+        this.workerFlatMapPrefetchLoadWaitTimesMs = builder.workerFlatMapPrefetchLoadWaitTimesMs;
     }
 
 
@@ -73,6 +84,8 @@ public class CommonSparkTrainingStats implements SparkTrainingStats {
                 return workerFlatMapDataSetGetTimesMs;
             case WORKER_FLAT_MAP_PROCESS_MINI_BATCH_TIMES_MS:
                 return workerFlatMapProcessMiniBatchTimesMs;
+            case WORKER_FLAT_MAP_PREFETCH_LOAD_WAIT_TIMES_MS:
+                return workerFlatMapPrefetchLoadWaitTimesMs;
             default:
                 if (trainingWorkerSpecificStats != null)
                     return trainingWorkerSpecificStats.getValue(key);
@@ -91,6 +104,8 @@ public class CommonSparkTrainingStats implements SparkTrainingStats {
                 return "GetDataSet";
             case WORKER_FLAT_MAP_PROCESS_MINI_BATCH_TIMES_MS:
                 return "ProcessBatch";
+            case WORKER_FLAT_MAP_PREFETCH_LOAD_WAIT_TIMES_MS:
+                return "PrefetchLoadWait";
             default:
                 if (trainingWorkerSpecificStats != null)
                     return trainingWorkerSpecificStats.getShortNameForKey(key);
@@ -106,6 +121,7 @@ public class CommonSparkTrainingStats implements SparkTrainingStats {
             case WORKER_FLAT_MAP_PROCESS_MINI_BATCH_TIMES_MS:
                 return false; //Covered by worker stats generally
             case WORKER_FLAT_MAP_DATA_SET_GET_TIMES_MS:
+            case WORKER_FLAT_MAP_PREFETCH_LOAD_WAIT_TIMES_MS:
                 return true;
             default:
                 if (trainingWorkerSpecificStats != null)
@@ -126,6 +142,10 @@ public class CommonSparkTrainingStats implements SparkTrainingStats {
         workerFlatMapGetInitialModelTimeMs.addAll(o.workerFlatMapGetInitialModelTimeMs);
         workerFlatMapDataSetGetTimesMs.addAll(o.workerFlatMapDataSetGetTimesMs);
         workerFlatMapProcessMiniBatchTimesMs.addAll(o.workerFlatMapProcessMiniBatchTimesMs);
+        if (workerFlatMapPrefetchLoadWaitTimesMs == null)
+            workerFlatMapPrefetchLoadWaitTimesMs = new ArrayList<>();
+        if (o.workerFlatMapPrefetchLoadWaitTimesMs != null)
+            workerFlatMapPrefetchLoadWaitTimesMs.addAll(o.workerFlatMapPrefetchLoadWaitTimesMs);
 
         if (trainingWorkerSpecificStats != null)
             trainingWorkerSpecificStats.addOtherTrainingStats(o.trainingWorkerSpecificStats);
@@ -168,6 +188,12 @@ public class CommonSparkTrainingStats implements SparkTrainingStats {
         else
             sb.append(StatsUtils.getDurationAsString(workerFlatMapProcessMiniBatchTimesMs, ",")).append("\n");
 
+        sb.append(String.format(f, WORKER_FLAT_MAP_PREFETCH_LOAD_WAIT_TIMES_MS));
+        if (workerFlatMapPrefetchLoadWaitTimesMs == null)
+            sb.append("-\n");
+        else
+            sb.append(StatsUtils.getDurationAsString(workerFlatMapPrefetchLoadWaitTimesMs, ",")).append("\n");
+
         if (trainingWorkerSpecificStats != null)
             sb.append(trainingWorkerSpecificStats.statsAsString()).append("\n");
 
@@ -195,6 +221,12 @@ public class CommonSparkTrainingStats implements SparkTrainingStats {
         String processMiniBatchStatsPath = FilenameUtils.concat(outputPath, FILENAME_PROCESS_MINIBATCH_TIME_STATS);
         StatsUtils.exportStats(workerFlatMapProcessMiniBatchTimesMs, processMiniBatchStatsPath, d, sc);
 
+        //Prefetch load wait time stats (waits for the loader threads, on the prefetch thread):
+        if (workerFlatMapPrefetchLoadWaitTimesMs != null) {
+            String loadWaitStatsPath = FilenameUtils.concat(outputPath, FILENAME_PREFETCH_LOAD_WAIT_TIME_STATS);
+            StatsUtils.exportStats(workerFlatMapPrefetchLoadWaitTimesMs, loadWaitStatsPath, d, sc);
+        }
+
         if (trainingWorkerSpecificStats != null)
             trainingWorkerSpecificStats.exportStatFiles(outputPath, sc);
     }
@@ -205,6 +237,7 @@ public class CommonSparkTrainingStats implements SparkTrainingStats {
         private List<EventStats> workerFlatMapGetInitialModelTimeMs;
         private List<EventStats> workerFlatMapDataSetGetTimesMs;
         private List<EventStats> workerFlatMapProcessMiniBatchTimesMs;
+        private List<EventStats> workerFlatMapPrefetchLoadWaitTimesMs;
 
         public Builder trainingMasterSpecificStats(SparkTrainingStats trainingMasterSpecificStats) {
             this.trainingMasterSpecificStats = trainingMasterSpecificStats;
@@ -231,6 +264,11 @@ public class CommonSparkTrainingStats implements SparkTrainingStats {
             return this;
         }
 
+        public Builder workerFlatMapPrefetchLoadWaitTimesMs(List<EventStats> workerFlatMapPrefetchLoadWaitTimesMs) {
+            this.workerFlatMapPrefetchLoadWaitTimesMs = workerFlatMapPrefetchLoadWaitTimesMs;
+            return this;
+        }
+
         public CommonSparkTrainingStats build() {
             return new CommonSparkTrainingStats(this);
         }
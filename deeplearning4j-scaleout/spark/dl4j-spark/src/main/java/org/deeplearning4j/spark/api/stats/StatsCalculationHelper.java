@@ -26,6 +26,7 @@ public class StatsCalculationHelper {
     private int totalExampleCount;
     private List<EventStats> dataSetGetTimes = new ArrayList<>();
     private List<EventStats> processMiniBatchTimes = new ArrayList<>();
+    private List<EventStats> loadWaitTimes;
 
     private TimeSource timeSource = TimeSourceProvider.getInstance();
 
@@ -66,16 +67,34 @@ public class StatsCalculationHelper {
         processMiniBatchTimes.add(new BaseEventStats(lastProcessBefore, duration));
     }
 
+    /**
+     * Set the load wait times, as recorded by a {@link org.deeplearning4j.spark.iterator.PrefetchingIterator}.
+     * These are waits of the thread consuming that iterator (the asynchronous prefetch thread), not of the training
+     * thread.
+     * The list may still be appended to (by another thread) until {@link #build(SparkTrainingStats)} is called, and
+     * hence must be a synchronized list
+     */
+    public void setPrefetchLoadWaitTimes(List<EventStats> loadWaitTimes) {
+        this.loadWaitTimes = loadWaitTimes;
+    }
+
     public CommonSparkTrainingStats build(SparkTrainingStats masterSpecificStats) {
 
         List<EventStats> totalTime = new ArrayList<>();
         totalTime.add(new ExampleCountEventStats(methodStartTime, returnTime - methodStartTime, totalExampleCount));
         List<EventStats> initTime = new ArrayList<>();
         initTime.add(new BaseEventStats(initalModelBefore, initialModelAfter - initalModelBefore));
+        List<EventStats> loadWait = new ArrayList<>();
+        if (loadWaitTimes != null) {
+            synchronized (loadWaitTimes) {
+                loadWait.addAll(loadWaitTimes);
+            }
+        }
 
         return new CommonSparkTrainingStats.Builder().trainingMasterSpecificStats(masterSpecificStats)
                         .workerFlatMapTotalTimeMs(totalTime).workerFlatMapGetInitialModelTimeMs(initTime)
                         .workerFlatMapDataSetGetTimesMs(dataSetGetTimes)
-                        .workerFlatMapProcessMiniBatchTimesMs(processMiniBatchTimes).build();
+                        .workerFlatMapProcessMiniBatchTimesMs(processMiniBatchTimes)
+                        .workerFlatMapPrefetchLoadWaitTimesMs(loadWait).build();
     }
 }
@@ -12,6 +12,7 @@ import org.deeplearning4j.spark.api.TrainingWorker;
 import org.deeplearning4j.spark.api.WorkerConfiguration;
 import org.deeplearning4j.spark.api.stats.SparkTrainingStats;
 import org.deeplearning4j.spark.api.stats.StatsCalculationHelper;
+import org.deeplearning4j.spark.iterator.PrefetchingIterator;
 import org.nd4j.linalg.api.ops.executioner.GridExecutioner;
 import org.nd4j.linalg.dataset.DataSet;
 import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
@@ -57,6 +58,8 @@ class ExecuteWorkerFlatMapAdapter<R extends TrainingResult> implements FlatMapFu
         StatsCalculationHelper s = (stats ? new StatsCalculationHelper() : null);
         if (stats)
             s.logMethodStartTime();
+        if (stats && dataSetIterator instanceof PrefetchingIterator)
+            s.setPrefetchLoadWaitTimes(((PrefetchingIterator<?, ?>) dataSetIterator).getLoadWaitTimes());
 
         if (!dataSetIterator.hasNext()) {
             if (stats) {
@@ -11,6 +11,7 @@ import org.deeplearning4j.spark.api.TrainingWorker;
 import org.deeplearning4j.spark.api.WorkerConfiguration;
 import org.deeplearning4j.spark.api.stats.SparkTrainingStats;
 import org.deeplearning4j.spark.api.stats.StatsCalculationHelper;
+import org.deeplearning4j.spark.iterator.PrefetchingIterator;
 import org.nd4j.linalg.api.ops.executioner.GridExecutioner;
 import org.nd4j.linalg.dataset.api.MultiDataSet;
 import org.nd4j.linalg.dataset.api.iterator.MultiDataSetIterator;
@@ -55,6 +56,8 @@ class ExecuteWorkerMultiDataSetFlatMapAdapter<R extends TrainingResult>
         StatsCalculationHelper s = (stats ? new StatsCalculationHelper() : null);
         if (stats)
             s.logMethodStartTime();
+        if (stats && dataSetIterator instanceof PrefetchingIterator)
+            s.setPrefetchLoadWaitTimes(((PrefetchingIterator<?, ?>) dataSetIterator).getLoadWaitTimes());
 
         if (!dataSetIterator.hasNext()) {
             if (stats)
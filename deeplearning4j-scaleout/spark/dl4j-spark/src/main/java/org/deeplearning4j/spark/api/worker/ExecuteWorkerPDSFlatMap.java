@@ -5,7 +5,9 @@ import org.datavec.spark.functions.FlatMapFunctionAdapter;
 import org.datavec.spark.transform.BaseFlatMapFunctionAdaptee;
 import org.deeplearning4j.spark.api.TrainingResult;
 import org.deeplearning4j.spark.api.TrainingWorker;
+import org.deeplearning4j.spark.api.WorkerConfiguration;
 import org.deeplearning4j.spark.iterator.PortableDataStreamDataSetIterator;
+import org.deeplearning4j.spark.iterator.PrefetchingIterator;
 import org.nd4j.linalg.dataset.DataSet;
 
 import java.util.Iterator;
@@ -27,20 +29,35 @@ public class ExecuteWorkerPDSFlatMap<R extends TrainingResult>
 
 /**
  * A FlatMapFunction for executing training on serialized DataSet objects, that can be loaded using a PortableDataStream
- * Used in both SparkDl4jMultiLayer and SparkComputationGraph implementations
+ * Used in both SparkDl4jMultiLayer and SparkComputationGraph implementations.<br>
+ * If the worker prefetch count is > 0, the PortableDataStreams are opened and deserialized ahead of time in background
+ * threads, with a {@link PrefetchingIterator}
  *
  * @author Alex Black
  */
 class ExecuteWorkerPDSFlatMapAdapter<R extends TrainingResult>
                 implements FlatMapFunctionAdapter<Iterator<PortableDataStream>, R> {
+    private final TrainingWorker<R> worker;
     private final FlatMapFunctionAdapter<Iterator<DataSet>, R> workerFlatMap;
 
     public ExecuteWorkerPDSFlatMapAdapter(TrainingWorker<R> worker) {
+        this.worker = worker;
         this.workerFlatMap = new ExecuteWorkerFlatMapAdapter<>(worker);
     }
 
     @Override
     public Iterable<R> call(Iterator<PortableDataStream> iter) throws Exception {
-        return workerFlatMap.call(new PortableDataStreamDataSetIterator(iter));
+        WorkerConfiguration dataConfig = worker.getDataConfiguration();
+        int prefetchCount = dataConfig.getPrefetchNumBatches();
+        if (prefetchCount <= 0)
+            return workerFlatMap.call(new PortableDataStreamDataSetIterator(iter));
+
+        PrefetchingIterator<PortableDataStream, DataSet> prefetchIter =
+                        PrefetchingIterator.forDataSets(iter, prefetchCount, dataConfig.isCollectTrainingStats());
+        try {
+            return workerFlatMap.call(prefetchIter);
+        } finally {
+            prefetchIter.shutdown();
+        }
     }
 }
@@ -5,7 +5,9 @@ import org.datavec.spark.functions.FlatMapFunctionAdapter;
 import org.datavec.spark.transform.BaseFlatMapFunctionAdaptee;
 import org.deeplearning4j.spark.api.TrainingResult;
 import org.deeplearning4j.spark.api.TrainingWorker;
+import org.deeplearning4j.spark.api.WorkerConfiguration;
 import org.deeplearning4j.spark.iterator.PortableDataStreamMultiDataSetIterator;
+import org.deeplearning4j.spark.iterator.PrefetchingIterator;
 import org.nd4j.linalg.dataset.api.MultiDataSet;
 
 import java.util.Iterator;
@@ -27,20 +29,35 @@ public class ExecuteWorkerPDSMDSFlatMap<R extends TrainingResult>
 
 /**
  * A FlatMapFunction for executing training on serialized MultiDataSet objects, that can be loaded using a PortableDataStream
- * Used for SparkComputationGraph implementations only
+ * Used for SparkComputationGraph implementations only.<br>
+ * If the worker prefetch count is > 0, the PortableDataStreams are loaded in background threads, with a
+ * {@link PrefetchingIterator}
  *
  * @author Alex Black
  */
 class ExecuteWorkerPDSMDSFlatMapAdapter<R extends TrainingResult>
                 implements FlatMapFunctionAdapter<Iterator<PortableDataStream>, R> {
+    private final TrainingWorker<R> worker;
     private final FlatMapFunctionAdapter<Iterator<MultiDataSet>, R> workerFlatMap;
 
     public ExecuteWorkerPDSMDSFlatMapAdapter(TrainingWorker<R> worker) {
+        this.worker = worker;
         this.workerFlatMap = new ExecuteWorkerMultiDataSetFlatMapAdapter<>(worker);
     }
 
     @Override
     public Iterable<R> call(Iterator<PortableDataStream> iter) throws Exception {
-        return workerFlatMap.call(new PortableDataStreamMultiDataSetIterator(iter));
+        WorkerConfiguration dataConfig = worker.getDataConfiguration();
+        int prefetchCount = dataConfig.getPrefetchNumBatches();
+        if (prefetchCount <= 0)
+            return workerFlatMap.call(new PortableDataStreamMultiDataSetIterator(iter));
+
+        PrefetchingIterator<PortableDataStream, MultiDataSet> prefetchIter = PrefetchingIterator
+                        .forMultiDataSets(iter, prefetchCount, dataConfig.isCollectTrainingStats());
+        try {
+            return workerFlatMap.call(prefetchIter);
+        } finally {
+            prefetchIter.shutdown();
+        }
     }
 }
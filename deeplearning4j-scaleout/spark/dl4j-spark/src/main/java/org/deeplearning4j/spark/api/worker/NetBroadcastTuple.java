@@ -9,7 +9,9 @@ import java.io.Serializable;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * A simple class for storing configurations, parameters and updaters in one class (so they can be broadcast together)
+ * A simple class for storing configurations, parameters and updaters in one class (so they can be broadcast together).
+ * The configurations may be null, when the workers already have the network (for example, from an earlier broadcast):
+ * in that case, the iteration count of the current configuration is included instead.
  *
  * @author Alex Black
  */
@@ -21,6 +23,7 @@ public class NetBroadcastTuple implements Serializable {
     private final INDArray parameters;
     private final INDArray updaterState;
     private final AtomicInteger counter;
+    private final int iterationCount;
 
     public NetBroadcastTuple(MultiLayerConfiguration configuration, INDArray parameters, INDArray updaterState) {
         this(configuration, null, parameters, updaterState);
@@ -39,10 +42,27 @@ public class NetBroadcastTuple implements Serializable {
 
     public NetBroadcastTuple(MultiLayerConfiguration configuration, ComputationGraphConfiguration graphConfiguration,
                     INDArray parameters, INDArray updaterState, AtomicInteger counter) {
+        this(configuration, graphConfiguration, parameters, updaterState, counter,
+                        configuration != null ? configuration.getIterationCount()
+                                        : (graphConfiguration != null ? graphConfiguration.getIterationCount() : 0));
+    }
+
+    /**
+     * Parameters and updater state only, without the configuration
+     *
+     * @param iterationCount Iteration count of the current network configuration
+     */
+    public NetBroadcastTuple(INDArray parameters, INDArray updaterState, int iterationCount) {
+        this(null, null, parameters, updaterState, new AtomicInteger(0), iterationCount);
+    }
+
+    public NetBroadcastTuple(MultiLayerConfiguration configuration, ComputationGraphConfiguration graphConfiguration,
+                    INDArray parameters, INDArray updaterState, AtomicInteger counter, int iterationCount) {
         this.configuration = configuration;
         this.graphConfiguration = graphConfiguration;
         this.parameters = parameters;
         this.updaterState = updaterState;
         this.counter = counter;
+        this.iterationCount = iterationCount;
     }
 }
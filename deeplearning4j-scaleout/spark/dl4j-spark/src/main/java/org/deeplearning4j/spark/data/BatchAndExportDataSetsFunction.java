@@ -22,9 +22,13 @@ import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.spark.api.java.function.Function2;
 import org.deeplearning4j.berkeley.Pair;
+import org.deeplearning4j.spark.api.ExportFormat;
+import org.deeplearning4j.spark.data.shard.DataSetShardFormat;
+import org.deeplearning4j.spark.data.shard.DataSetShardWriter;
 import org.deeplearning4j.util.UIDProvider;
 import org.nd4j.linalg.dataset.DataSet;
 
+import java.io.IOException;
 import java.net.URI;
 import java.util.*;
 
@@ -38,30 +42,77 @@ import java.util.*;
  * Naming convention for exported files:
  * "dataset_" + partitionIdx + JVM_UID + "_" + idx + ".bin"
  * where 'idx' is the index of the DataSet objects in this partition
+ * <p>
+ * With {@link ExportFormat#MemoryMapped}, the DataSet objects are instead appended as blocks to shard files
+ * (see {@link DataSetShardWriter}), each up to approximately {@link #DEFAULT_MAX_SHARD_SIZE_BYTES} in size:
+ * "dataset_" + partitionIdx + JVM_UID + "_shard" + shardIdx + ".dl4jshard"<br>
+ * In this case, the returned paths are block references in the format "shardPath#offset,length"
  *
  * @author Alex Black
  */
 public class BatchAndExportDataSetsFunction implements Function2<Integer, Iterator<DataSet>, Iterator<String>> {
 
+    public static final long DEFAULT_MAX_SHARD_SIZE_BYTES = 256L * 1024 * 1024;
+
     private static final Configuration conf = new Configuration();
     private final int minibatchSize;
     private final String exportBaseDirectory;
+    private final ExportFormat exportFormat;
+    private final long maxShardSizeBytes;
     private final String jvmuid;
 
+    private transient DataSetShardWriter shardWriter;
+    private transient int shardCount;
+
     /**
      * @param minibatchSize       Minibatch size to combine examples to (if necessary)
      * @param exportBaseDirectory Base directory for exporting
      */
     public BatchAndExportDataSetsFunction(int minibatchSize, String exportBaseDirectory) {
+        this(minibatchSize, exportBaseDirectory, ExportFormat.Serialized);
+    }
+
+    /**
+     * @param minibatchSize       Minibatch size to combine examples to (if necessary)
+     * @param exportBaseDirectory Base directory for exporting
+     * @param exportFormat        Format for the exported DataSets
+     */
+    public BatchAndExportDataSetsFunction(int minibatchSize, String exportBaseDirectory, ExportFormat exportFormat) {
+        this(minibatchSize, exportBaseDirectory, exportFormat, DEFAULT_MAX_SHARD_SIZE_BYTES);
+    }
+
+    /**
+     * @param minibatchSize       Minibatch size to combine examples to (if necessary)
+     * @param exportBaseDirectory Base directory for exporting
+     * @param exportFormat        Format for the exported DataSets
+     * @param maxShardSizeBytes   Size (in bytes) after which a new shard file is started. Only used with
+     *                            {@link ExportFormat#MemoryMapped}
+     */
+    public BatchAndExportDataSetsFunction(int minibatchSize, String exportBaseDirectory, ExportFormat exportFormat,
+                    long maxShardSizeBytes) {
+        if (exportFormat == null)
+            throw new IllegalArgumentException("Export format cannot be null");
+        if (maxShardSizeBytes <= 0)
+            throw new IllegalArgumentException("Invalid maximum shard size: must be > 0, got " + maxShardSizeBytes);
         this.minibatchSize = minibatchSize;
         this.exportBaseDirectory = exportBaseDirectory;
+        this.exportFormat = exportFormat;
+        this.maxShardSizeBytes = maxShardSizeBytes;
         String fullUID = UIDProvider.getJVMUID();
         this.jvmuid = (fullUID.length() <= 8 ? fullUID : fullUID.substring(0, 8));
     }
 
     @Override
     public Iterator<String> call(Integer partitionIdx, Iterator<DataSet> iterator) throws Exception {
+        shardCount = 0;
+        try {
+            return batchAndExport(partitionIdx, iterator);
+        } finally {
+            closeShard();
+        }
+    }
 
+    private Iterator<String> batchAndExport(Integer partitionIdx, Iterator<DataSet> iterator) throws Exception {
         List<String> outputPaths = new ArrayList<>();
         LinkedList<DataSet> tempList = new LinkedList<>();
 
@@ -132,11 +183,12 @@ public class BatchAndExportDataSetsFunction implements Function2<Integer, Iterat
     }
 
     private String export(DataSet dataSet, int partitionIdx, int outputCount) throws Exception {
+        if (exportFormat == ExportFormat.MemoryMapped)
+            return exportToShard(dataSet, partitionIdx);
+
         String filename = "dataset_" + partitionIdx + jvmuid + "_" + outputCount + ".bin";
 
-        URI uri = new URI(exportBaseDirectory
-                        + (exportBaseDirectory.endsWith("/") || exportBaseDirectory.endsWith("\\") ? "" : "/")
-                        + filename);
+        URI uri = getExportURI(filename);
         FileSystem file = FileSystem.get(uri, conf);
         try (FSDataOutputStream out = file.create(new Path(uri))) {
             dataSet.save(out);
@@ -144,4 +196,32 @@ public class BatchAndExportDataSetsFunction implements Function2<Integer, Iterat
 
         return uri.getPath();
     }
+
+    private String exportToShard(DataSet dataSet, int partitionIdx) throws Exception {
+        if (shardWriter != null && shardWriter.getPosition() >= maxShardSizeBytes)
+            closeShard();
+
+        if (shardWriter == null) {
+            String filename = "dataset_" + partitionIdx + jvmuid + "_shard" + (shardCount++)
+                            + DataSetShardFormat.SHARD_EXTENSION;
+            URI uri = getExportURI(filename);
+            FileSystem file = FileSystem.get(uri, conf);
+            shardWriter = new DataSetShardWriter(file.create(new Path(uri)), uri.getPath());
+        }
+
+        return shardWriter.write(dataSet).toString();
+    }
+
+    private void closeShard() throws IOException {
+        if (shardWriter != null) {
+            shardWriter.close();
+            shardWriter = null;
+        }
+    }
+
+    private URI getExportURI(String filename) throws Exception {
+        return new URI(exportBaseDirectory
+                        + (exportBaseDirectory.endsWith("/") || exportBaseDirectory.endsWith("\\") ? "" : "/")
+                        + filename);
+    }
 }
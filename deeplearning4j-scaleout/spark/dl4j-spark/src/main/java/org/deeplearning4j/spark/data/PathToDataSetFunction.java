@@ -5,6 +5,8 @@ import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.spark.api.java.function.Function;
+import org.deeplearning4j.spark.data.shard.DataSetShardReader;
+import org.deeplearning4j.spark.data.shard.ShardBlockReference;
 import org.nd4j.linalg.dataset.DataSet;
 
 import java.io.IOException;
@@ -12,7 +14,9 @@ import java.net.URI;
 
 /**
  * Simple function used to load DataSets (serialized with DataSet.save()) from a given Path (as a String)
- * to a DataSet object - i.e., {@code RDD<String>} to {@code RDD<DataSet>}
+ * to a DataSet object - i.e., {@code RDD<String>} to {@code RDD<DataSet>}.<br>
+ * Shard block references ("shardPath#offset,length", as exported with
+ * {@link org.deeplearning4j.spark.api.ExportFormat#MemoryMapped}) are also supported
  *
  * @author Alex Black
  */
@@ -23,6 +27,12 @@ public class PathToDataSetFunction implements Function<String, DataSet> {
 
     @Override
     public DataSet call(String path) throws Exception {
+        ShardBlockReference blockReference = null;
+        if (ShardBlockReference.isReference(path)) {
+            blockReference = ShardBlockReference.parse(path);
+            path = blockReference.getShardPath();
+        }
+
         if (fileSystem == null) {
             try {
                 fileSystem = FileSystem.get(new URI(path), new Configuration());
@@ -31,6 +41,9 @@ public class PathToDataSetFunction implements Function<String, DataSet> {
             }
         }
 
+        if (blockReference != null)
+            return new DataSetShardReader(fileSystem).read(blockReference);
+
         DataSet ds = new DataSet();
         try (FSDataInputStream inputStream = fileSystem.open(new Path(path), BUFFER_SIZE)) {
             ds.load(inputStream);
@@ -0,0 +1,72 @@
+package org.deeplearning4j.spark.data.shard;
+
+import org.nd4j.linalg.api.buffer.DataBuffer;
+
+/**
+ * Constants for the shard format written by {@link DataSetShardWriter} and read by {@link DataSetShardReader}.<br>
+ * A shard file is a sequence of blocks, one per DataSet. Each block starts at an offset (within the shard) that is a
+ * multiple of {@link #ALIGNMENT}, and has the following layout:
+ * <ul>
+ *     <li>Header (big endian): magic number (int), byte order of the data (byte: 0 = big endian, 1 = little endian),
+ *         format version (byte), number of arrays (short), header length (int), block length (long)</li>
+ *     <li>For each of the features, labels, features mask and labels mask (in that order): rank (int, -1 if the array
+ *         is absent), data type (byte, followed by 3 bytes of padding), offset of the data relative to the start of
+ *         the block (long), number of elements (long), shape (rank x int)</li>
+ *     <li>Data of each array: elements in 'c' order, in the byte order given in the header, starting at a multiple of
+ *         {@link #ALIGNMENT} bytes from the start of the block</li>
+ * </ul>
+ */
+public class DataSetShardFormat {
+
+    public static final int MAGIC = 0x444C3453; //"DL4S"
+    public static final byte VERSION = 1;
+    public static final int ALIGNMENT = 64;
+    public static final int NUM_ARRAYS = 4;
+    public static final String SHARD_EXTENSION = ".dl4jshard";
+
+    public static final byte BYTE_ORDER_BIG_ENDIAN = 0;
+    public static final byte BYTE_ORDER_LITTLE_ENDIAN = 1;
+
+    public static final byte TYPE_FLOAT = 0;
+    public static final byte TYPE_DOUBLE = 1;
+
+    /** Length of the fixed part of the block header, before the array headers */
+    public static final int BLOCK_HEADER_BYTES = 20;
+    /** Length of the fixed part of each array header, before the shape */
+    public static final int ARRAY_HEADER_BYTES = 24;
+
+    private DataSetShardFormat() {}
+
+    /**
+     * @return The smallest multiple of {@link #ALIGNMENT} that is greater than or equal to the given value
+     */
+    public static long align(long value) {
+        return (value + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    public static byte typeCode(DataBuffer.Type type) {
+        switch (type) {
+            case FLOAT:
+                return TYPE_FLOAT;
+            case DOUBLE:
+                return TYPE_DOUBLE;
+            default:
+                throw new IllegalArgumentException("Unsupported data type for shard export: " + type);
+        }
+    }
+
+    public static DataBuffer.Type dataType(byte typeCode) {
+        switch (typeCode) {
+            case TYPE_FLOAT:
+                return DataBuffer.Type.FLOAT;
+            case TYPE_DOUBLE:
+                return DataBuffer.Type.DOUBLE;
+            default:
+                throw new IllegalStateException("Invalid data type code in shard block: " + typeCode);
+        }
+    }
+
+    public static int elementSize(byte typeCode) {
+        return (typeCode == TYPE_DOUBLE ? 8 : 4);
+    }
+}
@@ -0,0 +1,136 @@
+package org.deeplearning4j.spark.data.shard;
+
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocalFileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RawLocalFileSystem;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+import static org.deeplearning4j.spark.data.shard.DataSetShardFormat.*;
+
+/**
+ * Reads DataSet blocks written by {@link DataSetShardWriter}.<br>
+ * On a local file system, blocks are memory-mapped with {@link FileChannel#map(FileChannel.MapMode, long, long)}, and
+ * the features, labels and masks wrap the mapped memory directly. The mapping is private (copy-on-write), so in-place
+ * modifications of the arrays (for example, by a DataSetPreProcessor) never change the shard file.
+ * On other file systems (HDFS etc), each block is read into a direct buffer with a single positioned read, and wrapped
+ * in the same way.<br>
+ * Arrays are copied instead of wrapped only when their data type differs from the ND4J data type, or when the shard
+ * was written on a machine with a different byte order.
+ */
+public class DataSetShardReader {
+
+    private final FileSystem fileSystem;
+
+    public DataSetShardReader(FileSystem fileSystem) {
+        this.fileSystem = fileSystem;
+    }
+
+    /**
+     * Read the DataSet from the given block reference
+     */
+    public DataSet read(ShardBlockReference reference) throws IOException {
+        if (reference.getLength() > Integer.MAX_VALUE)
+            throw new IllegalStateException("Cannot read shard block of length " + reference.getLength()
+                            + " bytes: blocks are limited to " + Integer.MAX_VALUE + " bytes");
+
+        File localFile = null;
+        Path path = new Path(reference.getShardPath());
+        if (fileSystem instanceof LocalFileSystem) {
+            localFile = ((LocalFileSystem) fileSystem).pathToFile(path);
+        } else if (fileSystem instanceof RawLocalFileSystem) {
+            localFile = ((RawLocalFileSystem) fileSystem).pathToFile(path);
+        }
+
+        ByteBuffer block;
+        if (localFile != null && localFile.canWrite()) {
+            //Private mappings require a channel that is open for both reading and writing
+            try (RandomAccessFile raf = new RandomAccessFile(localFile, "rw"); FileChannel channel = raf.getChannel()) {
+                block = channel.map(FileChannel.MapMode.PRIVATE, reference.getOffset(), reference.getLength());
+            }
+        } else {
+            byte[] bytes = new byte[(int) reference.getLength()];
+            try (FSDataInputStream in = fileSystem.open(path)) {
+                in.readFully(reference.getOffset(), bytes);
+            }
+            block = ByteBuffer.allocateDirect(bytes.length);
+            block.put(bytes);
+            block.flip();
+        }
+
+        return decode(block);
+    }
+
+    /**
+     * Decode a DataSet from a single block, in the format described in {@link DataSetShardFormat}. Where possible,
+     * the arrays of the DataSet wrap the block memory without copying
+     */
+    public static DataSet decode(ByteBuffer block) {
+        block = block.slice(); //Big endian, position 0
+        if (block.remaining() < BLOCK_HEADER_BYTES || block.getInt(0) != MAGIC)
+            throw new IllegalStateException("Invalid shard block: block does not start with the shard magic number");
+        byte version = block.get(5);
+        if (version > VERSION)
+            throw new IllegalStateException("Cannot read shard block with format version " + version
+                            + ": only versions up to " + VERSION + " are supported");
+        ByteOrder dataOrder = (block.get(4) == BYTE_ORDER_BIG_ENDIAN ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+        int numArrays = block.getShort(6);
+        long blockLength = block.getLong(12);
+        if (blockLength != block.remaining())
+            throw new IllegalStateException("Invalid shard block: header specifies length " + blockLength
+                            + " bytes, but block has " + block.remaining() + " bytes");
+
+        INDArray[] arrays = new INDArray[NUM_ARRAYS];
+        int pos = BLOCK_HEADER_BYTES;
+        for (int i = 0; i < numArrays; i++) {
+            int rank = block.getInt(pos);
+            byte typeCode = block.get(pos + 4);
+            long dataOffset = block.getLong(pos + 8);
+            long numElements = block.getLong(pos + 16);
+            pos += ARRAY_HEADER_BYTES;
+            if (rank < 0 || i >= NUM_ARRAYS)
+                continue;
+            int[] shape = new int[rank];
+            for (int j = 0; j < rank; j++) {
+                shape[j] = block.getInt(pos);
+                pos += 4;
+            }
+
+            ByteBuffer data = block.duplicate();
+            data.limit((int) (dataOffset + numElements * elementSize(typeCode)));
+            data.position((int) dataOffset);
+            arrays[i] = wrap(data.slice().order(dataOrder), typeCode, (int) numElements, shape);
+        }
+
+        return new DataSet(arrays[0], arrays[1], arrays[2], arrays[3]);
+    }
+
+    private static INDArray wrap(ByteBuffer data, byte typeCode, int numElements, int[] shape) {
+        DataBuffer.Type type = dataType(typeCode);
+        if (type == Nd4j.dataType() && data.isDirect() && data.order() == ByteOrder.nativeOrder()) {
+            DataBuffer buffer = Nd4j.createBuffer(data, type, numElements);
+            return Nd4j.create(buffer, shape, Nd4j.getStrides(shape, 'c'), 0, 'c');
+        }
+
+        if (typeCode == TYPE_DOUBLE) {
+            double[] values = new double[numElements];
+            data.asDoubleBuffer().get(values);
+            return Nd4j.create(values, shape, 'c');
+        } else {
+            float[] values = new float[numElements];
+            data.asFloatBuffer().get(values);
+            return Nd4j.create(values, shape, 'c');
+        }
+    }
+}
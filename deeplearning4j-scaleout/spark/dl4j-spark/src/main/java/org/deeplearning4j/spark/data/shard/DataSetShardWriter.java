@@ -0,0 +1,154 @@
+package org.deeplearning4j.spark.data.shard;
+
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.deeplearning4j.spark.data.shard.DataSetShardFormat.*;
+
+/**
+ * Writes DataSet objects as blocks to a shard file, in the format described in {@link DataSetShardFormat}.
+ * The blocks can be read with {@link DataSetShardReader}, using the {@link ShardBlockReference} returned by
+ * {@link #write(DataSet)}.<br>
+ * Array data is written in the native byte order of this JVM.
+ */
+public class DataSetShardWriter implements Closeable {
+
+    private static final int WRITE_BUFFER_SIZE = 65536;
+
+    private final OutputStream out;
+    private final String shardPath;
+    private final byte[] padding = new byte[ALIGNMENT];
+    private final ByteBuffer writeBuffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE).order(ByteOrder.nativeOrder());
+    private long position = 0;
+
+    /**
+     * @param out       Stream to write the shard to. Closed when this writer is closed
+     * @param shardPath Path of the shard, as used in the returned block references
+     */
+    public DataSetShardWriter(OutputStream out, String shardPath) {
+        this.out = out;
+        this.shardPath = shardPath;
+    }
+
+    /**
+     * @return Number of bytes written to the shard so far
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    /**
+     * Write the DataSet as a new block at the end of the shard
+     *
+     * @return Reference to the written block
+     */
+    public ShardBlockReference write(DataSet dataSet) throws IOException {
+        INDArray[] arrays = {dataSet.getFeatures(), dataSet.getLabels(), dataSet.getFeaturesMaskArray(),
+                        dataSet.getLabelsMaskArray()};
+
+        int headerLength = BLOCK_HEADER_BYTES;
+        for (int i = 0; i < NUM_ARRAYS; i++) {
+            if (arrays[i] != null) {
+                INDArray a = arrays[i];
+                if (a.isView() || a.ordering() != 'c' || a.data().length() != a.length())
+                    arrays[i] = a.dup('c');
+                headerLength += ARRAY_HEADER_BYTES + 4 * arrays[i].rank();
+            } else {
+                headerLength += ARRAY_HEADER_BYTES;
+            }
+        }
+        headerLength = (int) align(headerLength);
+
+        long[] dataOffsets = new long[NUM_ARRAYS];
+        long blockLength = headerLength;
+        for (int i = 0; i < NUM_ARRAYS; i++) {
+            if (arrays[i] == null)
+                continue;
+            dataOffsets[i] = blockLength;
+            blockLength = align(blockLength
+                            + (long) arrays[i].length() * elementSize(typeCode(arrays[i].data().dataType())));
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(headerLength).order(ByteOrder.BIG_ENDIAN);
+        header.putInt(MAGIC);
+        header.put(ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN ? BYTE_ORDER_BIG_ENDIAN : BYTE_ORDER_LITTLE_ENDIAN);
+        header.put(VERSION);
+        header.putShort((short) NUM_ARRAYS);
+        header.putInt(headerLength);
+        header.putLong(blockLength);
+        for (int i = 0; i < NUM_ARRAYS; i++) {
+            if (arrays[i] == null) {
+                header.putInt(-1);
+                header.put(TYPE_FLOAT);
+                header.put(new byte[3]);
+                header.putLong(0);
+                header.putLong(0);
+                continue;
+            }
+            int[] shape = arrays[i].shape();
+            header.putInt(shape.length);
+            header.put(typeCode(arrays[i].data().dataType()));
+            header.put(new byte[3]);
+            header.putLong(dataOffsets[i]);
+            header.putLong(arrays[i].length());
+            for (int s : shape)
+                header.putInt(s);
+        }
+
+        //Blocks start at aligned positions in the shard
+        writePadding(align(position) - position);
+        long blockStart = position;
+
+        out.write(header.array());
+        position += headerLength;
+        for (int i = 0; i < NUM_ARRAYS; i++) {
+            if (arrays[i] == null)
+                continue;
+            writePadding(blockStart + dataOffsets[i] - position);
+            writeData(arrays[i]);
+        }
+        writePadding(blockStart + blockLength - position);
+
+        return new ShardBlockReference(shardPath, blockStart, blockLength);
+    }
+
+    private void writeData(INDArray array) throws IOException {
+        writeBuffer.clear();
+        if (typeCode(array.data().dataType()) == TYPE_DOUBLE) {
+            for (double d : array.data().asDouble()) {
+                if (writeBuffer.remaining() < 8)
+                    flushWriteBuffer();
+                writeBuffer.putDouble(d);
+            }
+        } else {
+            for (float f : array.data().asFloat()) {
+                if (writeBuffer.remaining() < 4)
+                    flushWriteBuffer();
+                writeBuffer.putFloat(f);
+            }
+        }
+        flushWriteBuffer();
+    }
+
+    private void flushWriteBuffer() throws IOException {
+        out.write(writeBuffer.array(), 0, writeBuffer.position());
+        position += writeBuffer.position();
+        writeBuffer.clear();
+    }
+
+    private void writePadding(long numBytes) throws IOException {
+        out.write(padding, 0, (int) numBytes);
+        position += numBytes;
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,60 @@
+package org.deeplearning4j.spark.data.shard;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Location of one DataSet block in a shard file written by {@link DataSetShardWriter}: the path of the shard, and the
+ * offset and length (both in bytes) of the block within the shard.<br>
+ * As a String, a reference has the format "path#offset,length". This is the format used for the paths returned by
+ * {@link org.deeplearning4j.spark.data.BatchAndExportDataSetsFunction} with
+ * {@link org.deeplearning4j.spark.api.ExportFormat#MemoryMapped}
+ */
+@Data
+@AllArgsConstructor
+public class ShardBlockReference {
+
+    public static final char SEPARATOR = '#';
+
+    private final String shardPath;
+    private final long offset;
+    private final long length;
+
+    /**
+     * @param path Path or block reference
+     * @return True if the String is a shard block reference (i.e., has the format "path#offset,length")
+     */
+    public static boolean isReference(String path) {
+        int idx = path.lastIndexOf(SEPARATOR);
+        if (idx < 0)
+            return false;
+        int comma = path.indexOf(',', idx);
+        if (comma < 0)
+            return false;
+        for (int i = idx + 1; i < path.length(); i++) {
+            char c = path.charAt(i);
+            if (i != comma && (c < '0' || c > '9'))
+                return false;
+        }
+        return comma > idx + 1 && comma < path.length() - 1;
+    }
+
+    /**
+     * Parse a reference in the format "path#offset,length"
+     */
+    public static ShardBlockReference parse(String reference) {
+        if (!isReference(reference))
+            throw new IllegalArgumentException("Invalid shard block reference: \"" + reference
+                            + "\" (expected format: path" + SEPARATOR + "offset,length)");
+        int idx = reference.lastIndexOf(SEPARATOR);
+        int comma = reference.indexOf(',', idx);
+        return new ShardBlockReference(reference.substring(0, idx),
+                        Long.parseLong(reference.substring(idx + 1, comma)),
+                        Long.parseLong(reference.substring(comma + 1)));
+    }
+
+    @Override
+    public String toString() {
+        return shardPath + SEPARATOR + offset + "," + length;
+    }
+}
@@ -46,6 +46,8 @@ import org.deeplearning4j.spark.impl.multilayer.SparkDl4jMultiLayer;
 import org.deeplearning4j.spark.impl.paramavg.aggregator.ParameterAveragingAggregationTuple;
 import org.deeplearning4j.spark.impl.paramavg.aggregator.ParameterAveragingElementAddFunction;
 import org.deeplearning4j.spark.impl.paramavg.aggregator.ParameterAveragingElementCombineFunction;
+import org.deeplearning4j.spark.impl.paramavg.compression.ParameterCodec;
+import org.deeplearning4j.spark.impl.paramavg.compression.ParameterCompression;
 import org.deeplearning4j.spark.impl.paramavg.stats.ParameterAveragingTrainingMasterStats;
 import org.deeplearning4j.spark.util.SparkUtils;
 import org.deeplearning4j.util.UIDProvider;
@@ -70,14 +72,16 @@ import java.util.*;
  */
 @Data
 @JsonIgnoreProperties({"stats", "listeners", "iterationCount", "rng", "lastExportedRDDId", "lastRDDExportPath",
-                "trainingMasterUID"})
+                "trainingMasterUID", "configBroadcast", "configBroadcastSource", "modelCacheKey", "modelCacheSessionCount"})
 @EqualsAndHashCode(exclude = {"stats", "listeners", "iterationCount", "rng", "lastExportedRDDId", "lastRDDExportPath",
-                "trainingMasterUID"})
+                "trainingMasterUID", "configBroadcast", "configBroadcastSource", "modelCacheKey",
+                "modelCacheSessionCount"})
 @Slf4j
 public class ParameterAveragingTrainingMaster
                 implements TrainingMaster<ParameterAveragingTrainingResult, ParameterAveragingTrainingWorker> {
 
     private static final int COALESCE_THRESHOLD = 3;
+    public static final double DEFAULT_TOP_K_FRACTION = 0.1;
     private static ObjectMapper jsonMapper;
     private static ObjectMapper yamlMapper;
 
@@ -87,6 +91,10 @@ public class ParameterAveragingTrainingMaster
     private int batchSizePerWorker;
     private int averagingFrequency;
     private int prefetchNumBatches;
+    private int aggregationDepth = 1;
+    private boolean workerModelCaching = false;
+    private ParameterCompression parameterCompression = ParameterCompression.None;
+    private double compressionTopKFraction = DEFAULT_TOP_K_FRACTION;
     private boolean collectTrainingStats;
     private ParameterAveragingTrainingMasterStats.ParameterAveragingTrainingMasterStatsHelper stats;
     private int iterationCount = 0;
@@ -99,6 +107,7 @@ public class ParameterAveragingTrainingMaster
     @JsonDeserialize(using = StorageLevelDeserializer.class)
     private StorageLevel storageLevelStreams = StorageLevel.MEMORY_ONLY();
     private RDDTrainingApproach rddTrainingApproach = RDDTrainingApproach.Export;
+    private ExportFormat exportFormat = ExportFormat.Serialized;
     private String exportDirectory = null;
     private Random rng;
 
@@ -107,6 +116,12 @@ public class ParameterAveragingTrainingMaster
     private String lastRDDExportPath;
     private final String trainingMasterUID;
 
+    //Worker model caching: configuration broadcast once per training session
+    private Broadcast<NetBroadcastTuple> configBroadcast;
+    private Object configBroadcastSource;
+    private String modelCacheKey;
+    private int modelCacheSessionCount = 0;
+
     //Listeners etc
     private Collection<IterationListener> listeners;
     private StatsStorageRouter statsStorage;
@@ -127,11 +142,16 @@ public class ParameterAveragingTrainingMaster
         this.batchSizePerWorker = builder.batchSizePerWorker;
         this.averagingFrequency = builder.averagingFrequency;
         this.prefetchNumBatches = builder.prefetchNumBatches;
+        this.aggregationDepth = builder.aggregationDepth;
+        this.workerModelCaching = builder.workerModelCaching;
+        this.parameterCompression = builder.parameterCompression;
+        this.compressionTopKFraction = builder.compressionTopKFraction;
         this.repartition = builder.repartition;
         this.repartitionStrategy = builder.repartitionStrategy;
         this.storageLevel = builder.storageLevel;
         this.storageLevelStreams = builder.storageLevelStreams;
         this.rddTrainingApproach = builder.rddTrainingApproach;
+        this.exportFormat = builder.exportFormat;
         this.exportDirectory = builder.exportDirectory;
         this.trainingHookList = builder.trainingHooks;
 
@@ -301,36 +321,79 @@ public class ParameterAveragingTrainingMaster
 
     @Override
     public ParameterAveragingTrainingWorker getWorkerInstance(SparkDl4jMultiLayer network) {
-        NetBroadcastTuple tuple = new NetBroadcastTuple(network.getNetwork().getLayerWiseConfigurations(),
-                        network.getNetwork().params(), network.getNetwork().getUpdater().getStateViewArray());
+        MultiLayerNetwork net = network.getNetwork();
+        NetBroadcastTuple tuple;
 
         if (collectTrainingStats)
             stats.logBroadcastStart();
+        if (workerModelCaching) {
+            //Configuration is broadcast once per session; each averaging round only broadcasts params + updater state
+            updateConfigBroadcast(network.getSparkContext(), net.getLayerWiseConfigurations(),
+                            new NetBroadcastTuple(net.getLayerWiseConfigurations(), null, null));
+            tuple = new NetBroadcastTuple(net.params(), net.getUpdater().getStateViewArray(),
+                            net.getLayerWiseConfigurations().getIterationCount());
+        } else {
+            tuple = new NetBroadcastTuple(net.getLayerWiseConfigurations(), net.params(),
+                            net.getUpdater().getStateViewArray());
+        }
         Broadcast<NetBroadcastTuple> broadcast = network.getSparkContext().broadcast(tuple);
         if (collectTrainingStats)
             stats.logBroadcastEnd();
 
         WorkerConfiguration configuration = new WorkerConfiguration(false, rddDataSetNumExamples, batchSizePerWorker,
                         averagingFrequency, prefetchNumBatches, collectTrainingStats);
-        return new ParameterAveragingTrainingWorker(broadcast, saveUpdater, configuration, trainingHookList, listeners,
-                        getRouterProvider());
+        return new ParameterAveragingTrainingWorker(broadcast, workerModelCaching ? configBroadcast : null,
+                        workerModelCaching ? modelCacheKey : null, getParameterCodec(), saveUpdater, configuration,
+                        trainingHookList, listeners, getRouterProvider());
     }
 
     @Override
     public ParameterAveragingTrainingWorker getWorkerInstance(SparkComputationGraph graph) {
-        NetBroadcastTuple tuple = new NetBroadcastTuple(graph.getNetwork().getConfiguration(),
-                        graph.getNetwork().params(), graph.getNetwork().getUpdater().getStateViewArray());
+        ComputationGraph net = graph.getNetwork();
+        NetBroadcastTuple tuple;
 
         if (collectTrainingStats)
             stats.logBroadcastStart();
+        if (workerModelCaching) {
+            //Configuration is broadcast once per session; each averaging round only broadcasts params + updater state
+            updateConfigBroadcast(graph.getSparkContext(), net.getConfiguration(),
+                            new NetBroadcastTuple(net.getConfiguration(), null, null));
+            tuple = new NetBroadcastTuple(net.params(), net.getUpdater().getStateViewArray(),
+                            net.getConfiguration().getIterationCount());
+        } else {
+            tuple = new NetBroadcastTuple(net.getConfiguration(), net.params(), net.getUpdater().getStateViewArray());
+        }
         Broadcast<NetBroadcastTuple> broadcast = graph.getSparkContext().broadcast(tuple);
         if (collectTrainingStats)
             stats.logBroadcastEnd();
 
         WorkerConfiguration configuration = new WorkerConfiguration(true, rddDataSetNumExamples, batchSizePerWorker,
                         averagingFrequency, prefetchNumBatches, collectTrainingStats);
-        return new ParameterAveragingTrainingWorker(broadcast, saveUpdater, configuration, trainingHookList, listeners,
-                        getRouterProvider());
+        return new ParameterAveragingTrainingWorker(broadcast, workerModelCaching ? configBroadcast : null,
+                        workerModelCaching ? modelCacheKey : null, getParameterCodec(), saveUpdater, configuration,
+                        trainingHookList, listeners, getRouterProvider());
+    }
+
+    private ParameterCodec getParameterCodec() {
+        if (parameterCompression == null || parameterCompression == ParameterCompression.None)
+            return null;
+        return new ParameterCodec(parameterCompression, compressionTopKFraction, trainingMasterUID);
+    }
+
+    /**
+     * Broadcast the network configuration for worker model caching, if not already done for this configuration.
+     * A new configuration (i.e., a different network) starts a new training session, so that networks cached by the
+     * workers for an earlier session are not reused.
+     */
+    private void updateConfigBroadcast(JavaSparkContext sc, Object configuration, NetBroadcastTuple configTuple) {
+        if (configBroadcast != null && configBroadcastSource == configuration)
+            return;
+
+        if (configBroadcast != null)
+            configBroadcast.unpersist(false);
+        configBroadcast = sc.broadcast(configTuple);
+        configBroadcastSource = configuration;
+        modelCacheKey = trainingMasterUID + "_" + (modelCacheSessionCount++);
     }
 
     private int numObjectsEachWorker(int numExamplesEachRddObject) {
@@ -848,15 +911,63 @@ public class ParameterAveragingTrainingMaster
     }
 
 
+    private static ParameterAveragingAggregationTuple aggregateLocal(List<ParameterAveragingTrainingResult> results) {
+        //Same as aggregating an RDD with one result per partition
+        ParameterAveragingElementAddFunction addFn = new ParameterAveragingElementAddFunction();
+        ParameterAveragingElementCombineFunction combineFn = new ParameterAveragingElementCombineFunction();
+        ParameterAveragingAggregationTuple tuple = null;
+        try {
+            for (ParameterAveragingTrainingResult r : results)
+                tuple = combineFn.call(tuple, addFn.call(null, r));
+        } catch (Exception e) {
+            throw new RuntimeException("Error aggregating worker results", e);
+        }
+        return tuple;
+    }
+
     private void processResults(SparkDl4jMultiLayer network, SparkComputationGraph graph,
                     JavaRDD<ParameterAveragingTrainingResult> results, int splitNum, int totalSplits) {
         //Need to do parameter averaging, and where necessary also do averaging of the updaters
         //Let's do all of this in ONE step, such that we don't have extra synchronization costs
 
-        if (collectTrainingStats)
-            stats.logAggregateStartTime();
-        ParameterAveragingAggregationTuple tuple = results.aggregate(null, new ParameterAveragingElementAddFunction(),
-                        new ParameterAveragingElementCombineFunction());
+        ParameterAveragingAggregationTuple tuple;
+        boolean compressed = (parameterCompression != null && parameterCompression != ParameterCompression.None);
+        if (compressed) {
+            //Compressed results are collected as-is and decoded on the driver: aggregating on the executors would
+            // send dense (partial) sums to the driver instead
+            if (collectTrainingStats)
+                stats.logAggregateStartTime();
+            List<ParameterAveragingTrainingResult> list = results.collect();
+            if (collectTrainingStats)
+                stats.logDecodeStart();
+            tuple = aggregateLocal(list);
+            if (collectTrainingStats)
+                stats.logDecodeEnd();
+        } else if (aggregationDepth > 1) {
+            //Tree aggregation: partial sums are combined on the executors, so the driver only receives a few
+            // (instead of one per partition) parameter and updater vectors
+            boolean persisted = false;
+            if (collectTrainingStats) {
+                //Fit first, so that the worker results and the aggregation are timed separately
+                stats.logWorkerResultsStart();
+                results = results.persist(StorageLevel.MEMORY_AND_DISK_SER());
+                results.count();
+                persisted = true;
+                stats.logWorkerResultsEnd();
+            }
+
+            if (collectTrainingStats)
+                stats.logAggregateStartTime();
+            tuple = results.treeAggregate(null, new ParameterAveragingElementAddFunction(),
+                            new ParameterAveragingElementCombineFunction(), aggregationDepth);
+            if (persisted)
+                results.unpersist(false);
+        } else {
+            if (collectTrainingStats)
+                stats.logAggregateStartTime();
+            tuple = results.aggregate(null, new ParameterAveragingElementAddFunction(),
+                            new ParameterAveragingElementCombineFunction());
+        }
         INDArray params = tuple.getParametersSum();
         int aggCount = tuple.getAggregationsCount();
         SparkTrainingStats aggregatedStats = tuple.getSparkTrainingStats();
@@ -872,6 +983,22 @@ public class ParameterAveragingTrainingMaster
             if (updaterState != null)
                 updaterState.divi(aggCount); //May be null if all SGD updaters, for example
 
+            if (compressed) {
+                //Averages of the changes: add the current (i.e., broadcast) parameters and updater state
+                INDArray currentParams;
+                INDArray currentUpdaterState;
+                if (network != null) {
+                    currentParams = network.getNetwork().params();
+                    currentUpdaterState = network.getNetwork().getUpdater().getStateViewArray();
+                } else {
+                    currentParams = graph.getNetwork().params();
+                    currentUpdaterState = graph.getNetwork().getUpdater().getStateViewArray();
+                }
+                params.addi(currentParams);
+                if (updaterState != null && currentUpdaterState != null)
+                    updaterState.addi(currentUpdaterState);
+            }
+
             if (network != null) {
                 MultiLayerNetwork net = network.getNetwork();
                 net.setParameters(params);
@@ -1012,7 +1139,8 @@ public class ParameterAveragingTrainingMaster
 
         log.info("Initiating RDD<DataSet> export at {}", baseDir);
         JavaRDD<String> paths = trainingData
-                        .mapPartitionsWithIndex(new BatchAndExportDataSetsFunction(batchSizePerWorker, dataDir), true);
+                        .mapPartitionsWithIndex(new BatchAndExportDataSetsFunction(batchSizePerWorker, dataDir,
+                                        exportFormat), true);
         paths.saveAsTextFile(pathsDir);
         log.info("RDD<DataSet> export complete at {}", baseDir);
 
@@ -1088,11 +1216,16 @@ public class ParameterAveragingTrainingMaster
         private int batchSizePerWorker = 16;
         private int averagingFrequency = 5;
         private int prefetchNumBatches = 0;
+        private int aggregationDepth = 1;
+        private boolean workerModelCaching = false;
+        private ParameterCompression parameterCompression = ParameterCompression.None;
+        private double compressionTopKFraction = DEFAULT_TOP_K_FRACTION;
         private Repartition repartition = Repartition.Always;
         private RepartitionStrategy repartitionStrategy = RepartitionStrategy.Balanced;
         private StorageLevel storageLevel = StorageLevel.MEMORY_ONLY_SER();
         private StorageLevel storageLevelStreams = StorageLevel.MEMORY_ONLY();
         private RDDTrainingApproach rddTrainingApproach = RDDTrainingApproach.Export;
+        private ExportFormat exportFormat = ExportFormat.Serialized;
         private String exportDirectory = null;
         private Long rngSeed;
         private Collection<TrainingHook> trainingHooks;
@@ -1192,6 +1325,8 @@ public class ParameterAveragingTrainingMaster
 
         /**
          * Set the number of minibatches to asynchronously prefetch in the worker.
+         * When training from serialized DataSet/MultiDataSet files ({@code JavaPairRDD<String, PortableDataStream>}),
+         * this is also the number of files that are opened and deserialized ahead of time, in background threads.
          * <p>
          * Default: 0 (no prefetching)
          *
@@ -1202,6 +1337,77 @@ public class ParameterAveragingTrainingMaster
             return this;
         }
 
+        /**
+         * Set the depth of the tree used to aggregate (sum) the parameters and updater state of the workers after
+         * each averaging period.<br>
+         * With depth 1 (default), the results of all workers are sent to the driver and summed there: the network
+         * traffic and memory use on the driver grow with the number of workers times the size of the network.
+         * With depth 2 or more, partial sums are computed on the executors first (as in Spark's treeAggregate), so
+         * that the driver only receives a few partial sums, approximately numWorkers^(1/depth), at the cost of one
+         * extra shuffle stage per level. Recommended for large networks and/or many workers.<br>
+         * When training stats are collected, the worker results are materialized before tree aggregation, so that
+         * both phases are timed separately.
+         *
+         * @param aggregationDepth Depth of the aggregation tree, >= 1
+         */
+        public Builder aggregationDepth(int aggregationDepth) {
+            if (aggregationDepth <= 0)
+                throw new IllegalArgumentException("Invalid input: aggregation depth must be >= 1");
+            this.aggregationDepth = aggregationDepth;
+            return this;
+        }
+
+        /**
+         * Set whether the workers should keep their networks between averaging periods.<br>
+         * If false (default), each worker creates a new network (from the broadcast configuration, parameters and
+         * updater state) for every partition in every averaging period. If true, the configuration is broadcast only
+         * once per training session, and each averaging period only broadcasts the parameters and updater state:
+         * networks created by earlier averaging periods are cached on the executors (one per concurrent task), and
+         * are reused by assigning the new parameters and updater state in place. This avoids the cost of
+         * deserializing the configuration and initializing the network in each averaging period, which can be
+         * significant for large networks and/or frequent averaging.<br>
+         * Cached networks are kept in executor memory until a different network (training session) is trained.
+         *
+         * @param workerModelCaching Whether worker networks should be cached and reused between averaging periods
+         */
+        public Builder workerModelCaching(boolean workerModelCaching) {
+            this.workerModelCaching = workerModelCaching;
+            return this;
+        }
+
+        /**
+         * Set the compression of the results (parameters and updater state) returned by the workers after each
+         * averaging period. See {@link ParameterCompression} for the available methods. Default: None.<br>
+         * With compression, each worker returns the change of its parameters and updater state over the averaging
+         * period, and the (compressed) results are collected and decoded on the driver. The aggregation depth (see
+         * {@link #aggregationDepth(int)}) is not used in this case: aggregating on the executors would send
+         * uncompressed partial sums to the driver.<br>
+         * The size of the compressed results and the time spent encoding and decoding them are included in the
+         * training stats, if collected.
+         *
+         * @param parameterCompression Compression for the worker results
+         */
+        public Builder parameterCompression(ParameterCompression parameterCompression) {
+            if (parameterCompression == null)
+                throw new IllegalArgumentException("Invalid input: parameter compression cannot be null");
+            this.parameterCompression = parameterCompression;
+            return this;
+        }
+
+        /**
+         * Fraction of the values that are returned by each worker, for {@link ParameterCompression#TopKSparse}
+         * compression only. Default: {@link #DEFAULT_TOP_K_FRACTION}
+         *
+         * @param compressionTopKFraction Fraction of the values to return, in range (0,1]
+         */
+        public Builder compressionTopKFraction(double compressionTopKFraction) {
+            if (compressionTopKFraction <= 0.0 || compressionTopKFraction > 1.0)
+                throw new IllegalArgumentException(
+                                "Invalid input: top K fraction must be in range (0,1], got " + compressionTopKFraction);
+            this.compressionTopKFraction = compressionTopKFraction;
+            return this;
+        }
+
         /**
          * Set whether the updater (i.e., historical state for momentum, adagrad, etc should be saved).
          * <b>NOTE</b>: This can <b>double</b> (or more) the amount of network traffic in each direction, but might
@@ -1286,6 +1492,23 @@ public class ParameterAveragingTrainingMaster
             return this;
         }
 
+        /**
+         * The format of the exported data, when {@link #rddTrainingApproach(RDDTrainingApproach)} is set to
+         * {@link RDDTrainingApproach#Export}. Default: {@link ExportFormat#Serialized}.<br>
+         * With {@link ExportFormat#MemoryMapped}, minibatches are packed into large shard files as aligned binary
+         * blocks, which workers memory-map instead of deserializing. This applies to {@code RDD<DataSet>} only:
+         * {@code RDD<MultiDataSet>} (including {@code RDD<DataSet>} used with a ComputationGraph) is always
+         * exported in the serialized format
+         *
+         * @param exportFormat Format for the exported data
+         */
+        public Builder exportFormat(ExportFormat exportFormat) {
+            if (exportFormat == null)
+                throw new IllegalArgumentException("Export format cannot be null");
+            this.exportFormat = exportFormat;
+            return this;
+        }
+
         /**
          * When {@link #rddTrainingApproach(RDDTrainingApproach)} is set to {@link RDDTrainingApproach#Export} (as it is by default)
          * the data is exported to a temporary directory first.
@@ -5,13 +5,16 @@ import org.deeplearning4j.api.storage.Persistable;
 import org.deeplearning4j.api.storage.StorageMetaData;
 import org.deeplearning4j.spark.api.TrainingResult;
 import org.deeplearning4j.spark.api.stats.SparkTrainingStats;
+import org.deeplearning4j.spark.impl.paramavg.compression.CompressedArray;
 import org.nd4j.linalg.api.ndarray.INDArray;
 
 import java.util.Collection;
 
 /**
  * The results (parameters, optional updaters) returned by a {@link ParameterAveragingTrainingWorker} to the
- * {@link ParameterAveragingTrainingMaster}
+ * {@link ParameterAveragingTrainingMaster}.<br>
+ * If compression is used, the parameters and updater state are null: instead, the changes (deltas) of the parameters
+ * and updater state over the averaging period are returned, in compressed form.
  *
  * @author Alex Black
  */
@@ -20,6 +23,8 @@ public class ParameterAveragingTrainingResult implements TrainingResult {
 
     private final INDArray parameters;
     private final INDArray updaterState;
+    private final CompressedArray parametersDelta;
+    private final CompressedArray updaterStateDelta;
     private final double score;
     private SparkTrainingStats sparkTrainingStats;
 
@@ -37,8 +42,18 @@ public class ParameterAveragingTrainingResult implements TrainingResult {
     public ParameterAveragingTrainingResult(INDArray parameters, INDArray updaterState, double score,
                     SparkTrainingStats sparkTrainingStats, Collection<StorageMetaData> listenerMetaData,
                     Collection<Persistable> listenerStaticInfo, Collection<Persistable> listenerUpdates) {
+        this(parameters, updaterState, null, null, score, sparkTrainingStats, listenerMetaData, listenerStaticInfo,
+                        listenerUpdates);
+    }
+
+    public ParameterAveragingTrainingResult(INDArray parameters, INDArray updaterState,
+                    CompressedArray parametersDelta, CompressedArray updaterStateDelta, double score,
+                    SparkTrainingStats sparkTrainingStats, Collection<StorageMetaData> listenerMetaData,
+                    Collection<Persistable> listenerStaticInfo, Collection<Persistable> listenerUpdates) {
         this.parameters = parameters;
         this.updaterState = updaterState;
+        this.parametersDelta = parametersDelta;
+        this.updaterStateDelta = updaterStateDelta;
         this.score = score;
         this.sparkTrainingStats = sparkTrainingStats;
 
@@ -9,6 +9,8 @@ import org.deeplearning4j.api.storage.listener.RoutingIterationListener;
 import org.deeplearning4j.berkeley.Pair;
 import org.deeplearning4j.nn.api.Model;
 import org.deeplearning4j.nn.api.Updater;
+import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
 import org.deeplearning4j.nn.graph.ComputationGraph;
 import org.deeplearning4j.nn.graph.util.ComputationGraphUtil;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
@@ -21,6 +23,8 @@ import org.deeplearning4j.spark.api.WorkerConfiguration;
 import org.deeplearning4j.spark.api.stats.SparkTrainingStats;
 import org.deeplearning4j.spark.api.worker.NetBroadcastTuple;
 import org.deeplearning4j.spark.impl.listeners.VanillaStatsStorageRouter;
+import org.deeplearning4j.spark.impl.paramavg.compression.CompressedArray;
+import org.deeplearning4j.spark.impl.paramavg.compression.ParameterCodec;
 import org.deeplearning4j.spark.impl.paramavg.stats.ParameterAveragingTrainingWorkerStats;
 import org.deeplearning4j.util.UIDProvider;
 import org.nd4j.linalg.api.ndarray.INDArray;
@@ -43,6 +47,9 @@ import java.util.List;
 public class ParameterAveragingTrainingWorker implements TrainingWorker<ParameterAveragingTrainingResult> {
 
     private final Broadcast<NetBroadcastTuple> broadcast;
+    private final Broadcast<NetBroadcastTuple> configBroadcast;
+    private final String modelCacheKey;
+    private final ParameterCodec codec;
     private final boolean saveUpdater;
     private Collection<TrainingHook> trainingHooks;
     private final WorkerConfiguration configuration;
@@ -53,8 +60,28 @@ public class ParameterAveragingTrainingWorker implements TrainingWorker<Paramete
     public ParameterAveragingTrainingWorker(Broadcast<NetBroadcastTuple> broadcast, boolean saveUpdater,
                     WorkerConfiguration configuration, Collection<TrainingHook> trainingHooks,
                     Collection<IterationListener> listeners, StatsStorageRouterProvider routerProvider) {
+        this(broadcast, null, null, null, saveUpdater, configuration, trainingHooks, listeners, routerProvider);
+    }
+
+    /**
+     * @param broadcast       Parameters and updater state for this averaging round; may or may not include the
+     *                        configuration
+     * @param configBroadcast Configuration of the network, if not included in the broadcast. May be null otherwise
+     * @param modelCacheKey   If non-null: key of the training session, used to reuse the network of an earlier round
+     *                        on the same executor (see {@link WorkerModelCache}). If null: create a new network for
+     *                        each partition
+     * @param codec           If non-null: used to return compressed deltas of the parameters and updater state,
+     *                        instead of the parameters and updater state themselves
+     */
+    public ParameterAveragingTrainingWorker(Broadcast<NetBroadcastTuple> broadcast,
+                    Broadcast<NetBroadcastTuple> configBroadcast, String modelCacheKey, ParameterCodec codec,
+                    boolean saveUpdater, WorkerConfiguration configuration, Collection<TrainingHook> trainingHooks,
+                    Collection<IterationListener> listeners, StatsStorageRouterProvider routerProvider) {
 
         this.broadcast = broadcast;
+        this.configBroadcast = configBroadcast;
+        this.modelCacheKey = modelCacheKey;
+        this.codec = codec;
         this.saveUpdater = saveUpdater;
         this.configuration = configuration;
         this.trainingHooks = trainingHooks;
@@ -98,14 +125,32 @@ public class ParameterAveragingTrainingWorker implements TrainingWorker<Paramete
         if (configuration.isCollectTrainingStats())
             stats.logBroadcastGetValueEnd();
 
-        //Don't want to have shared configuration object: each may update its iteration count (for LR schedule etc) individually
-        MultiLayerNetwork net = new MultiLayerNetwork(tuple.getConfiguration().clone());
-        //Can't have shared parameter array across executors for parameter averaging, hence the 'true' for clone parameters array arg
-        net.init(tuple.getParameters().unsafeDuplication(), false);
+        MultiLayerNetwork net = null;
+        if (modelCacheKey != null) {
+            Model cached = WorkerModelCache.take(modelCacheKey);
+            if (cached instanceof MultiLayerNetwork) {
+                //Reuse the network from an earlier averaging round: only the parameters and updater state change
+                net = (MultiLayerNetwork) cached;
+                net.params().assign(tuple.getParameters());
+                if (tuple.getUpdaterState() != null)
+                    net.getUpdater().setStateViewArray(net, tuple.getUpdaterState(), false);
+            }
+        }
+
+        if (net == null) {
+            MultiLayerConfiguration conf = (tuple.getConfiguration() != null ? tuple.getConfiguration()
+                            : configBroadcast.getValue().getConfiguration());
+            //Don't want to have shared configuration object: each may update its iteration count (for LR schedule etc) individually
+            net = new MultiLayerNetwork(conf.clone());
+            //Can't have shared parameter array across executors for parameter averaging, hence the 'true' for clone parameters array arg
+            net.init(tuple.getParameters().unsafeDuplication(), false);
 
-        if (tuple.getUpdaterState() != null) {
-            net.setUpdater(new MultiLayerUpdater(net, tuple.getUpdaterState().unsafeDuplication())); //Can't have shared updater state
+            if (tuple.getUpdaterState() != null) {
+                net.setUpdater(new MultiLayerUpdater(net, tuple.getUpdaterState().unsafeDuplication())); //Can't have shared updater state
+            }
         }
+        if (tuple.getConfiguration() == null)
+            net.getLayerWiseConfigurations().setIterationCount(tuple.getIterationCount());
 
         if (Nd4j.getExecutioner() instanceof GridExecutioner)
             ((GridExecutioner) Nd4j.getExecutioner()).flushQueueBlocking();
@@ -129,14 +174,32 @@ public class ParameterAveragingTrainingWorker implements TrainingWorker<Paramete
         if (configuration.isCollectTrainingStats())
             stats.logBroadcastGetValueEnd();
 
-        //Don't want to have shared configuration object: each may update its iteration count (for LR schedule etc) individually
-        ComputationGraph net = new ComputationGraph(tuple.getGraphConfiguration().clone());
-        //Can't have shared parameter array across executors for parameter averaging, hence the 'true' for clone parameters array arg
-        net.init(tuple.getParameters().unsafeDuplication(), false);
+        ComputationGraph net = null;
+        if (modelCacheKey != null) {
+            Model cached = WorkerModelCache.take(modelCacheKey);
+            if (cached instanceof ComputationGraph) {
+                //Reuse the network from an earlier averaging round: only the parameters and updater state change
+                net = (ComputationGraph) cached;
+                net.params().assign(tuple.getParameters());
+                if (tuple.getUpdaterState() != null)
+                    net.getUpdater().setStateViewArray(tuple.getUpdaterState());
+            }
+        }
+
+        if (net == null) {
+            ComputationGraphConfiguration conf = (tuple.getGraphConfiguration() != null ? tuple.getGraphConfiguration()
+                            : configBroadcast.getValue().getGraphConfiguration());
+            //Don't want to have shared configuration object: each may update its iteration count (for LR schedule etc) individually
+            net = new ComputationGraph(conf.clone());
+            //Can't have shared parameter array across executors for parameter averaging, hence the 'true' for clone parameters array arg
+            net.init(tuple.getParameters().unsafeDuplication(), false);
 
-        if (tuple.getUpdaterState() != null) {
-            net.setUpdater(new ComputationGraphUpdater(net, tuple.getUpdaterState().unsafeDuplication())); //Again: can't have shared updater state
+            if (tuple.getUpdaterState() != null) {
+                net.setUpdater(new ComputationGraphUpdater(net, tuple.getUpdaterState().unsafeDuplication())); //Again: can't have shared updater state
+            }
         }
+        if (tuple.getGraphConfiguration() == null)
+            net.getConfiguration().setIterationCount(tuple.getIterationCount());
 
         if (Nd4j.getExecutioner() instanceof GridExecutioner)
             ((GridExecutioner) Nd4j.getExecutioner()).flushQueueBlocking();
@@ -293,8 +356,7 @@ public class ParameterAveragingTrainingWorker implements TrainingWorker<Paramete
                 listenerUpdates = ssr.getUpdates();
             }
         }
-        return new ParameterAveragingTrainingResult(network.params(), updaterState, network.score(), storageMetaData,
-                        listenerStaticInfo, listenerUpdates);
+        return toResult(network, updaterState, storageMetaData, listenerStaticInfo, listenerUpdates);
     }
 
     @Override
@@ -322,8 +384,46 @@ public class ParameterAveragingTrainingWorker implements TrainingWorker<Paramete
             }
         }
 
-        return new ParameterAveragingTrainingResult(network.params(), updaterState, network.score(), storageMetaData,
-                        listenerStaticInfo, listenerUpdates);
+        return toResult(network, updaterState, storageMetaData, listenerStaticInfo, listenerUpdates);
+    }
+
+    private ParameterAveragingTrainingResult toResult(Model network, INDArray updaterState,
+                    Collection<StorageMetaData> storageMetaData, Collection<Persistable> listenerStaticInfo,
+                    Collection<Persistable> listenerUpdates) {
+        INDArray params = network.params();
+        double score = network.score();
+        CompressedArray paramsDelta = null;
+        CompressedArray updaterStateDelta = null;
+        if (codec != null) {
+            //Return the (compressed) changes relative to the broadcast parameters and updater state
+            NetBroadcastTuple tuple = broadcast.getValue();
+            if (configuration.isCollectTrainingStats())
+                stats.logEncodeStart();
+            long uncompressedBytes = params.length();
+            paramsDelta = codec.encodeDelta(params, tuple.getParameters(), false);
+            long compressedBytes = paramsDelta.getEncodedSizeBytes();
+            if (updaterState != null) {
+                uncompressedBytes += updaterState.length();
+                updaterStateDelta = codec.encodeDelta(updaterState, tuple.getUpdaterState(), true);
+                compressedBytes += updaterStateDelta.getEncodedSizeBytes();
+            }
+            if (configuration.isCollectTrainingStats())
+                stats.logEncodeEnd(uncompressedBytes * params.data().getElementSize(), compressedBytes);
+            params = null;
+            updaterState = null;
+        }
+
+        if (modelCacheKey != null) {
+            //The result arrays are used for aggregation: can't share them with the cached network. Also, the network
+            // may be used by another task as soon as it has been released
+            if (params != null)
+                params = params.dup();
+            if (updaterState != null)
+                updaterState = updaterState.dup();
+            WorkerModelCache.release(modelCacheKey, network);
+        }
+        return new ParameterAveragingTrainingResult(params, updaterState, paramsDelta, updaterStateDelta, score, null,
+                        storageMetaData, listenerStaticInfo, listenerUpdates);
     }
 
     @Override
@@ -0,0 +1,51 @@
+package org.deeplearning4j.spark.impl.paramavg;
+
+import org.deeplearning4j.nn.api.Model;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Executor-local (i.e., static, per JVM) cache of the networks used by {@link ParameterAveragingTrainingWorker}, so
+ * that each network is created once per executor thread and training session, instead of once per partition and
+ * averaging round.<br>
+ * A worker takes a network out of the cache for the duration of a partition, and returns it afterwards: concurrent
+ * tasks on the same executor never share a network. Only the networks of the most recent session are kept.
+ */
+class WorkerModelCache {
+
+    private static String sessionKey;
+    private static final Deque<Model> models = new ArrayDeque<>();
+
+    private WorkerModelCache() {}
+
+    /**
+     * Take a cached network for the given session out of the cache
+     *
+     * @return The network, or null if no network is available for this session
+     */
+    static synchronized Model take(String key) {
+        if (!key.equals(sessionKey))
+            return null;
+        return models.poll();
+    }
+
+    /**
+     * Return a network for the given session to the cache. Networks for other sessions are removed from the cache.
+     */
+    static synchronized void release(String key, Model model) {
+        if (!key.equals(sessionKey)) {
+            sessionKey = key;
+            models.clear();
+        }
+        models.add(model);
+    }
+
+    /**
+     * Remove all cached networks
+     */
+    static synchronized void clear() {
+        sessionKey = null;
+        models.clear();
+    }
+}
@@ -12,7 +12,8 @@ import org.nd4j.linalg.factory.Nd4j;
 import java.util.Collection;
 
 /**
- * Add function for parameter averaging
+ * Add function for parameter averaging. Compressed results (deltas) are decoded, and summed as-is: for compressed
+ * results, the sums are sums of deltas
  *
  * @author Alex Black
  */
@@ -23,21 +24,27 @@ public class ParameterAveragingElementAddFunction implements
     public ParameterAveragingAggregationTuple call(ParameterAveragingAggregationTuple tuple,
                     ParameterAveragingTrainingResult result) throws Exception {
         if (tuple == null) {
-            return ParameterAveragingAggregationTuple.builder().parametersSum(result.getParameters())
-                            .updaterStateSum(result.getUpdaterState()).scoreSum(result.getScore()).aggregationsCount(1)
+            return ParameterAveragingAggregationTuple.builder().parametersSum(getParameters(result))
+                            .updaterStateSum(getUpdaterState(result)).scoreSum(result.getScore()).aggregationsCount(1)
                             .sparkTrainingStats(result.getSparkTrainingStats())
                             .listenerMetaData(result.getListenerMetaData())
                             .listenerStaticInfo(result.getListenerStaticInfo())
                             .listenerUpdates(result.getListenerUpdates()).build();
         }
 
-        INDArray params = tuple.getParametersSum().addi(result.getParameters());
+        INDArray params = tuple.getParametersSum();
+        if (result.getParametersDelta() != null)
+            result.getParametersDelta().addTo(params);
+        else
+            params.addi(result.getParameters());
         INDArray updaterStateSum;
         if (tuple.getUpdaterStateSum() == null) {
-            updaterStateSum = result.getUpdaterState();
+            updaterStateSum = getUpdaterState(result);
         } else {
             updaterStateSum = tuple.getUpdaterStateSum();
-            if (result.getUpdaterState() != null)
+            if (result.getUpdaterStateDelta() != null)
+                result.getUpdaterStateDelta().addTo(updaterStateSum);
+            else if (result.getUpdaterState() != null)
                 updaterStateSum.addi(result.getUpdaterState());
         }
 
@@ -85,4 +92,16 @@ public class ParameterAveragingElementAddFunction implements
         return new ParameterAveragingAggregationTuple(params, updaterStateSum, scoreSum,
                         tuple.getAggregationsCount() + 1, stats, listenerMetaData, listenerStaticInfo, listenerUpdates);
     }
+
+    private static INDArray getParameters(ParameterAveragingTrainingResult result) {
+        if (result.getParametersDelta() != null)
+            return result.getParametersDelta().decode();
+        return result.getParameters();
+    }
+
+    private static INDArray getUpdaterState(ParameterAveragingTrainingResult result) {
+        if (result.getUpdaterStateDelta() != null)
+            return result.getUpdaterStateDelta().decode();
+        return result.getUpdaterState();
+    }
 }
@@ -0,0 +1,225 @@
+package org.deeplearning4j.spark.impl.paramavg.compression;
+
+import lombok.Getter;
+import org.deeplearning4j.util.HalfPrecisionUtil;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.Serializable;
+
+/**
+ * A row vector, encoded with one of the {@link ParameterCompression} methods. Only the encoded values are serialized:
+ * use {@link #addTo(INDArray)} or {@link #decode()} to get the (approximate) values back.<br>
+ * FP16 values are converted with {@link HalfPrecisionUtil}, as for half precision model serialization: values of
+ * magnitude 65520 or more become +/- infinity.
+ */
+public class CompressedArray implements Serializable {
+
+    /** Number of values sharing one scale, for {@link ParameterCompression#Quantized8Bit} */
+    public static final int QUANTIZATION_BLOCK_SIZE = 1024;
+
+    @Getter
+    private final ParameterCompression compression;
+    @Getter
+    private final int length;
+
+    //FP16
+    private short[] halfValues;
+    //Quantized8Bit
+    private byte[] quantizedValues;
+    private float[] blockScales;
+    //TopKSparse
+    private int[] indices;
+    private float[] values;
+
+    private CompressedArray(ParameterCompression compression, int length) {
+        this.compression = compression;
+        this.length = length;
+    }
+
+    /**
+     * Encode the given row vector
+     *
+     * @param array        Array to encode
+     * @param compression  Compression to use. Must not be None
+     * @param topKFraction Fraction of the values to keep, for {@link ParameterCompression#TopKSparse} only
+     */
+    public static CompressedArray encode(INDArray array, ParameterCompression compression, double topKFraction) {
+        float[] data = toFloatArray(array);
+        CompressedArray c = new CompressedArray(compression, data.length);
+        switch (compression) {
+            case FP16:
+                c.halfValues = new short[data.length];
+                for (int i = 0; i < data.length; i++)
+                    c.halfValues[i] = HalfPrecisionUtil.toHalf(data[i]);
+                break;
+            case Quantized8Bit:
+                int nBlocks = (data.length + QUANTIZATION_BLOCK_SIZE - 1) / QUANTIZATION_BLOCK_SIZE;
+                c.quantizedValues = new byte[data.length];
+                c.blockScales = new float[nBlocks];
+                for (int b = 0; b < nBlocks; b++) {
+                    int from = b * QUANTIZATION_BLOCK_SIZE;
+                    int to = Math.min(from + QUANTIZATION_BLOCK_SIZE, data.length);
+                    float maxAbs = 0.0f;
+                    for (int i = from; i < to; i++)
+                        maxAbs = Math.max(maxAbs, Math.abs(data[i]));
+                    if (maxAbs == 0.0f || Float.isNaN(maxAbs) || Float.isInfinite(maxAbs))
+                        continue; //Block of zeros (or not representable): quantized values and scale stay 0
+                    float scale = maxAbs / 127.0f;
+                    c.blockScales[b] = scale;
+                    for (int i = from; i < to; i++)
+                        c.quantizedValues[i] = (byte) Math.max(-127, Math.min(127, Math.round(data[i] / scale)));
+                }
+                break;
+            case TopKSparse:
+                if (topKFraction <= 0.0 || topKFraction > 1.0)
+                    throw new IllegalArgumentException("Invalid top K fraction: must be in range (0,1], got "
+                                    + topKFraction);
+                int k = Math.max(1, (int) Math.ceil(topKFraction * data.length));
+                k = Math.min(k, data.length);
+                float threshold = kthLargestAbs(data, k);
+                c.indices = new int[k];
+                c.values = new float[k];
+                //Values above the threshold first, then values equal to the threshold until k values are selected
+                int count = 0;
+                for (int i = 0; i < data.length; i++) {
+                    if (Math.abs(data[i]) > threshold)
+                        count++;
+                }
+                int nAtThreshold = k - count;
+                int j = 0;
+                for (int i = 0; i < data.length && j < k; i++) {
+                    float abs = Math.abs(data[i]);
+                    if (abs > threshold || (abs == threshold && nAtThreshold-- > 0)) {
+                        c.indices[j] = i;
+                        c.values[j++] = data[i];
+                    }
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Cannot encode array with compression " + compression);
+        }
+        return c;
+    }
+
+    /**
+     * Add the decoded values of this array to the given row vector, in place
+     */
+    public void addTo(INDArray target) {
+        add(target, 1.0f);
+    }
+
+    /**
+     * Subtract the decoded values of this array from the given row vector, in place
+     */
+    public void subtractFrom(INDArray target) {
+        add(target, -1.0f);
+    }
+
+    /**
+     * @return The decoded values, as a new row vector
+     */
+    public INDArray decode() {
+        return Nd4j.create(decodeToFloat());
+    }
+
+    /**
+     * @return Approximate size of the encoded values, in bytes
+     */
+    public long getEncodedSizeBytes() {
+        switch (compression) {
+            case FP16:
+                return 2L * halfValues.length;
+            case Quantized8Bit:
+                return quantizedValues.length + 4L * blockScales.length;
+            case TopKSparse:
+                return 4L * indices.length + 4L * values.length;
+            default:
+                throw new IllegalStateException("Unknown compression: " + compression);
+        }
+    }
+
+    private void add(INDArray target, float multiplier) {
+        if (target.length() != length)
+            throw new IllegalArgumentException("Cannot add compressed array of length " + length
+                            + " to array of length " + target.length());
+        float[] decoded = decodeToFloat();
+        if (multiplier != 1.0f) {
+            for (int i = 0; i < decoded.length; i++)
+                decoded[i] *= multiplier;
+        }
+        target.addi(Nd4j.create(decoded, target.shape(), 'c'));
+    }
+
+    private float[] decodeToFloat() {
+        float[] out = new float[length];
+        switch (compression) {
+            case FP16:
+                for (int i = 0; i < length; i++)
+                    out[i] = HalfPrecisionUtil.toFloat(halfValues[i]);
+                break;
+            case Quantized8Bit:
+                for (int i = 0; i < length; i++)
+                    out[i] = quantizedValues[i] * blockScales[i / QUANTIZATION_BLOCK_SIZE];
+                break;
+            case TopKSparse:
+                for (int i = 0; i < indices.length; i++)
+                    out[indices[i]] = values[i];
+                break;
+            default:
+                throw new IllegalStateException("Unknown compression: " + compression);
+        }
+        return out;
+    }
+
+    private static float[] toFloatArray(INDArray array) {
+        if (array.offset() != 0 || array.data().length() != array.length() || array.ordering() != 'c')
+            array = array.dup('c');
+        return array.data().asFloat();
+    }
+
+    /**
+     * @return The k-th largest absolute value of the given data (k = 1: largest)
+     */
+    private static float kthLargestAbs(float[] data, int k) {
+        float[] abs = new float[data.length];
+        for (int i = 0; i < data.length; i++)
+            abs[i] = Math.abs(data[i]);
+
+        //Quickselect for position (length - k) in ascending order
+        int target = abs.length - k;
+        int lo = 0;
+        int hi = abs.length - 1;
+        while (lo < hi) {
+            float pivot = abs[(lo + hi) >>> 1];
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (abs[i] < pivot)
+                    i++;
+                while (abs[j] > pivot)
+                    j--;
+                if (i <= j) {
+                    float tmp = abs[i];
+                    abs[i] = abs[j];
+                    abs[j] = tmp;
+                    i++;
+                    j--;
+                }
+            }
+            if (target <= j)
+                hi = j;
+            else if (target >= i)
+                lo = i;
+            else
+                break;
+        }
+        return abs[target];
+    }
+
+    @Override
+    public String toString() {
+        return "CompressedArray(compression=" + compression + ",length=" + length + ",encodedSizeBytes="
+                        + getEncodedSizeBytes() + ")";
+    }
+}
@@ -0,0 +1,100 @@
+package org.deeplearning4j.spark.impl.paramavg.compression;
+
+import lombok.Data;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Encodes the results of a {@link org.deeplearning4j.spark.impl.paramavg.ParameterAveragingTrainingWorker} (the
+ * change of the parameters or updater state over one averaging period) with the given {@link ParameterCompression}.<br>
+ * For {@link ParameterCompression#Quantized8Bit} and {@link ParameterCompression#TopKSparse}, the compression error of
+ * each delta (i.e., the part that was not transmitted) is kept in an executor-local (static) pool, and is added to a
+ * delta of a later averaging period in the same training session. Worker results may be computed by any task on any
+ * executor, so a residual is not tied to a specific worker: only the total of the residuals is preserved.
+ */
+@Data
+public class ParameterCodec implements Serializable {
+
+    private final ParameterCompression compression;
+    private final double topKFraction;
+    /** Identifies the training session, for the error feedback residuals */
+    private final String sessionKey;
+
+    private static String residualSessionKey;
+    private static final Deque<INDArray> paramResiduals = new ArrayDeque<>();
+    private static final Deque<INDArray> updaterResiduals = new ArrayDeque<>();
+
+    public ParameterCodec(ParameterCompression compression, double topKFraction, String sessionKey) {
+        if (compression == null || compression == ParameterCompression.None)
+            throw new IllegalArgumentException("Invalid compression: " + compression);
+        if (topKFraction <= 0.0 || topKFraction > 1.0)
+            throw new IllegalArgumentException("Invalid top K fraction: must be in range (0,1], got " + topKFraction);
+        this.compression = compression;
+        this.topKFraction = topKFraction;
+        this.sessionKey = sessionKey;
+    }
+
+    /**
+     * @return Whether the compression error is fed back into later deltas
+     */
+    public boolean isErrorFeedback() {
+        return compression == ParameterCompression.Quantized8Bit || compression == ParameterCompression.TopKSparse;
+    }
+
+    /**
+     * Encode the difference between the final and initial values of the parameters or updater state of a worker
+     *
+     * @param finalValues   Values at the end of the averaging period
+     * @param initialValues Values at the start of the averaging period (i.e., as broadcast). May be null, in which case
+     *                      the final values are encoded
+     * @param updaterState  Whether the values are the updater state (true) or the parameters (false). Used to keep
+     *                      separate error feedback residuals
+     */
+    public CompressedArray encodeDelta(INDArray finalValues, INDArray initialValues, boolean updaterState) {
+        INDArray delta = (initialValues != null ? finalValues.sub(initialValues) : finalValues.dup());
+        if (!isErrorFeedback())
+            return CompressedArray.encode(delta, compression, topKFraction);
+
+        INDArray residual = takeResidual(sessionKey, updaterState, delta.length());
+        if (residual != null)
+            delta.addi(residual);
+        CompressedArray encoded = CompressedArray.encode(delta, compression, topKFraction);
+        //New residual: the part of the delta that was lost by the compression
+        encoded.subtractFrom(delta);
+        releaseResidual(sessionKey, updaterState, delta);
+        return encoded;
+    }
+
+    private static synchronized INDArray takeResidual(String key, boolean updaterState, int length) {
+        if (key == null || !key.equals(residualSessionKey))
+            return null;
+        Deque<INDArray> residuals = (updaterState ? updaterResiduals : paramResiduals);
+        INDArray residual = residuals.poll();
+        if (residual != null && residual.length() != length)
+            return null; //Different network in the same session
+        return residual;
+    }
+
+    private static synchronized void releaseResidual(String key, boolean updaterState, INDArray residual) {
+        if (key == null)
+            return;
+        if (!key.equals(residualSessionKey)) {
+            residualSessionKey = key;
+            paramResiduals.clear();
+            updaterResiduals.clear();
+        }
+        (updaterState ? updaterResiduals : paramResiduals).add(residual);
+    }
+
+    /**
+     * Remove all error feedback residuals kept by this JVM
+     */
+    public static synchronized void clearResiduals() {
+        residualSessionKey = null;
+        paramResiduals.clear();
+        updaterResiduals.clear();
+    }
+}
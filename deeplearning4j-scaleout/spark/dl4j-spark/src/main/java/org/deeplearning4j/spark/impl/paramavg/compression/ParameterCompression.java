@@ -0,0 +1,24 @@
+package org.deeplearning4j.spark.impl.paramavg.compression;
+
+/**
+ * Enumeration used to specify how the results of the workers (parameters and updater state) are compressed, before
+ * they are returned to the {@link org.deeplearning4j.spark.impl.paramavg.ParameterAveragingTrainingMaster}.<br>
+ * With any compression other than None, workers return the difference (delta) between their final parameters/updater
+ * state and the ones they started from, instead of the values themselves. Deltas are typically much smaller than the
+ * values, and are much less sensitive to the loss of precision.<br>
+ * <ul>
+ *     <li>None: no compression (default). Parameters and updater state are returned as-is</li>
+ *     <li>FP16: deltas are encoded as 16 bit (half precision) floating point values. Approx. 2x compression for
+ *         float networks, 4x for double networks. Deltas of magnitude 65520 or more overflow to +/- infinity</li>
+ *     <li>Quantized8Bit: deltas are quantized to 8 bit integers, with one scale per block of values. Approx. 4x
+ *         compression for float networks</li>
+ *     <li>TopKSparse: only the fraction of the delta values with the largest magnitudes are returned, as
+ *         (index, value) pairs. Compression of 0.5/fraction for float networks: approx. 5x for the default fraction
+ *         of 0.1</li>
+ * </ul>
+ * Quantized8Bit and TopKSparse use error feedback: the part of the delta lost by the compression is kept on the
+ * executor, and is added to the delta of a later averaging period.
+ */
+public enum ParameterCompression {
+    None, FP16, Quantized8Bit, TopKSparse
+}
@@ -27,7 +27,9 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
     public static final String FILENAME_FIT_TIME = "parameterAveragingMasterFitTimesMs.txt";
     public static final String FILENAME_SPLIT_TIME = "parameterAveragingMasterSplitTimesMs.txt";
     public static final String FILENAME_MAP_PARTITIONS_TIME = "parameterAveragingMasterMapPartitionsTimesMs.txt";
+    public static final String FILENAME_WORKER_RESULTS_TIME = "parameterAveragingMasterWorkerResultsTimesMs.txt";
     public static final String FILENAME_AGGREGATE_TIME = "parameterAveragingMasterAggregateTimesMs.txt";
+    public static final String FILENAME_DECODE_TIME = "parameterAveragingMasterDecodeTimesMs.txt";
     public static final String FILENAME_PROCESS_PARAMS_TIME = "parameterAveragingMasterProcessParamsUpdaterTimesMs.txt";
     public static final String FILENAME_REPARTITION_STATS = "parameterAveragingMasterRepartitionTimesMs.txt";
 
@@ -40,8 +42,11 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
     public static final String PARAMETER_AVERAGING_MASTER_SPLIT_TIMES_MS = "ParameterAveragingMasterSplitTimesMs";
     public static final String PARAMETER_AVERAGING_MASTER_MAP_PARTITIONS_TIMES_MS =
                     "ParameterAveragingMasterMapPartitionsTimesMs";
+    public static final String PARAMETER_AVERAGING_MASTER_WORKER_RESULTS_TIMES_MS =
+                    "ParameterAveragingMasterWorkerResultsTimesMs";
     public static final String PARAMETER_AVERAGING_MASTER_AGGREGATE_TIMES_MS =
                     "ParameterAveragingMasterAggregateTimesMs";
+    public static final String PARAMETER_AVERAGING_MASTER_DECODE_TIMES_MS = "ParameterAveragingMasterDecodeTimesMs";
     public static final String PARAMETER_AVERAGING_MASTER_PROCESS_PARAMS_UPDATER_TIMES_MS =
                     "ParameterAveragingMasterProcessParamsUpdaterTimesMs";
     public static final String PARAMETER_AVERAGING_MASTER_REPARTITION_TIMES_MS =
@@ -51,7 +56,8 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
                     PARAMETER_AVERAGING_MASTER_EXPORT_RDD_TIMES_MS, PARAMETER_AVERAGING_MASTER_COUNT_RDD_TIMES_MS,
                     PARAMETER_AVERAGING_MASTER_BROADCAST_CREATE_TIMES_MS, PARAMETER_AVERAGING_MASTER_FIT_TIMES_MS,
                     PARAMETER_AVERAGING_MASTER_SPLIT_TIMES_MS, PARAMETER_AVERAGING_MASTER_MAP_PARTITIONS_TIMES_MS,
-                    PARAMETER_AVERAGING_MASTER_AGGREGATE_TIMES_MS,
+                    PARAMETER_AVERAGING_MASTER_WORKER_RESULTS_TIMES_MS, PARAMETER_AVERAGING_MASTER_AGGREGATE_TIMES_MS,
+                    PARAMETER_AVERAGING_MASTER_DECODE_TIMES_MS,
                     PARAMETER_AVERAGING_MASTER_PROCESS_PARAMS_UPDATER_TIMES_MS,
                     PARAMETER_AVERAGING_MASTER_REPARTITION_TIMES_MS)));
 
@@ -62,7 +68,11 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
     private List<EventStats> parameterAveragingMasterFitTimesMs;
     private List<EventStats> parameterAveragingMasterSplitTimesMs;
     private List<EventStats> parameterAveragingMasterMapPartitionsTimesMs;
+    /** Only recorded for tree aggregation: time to fit on the workers, before aggregating the results */
+    private List<EventStats> parameterAveragingMasterWorkerResultsTimesMs;
     private List<EventStats> paramaterAveragingMasterAggregateTimesMs;
+    /** Only recorded for compressed worker results: time to decode and sum the results (part of the aggregation) */
+    private List<EventStats> parameterAveragingMasterDecodeTimesMs;
     private List<EventStats> parameterAveragingMasterProcessParamsUpdaterTimesMs;
     private List<EventStats> parameterAveragingMasterRepartitionTimesMs;
 
@@ -76,7 +86,9 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
                     List<EventStats> parameterAveragingMasterMapPartitionsTimesMs,
                     List<EventStats> parameterAveragingMasterAggregateTimesMs,
                     List<EventStats> parameterAveragingMasterProcessParamsUpdaterTimesMs,
-                    List<EventStats> parameterAveragingMasterRepartitionTimesMs) {
+                    List<EventStats> parameterAveragingMasterRepartitionTimesMs,
+                    List<EventStats> parameterAveragingMasterWorkerResultsTimesMs,
+                    List<EventStats> parameterAveragingMasterDecodeTimesMs) {
         this.workerStats = workerStats;
         this.parameterAveragingMasterExportTimesMs = parameterAveragingMasterExportTimesMs;
         this.parameterAveragingMasterCountRddSizeTimesMs = parameterAveragingMasterCountRddSizeTimesMs;
@@ -87,6 +99,8 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
         this.paramaterAveragingMasterAggregateTimesMs = parameterAveragingMasterAggregateTimesMs;
         this.parameterAveragingMasterProcessParamsUpdaterTimesMs = parameterAveragingMasterProcessParamsUpdaterTimesMs;
         this.parameterAveragingMasterRepartitionTimesMs = parameterAveragingMasterRepartitionTimesMs;
+        this.parameterAveragingMasterWorkerResultsTimesMs = parameterAveragingMasterWorkerResultsTimesMs;
+        this.parameterAveragingMasterDecodeTimesMs = parameterAveragingMasterDecodeTimesMs;
     }
 
 
@@ -113,8 +127,12 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
                 return parameterAveragingMasterSplitTimesMs;
             case PARAMETER_AVERAGING_MASTER_MAP_PARTITIONS_TIMES_MS:
                 return parameterAveragingMasterMapPartitionsTimesMs;
+            case PARAMETER_AVERAGING_MASTER_WORKER_RESULTS_TIMES_MS:
+                return parameterAveragingMasterWorkerResultsTimesMs;
             case PARAMETER_AVERAGING_MASTER_AGGREGATE_TIMES_MS:
                 return paramaterAveragingMasterAggregateTimesMs;
+            case PARAMETER_AVERAGING_MASTER_DECODE_TIMES_MS:
+                return parameterAveragingMasterDecodeTimesMs;
             case PARAMETER_AVERAGING_MASTER_PROCESS_PARAMS_UPDATER_TIMES_MS:
                 return parameterAveragingMasterProcessParamsUpdaterTimesMs;
             case PARAMETER_AVERAGING_MASTER_REPARTITION_TIMES_MS:
@@ -141,8 +159,12 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
                 return "Split";
             case PARAMETER_AVERAGING_MASTER_MAP_PARTITIONS_TIMES_MS:
                 return "MapPart";
+            case PARAMETER_AVERAGING_MASTER_WORKER_RESULTS_TIMES_MS:
+                return "WorkerResults";
             case PARAMETER_AVERAGING_MASTER_AGGREGATE_TIMES_MS:
                 return "Aggregate";
+            case PARAMETER_AVERAGING_MASTER_DECODE_TIMES_MS:
+                return "Decode";
             case PARAMETER_AVERAGING_MASTER_PROCESS_PARAMS_UPDATER_TIMES_MS:
                 return "ProcessParams";
             case PARAMETER_AVERAGING_MASTER_REPARTITION_TIMES_MS:
@@ -164,7 +186,9 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
             case PARAMETER_AVERAGING_MASTER_COUNT_RDD_TIMES_MS:
             case PARAMETER_AVERAGING_MASTER_SPLIT_TIMES_MS:
             case PARAMETER_AVERAGING_MASTER_BROADCAST_CREATE_TIMES_MS:
+            case PARAMETER_AVERAGING_MASTER_WORKER_RESULTS_TIMES_MS:
             case PARAMETER_AVERAGING_MASTER_AGGREGATE_TIMES_MS:
+            case PARAMETER_AVERAGING_MASTER_DECODE_TIMES_MS:
             case PARAMETER_AVERAGING_MASTER_PROCESS_PARAMS_UPDATER_TIMES_MS:
             case PARAMETER_AVERAGING_MASTER_REPARTITION_TIMES_MS:
                 return true;
@@ -196,6 +220,20 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
         this.parameterAveragingMasterBroadcastCreateTimesMs.addAll(o.parameterAveragingMasterBroadcastCreateTimesMs);
         this.parameterAveragingMasterRepartitionTimesMs.addAll(o.parameterAveragingMasterRepartitionTimesMs);
         this.parameterAveragingMasterFitTimesMs.addAll(o.parameterAveragingMasterFitTimesMs);
+        if (parameterAveragingMasterDecodeTimesMs == null) {
+            if (o.parameterAveragingMasterDecodeTimesMs != null)
+                parameterAveragingMasterDecodeTimesMs = o.parameterAveragingMasterDecodeTimesMs;
+        } else {
+            if (o.parameterAveragingMasterDecodeTimesMs != null)
+                parameterAveragingMasterDecodeTimesMs.addAll(o.parameterAveragingMasterDecodeTimesMs);
+        }
+        if (parameterAveragingMasterWorkerResultsTimesMs == null) {
+            if (o.parameterAveragingMasterWorkerResultsTimesMs != null)
+                parameterAveragingMasterWorkerResultsTimesMs = o.parameterAveragingMasterWorkerResultsTimesMs;
+        } else {
+            if (o.parameterAveragingMasterWorkerResultsTimesMs != null)
+                parameterAveragingMasterWorkerResultsTimesMs.addAll(o.parameterAveragingMasterWorkerResultsTimesMs);
+        }
         if (parameterAveragingMasterRepartitionTimesMs == null) {
             if (o.parameterAveragingMasterRepartitionTimesMs != null)
                 parameterAveragingMasterRepartitionTimesMs = o.parameterAveragingMasterRepartitionTimesMs;
@@ -257,11 +295,23 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
         else
             sb.append(StatsUtils.getDurationAsString(parameterAveragingMasterMapPartitionsTimesMs, ",")).append("\n");
 
+        sb.append(String.format(f, PARAMETER_AVERAGING_MASTER_WORKER_RESULTS_TIMES_MS));
+        if (parameterAveragingMasterWorkerResultsTimesMs == null)
+            sb.append("-\n");
+        else
+            sb.append(StatsUtils.getDurationAsString(parameterAveragingMasterWorkerResultsTimesMs, ",")).append("\n");
+
         sb.append(String.format(f, PARAMETER_AVERAGING_MASTER_AGGREGATE_TIMES_MS));
         if (paramaterAveragingMasterAggregateTimesMs == null)
             sb.append("-\n");
         else
             sb.append(StatsUtils.getDurationAsString(paramaterAveragingMasterAggregateTimesMs, ",")).append("\n");
+        sb.append(String.format(f, PARAMETER_AVERAGING_MASTER_DECODE_TIMES_MS));
+        if (parameterAveragingMasterDecodeTimesMs == null)
+            sb.append("-\n");
+        else
+            sb.append(StatsUtils.getDurationAsString(parameterAveragingMasterDecodeTimesMs, ",")).append("\n");
+
 
         sb.append(String.format(f, PARAMETER_AVERAGING_MASTER_PROCESS_PARAMS_UPDATER_TIMES_MS));
         if (parameterAveragingMasterProcessParamsUpdaterTimesMs == null)
@@ -308,10 +358,18 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
         String mapPartitionsPath = FilenameUtils.concat(outputPath, FILENAME_MAP_PARTITIONS_TIME);
         StatsUtils.exportStats(parameterAveragingMasterMapPartitionsTimesMs, mapPartitionsPath, d, sc);
 
+        //Worker results time (tree aggregation only):
+        String workerResultsPath = FilenameUtils.concat(outputPath, FILENAME_WORKER_RESULTS_TIME);
+        StatsUtils.exportStats(parameterAveragingMasterWorkerResultsTimesMs, workerResultsPath, d, sc);
+
         //Aggregate time:
         String aggregatePath = FilenameUtils.concat(outputPath, FILENAME_AGGREGATE_TIME);
         StatsUtils.exportStats(paramaterAveragingMasterAggregateTimesMs, aggregatePath, d, sc);
 
+        //Decode time (compressed worker results only):
+        String decodePath = FilenameUtils.concat(outputPath, FILENAME_DECODE_TIME);
+        StatsUtils.exportStats(parameterAveragingMasterDecodeTimesMs, decodePath, d, sc);
+
         //broadcast create time:
         String processParamsPath = FilenameUtils.concat(outputPath, FILENAME_PROCESS_PARAMS_TIME);
         StatsUtils.exportStats(parameterAveragingMasterProcessParamsUpdaterTimesMs, processParamsPath, d, sc);
@@ -335,7 +393,9 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
         private long lastFitStartTime;
         private long lastSplitStartTime;
         private long lastMapPartitionsStartTime;
+        private long lastWorkerResultsStartTime;
         private long lastAggregateStartTime;
+        private long lastDecodeStartTime;
         private long lastProcessParamsUpdaterStartTime;
 
         private SparkTrainingStats workerStats;
@@ -347,7 +407,9 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
         private List<EventStats> fitTimes = new ArrayList<>();
         private List<EventStats> splitTimes = new ArrayList<>();
         private List<EventStats> mapPartitions = new ArrayList<>();
+        private List<EventStats> workerResultsTimes = new ArrayList<>();
         private List<EventStats> aggregateTimes = new ArrayList<>();
+        private List<EventStats> decodeTimes = new ArrayList<>();
         private List<EventStats> processParamsUpdaterTimes = new ArrayList<>();
 
         private final TimeSource timeSource = TimeSourceProvider.getInstance();
@@ -419,6 +481,24 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
                             (now - lastMapPartitionsStartTime), nPartitions));
         }
 
+        public void logWorkerResultsStart() {
+            lastWorkerResultsStartTime = timeSource.currentTimeMillis();
+        }
+
+        public void logWorkerResultsEnd() {
+            long now = timeSource.currentTimeMillis();
+            workerResultsTimes.add(new BaseEventStats(lastWorkerResultsStartTime, now - lastWorkerResultsStartTime));
+        }
+
+        public void logDecodeStart() {
+            lastDecodeStartTime = timeSource.currentTimeMillis();
+        }
+
+        public void logDecodeEnd() {
+            long now = timeSource.currentTimeMillis();
+            decodeTimes.add(new BaseEventStats(lastDecodeStartTime, now - lastDecodeStartTime));
+        }
+
         public void logAggregateStartTime() {
             lastAggregateStartTime = timeSource.currentTimeMillis();
         }
@@ -448,7 +528,7 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
         public ParameterAveragingTrainingMasterStats build() {
             return new ParameterAveragingTrainingMasterStats(workerStats, exportTimes, countTimes, broadcastTimes,
                             fitTimes, splitTimes, mapPartitions, aggregateTimes, processParamsUpdaterTimes,
-                            repartitionTimes);
+                            repartitionTimes, workerResultsTimes, decodeTimes);
         }
 
     }
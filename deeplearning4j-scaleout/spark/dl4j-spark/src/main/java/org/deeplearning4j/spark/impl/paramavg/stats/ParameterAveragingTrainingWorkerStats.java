@@ -5,6 +5,7 @@ import org.apache.spark.SparkContext;
 import org.deeplearning4j.spark.api.stats.CommonSparkTrainingStats;
 import org.deeplearning4j.spark.api.stats.SparkTrainingStats;
 import org.deeplearning4j.spark.stats.BaseEventStats;
+import org.deeplearning4j.spark.stats.CompressionEventStats;
 import org.deeplearning4j.spark.stats.EventStats;
 import org.deeplearning4j.spark.stats.ExampleCountEventStats;
 import org.deeplearning4j.spark.stats.StatsUtils;
@@ -26,25 +27,49 @@ public class ParameterAveragingTrainingWorkerStats implements SparkTrainingStats
     public static final String FILENAME_BROADCAST_GET_STATS = "parameterAveragingWorkerBroadcastGetValueTimeMs.txt";
     public static final String FILENAME_INIT_STATS = "parameterAveragingWorkerInitTimeMs.txt";
     public static final String FILENAME_FIT_STATS = "parameterAveragingWorkerFitTimesMs.txt";
+    public static final String FILENAME_ENCODE_STATS = "parameterAveragingWorkerEncodeTimesMs.txt";
 
     private List<EventStats> parameterAveragingWorkerBroadcastGetValueTimeMs;
     private List<EventStats> parameterAveragingWorkerInitTimeMs;
     private List<EventStats> parameterAveragingWorkerFitTimesMs;
+    /** Only recorded for compressed results: {@link CompressionEventStats}, with the encoded size */
+    private List<EventStats> parameterAveragingWorkerEncodeTimesMs;
 
     public static final String PARAMETER_AVERAGING_WORKER_BROADCAST_GET_VALUE_TIME_MS =
                     "ParameterAveragingWorkerBroadcastGetValueTimeMs";
     public static final String PARAMETER_AVERAGING_WORKER_INIT_TIME_MS = "ParameterAveragingWorkerInitTimeMs";
     public static final String PARAMETER_AVERAGING_WORKER_FIT_TIMES_MS = "ParameterAveragingWorkerFitTimesMs";
+    public static final String PARAMETER_AVERAGING_WORKER_ENCODE_TIMES_MS = "ParameterAveragingWorkerEncodeTimesMs";
     private static Set<String> columnNames = Collections.unmodifiableSet(
                     new LinkedHashSet<>(Arrays.asList(PARAMETER_AVERAGING_WORKER_BROADCAST_GET_VALUE_TIME_MS,
-                                    PARAMETER_AVERAGING_WORKER_INIT_TIME_MS, PARAMETER_AVERAGING_WORKER_FIT_TIMES_MS)));
+                                    PARAMETER_AVERAGING_WORKER_INIT_TIME_MS, PARAMETER_AVERAGING_WORKER_FIT_TIMES_MS,
+                                    PARAMETER_AVERAGING_WORKER_ENCODE_TIMES_MS)));
 
     public ParameterAveragingTrainingWorkerStats(List<EventStats> parameterAveragingWorkerBroadcastGetValueTimeMs,
                     List<EventStats> parameterAveragingWorkerInitTimeMs,
                     List<EventStats> parameterAveragingWorkerFitTimesMs) {
+        this(parameterAveragingWorkerBroadcastGetValueTimeMs, parameterAveragingWorkerInitTimeMs,
+                        parameterAveragingWorkerFitTimesMs, new ArrayList<EventStats>());
+    }
+
+    public ParameterAveragingTrainingWorkerStats(List<EventStats> parameterAveragingWorkerBroadcastGetValueTimeMs,
+                    List<EventStats> parameterAveragingWorkerInitTimeMs,
+                    List<EventStats> parameterAveragingWorkerFitTimesMs,
+                    List<EventStats> parameterAveragingWorkerEncodeTimesMs) {
         this.parameterAveragingWorkerBroadcastGetValueTimeMs = parameterAveragingWorkerBroadcastGetValueTimeMs;
         this.parameterAveragingWorkerInitTimeMs = parameterAveragingWorkerInitTimeMs;
         this.parameterAveragingWorkerFitTimesMs = parameterAveragingWorkerFitTimesMs;
+        this.parameterAveragingWorkerEncodeTimesMs = parameterAveragingWorkerEncodeTimesMs;
+    }
+
+    /**
+     * @return Overall compression ratio (uncompressed size / compressed size) of the worker results, or 0 if the
+     * results were not compressed
+     */
+    public double getCompressionRatio() {
+        if (parameterAveragingWorkerEncodeTimesMs == null)
+            return 0.0;
+        return CompressionEventStats.getOverallCompressionRatio(parameterAveragingWorkerEncodeTimesMs);
     }
 
     @Override
@@ -61,6 +86,8 @@ public class ParameterAveragingTrainingWorkerStats implements SparkTrainingStats
                 return parameterAveragingWorkerInitTimeMs;
             case PARAMETER_AVERAGING_WORKER_FIT_TIMES_MS:
                 return parameterAveragingWorkerFitTimesMs;
+            case PARAMETER_AVERAGING_WORKER_ENCODE_TIMES_MS:
+                return parameterAveragingWorkerEncodeTimesMs;
             default:
                 throw new IllegalArgumentException("Unknown key: \"" + key + "\"");
         }
@@ -75,6 +102,8 @@ public class ParameterAveragingTrainingWorkerStats implements SparkTrainingStats
                 return "ModelInit";
             case PARAMETER_AVERAGING_WORKER_FIT_TIMES_MS:
                 return "Fit";
+            case PARAMETER_AVERAGING_WORKER_ENCODE_TIMES_MS:
+                return "Encode";
             default:
                 throw new IllegalArgumentException("Unknown key: \"" + key + "\"");
         }
@@ -86,6 +115,7 @@ public class ParameterAveragingTrainingWorkerStats implements SparkTrainingStats
             case PARAMETER_AVERAGING_WORKER_BROADCAST_GET_VALUE_TIME_MS:
             case PARAMETER_AVERAGING_WORKER_INIT_TIME_MS:
             case PARAMETER_AVERAGING_WORKER_FIT_TIMES_MS:
+            case PARAMETER_AVERAGING_WORKER_ENCODE_TIMES_MS:
                 return true;
             default:
                 throw new IllegalArgumentException("Unknown key: \"" + key + "\"");
@@ -103,6 +133,13 @@ public class ParameterAveragingTrainingWorkerStats implements SparkTrainingStats
         this.parameterAveragingWorkerBroadcastGetValueTimeMs.addAll(o.parameterAveragingWorkerBroadcastGetValueTimeMs);
         this.parameterAveragingWorkerInitTimeMs.addAll(o.parameterAveragingWorkerInitTimeMs);
         this.parameterAveragingWorkerFitTimesMs.addAll(o.parameterAveragingWorkerFitTimesMs);
+        if (parameterAveragingWorkerEncodeTimesMs == null) {
+            if (o.parameterAveragingWorkerEncodeTimesMs != null)
+                parameterAveragingWorkerEncodeTimesMs = o.parameterAveragingWorkerEncodeTimesMs;
+        } else {
+            if (o.parameterAveragingWorkerEncodeTimesMs != null)
+                parameterAveragingWorkerEncodeTimesMs.addAll(o.parameterAveragingWorkerEncodeTimesMs);
+        }
     }
 
     @Override
@@ -134,6 +171,13 @@ public class ParameterAveragingTrainingWorkerStats implements SparkTrainingStats
         else
             sb.append(StatsUtils.getDurationAsString(parameterAveragingWorkerFitTimesMs, ",")).append("\n");
 
+        sb.append(String.format(f, PARAMETER_AVERAGING_WORKER_ENCODE_TIMES_MS));
+        if (parameterAveragingWorkerEncodeTimesMs == null || parameterAveragingWorkerEncodeTimesMs.isEmpty())
+            sb.append("-\n");
+        else
+            sb.append(StatsUtils.getDurationAsString(parameterAveragingWorkerEncodeTimesMs, ","))
+                            .append(String.format(" (compression ratio: %.2f)", getCompressionRatio())).append("\n");
+
         return sb.toString();
     }
 
@@ -150,6 +194,10 @@ public class ParameterAveragingTrainingWorkerStats implements SparkTrainingStats
 
         //Network fit time:
         StatsUtils.exportStats(parameterAveragingWorkerFitTimesMs, outputPath, FILENAME_FIT_STATS, d, sc);
+
+        //Result encoding time and sizes (compressed results only):
+        if (parameterAveragingWorkerEncodeTimesMs != null)
+            StatsUtils.exportStats(parameterAveragingWorkerEncodeTimesMs, outputPath, FILENAME_ENCODE_STATS, d, sc);
     }
 
     public static class ParameterAveragingTrainingWorkerStatsHelper {
@@ -157,8 +205,10 @@ public class ParameterAveragingTrainingWorkerStats implements SparkTrainingStats
         private long broadcastEndTime;
         private long initEndTime;
         private long lastFitStartTime;
+        private long lastEncodeStartTime;
         //TODO replace with fast int collection (no boxing)
         private List<EventStats> fitTimes = new ArrayList<>();
+        private List<EventStats> encodeTimes = new ArrayList<>();
 
         private final TimeSource timeSource = TimeSourceProvider.getInstance();
 
@@ -184,6 +234,16 @@ public class ParameterAveragingTrainingWorkerStats implements SparkTrainingStats
             fitTimes.add(new ExampleCountEventStats(lastFitStartTime, now - lastFitStartTime, numExamples));
         }
 
+        public void logEncodeStart() {
+            lastEncodeStartTime = timeSource.currentTimeMillis();
+        }
+
+        public void logEncodeEnd(long uncompressedBytes, long compressedBytes) {
+            long now = timeSource.currentTimeMillis();
+            encodeTimes.add(new CompressionEventStats(lastEncodeStartTime, now - lastEncodeStartTime,
+                            uncompressedBytes, compressedBytes));
+        }
+
         public ParameterAveragingTrainingWorkerStats build() {
             //Using ArrayList not Collections.singletonList() etc so we can add to them later (during merging)
             List<EventStats> bList = new ArrayList<>();
@@ -191,7 +251,7 @@ public class ParameterAveragingTrainingWorkerStats implements SparkTrainingStats
             List<EventStats> initList = new ArrayList<>();
             initList.add(new BaseEventStats(broadcastEndTime, initEndTime - broadcastEndTime)); //Init starts at same time that broadcast ends
 
-            return new ParameterAveragingTrainingWorkerStats(bList, initList, fitTimes);
+            return new ParameterAveragingTrainingWorkerStats(bList, initList, fitTimes, encodeTimes);
         }
     }
 }
@@ -4,6 +4,8 @@ import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
+import org.deeplearning4j.spark.data.shard.DataSetShardReader;
+import org.deeplearning4j.spark.data.shard.ShardBlockReference;
 import org.nd4j.linalg.dataset.DataSet;
 import org.nd4j.linalg.dataset.api.DataSetPreProcessor;
 import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
@@ -17,7 +19,10 @@ import java.util.List;
 
 /**
  * A DataSetIterator that loads serialized DataSet objects (saved with {@link DataSet#save(OutputStream)}) from
- * a String that represents the path (for example, on HDFS)
+ * a String that represents the path (for example, on HDFS).<br>
+ * Paths may also be references to blocks in shard files ("shardPath#offset,length", as exported with
+ * {@link org.deeplearning4j.spark.api.ExportFormat#MemoryMapped}), in which case the DataSet is read with a
+ * {@link DataSetShardReader}
  *
  * @author Alex Black
  */
@@ -25,6 +30,7 @@ public class PathSparkDataSetIterator extends BaseDataSetIterator<String> {
 
     public static final int BUFFER_SIZE = 4194304; //4 MB
     private FileSystem fileSystem;
+    private DataSetShardReader shardReader;
 
     public PathSparkDataSetIterator(Iterator<String> iter) {
         this.dataSetStreams = null;
@@ -61,6 +67,12 @@ public class PathSparkDataSetIterator extends BaseDataSetIterator<String> {
     }
 
     protected synchronized DataSet load(String path) {
+        ShardBlockReference blockReference = null;
+        if (ShardBlockReference.isReference(path)) {
+            blockReference = ShardBlockReference.parse(path);
+            path = blockReference.getShardPath();
+        }
+
         if (fileSystem == null) {
             try {
                 fileSystem = FileSystem.get(new URI(path), new Configuration());
@@ -69,11 +81,22 @@ public class PathSparkDataSetIterator extends BaseDataSetIterator<String> {
             }
         }
 
-        DataSet ds = new DataSet();
-        try (FSDataInputStream inputStream = fileSystem.open(new Path(path), BUFFER_SIZE)) {
-            ds.load(inputStream);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+        DataSet ds;
+        if (blockReference != null) {
+            if (shardReader == null)
+                shardReader = new DataSetShardReader(fileSystem);
+            try {
+                ds = shardReader.read(blockReference);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        } else {
+            ds = new DataSet();
+            try (FSDataInputStream inputStream = fileSystem.open(new Path(path), BUFFER_SIZE)) {
+                ds.load(inputStream);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
         }
 
         cursor++;
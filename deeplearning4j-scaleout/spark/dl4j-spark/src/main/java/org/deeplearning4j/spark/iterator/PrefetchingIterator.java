@@ -0,0 +1,225 @@
+package org.deeplearning4j.spark.iterator;
+
+import org.apache.spark.input.PortableDataStream;
+import org.deeplearning4j.spark.stats.BaseEventStats;
+import org.deeplearning4j.spark.stats.EventStats;
+import org.deeplearning4j.spark.time.TimeSource;
+import org.deeplearning4j.spark.time.TimeSourceProvider;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.dataset.api.MultiDataSet;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An iterator that loads the elements of a source iterator (for example, opening and deserializing
+ * {@link PortableDataStream}s) in background threads, so that the loading of the next elements overlaps with the
+ * processing (training) of the current one.<br>
+ * At most {@code prefetchCount} elements are loaded or being loaded at any time. In addition, the memory used by these
+ * elements is bounded by {@code maxPrefetchBytes}, with the size of each element estimated as the size of the largest
+ * element loaded so far. Until the first element has been loaded, only one element is loaded at a time.
+ * Elements are returned in the order of the source iterator. The source iterator itself is only used from the thread
+ * calling {@link #next()}.<br>
+ * Optionally, the time spent in {@link #next()} waiting for an element to be loaded is recorded as one
+ * {@link EventStats} per element: see {@link #getLoadWaitTimes()}. Note that these are waits of the thread calling
+ * {@link #next()}: when this iterator is wrapped in an asynchronous iterator, that is the asynchronous prefetch thread,
+ * and not the thread that processes the elements.
+ * <p>
+ * {@link #shutdown()} must be called when the iterator is no longer required, to stop the loader threads.
+ *
+ * @param <S> Type of the source elements
+ * @param <T> Type of the loaded elements
+ */
+public abstract class PrefetchingIterator<S, T> implements Iterator<T> {
+
+    public static final long DEFAULT_MAX_PREFETCH_BYTES = 512L * 1024 * 1024;
+    public static final int MAX_LOADER_THREADS = 4;
+
+    private final Iterator<S> source;
+    private final int prefetchCount;
+    private final long maxPrefetchBytes;
+    private final ExecutorService executor;
+    private final Deque<Future<T>> loading = new ArrayDeque<>();
+    private final AtomicLong maxElementBytes = new AtomicLong(-1); //-1: unknown
+    private final List<EventStats> loadWaitTimes;
+    private final TimeSource timeSource;
+
+    /**
+     * @param source               Iterator with the elements to load
+     * @param prefetchCount        Maximum number of elements to load ahead. Must be > 0
+     * @param maxPrefetchBytes     Maximum array memory (in bytes) of the elements loaded ahead of time
+     * @param collectLoadWaitTimes Whether to record the load wait times
+     */
+    public PrefetchingIterator(Iterator<S> source, int prefetchCount, long maxPrefetchBytes,
+                    boolean collectLoadWaitTimes) {
+        if (prefetchCount <= 0)
+            throw new IllegalArgumentException("Invalid prefetch count: must be > 0, got " + prefetchCount);
+        this.source = source;
+        this.prefetchCount = prefetchCount;
+        this.maxPrefetchBytes = maxPrefetchBytes;
+        this.loadWaitTimes = (collectLoadWaitTimes ? Collections.synchronizedList(new ArrayList<EventStats>()) : null);
+        this.timeSource = (collectLoadWaitTimes ? TimeSourceProvider.getInstance() : null);
+        this.executor = Executors.newFixedThreadPool(Math.min(prefetchCount, MAX_LOADER_THREADS),
+                        new ThreadFactory() {
+                            @Override
+                            public Thread newThread(Runnable r) {
+                                Thread t = Executors.defaultThreadFactory().newThread(r);
+                                t.setName("PrefetchingIterator-" + t.getName());
+                                t.setDaemon(true);
+                                return t;
+                            }
+                        });
+        startLoads();
+    }
+
+    /**
+     * Load (open, read and deserialize) one element. Called from a loader thread
+     */
+    protected abstract T load(S element) throws IOException;
+
+    /**
+     * @return Approximate memory used by the arrays of the loaded element, in bytes
+     */
+    protected abstract long sizeBytes(T loaded);
+
+    /**
+     * @return The load wait times (one per element returned by {@link #next()}), or null if they are not collected.
+     * The list is synchronized: it may be appended to while it is being read
+     */
+    public List<EventStats> getLoadWaitTimes() {
+        return loadWaitTimes;
+    }
+
+    @Override
+    public synchronized boolean hasNext() {
+        return !loading.isEmpty() || source.hasNext();
+    }
+
+    @Override
+    public synchronized T next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+        startLoads();
+
+        Future<T> future = loading.poll();
+        long start = (timeSource != null ? timeSource.currentTimeMillis() : 0);
+        T next;
+        try {
+            next = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Error loading data in prefetch thread", e.getCause());
+        }
+        if (timeSource != null)
+            loadWaitTimes.add(new BaseEventStats(start, timeSource.currentTimeMillis() - start));
+
+        startLoads();
+        return next;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Stop the loader threads. Elements that are still being loaded are discarded
+     */
+    public synchronized void shutdown() {
+        for (Future<T> f : loading)
+            f.cancel(true);
+        loading.clear();
+        executor.shutdownNow();
+    }
+
+    private void startLoads() {
+        //Always load at least one element, even if it exceeds the memory limit
+        while (source.hasNext() && (loading.isEmpty() || canLoadMore())) {
+            final S element = source.next();
+            loading.add(executor.submit(new Callable<T>() {
+                @Override
+                public T call() throws Exception {
+                    T loaded = load(element);
+                    long bytes = sizeBytes(loaded);
+                    long current;
+                    do {
+                        current = maxElementBytes.get();
+                    } while (bytes > current && !maxElementBytes.compareAndSet(current, bytes));
+                    return loaded;
+                }
+            }));
+        }
+    }
+
+    private boolean canLoadMore() {
+        if (loading.size() >= prefetchCount)
+            return false;
+        long elementBytes = maxElementBytes.get();
+        return elementBytes >= 0 && (loading.size() + 1) * elementBytes <= maxPrefetchBytes;
+    }
+
+    private static long arrayBytes(INDArray... arrays) {
+        long bytes = 0;
+        if (arrays != null) {
+            for (INDArray arr : arrays) {
+                if (arr != null)
+                    bytes += arr.length() * (long) arr.data().getElementSize();
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Prefetching iterator for DataSet objects, serialized with {@link DataSet#save(java.io.OutputStream)}
+     */
+    public static PrefetchingIterator<PortableDataStream, DataSet> forDataSets(Iterator<PortableDataStream> iter,
+                    int prefetchCount, boolean collectLoadWaitTimes) {
+        return new PrefetchingIterator<PortableDataStream, DataSet>(iter, prefetchCount, DEFAULT_MAX_PREFETCH_BYTES,
+                        collectLoadWaitTimes) {
+            @Override
+            protected DataSet load(PortableDataStream pds) throws IOException {
+                DataSet ds = new DataSet();
+                try (InputStream is = pds.open()) {
+                    ds.load(is);
+                }
+                return ds;
+            }
+
+            @Override
+            protected long sizeBytes(DataSet ds) {
+                return arrayBytes(ds.getFeatures(), ds.getLabels(), ds.getFeaturesMaskArray(),
+                                ds.getLabelsMaskArray());
+            }
+        };
+    }
+
+    /**
+     * Prefetching iterator for MultiDataSet objects, serialized with {@link MultiDataSet#save(java.io.OutputStream)}
+     */
+    public static PrefetchingIterator<PortableDataStream, MultiDataSet> forMultiDataSets(
+                    Iterator<PortableDataStream> iter, int prefetchCount, boolean collectLoadWaitTimes) {
+        return new PrefetchingIterator<PortableDataStream, MultiDataSet>(iter, prefetchCount,
+                        DEFAULT_MAX_PREFETCH_BYTES, collectLoadWaitTimes) {
+            @Override
+            protected MultiDataSet load(PortableDataStream pds) throws IOException {
+                MultiDataSet mds = new org.nd4j.linalg.dataset.MultiDataSet();
+                try (InputStream is = pds.open()) {
+                    mds.load(is);
+                }
+                return mds;
+            }
+
+            @Override
+            protected long sizeBytes(MultiDataSet mds) {
+                return arrayBytes(mds.getFeatures()) + arrayBytes(mds.getLabels())
+                                + arrayBytes(mds.getFeaturesMaskArrays()) + arrayBytes(mds.getLabelsMaskArrays());
+            }
+        };
+    }
+}
@@ -0,0 +1,64 @@
+package org.deeplearning4j.spark.stats;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Event stats implementation for encoding (compressing) data, with the size before and after compression
+ */
+public class CompressionEventStats extends BaseEventStats {
+
+    @Getter
+    private final long uncompressedBytes;
+    @Getter
+    private final long compressedBytes;
+
+    public CompressionEventStats(long startTime, long durationMs, long uncompressedBytes, long compressedBytes) {
+        super(startTime, durationMs);
+        this.uncompressedBytes = uncompressedBytes;
+        this.compressedBytes = compressedBytes;
+    }
+
+    public CompressionEventStats(String machineId, String jvmId, long threadId, long startTime, long durationMs,
+                    long uncompressedBytes, long compressedBytes) {
+        super(machineId, jvmId, threadId, startTime, durationMs);
+        this.uncompressedBytes = uncompressedBytes;
+        this.compressedBytes = compressedBytes;
+    }
+
+    /**
+     * @return Compression ratio: uncompressed size / compressed size
+     */
+    public double getCompressionRatio() {
+        return (compressedBytes == 0 ? 0.0 : uncompressedBytes / (double) compressedBytes);
+    }
+
+    /**
+     * Get the overall compression ratio (total uncompressed size / total compressed size) of the
+     * CompressionEventStats in the list. Other EventStats are ignored
+     *
+     * @return Overall compression ratio, or 0 if the list has no CompressionEventStats
+     */
+    public static double getOverallCompressionRatio(List<EventStats> list) {
+        long uncompressed = 0;
+        long compressed = 0;
+        for (EventStats e : list) {
+            if (e instanceof CompressionEventStats) {
+                uncompressed += ((CompressionEventStats) e).uncompressedBytes;
+                compressed += ((CompressionEventStats) e).compressedBytes;
+            }
+        }
+        return (compressed == 0 ? 0.0 : uncompressed / (double) compressed);
+    }
+
+    @Override
+    public String asString(String delimiter) {
+        return super.asString(delimiter) + delimiter + uncompressedBytes + delimiter + compressedBytes;
+    }
+
+    @Override
+    public String getStringHeader(String delimiter) {
+        return super.getStringHeader(delimiter) + delimiter + "uncompressedBytes" + delimiter + "compressedBytes";
+    }
+}
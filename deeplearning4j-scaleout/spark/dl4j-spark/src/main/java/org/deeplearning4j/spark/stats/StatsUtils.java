@@ -186,22 +186,28 @@ public class StatsUtils {
 
             //TODO this is really ugly
             if (!list.isEmpty() && (list.get(0) instanceof ExampleCountEventStats
-                            || list.get(0) instanceof PartitionCountEventStats)) {
+                            || list.get(0) instanceof PartitionCountEventStats
+                            || list.get(0) instanceof CompressionEventStats)) {
                 boolean exCount = list.get(0) instanceof ExampleCountEventStats;
+                boolean compression = list.get(0) instanceof CompressionEventStats;
 
                 double[] y = new double[list.size()];
                 double miny = Double.MAX_VALUE;
                 double maxy = -Double.MAX_VALUE;
                 for (int i = 0; i < y.length; i++) {
-                    y[i] = (exCount ? ((ExampleCountEventStats) list.get(i)).getTotalExampleCount()
-                                    : ((PartitionCountEventStats) list.get(i)).getNumPartitions());
+                    if (compression)
+                        y[i] = ((CompressionEventStats) list.get(i)).getCompressionRatio();
+                    else
+                        y[i] = (exCount ? ((ExampleCountEventStats) list.get(i)).getTotalExampleCount()
+                                        : ((PartitionCountEventStats) list.get(i)).getNumPartitions());
                     miny = Math.min(miny, y[i]);
                     maxy = Math.max(maxy, y[i]);
                 }
 
-                String title = s + " / " + (exCount ? "Number of Examples" : "Number of Partitions");
+                String title = s + " / " + (compression ? "Compression Ratio"
+                                : (exCount ? "Number of Examples" : "Number of Partitions"));
                 Component line2 = new ChartLine.Builder(title, styleChart)
-                                .addSeries((exCount ? "Examples" : "Partitions"), x, y)
+                                .addSeries((compression ? "Ratio" : (exCount ? "Examples" : "Partitions")), x, y)
                                 .setYMin(miny == maxy ? miny - 1 : null).setYMax(miny == maxy ? miny + 1 : null)
                                 .build();
 
@@ -0,0 +1,72 @@
+package org.deeplearning4j.spark.data.shard;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.junit.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TestDataSetShards {
+
+    @Test
+    public void testShardBlockReference() {
+        ShardBlockReference ref = new ShardBlockReference("/some/dir#1/dataset_0_shard0.dl4jshard", 128, 4096);
+        String s = ref.toString();
+        assertTrue(ShardBlockReference.isReference(s));
+        assertEquals(ref, ShardBlockReference.parse(s));
+
+        assertFalse(ShardBlockReference.isReference("/some/dir/dataset_0_0.bin"));
+        assertFalse(ShardBlockReference.isReference("/some/dir#1/dataset_0_0.bin"));
+        assertFalse(ShardBlockReference.isReference("/some/dir/file#12,"));
+    }
+
+    @Test
+    public void testWriteRead() throws Exception {
+        File f = File.createTempFile("dl4j_testShardWriteRead", DataSetShardFormat.SHARD_EXTENSION);
+        f.deleteOnExit();
+
+        Nd4j.getRandom().setSeed(12345);
+        List<DataSet> dataSets = new ArrayList<>();
+        //Standard, time series with masks, and a non-contiguous view
+        dataSets.add(new DataSet(Nd4j.rand(5, 4), Nd4j.rand(5, 3)));
+        dataSets.add(new DataSet(Nd4j.rand(new int[] {3, 2, 6}), Nd4j.rand(new int[] {3, 4, 6}),
+                        Nd4j.ones(3, 6), Nd4j.zeros(3, 6).addi(0.5)));
+        INDArray large = Nd4j.rand(10, 10);
+        dataSets.add(new DataSet(large.get(NDArrayIndex.interval(2, 7), NDArrayIndex.interval(1, 5)),
+                        Nd4j.rand(5, 3)));
+
+        List<ShardBlockReference> refs = new ArrayList<>();
+        try (DataSetShardWriter writer = new DataSetShardWriter(new FileOutputStream(f), f.getPath())) {
+            for (DataSet ds : dataSets)
+                refs.add(writer.write(ds));
+        }
+
+        DataSetShardReader reader = new DataSetShardReader(FileSystem.getLocal(new Configuration()));
+        for (int i = 0; i < dataSets.size(); i++) {
+            ShardBlockReference ref = refs.get(i);
+            assertEquals(0, ref.getOffset() % DataSetShardFormat.ALIGNMENT);
+
+            DataSet expected = dataSets.get(i);
+            DataSet actual = reader.read(ref);
+            assertEquals(expected.getFeatures(), actual.getFeatures());
+            assertEquals(expected.getLabels(), actual.getLabels());
+            assertEquals(expected.getFeaturesMaskArray(), actual.getFeaturesMaskArray());
+            assertEquals(expected.getLabelsMaskArray(), actual.getLabelsMaskArray());
+
+            //In-place modification must not change the shard
+            actual.getFeatures().muli(2.0);
+            assertEquals(expected.getFeatures(), reader.read(ref).getFeatures());
+        }
+
+        f.delete();
+    }
+}
@@ -20,8 +20,12 @@ import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.spark.api.java.JavaRDD;
 import org.deeplearning4j.spark.BaseSparkTest;
+import org.deeplearning4j.spark.api.ExportFormat;
 import org.deeplearning4j.spark.data.BatchAndExportDataSetsFunction;
 import org.deeplearning4j.spark.data.BatchAndExportMultiDataSetsFunction;
+import org.deeplearning4j.spark.data.shard.DataSetShardFormat;
+import org.deeplearning4j.spark.data.shard.ShardBlockReference;
+import org.deeplearning4j.spark.iterator.PathSparkDataSetIterator;
 import org.junit.Test;
 import org.nd4j.linalg.dataset.DataSet;
 import org.nd4j.linalg.dataset.api.MultiDataSet;
@@ -35,6 +39,7 @@ import java.util.Random;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Created by Alex on 29/08/2016.
@@ -99,6 +104,85 @@ public class TestExport extends BaseSparkTest {
         FileUtils.deleteDirectory(f);
     }
 
+    @Test
+    public void testBatchAndExportDataSetsFunctionMemoryMapped() throws Exception {
+        String baseDir = System.getProperty("java.io.tmpdir");
+        baseDir = FilenameUtils.concat(baseDir, "dl4j_spark_testBatchAndExportMemoryMapped/");
+        baseDir = baseDir.replaceAll("\\\\", "/");
+        File f = new File(baseDir);
+        if (f.exists())
+            FileUtils.deleteDirectory(f);
+        f.mkdir();
+        f.deleteOnExit();
+        int minibatchSize = 5;
+        int nIn = 4;
+        int nOut = 3;
+
+        Nd4j.getRandom().setSeed(12345);
+        List<DataSet> dataSets = new ArrayList<>();
+        dataSets.add(new DataSet(Nd4j.rand(10, nIn), Nd4j.rand(10, nOut))); //Larger than minibatch size -> tests splitting
+        for (int i = 0; i < 98; i++) {
+            if (i % 2 == 0) {
+                dataSets.add(new DataSet(Nd4j.rand(5, nIn), Nd4j.rand(5, nOut)));
+            } else {
+                dataSets.add(new DataSet(Nd4j.rand(1, nIn), Nd4j.rand(1, nOut)));
+                dataSets.add(new DataSet(Nd4j.rand(1, nIn), Nd4j.rand(1, nOut)));
+                dataSets.add(new DataSet(Nd4j.rand(3, nIn), Nd4j.rand(3, nOut)));
+            }
+        }
+        double expFeatureSum = 0.0;
+        double expLabelSum = 0.0;
+        for (DataSet ds : dataSets) {
+            expFeatureSum += ds.getFeatures().sumNumber().doubleValue();
+            expLabelSum += ds.getLabels().sumNumber().doubleValue();
+        }
+
+        Collections.shuffle(dataSets, new Random(12345));
+
+        JavaRDD<DataSet> rdd = sc.parallelize(dataSets);
+        rdd = rdd.repartition(1); //For testing purposes (should get exactly 100 out, but maybe more with more partitions)
+
+        //Small maximum shard size: multiple minibatches per shard, and multiple shards
+        JavaRDD<String> pathsRdd = rdd.mapPartitionsWithIndex(new BatchAndExportDataSetsFunction(minibatchSize,
+                        "file:///" + baseDir, ExportFormat.MemoryMapped, 4096), true);
+
+        List<String> paths = pathsRdd.collect();
+        assertEquals(100, paths.size());
+        for (String s : paths) {
+            assertTrue(s, ShardBlockReference.isReference(s));
+            assertEquals(0, ShardBlockReference.parse(s).getOffset() % DataSetShardFormat.ALIGNMENT);
+        }
+
+        File[] files = f.listFiles();
+        assertNotNull(files);
+        int shardCount = 0;
+        for (File file : files) {
+            if (file.getPath().endsWith(DataSetShardFormat.SHARD_EXTENSION))
+                shardCount++;
+        }
+        assertTrue(String.valueOf(shardCount), shardCount > 1 && shardCount < 100);
+
+        double featureSum = 0.0;
+        double labelSum = 0.0;
+        int count = 0;
+        PathSparkDataSetIterator iter = new PathSparkDataSetIterator(paths);
+        while (iter.hasNext()) {
+            DataSet ds = iter.next();
+            assertEquals(minibatchSize, ds.numExamples());
+            assertEquals(nIn, ds.getFeatures().size(1));
+            assertEquals(nOut, ds.getLabels().size(1));
+            featureSum += ds.getFeatures().sumNumber().doubleValue();
+            labelSum += ds.getLabels().sumNumber().doubleValue();
+            count++;
+        }
+
+        assertEquals(100, count);
+        assertEquals(expFeatureSum, featureSum, 1e-3);
+        assertEquals(expLabelSum, labelSum, 1e-3);
+
+        FileUtils.deleteDirectory(f);
+    }
+
     @Test
     public void testBatchAndExportMultiDataSetsFunction() throws Exception {
         String baseDir = System.getProperty("java.io.tmpdir");
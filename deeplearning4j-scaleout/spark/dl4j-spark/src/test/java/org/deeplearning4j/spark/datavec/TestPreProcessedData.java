@@ -14,12 +14,14 @@ import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
 import org.deeplearning4j.nn.conf.Updater;
 import org.deeplearning4j.spark.BaseSparkTest;
 import org.deeplearning4j.spark.api.Repartition;
+import org.deeplearning4j.spark.api.stats.CommonSparkTrainingStats;
 import org.deeplearning4j.spark.api.stats.SparkTrainingStats;
 import org.deeplearning4j.spark.datavec.export.StringToDataSetExportFunction;
 import org.deeplearning4j.spark.impl.graph.SparkComputationGraph;
 import org.deeplearning4j.spark.impl.multilayer.SparkDl4jMultiLayer;
 import org.deeplearning4j.spark.impl.paramavg.ParameterAveragingTrainingMaster;
 import org.deeplearning4j.spark.iterator.PortableDataStreamDataSetIterator;
+import org.deeplearning4j.spark.stats.EventStats;
 import org.junit.Test;
 import org.nd4j.linalg.activations.Activation;
 import org.nd4j.linalg.api.ndarray.INDArray;
@@ -35,8 +37,7 @@ import java.net.URI;
 import java.util.ArrayList;
 import java.util.List;
 
-import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.*;
 
 /**
  * Created by Alex on 03/07/2016.
@@ -89,6 +90,53 @@ public class TestPreProcessedData extends BaseSparkTest {
         assertEquals(3, sts.getValue("ParameterAveragingMasterMapPartitionsTimesMs").size());
     }
 
+    @Test
+    public void testPreprocessedDataPortableDataStreamPrefetch() {
+        //Test training from PortableDataStreams, with the streams loaded in background threads
+        int dataSetObjSize = 5;
+        int batchSizePerExecutor = 10;
+
+        String path = FilenameUtils.concat(System.getProperty("java.io.tmpdir"), "dl4j_testpreprocdata_pds");
+        File f = new File(path);
+        if (f.exists())
+            f.delete();
+        f.mkdir();
+
+        DataSetIterator iter = new IrisDataSetIterator(5, 150);
+        int i = 0;
+        while (iter.hasNext()) {
+            File f2 = new File(FilenameUtils.concat(path, "data" + (i++) + ".bin"));
+            iter.next().save(f2);
+        }
+
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().updater(Updater.RMSPROP)
+                        .optimizationAlgo(OptimizationAlgorithm.STOCHASTIC_GRADIENT_DESCENT).iterations(1).list()
+                        .layer(0, new org.deeplearning4j.nn.conf.layers.DenseLayer.Builder().nIn(4).nOut(3)
+                                        .activation(Activation.TANH).build())
+                        .layer(1, new org.deeplearning4j.nn.conf.layers.OutputLayer.Builder(
+                                        LossFunctions.LossFunction.MCXENT).nIn(3).nOut(3).activation(Activation.SOFTMAX)
+                                                        .build())
+                        .pretrain(false).backprop(true).build();
+
+        SparkDl4jMultiLayer sparkNet = new SparkDl4jMultiLayer(sc, conf,
+                        new ParameterAveragingTrainingMaster.Builder(numExecutors(), dataSetObjSize)
+                                        .batchSizePerWorker(batchSizePerExecutor).averagingFrequency(1)
+                                        .workerPrefetchNumBatches(2).repartionData(Repartition.Always).build());
+        sparkNet.setCollectTrainingStats(true);
+        INDArray initialParams = sparkNet.getNetwork().params().dup();
+
+        JavaPairRDD<String, PortableDataStream> pds = sc.binaryFiles("file:///" + path.replaceAll("\\\\", "/"));
+        sparkNet.getTrainingMaster().executeTraining(sparkNet, pds);
+        assertNotEquals(initialParams, sparkNet.getNetwork().params());
+
+        SparkTrainingStats sts = sparkNet.getSparkTrainingStats();
+        List<EventStats> loadWait = sts.getValue(CommonSparkTrainingStats.WORKER_FLAT_MAP_PREFETCH_LOAD_WAIT_TIMES_MS);
+        assertFalse(loadWait.isEmpty());
+        //One load wait per DataSet object loaded, vs. one 'get DataSet' time per minibatch (2 DataSet objects)
+        int numGetDataSet = sts.getValue(CommonSparkTrainingStats.WORKER_FLAT_MAP_DATA_SET_GET_TIMES_MS).size();
+        assertTrue(loadWait.size() >= numGetDataSet);
+    }
+
     @Test
     public void testPreprocessedDataCompGraphDataSet() {
         //Test _loading_ of preprocessed DataSet data
@@ -19,6 +19,7 @@
 package org.deeplearning4j.spark.impl.paramavg;
 
 
+import org.apache.commons.io.FileUtils;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.LocatedFileStatus;
@@ -49,10 +50,16 @@ import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
 import org.deeplearning4j.nn.weights.WeightInit;
 import org.deeplearning4j.optimize.listeners.ScoreIterationListener;
 import org.deeplearning4j.spark.BaseSparkTest;
+import org.deeplearning4j.spark.api.ExportFormat;
 import org.deeplearning4j.spark.api.Repartition;
 import org.deeplearning4j.spark.api.stats.SparkTrainingStats;
+import org.deeplearning4j.spark.data.shard.DataSetShardFormat;
 import org.deeplearning4j.spark.impl.graph.SparkComputationGraph;
 import org.deeplearning4j.spark.impl.multilayer.SparkDl4jMultiLayer;
+import org.deeplearning4j.spark.impl.paramavg.compression.ParameterCodec;
+import org.deeplearning4j.spark.impl.paramavg.compression.ParameterCompression;
+import org.deeplearning4j.spark.impl.paramavg.stats.ParameterAveragingTrainingMasterStats;
+import org.deeplearning4j.spark.impl.paramavg.stats.ParameterAveragingTrainingWorkerStats;
 import org.deeplearning4j.spark.stats.EventStats;
 import org.deeplearning4j.spark.stats.ExampleCountEventStats;
 import org.junit.Test;
@@ -701,6 +708,208 @@ public class TestSparkMultiLayerParameterAveraging extends BaseSparkTest {
     }
 
 
+    @Test
+    public void testTreeAggregation() throws Exception {
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345).updater(Updater.RMSPROP)
+                        .optimizationAlgo(OptimizationAlgorithm.STOCHASTIC_GRADIENT_DESCENT).iterations(1)
+                        .weightInit(WeightInit.XAVIER).list()
+                        .layer(0, new org.deeplearning4j.nn.conf.layers.DenseLayer.Builder().nIn(4).nOut(4)
+                                        .activation(Activation.TANH).build())
+                        .layer(1, new org.deeplearning4j.nn.conf.layers.OutputLayer.Builder(
+                                        LossFunctions.LossFunction.MCXENT).nIn(4).nOut(3).activation(Activation.SOFTMAX)
+                                                        .build())
+                        .pretrain(false).backprop(true).build();
+
+        List<DataSet> data = new ArrayList<>();
+        DataSetIterator iter = new IrisDataSetIterator(1, 150);
+        while (iter.hasNext())
+            data.add(iter.next());
+        JavaRDD<DataSet> rdd = sc.parallelize(data);
+
+        INDArray[] params = new INDArray[2];
+        int[] depths = {1, 3};
+        for (int i = 0; i < depths.length; i++) {
+            Nd4j.getRandom().setSeed(12345);
+            MultiLayerNetwork net = new MultiLayerNetwork(conf.clone());
+            net.init();
+
+            SparkDl4jMultiLayer sparkNet = new SparkDl4jMultiLayer(sc, net,
+                            new ParameterAveragingTrainingMaster.Builder(numExecutors(), 1)
+                                            .batchSizePerWorker(5).averagingFrequency(2)
+                                            .repartionData(Repartition.Always).aggregationDepth(depths[i])
+                                            .rngSeed(12345).build());
+            sparkNet.setCollectTrainingStats(true);
+            sparkNet.fit(rdd);
+            params[i] = sparkNet.getNetwork().params();
+
+            ParameterAveragingTrainingMasterStats stats =
+                            (ParameterAveragingTrainingMasterStats) sparkNet.getSparkTrainingStats();
+            assertFalse(stats.getParamaterAveragingMasterAggregateTimesMs().isEmpty());
+            //Worker results are only materialized (and timed) separately for tree aggregation
+            assertEquals(depths[i] > 1, !stats.getParameterAveragingMasterWorkerResultsTimesMs().isEmpty());
+
+            sparkNet.getTrainingMaster().deleteTempFiles(sc);
+            Thread.sleep(100); //Training master IDs are only unique if they are created at least 1 ms apart...
+        }
+
+        //Same sums, in a different order
+        assertTrue(params[0].equalsWithEps(params[1], 1e-5));
+    }
+
+    @Test
+    public void testWorkerModelCaching() throws Exception {
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345).updater(Updater.RMSPROP)
+                        .optimizationAlgo(OptimizationAlgorithm.STOCHASTIC_GRADIENT_DESCENT).iterations(1)
+                        .weightInit(WeightInit.XAVIER).list()
+                        .layer(0, new org.deeplearning4j.nn.conf.layers.DenseLayer.Builder().nIn(4).nOut(4)
+                                        .activation(Activation.TANH).build())
+                        .layer(1, new org.deeplearning4j.nn.conf.layers.OutputLayer.Builder(
+                                        LossFunctions.LossFunction.MCXENT).nIn(4).nOut(3).activation(Activation.SOFTMAX)
+                                                        .build())
+                        .pretrain(false).backprop(true).build();
+
+        List<DataSet> data = new ArrayList<>();
+        DataSetIterator iter = new IrisDataSetIterator(1, 150);
+        while (iter.hasNext())
+            data.add(iter.next());
+        JavaRDD<DataSet> rdd = sc.parallelize(data);
+
+        INDArray[] params = new INDArray[2];
+        int[] iterationCounts = new int[2];
+        boolean[] caching = {false, true};
+        for (int i = 0; i < caching.length; i++) {
+            WorkerModelCache.clear();
+            Nd4j.getRandom().setSeed(12345);
+            MultiLayerNetwork net = new MultiLayerNetwork(conf.clone());
+            net.init();
+
+            SparkDl4jMultiLayer sparkNet = new SparkDl4jMultiLayer(sc, net,
+                            new ParameterAveragingTrainingMaster.Builder(numExecutors(), 1)
+                                            .batchSizePerWorker(5).averagingFrequency(2)
+                                            .repartionData(Repartition.Always).workerModelCaching(caching[i])
+                                            .rngSeed(12345).build());
+            //Multiple epochs: networks cached in the first are reused in the second
+            for (int epoch = 0; epoch < 2; epoch++)
+                sparkNet.fit(rdd);
+            params[i] = sparkNet.getNetwork().params();
+            iterationCounts[i] = sparkNet.getNetwork().getLayerWiseConfigurations().getIterationCount();
+
+            sparkNet.getTrainingMaster().deleteTempFiles(sc);
+            Thread.sleep(100); //Training master IDs are only unique if they are created at least 1 ms apart...
+        }
+        WorkerModelCache.clear();
+
+        assertEquals(iterationCounts[0], iterationCounts[1]);
+        assertTrue(params[0].equalsWithEps(params[1], 1e-5));
+    }
+
+    @Test
+    public void testParameterCompression() throws Exception {
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345).updater(Updater.RMSPROP)
+                        .optimizationAlgo(OptimizationAlgorithm.STOCHASTIC_GRADIENT_DESCENT).iterations(1)
+                        .weightInit(WeightInit.XAVIER).list()
+                        .layer(0, new org.deeplearning4j.nn.conf.layers.DenseLayer.Builder().nIn(4).nOut(4)
+                                        .activation(Activation.TANH).build())
+                        .layer(1, new org.deeplearning4j.nn.conf.layers.OutputLayer.Builder(
+                                        LossFunctions.LossFunction.MCXENT).nIn(4).nOut(3).activation(Activation.SOFTMAX)
+                                                        .build())
+                        .pretrain(false).backprop(true).build();
+
+        List<DataSet> data = new ArrayList<>();
+        DataSetIterator iter = new IrisDataSetIterator(1, 150);
+        while (iter.hasNext())
+            data.add(iter.next());
+        JavaRDD<DataSet> rdd = sc.parallelize(data);
+
+        ParameterCompression[] compressions = {ParameterCompression.None, ParameterCompression.FP16,
+                        ParameterCompression.Quantized8Bit, ParameterCompression.TopKSparse};
+        INDArray[] params = new INDArray[compressions.length];
+        for (int i = 0; i < compressions.length; i++) {
+            ParameterCodec.clearResiduals();
+            Nd4j.getRandom().setSeed(12345);
+            MultiLayerNetwork net = new MultiLayerNetwork(conf.clone());
+            net.init();
+            INDArray initialParams = net.params().dup();
+
+            SparkDl4jMultiLayer sparkNet = new SparkDl4jMultiLayer(sc, net,
+                            new ParameterAveragingTrainingMaster.Builder(numExecutors(), 1)
+                                            .batchSizePerWorker(5).averagingFrequency(2)
+                                            .repartionData(Repartition.Always).parameterCompression(compressions[i])
+                                            .compressionTopKFraction(0.25).rngSeed(12345).build());
+            sparkNet.setCollectTrainingStats(true);
+            sparkNet.fit(rdd);
+            params[i] = sparkNet.getNetwork().params().dup();
+            assertNotEquals(initialParams, params[i]);
+
+            ParameterAveragingTrainingMasterStats stats =
+                            (ParameterAveragingTrainingMasterStats) sparkNet.getSparkTrainingStats();
+            ParameterAveragingTrainingWorkerStats workerStats = (ParameterAveragingTrainingWorkerStats) stats
+                            .getWorkerStats().getNestedTrainingStats();
+            if (compressions[i] == ParameterCompression.None) {
+                assertTrue(stats.getParameterAveragingMasterDecodeTimesMs().isEmpty());
+                assertTrue(workerStats.getParameterAveragingWorkerEncodeTimesMs().isEmpty());
+            } else {
+                assertFalse(stats.getParameterAveragingMasterDecodeTimesMs().isEmpty());
+                assertFalse(workerStats.getParameterAveragingWorkerEncodeTimesMs().isEmpty());
+                assertTrue(workerStats.getCompressionRatio() > 1.5);
+            }
+
+            sparkNet.getTrainingMaster().deleteTempFiles(sc);
+            Thread.sleep(100); //Training master IDs are only unique if they are created at least 1 ms apart...
+        }
+        ParameterCodec.clearResiduals();
+
+        //FP16 deltas: close to the uncompressed result
+        assertTrue(params[0].equalsWithEps(params[1], 1e-2));
+    }
+
+    @Test
+    public void testExportFormatMemoryMapped() throws Exception {
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345).updater(Updater.RMSPROP)
+                        .optimizationAlgo(OptimizationAlgorithm.STOCHASTIC_GRADIENT_DESCENT).iterations(1)
+                        .weightInit(WeightInit.XAVIER).list()
+                        .layer(0, new org.deeplearning4j.nn.conf.layers.DenseLayer.Builder().nIn(4).nOut(4)
+                                        .activation(Activation.TANH).build())
+                        .layer(1, new org.deeplearning4j.nn.conf.layers.OutputLayer.Builder(
+                                        LossFunctions.LossFunction.MCXENT).nIn(4).nOut(3).activation(Activation.SOFTMAX)
+                                                        .build())
+                        .pretrain(false).backprop(true).build();
+
+        List<DataSet> data = new ArrayList<>();
+        DataSetIterator iter = new IrisDataSetIterator(1, 150);
+        while (iter.hasNext())
+            data.add(iter.next());
+        JavaRDD<DataSet> rdd = sc.parallelize(data);
+
+        File temp = Files.createTempDirectory("DL4J-testExportFormatMemoryMapped").toFile();
+        temp.deleteOnExit();
+        String exportDir = temp.toURI().toString();
+
+        MultiLayerNetwork net = new MultiLayerNetwork(conf);
+        net.init();
+        INDArray initialParams = net.params().dup();
+
+        SparkDl4jMultiLayer sparkNet = new SparkDl4jMultiLayer(sc, net,
+                        new ParameterAveragingTrainingMaster.Builder(numExecutors(), 1).batchSizePerWorker(5)
+                                        .averagingFrequency(2).repartionData(Repartition.Always)
+                                        .exportDirectory(exportDir).exportFormat(ExportFormat.MemoryMapped)
+                                        .rngSeed(12345).build());
+        sparkNet.fit(rdd);
+        assertNotEquals(initialParams, sparkNet.getNetwork().params());
+
+        //Exported data: shard files only
+        int shardCount = 0;
+        for (File f : FileUtils.listFiles(temp, null, true)) {
+            assertFalse(f.getName(), f.getName().endsWith(".bin"));
+            if (f.getName().endsWith(DataSetShardFormat.SHARD_EXTENSION))
+                shardCount++;
+        }
+        assertTrue(shardCount > 0);
+
+        sparkNet.getTrainingMaster().deleteTempFiles(sc);
+        FileUtils.deleteDirectory(temp);
+    }
+
     @Test
     public void testIterationCounts() throws Exception {
         int dataSetObjSize = 5;
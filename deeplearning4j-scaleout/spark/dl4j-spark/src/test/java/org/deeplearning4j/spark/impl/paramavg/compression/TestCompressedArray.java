@@ -0,0 +1,115 @@
+package org.deeplearning4j.spark.impl.paramavg.compression;
+
+import org.deeplearning4j.util.HalfPrecisionUtil;
+import org.junit.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.ops.transforms.Transforms;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import static org.junit.Assert.*;
+
+public class TestCompressedArray {
+
+    @Test
+    public void testFP16RoundTrip() {
+        float[] values = {0.0f, 1.0f, -1.0f, 0.5f, 65504.0f, -2.0f, 1e-5f, 3.14159f, 1e-10f, 65519.0f, -65519.0f,
+                        65520.0f, -65520.0f, 70000.0f, 1e6f, Float.NaN};
+        CompressedArray fp16 = CompressedArray.encode(Nd4j.create(values), ParameterCompression.FP16, 0.0);
+        INDArray decoded = fp16.decode();
+
+        //Same conversion (and overflow policy) as half precision model serialization
+        for (int i = 0; i < values.length; i++) {
+            float expected = HalfPrecisionUtil.toFloat(HalfPrecisionUtil.toHalf(values[i]));
+            assertEquals(Float.floatToIntBits(expected), Float.floatToIntBits(decoded.getFloat(i)));
+        }
+
+        for (int i = 0; i < 8; i++)
+            assertEquals(values[i], decoded.getFloat(i), Math.abs(values[i]) * 1e-3 + 1e-7);
+        assertEquals(0.0f, decoded.getFloat(8), 0.0f);
+        assertEquals(65504.0f, decoded.getFloat(9), 0.0f);
+        assertEquals(-65504.0f, decoded.getFloat(10), 0.0f);
+        assertEquals(Float.POSITIVE_INFINITY, decoded.getFloat(11), 0.0f);
+        assertEquals(Float.NEGATIVE_INFINITY, decoded.getFloat(12), 0.0f);
+        assertEquals(Float.POSITIVE_INFINITY, decoded.getFloat(13), 0.0f);
+        assertEquals(Float.POSITIVE_INFINITY, decoded.getFloat(14), 0.0f);
+        assertTrue(Float.isNaN(decoded.getFloat(15)));
+    }
+
+    @Test
+    public void testEncodeDecode() throws Exception {
+        Nd4j.getRandom().setSeed(12345);
+        INDArray arr = Nd4j.randn(1, 5000);
+        double maxAbs = Transforms.abs(arr).maxNumber().doubleValue();
+
+        //FP16: small relative error
+        CompressedArray fp16 = CompressedArray.encode(arr, ParameterCompression.FP16, 0.0);
+        assertEquals(2L * 5000, fp16.getEncodedSizeBytes());
+        assertTrue(arr.equalsWithEps(fp16.decode(), 1e-2));
+
+        //8 bit: error of at most half a quantization step
+        CompressedArray q = CompressedArray.encode(arr, ParameterCompression.Quantized8Bit, 0.0);
+        assertEquals(5000L + 4 * 5, q.getEncodedSizeBytes());
+        double maxError = Transforms.abs(arr.sub(q.decode())).maxNumber().doubleValue();
+        assertTrue(maxError <= 0.5 * maxAbs / 127 + 1e-6);
+
+        //Top K: exactly the largest 10% of the values are kept
+        CompressedArray topK = CompressedArray.encode(arr, ParameterCompression.TopKSparse, 0.1);
+        assertEquals(8L * 500, topK.getEncodedSizeBytes());
+        INDArray decoded = topK.decode();
+        double minKept = Double.MAX_VALUE;
+        double maxDropped = 0.0;
+        int nonZero = 0;
+        for (int i = 0; i < arr.length(); i++) {
+            double d = decoded.getDouble(i);
+            if (d != 0.0) {
+                nonZero++;
+                assertEquals(arr.getDouble(i), d, 1e-6);
+                minKept = Math.min(minKept, Math.abs(d));
+            } else {
+                maxDropped = Math.max(maxDropped, Math.abs(arr.getDouble(i)));
+            }
+        }
+        assertEquals(500, nonZero);
+        assertTrue(minKept >= maxDropped);
+
+        //Decoding after serialization, and adding to an existing array
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ObjectOutputStream oos = new ObjectOutputStream(baos);
+        oos.writeObject(q);
+        oos.close();
+        ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray()));
+        CompressedArray deserialized = (CompressedArray) ois.readObject();
+        INDArray target = arr.dup();
+        deserialized.addTo(target);
+        assertTrue(target.equalsWithEps(arr.mul(2), 0.05));
+        deserialized.subtractFrom(target);
+        assertTrue(target.equalsWithEps(arr, 1e-5));
+    }
+
+    @Test
+    public void testErrorFeedback() {
+        ParameterCodec.clearResiduals();
+        ParameterCodec codec = new ParameterCodec(ParameterCompression.TopKSparse, 0.1, "testSession");
+
+        Nd4j.getRandom().setSeed(12345);
+        INDArray initial = Nd4j.zeros(1, 1000);
+        INDArray delta = Nd4j.rand(1, 1000);
+
+        //Sum of the transmitted deltas converges to the sum of the actual deltas
+        INDArray transmitted = Nd4j.zeros(1, 1000);
+        int nRounds = 100;
+        for (int i = 0; i < nRounds; i++)
+            codec.encodeDelta(delta, initial, false).addTo(transmitted);
+
+        INDArray expected = delta.mul(nRounds);
+        double relError = Transforms.abs(expected.sub(transmitted)).sumNumber().doubleValue()
+                        / expected.sumNumber().doubleValue();
+        assertTrue(String.valueOf(relError), relError < 0.1);
+        ParameterCodec.clearResiduals();
+    }
+}
@@ -0,0 +1,126 @@
+package org.deeplearning4j.spark.iterator;
+
+import org.deeplearning4j.spark.stats.EventStats;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class TestPrefetchingIterator {
+
+    @Test
+    public void testOrderAndPrefetchLimit() {
+        List<Integer> source = new ArrayList<>();
+        for (int i = 0; i < 50; i++)
+            source.add(i);
+
+        final int prefetchCount = 3;
+        final AtomicInteger maxOutstanding = new AtomicInteger();
+        final AtomicInteger started = new AtomicInteger();
+        final AtomicInteger returned = new AtomicInteger();
+
+        PrefetchingIterator<Integer, Integer> iter = new PrefetchingIterator<Integer, Integer>(source.iterator(),
+                        prefetchCount, Long.MAX_VALUE, true) {
+                            @Override
+                            protected Integer load(Integer element) throws IOException {
+                                int outstanding = started.incrementAndGet() - returned.get();
+                                synchronized (maxOutstanding) {
+                                    maxOutstanding.set(Math.max(maxOutstanding.get(), outstanding));
+                                }
+                                try {
+                                    Thread.sleep(2);
+                                } catch (InterruptedException e) {
+                                    throw new RuntimeException(e);
+                                }
+                                return 10 * element;
+                            }
+
+                            @Override
+                            protected long sizeBytes(Integer loaded) {
+                                return 4;
+                            }
+                        };
+
+        try {
+            int count = 0;
+            while (iter.hasNext()) {
+                assertEquals(10 * count, (int) iter.next());
+                returned.incrementAndGet();
+                count++;
+            }
+            assertEquals(50, count);
+            //Loaded ahead of time, plus the element being returned by next()
+            assertTrue(String.valueOf(maxOutstanding.get()), maxOutstanding.get() <= prefetchCount + 1);
+
+            List<EventStats> waitTimes = iter.getLoadWaitTimes();
+            assertEquals(50, waitTimes.size());
+            for (EventStats e : waitTimes)
+                assertTrue(e.getDurationMs() >= 0);
+        } finally {
+            iter.shutdown();
+        }
+    }
+
+    @Test
+    public void testMemoryLimit() throws Exception {
+        List<Integer> source = new ArrayList<>();
+        for (int i = 0; i < 10; i++)
+            source.add(i);
+
+        final AtomicInteger started = new AtomicInteger();
+        //Each element is larger than the limit: only one element is loaded at a time
+        PrefetchingIterator<Integer, Integer> iter =
+                        new PrefetchingIterator<Integer, Integer>(source.iterator(), 5, 100, false) {
+                            @Override
+                            protected Integer load(Integer element) throws IOException {
+                                started.incrementAndGet();
+                                return element;
+                            }
+
+                            @Override
+                            protected long sizeBytes(Integer loaded) {
+                                return 1000;
+                            }
+                        };
+
+        try {
+            Thread.sleep(100);
+            assertEquals(1, started.get());
+            int count = 0;
+            while (iter.hasNext()) {
+                assertEquals(count++, (int) iter.next());
+            }
+            assertEquals(10, count);
+            assertNull(iter.getLoadWaitTimes());
+        } finally {
+            iter.shutdown();
+        }
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testLoadException() {
+        List<Integer> source = new ArrayList<>();
+        source.add(0);
+        PrefetchingIterator<Integer, Integer> iter =
+                        new PrefetchingIterator<Integer, Integer>(source.iterator(), 2, Long.MAX_VALUE, false) {
+                            @Override
+                            protected Integer load(Integer element) throws IOException {
+                                throw new IOException("Test exception");
+                            }
+
+                            @Override
+                            protected long sizeBytes(Integer loaded) {
+                                return 0;
+                            }
+                        };
+        try {
+            iter.next();
+        } finally {
+            iter.shutdown();
+        }
+    }
+}